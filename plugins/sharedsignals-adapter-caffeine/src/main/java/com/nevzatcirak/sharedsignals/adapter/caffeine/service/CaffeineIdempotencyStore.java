@@ -0,0 +1,66 @@
+package com.nevzatcirak.sharedsignals.adapter.caffeine.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nevzatcirak.sharedsignals.api.spi.IdempotencyStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * In-memory recent-key window in front of a persistent {@link IdempotencyStore}.
+ * <p>
+ * Completed keys seen by this node are answered from memory, so the common case of a
+ * producer retrying within seconds never reaches the database. Unknown keys and claims
+ * are always delegated, which keeps the persistent store authoritative across the cluster.
+ */
+public class CaffeineIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyStore delegate;
+    private final Cache<String, Integer> recentOutcomes;
+
+    public CaffeineIdempotencyStore(IdempotencyStore delegate, long maximumSize, Duration window) {
+        this.delegate = delegate;
+        this.recentOutcomes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public boolean tryClaim(String key, Instant leaseUntil) {
+        if (recentOutcomes.getIfPresent(key) != null) {
+            return false;
+        }
+        return delegate.tryClaim(key, leaseUntil);
+    }
+
+    @Override
+    public Optional<Integer> findOutcome(String key) {
+        Integer cached = recentOutcomes.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Integer> outcome = delegate.findOutcome(key);
+        outcome.ifPresent(count -> recentOutcomes.put(key, count));
+        return outcome;
+    }
+
+    @Override
+    public void complete(String key, int fanOut, Instant expiresAt) {
+        delegate.complete(key, fanOut, expiresAt);
+        recentOutcomes.put(key, fanOut);
+    }
+
+    @Override
+    public void release(String key) {
+        recentOutcomes.invalidate(key);
+        delegate.release(key);
+    }
+
+    @Override
+    public int deleteExpired(Instant now) {
+        return delegate.deleteExpired(now);
+    }
+}
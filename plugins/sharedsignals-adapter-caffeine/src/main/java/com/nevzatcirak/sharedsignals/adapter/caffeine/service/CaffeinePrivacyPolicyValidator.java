@@ -0,0 +1,188 @@
+package com.nevzatcirak.sharedsignals.adapter.caffeine.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.spi.PrivacyPolicyValidator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * In-memory cache of privacy decisions in front of a {@link PrivacyPolicyValidator}.
+ * <p>
+ * The publisher asks for the subject identifier and consent decisions once per stream of every
+ * event; real validators answer them from a consent service. Decisions are cached per (subject,
+ * receiver audience) for a fixed time, where the subject is its fingerprint or, for validators
+ * that decide on the identifier format alone, its format. Decisions for a whole fan-out are
+ * loaded in one bulk call to the delegate ({@link #prefetch}).
+ * <p>
+ * Consent changes are picked up after the TTL, or immediately through {@link #invalidateSubject},
+ * {@link #invalidateReceiver} or {@link #invalidateAll}. Event sharing decisions depend on the
+ * event payload and are always delegated.
+ */
+public class CaffeinePrivacyPolicyValidator implements PrivacyPolicyValidator {
+
+    /**
+     * What identifies the subject in a cached decision.
+     */
+    public enum SubjectKey {
+        /** The subject's fingerprint: one decision per subject and receiver. */
+        SUBJECT,
+        /** The subject's format: one decision per format and receiver. */
+        FORMAT;
+
+        public static SubjectKey fromValue(String value) {
+            return "format".equalsIgnoreCase(value) ? FORMAT : SUBJECT;
+        }
+    }
+
+    private enum Kind { IDENTIFIER, CONSENT }
+
+    private record Decision(Kind kind, String subject, String audience) {
+    }
+
+    private final PrivacyPolicyValidator delegate;
+    private final SubjectKey subjectKey;
+    private final Cache<Decision, Object> decisions;
+
+    public CaffeinePrivacyPolicyValidator(PrivacyPolicyValidator delegate, long maximumSize, Duration ttl, SubjectKey subjectKey) {
+        this.delegate = delegate;
+        this.subjectKey = subjectKey;
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public PrivacyValidationResult validateEventSharing(String streamId, Map<String, Object> subject, String eventTypeUri,
+                                                        Map<String, Object> eventDetails, String receiverAudience) {
+        return delegate.validateEventSharing(streamId, subject, eventTypeUri, eventDetails, receiverAudience);
+    }
+
+    @Override
+    public PrivacyValidationResult validateSubjectIdentifier(Map<String, Object> subject, String receiverAudience) {
+        return validateSubjectIdentifier(SubjectId.of(subject), receiverAudience);
+    }
+
+    @Override
+    public boolean hasConsentToShareWithReceiver(Map<String, Object> subject, String receiverAudience) {
+        return hasConsentToShareWithReceiver(SubjectId.of(subject), receiverAudience);
+    }
+
+    @Override
+    public PrivacyValidationResult validateSubjectIdentifier(SubjectId subject, String receiverAudience) {
+        return (PrivacyValidationResult) decisions.get(decision(Kind.IDENTIFIER, subject, receiverAudience),
+                key -> delegate.validateSubjectIdentifier(subject, receiverAudience));
+    }
+
+    @Override
+    public boolean hasConsentToShareWithReceiver(SubjectId subject, String receiverAudience) {
+        return (Boolean) decisions.get(decision(Kind.CONSENT, subject, receiverAudience),
+                key -> delegate.hasConsentToShareWithReceiver(subject, receiverAudience));
+    }
+
+    @Override
+    public void prefetch(SubjectId subject, Collection<String> receiverAudiences) {
+        Set<String> audiences = new LinkedHashSet<>(receiverAudiences);
+        audiences.remove(null);
+        if (audiences.isEmpty()) {
+            return;
+        }
+        decisions.getAll(decisionsFor(Kind.IDENTIFIER, subject, audiences), missing -> {
+            Map<Decision, Object> loaded = new HashMap<>();
+            delegate.validateSubjectIdentifier(subject, audiencesOf(missing))
+                    .forEach((audience, result) -> loaded.put(decision(Kind.IDENTIFIER, subject, audience), result));
+            return loaded;
+        });
+        decisions.getAll(decisionsFor(Kind.CONSENT, subject, audiences), missing -> {
+            Map<Decision, Object> loaded = new HashMap<>();
+            delegate.hasConsentToShareWithReceivers(subject, audiencesOf(missing))
+                    .forEach((audience, consent) -> loaded.put(decision(Kind.CONSENT, subject, audience), consent));
+            return loaded;
+        });
+    }
+
+    /**
+     * Drops the cached decisions about a subject, e.g. after its consent changed.
+     */
+    public void invalidateSubject(SubjectId subject) {
+        String key = subjectKey(subject);
+        decisions.asMap().keySet().removeIf(decision -> decision.subject().equals(key));
+    }
+
+    /**
+     * Drops the cached decisions for a receiver, e.g. after its data sharing agreement changed.
+     */
+    public void invalidateReceiver(String receiverAudience) {
+        decisions.asMap().keySet().removeIf(decision -> Objects.equals(decision.audience(), receiverAudience));
+    }
+
+    public void invalidateAll() {
+        decisions.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return stats().missCount();
+    }
+
+    /**
+     * @return the number of delegate calls made to fill the cache (a bulk call counts once)
+     */
+    public long getLoadCount() {
+        CacheStats stats = stats();
+        return stats.loadSuccessCount() + stats.loadFailureCount();
+    }
+
+    /**
+     * @return the total time spent in the delegate, in nanoseconds
+     */
+    public long getTotalLoadTimeNanos() {
+        return stats().totalLoadTime();
+    }
+
+    private CacheStats stats() {
+        return decisions.stats();
+    }
+
+    private Decision decision(Kind kind, SubjectId subject, String audience) {
+        return new Decision(kind, subjectKey(subject), audience);
+    }
+
+    private List<Decision> decisionsFor(Kind kind, SubjectId subject, Set<String> audiences) {
+        List<Decision> keys = new ArrayList<>(audiences.size());
+        for (String audience : audiences) {
+            keys.add(decision(kind, subject, audience));
+        }
+        return keys;
+    }
+
+    private static List<String> audiencesOf(Set<? extends Decision> missing) {
+        List<String> audiences = new ArrayList<>(missing.size());
+        for (Decision decision : missing) {
+            audiences.add(decision.audience());
+        }
+        return audiences;
+    }
+
+    private String subjectKey(SubjectId subject) {
+        if (subjectKey == SubjectKey.FORMAT) {
+            return String.valueOf(subject.getFormat());
+        }
+        return subject.fingerprint();
+    }
+}
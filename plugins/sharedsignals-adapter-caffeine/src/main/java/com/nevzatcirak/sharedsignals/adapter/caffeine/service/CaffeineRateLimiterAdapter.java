@@ -1,6 +1,7 @@
 package com.nevzatcirak.sharedsignals.adapter.caffeine.service;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nevzatcirak.sharedsignals.api.model.RateLimitPolicy;
 import com.nevzatcirak.sharedsignals.api.model.RateLimitResult;
 import com.nevzatcirak.sharedsignals.api.spi.RateLimiter;
 import io.github.bucket4j.Bandwidth;
@@ -16,7 +17,7 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * In-Memory Rate Limiter implementation using Caffeine Cache.
- * Limits are configurable via application properties.
+ * Limits are configurable via application properties; tiers get their own bucket per client.
  */
 @Component
 public class CaffeineRateLimiterAdapter implements RateLimiter {
@@ -24,19 +25,15 @@ public class CaffeineRateLimiterAdapter implements RateLimiter {
     // Cache to store token buckets associated with a key (IP or ClientID)
     private final Map<String, LocalBucket> buckets;
 
-    // Configuration Fields
-    private final long capacity;
-    private final long refillTokens;
-    private final Duration refillDuration;
+    // Default tier, from the configuration
+    private final RateLimitPolicy defaultPolicy;
 
     public CaffeineRateLimiterAdapter(
             @Value("${sharedsignals.ratelimit.capacity:100}") long capacity,
             @Value("${sharedsignals.ratelimit.refill-tokens:100}") long refillTokens,
             @Value("${sharedsignals.ratelimit.refill-duration-seconds:60}") long refillDurationSeconds
     ) {
-        this.capacity = capacity;
-        this.refillTokens = refillTokens;
-        this.refillDuration = Duration.ofSeconds(refillDurationSeconds);
+        this.defaultPolicy = new RateLimitPolicy("default", capacity, refillTokens, Duration.ofSeconds(refillDurationSeconds));
 
         this.buckets = Caffeine.newBuilder()
                 .maximumSize(10_000)
@@ -47,9 +44,14 @@ public class CaffeineRateLimiterAdapter implements RateLimiter {
 
     @Override
     public RateLimitResult tryConsume(String key) {
-        LocalBucket bucket = buckets.computeIfAbsent(key, this::createNewBucket);
+        return tryConsume(key, 1, defaultPolicy);
+    }
+
+    @Override
+    public RateLimitResult tryConsume(String key, long tokens, RateLimitPolicy policy) {
+        LocalBucket bucket = buckets.computeIfAbsent(policy.bucketKey(key), k -> createNewBucket(policy));
 
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(tokens);
 
         if (probe.isConsumed()) {
             return RateLimitResult.success(probe.getRemainingTokens());
@@ -59,14 +61,19 @@ public class CaffeineRateLimiterAdapter implements RateLimiter {
         }
     }
 
-    private LocalBucket createNewBucket(String key) {
+    @Override
+    public void forceConsume(String key, long tokens, RateLimitPolicy policy) {
+        buckets.computeIfAbsent(policy.bucketKey(key), k -> createNewBucket(policy)).consumeIgnoringRateLimits(tokens);
+    }
+
+    private LocalBucket createNewBucket(RateLimitPolicy policy) {
         Bandwidth limit = Bandwidth.builder()
-                .capacity(this.capacity)
-                .refillGreedy(this.refillTokens, this.refillDuration)
+                .capacity(policy.getCapacity())
+                .refillGreedy(policy.getRefillTokens(), policy.getRefillDuration())
                 .build();
 
         return Bucket.builder()
                 .addLimit(limit)
                 .build();
     }
-}
\ No newline at end of file
+}
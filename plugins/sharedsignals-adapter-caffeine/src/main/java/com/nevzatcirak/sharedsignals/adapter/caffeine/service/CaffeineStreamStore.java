@@ -0,0 +1,336 @@
+package com.nevzatcirak.sharedsignals.adapter.caffeine.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.model.InactiveStream;
+import com.nevzatcirak.sharedsignals.api.model.RemovedSubject;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache of stream configurations in front of a persistent {@link StreamStore}.
+ * <p>
+ * {@link #findById} is served from an in-memory snapshot. Snapshots are private copies and every
+ * read returns a fresh copy, so callers that modify the returned configuration never affect the cache.
+ * Writes made through this store invalidate the stream on this node. Writes made on other nodes are
+ * picked up by revalidation: once a snapshot is older than the revalidation interval, the next read
+ * compares its {@code opt_lock_version} with the store and reloads it if the version has changed.
+ * <p>
+ * All other operations are delegated unchanged.
+ */
+public class CaffeineStreamStore implements StreamStore {
+
+    private final StreamStore delegate;
+    private final Cache<String, Snapshot> snapshots;
+    private final long revalidateAfterNanos;
+
+    public CaffeineStreamStore(StreamStore delegate, long maximumSize, Duration timeToLive, Duration revalidateAfter) {
+        this.delegate = delegate;
+        this.revalidateAfterNanos = revalidateAfter.toNanos();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    @Override
+    public Optional<StreamConfiguration> findById(String streamId) {
+        Snapshot cached = snapshots.getIfPresent(streamId);
+        if (cached != null) {
+            long now = System.nanoTime();
+            if (now - cached.validatedAt() < revalidateAfterNanos) {
+                return Optional.of(copyOf(cached.config()));
+            }
+            Optional<Long> version = delegate.findVersion(streamId);
+            if (version.isPresent() && Objects.equals(version.get(), cached.version())) {
+                snapshots.asMap().replace(streamId, cached, new Snapshot(cached.config(), cached.version(), now));
+                return Optional.of(copyOf(cached.config()));
+            }
+        }
+        return load(streamId);
+    }
+
+    private Optional<StreamConfiguration> load(String streamId) {
+        // Read the version first: a concurrent update then leaves an older version on the
+        // snapshot, which only causes one extra reload on the next revalidation.
+        Long version = delegate.findVersion(streamId).orElse(null);
+        Optional<StreamConfiguration> loaded = delegate.findById(streamId);
+        if (loaded.isEmpty()) {
+            snapshots.invalidate(streamId);
+            return loaded;
+        }
+        if (version != null) {
+            snapshots.put(streamId, new Snapshot(copyOf(loaded.get()), version, System.nanoTime()));
+        }
+        return loaded;
+    }
+
+    @Override
+    public StreamConfiguration save(StreamConfiguration stream) {
+        try {
+            return delegate.save(stream);
+        } finally {
+            invalidate(stream.getStream_id());
+        }
+    }
+
+    @Override
+    public void deleteById(String streamId) {
+        try {
+            delegate.deleteById(streamId);
+        } finally {
+            invalidate(streamId);
+        }
+    }
+
+    @Override
+    public void updateAuthorizedEvents(String streamId, Set<String> authorizedEvents) {
+        try {
+            delegate.updateAuthorizedEvents(streamId, authorizedEvents);
+        } finally {
+            invalidate(streamId);
+        }
+    }
+
+    @Override
+    public void updateStreamMode(String streamId, boolean processAllSubjects) {
+        try {
+            delegate.updateStreamMode(streamId, processAllSubjects);
+        } finally {
+            invalidate(streamId);
+        }
+    }
+
+    @Override
+    public void updateEventPriorities(String streamId, Map<String, EventPriority> priorities) {
+        try {
+            delegate.updateEventPriorities(streamId, priorities);
+        } finally {
+            invalidate(streamId);
+        }
+    }
+
+    @Override
+    public void updateCoalescedEvents(String streamId, Set<String> eventTypes) {
+        try {
+            delegate.updateCoalescedEvents(streamId, eventTypes);
+        } finally {
+            invalidate(streamId);
+        }
+    }
+
+    @Override
+    public boolean recordStreamActivity(Map<String, Instant> lastActivity) {
+        return delegate.recordStreamActivity(lastActivity);
+    }
+
+    @Override
+    public Optional<List<InactiveStream>> findInactiveStreams(Instant now, InactiveStream after, int limit) {
+        return delegate.findInactiveStreams(now, after, limit);
+    }
+
+    private void invalidate(String streamId) {
+        if (streamId != null) {
+            snapshots.invalidate(streamId);
+        }
+    }
+
+    // --- Delegated operations ---
+
+    @Override
+    public Optional<Long> findVersion(String streamId) {
+        return delegate.findVersion(streamId);
+    }
+
+    @Override
+    public List<StreamConfiguration> findByAudience(String audience) {
+        return delegate.findByAudience(audience);
+    }
+
+    @Override
+    public List<StreamConfiguration> findStreamsBySubject(Map<String, Object> subject) {
+        return delegate.findStreamsBySubject(subject);
+    }
+
+    @Override
+    public List<StreamConfiguration> findSubscribedStreamsBySubject(Map<String, Object> subject) {
+        return delegate.findSubscribedStreamsBySubject(subject);
+    }
+
+    @Override
+    public List<StreamConfiguration> findStreamsBySubject(SubjectId subject) {
+        return delegate.findStreamsBySubject(subject);
+    }
+
+    @Override
+    public List<StreamConfiguration> findSubscribedStreamsBySubject(SubjectId subject) {
+        return delegate.findSubscribedStreamsBySubject(subject);
+    }
+
+    @Override
+    public List<StreamConfiguration> findBroadcastStreams() {
+        return delegate.findBroadcastStreams();
+    }
+
+    @Override
+    public void updateSubjectStatus(String streamId, String subjectHash, SubjectStatus status) {
+        delegate.updateSubjectStatus(streamId, subjectHash, status);
+    }
+
+    @Override
+    public void addSubject(String streamId, Map<String, Object> subject, boolean verified) {
+        delegate.addSubject(streamId, subject, verified);
+    }
+
+    @Override
+    public void addSubject(String streamId, SubjectId subject, boolean verified) {
+        delegate.addSubject(streamId, subject, verified);
+    }
+
+    @Override
+    public void removeSubject(String streamId, Map<String, Object> subject) {
+        delegate.removeSubject(streamId, subject);
+    }
+
+    @Override
+    public void removeSubject(String streamId, SubjectId subject) {
+        delegate.removeSubject(streamId, subject);
+    }
+
+    @Override
+    public boolean isSubjectRegistered(String streamId, Map<String, Object> subject) {
+        return delegate.isSubjectRegistered(streamId, subject);
+    }
+
+    @Override
+    public boolean isSubjectRegistered(String streamId, SubjectId subject) {
+        return delegate.isSubjectRegistered(streamId, subject);
+    }
+
+    @Override
+    public boolean isSubjectApproved(String streamId, Map<String, Object> subject) {
+        return delegate.isSubjectApproved(streamId, subject);
+    }
+
+    @Override
+    public boolean isSubjectApproved(String streamId, SubjectId subject) {
+        return delegate.isSubjectApproved(streamId, subject);
+    }
+
+    @Override
+    public boolean isSubjectInGracePeriod(String streamId, Map<String, Object> subject) {
+        return delegate.isSubjectInGracePeriod(streamId, subject);
+    }
+
+    @Override
+    public boolean isSubjectInGracePeriod(String streamId, SubjectId subject) {
+        return delegate.isSubjectInGracePeriod(streamId, subject);
+    }
+
+    @Override
+    public Optional<List<RemovedSubject>> findRemovedSubjectsSince(Instant removedSince) {
+        return delegate.findRemovedSubjectsSince(removedSince);
+    }
+
+    @Override
+    public void deleteByGracePeriodExpiresAtBefore(Instant expiryTime) {
+        delegate.deleteByGracePeriodExpiresAtBefore(expiryTime);
+    }
+
+    @Override
+    public void saveEvent(String streamId, String jti, String setToken) {
+        delegate.saveEvent(streamId, jti, setToken);
+    }
+
+    @Override
+    public void saveEvent(String streamId, String jti, String setToken, EventPriority priority) {
+        delegate.saveEvent(streamId, jti, setToken, priority);
+    }
+
+    @Override
+    public void saveEvent(String streamId, String jti, String setToken, EventPriority priority, String coalesceKey) {
+        delegate.saveEvent(streamId, jti, setToken, priority, coalesceKey);
+    }
+
+    @Override
+    public Map<String, String> fetchEvents(String streamId, int maxEvents) {
+        return delegate.fetchEvents(streamId, maxEvents);
+    }
+
+    @Override
+    public void acknowledgeEvents(String streamId, List<String> jtis) {
+        delegate.acknowledgeEvents(streamId, jtis);
+    }
+
+    @Override
+    public boolean hasMoreEvents(String streamId) {
+        return delegate.hasMoreEvents(streamId);
+    }
+
+    @Override
+    public void deleteByAcknowledgedTrueAndAcknowledgedAtBefore(Instant before) {
+        delegate.deleteByAcknowledgedTrueAndAcknowledgedAtBefore(before);
+    }
+
+    @Override
+    public long countUnacknowledgedEvents(String streamId) {
+        return delegate.countUnacknowledgedEvents(streamId);
+    }
+
+    @Override
+    public long getEventCount() {
+        return delegate.getEventCount();
+    }
+
+    private static StreamConfiguration copyOf(StreamConfiguration source) {
+        StreamConfiguration copy = new StreamConfiguration();
+        copy.setStream_id(source.getStream_id());
+        copy.setIss(source.getIss());
+        copy.setAud(copyOf(source.getAud()));
+        if (source.getDelivery() != null) {
+            StreamDelivery delivery = new StreamDelivery();
+            delivery.setMethod(source.getDelivery().getMethod());
+            delivery.setEndpoint_url(source.getDelivery().getEndpoint_url());
+            delivery.setAuthorization_header(source.getDelivery().getAuthorization_header());
+            copy.setDelivery(delivery);
+        }
+        copy.setEvents_supported(copyOf(source.getEvents_supported()));
+        copy.setEvents_requested(copyOf(source.getEvents_requested()));
+        copy.setEvents_delivered(copyOf(source.getEvents_delivered()));
+        copy.setMin_verification_interval(source.getMin_verification_interval());
+        copy.setDescription(source.getDescription());
+        copy.setInactivity_timeout(source.getInactivity_timeout());
+        copy.setStatus(source.getStatus());
+        copy.setReason(source.getReason());
+        copy.setProcessAllSubjects(source.isProcessAllSubjects());
+        if (source.getEventPriorities() != null) {
+            copy.setEventPriorities(new LinkedHashMap<>(source.getEventPriorities()));
+        }
+        if (source.getCoalescedEvents() != null) {
+            copy.setCoalescedEvents(new LinkedHashSet<>(source.getCoalescedEvents()));
+        }
+        return copy;
+    }
+
+    private static List<String> copyOf(List<String> source) {
+        return source == null ? null : new ArrayList<>(source);
+    }
+
+    private record Snapshot(StreamConfiguration config, Long version, long validatedAt) {
+    }
+}
@@ -1,7 +1,9 @@
 package com.nevzatcirak.sharedsignals.adapter.rest.controller;
 
-import com.nevzatcirak.sharedsignals.adapter.rest.mapper.RestRequestMapper;
+import com.nevzatcirak.sharedsignals.adapter.rest.mapper.RestIngestRequestDecoder;
 import com.nevzatcirak.sharedsignals.adapter.rest.model.RestIngestRequest;
+import com.nevzatcirak.sharedsignals.api.constant.SecurityConstants;
+import com.nevzatcirak.sharedsignals.api.facade.AuthFacade;
 import com.nevzatcirak.sharedsignals.api.model.GenericSecurityEvent;
 import com.nevzatcirak.sharedsignals.api.service.EventIngestionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,10 +13,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -29,11 +34,13 @@ import java.util.concurrent.CompletableFuture;
 public class IngestionController {
 
     private final EventIngestionService ingestionService;
-    private final RestRequestMapper mapper;
+    private final RestIngestRequestDecoder decoder;
+    private final AuthFacade authFacade;
 
-    public IngestionController(EventIngestionService ingestionService, RestRequestMapper mapper) {
+    public IngestionController(EventIngestionService ingestionService, RestIngestRequestDecoder decoder, AuthFacade authFacade) {
         this.ingestionService = ingestionService;
-        this.mapper = mapper;
+        this.decoder = decoder;
+        this.authFacade = authFacade;
     }
 
     /**
@@ -41,15 +48,17 @@ public class IngestionController {
      * <p>
      * <b>Processing Logic:</b>
      * <ol>
-     * <li><b>Validation:</b> The request payload is strictly validated against the SSF schemas.</li>
-     * <li><b>Mapping:</b> The generic REST model is converted to a domain event.</li>
+     * <li><b>Decoding:</b> The body is streamed once into a domain event; size and nesting limits
+     * are enforced while reading. The authenticated client is the event's producer, which scopes
+     * its {@code id}/{@code txn} for deduplication.</li>
+     * <li><b>Validation:</b> The subject and payload are strictly validated against the SSF schemas.</li>
      * <li><b>Queuing:</b> The event is persisted to the database (Outbox Pattern) within a transaction.</li>
      * <li><b>Delivery:</b> A background worker picks up the event for Push delivery or it becomes available for Polling.</li>
      * </ol>
-     * * @param request The structured event payload containing the Subject and Event Data.
+     * * @param body The structured event payload containing the Subject and Event Data.
      * @return 202 Accepted if the event was successfully queued.
      */
-    @PostMapping
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
         summary = "Trigger a Security Event",
         description = "Receives a RISC or CAEP event, validates it, and queues it for broadcast to subscribers. This operation is non-blocking.",
@@ -71,6 +80,11 @@ public class IngestionController {
             description = "Unauthorized. Invalid or missing authentication token.",
             content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
         ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Conflict. An event with the same 'id'/'txn' from this client is still being processed. Retry later.",
+            content = @Content(mediaType = "application/problem+json", schema = @Schema(implementation = ProblemDetail.class))
+        ),
         @ApiResponse(
             responseCode = "429",
             description = "Too Many Requests. Rate limit exceeded for the client or IP.",
@@ -85,11 +99,17 @@ public class IngestionController {
     public CompletableFuture<ResponseEntity<Void>> ingestEvent(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                 description = "The security event payload. Requires a valid Subject and Event Data matching the 'intent'.",
-                required = true
+                required = true,
+                content = @Content(schema = @Schema(implementation = RestIngestRequest.class))
             )
-            @Valid @RequestBody RestIngestRequest request) {
-        GenericSecurityEvent event = mapper.toDomain(request);
+            InputStream body,
+            HttpServletRequest request) {
+        GenericSecurityEvent event = decoder.decode(body, authFacade.getClientId());
         return ingestionService.ingest(event)
-                .thenApply(count -> ResponseEntity.accepted().build());
+                .thenApply(count -> {
+                    // Read by the rate limiter to charge the fan-out
+                    request.setAttribute(SecurityConstants.ATTRIBUTE_FAN_OUT, count);
+                    return ResponseEntity.accepted().build();
+                });
     }
 }
\ No newline at end of file
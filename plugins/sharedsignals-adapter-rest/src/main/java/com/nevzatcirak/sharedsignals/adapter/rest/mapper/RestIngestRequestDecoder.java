@@ -0,0 +1,298 @@
+package com.nevzatcirak.sharedsignals.adapter.rest.mapper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidTypeIdException;
+import com.nevzatcirak.sharedsignals.adapter.rest.model.RestEventPayload;
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.SecurityIntent;
+import com.nevzatcirak.sharedsignals.api.exception.SsfBadRequestException;
+import com.nevzatcirak.sharedsignals.api.exception.SsfErrorCode;
+import com.nevzatcirak.sharedsignals.api.model.GenericSecurityEvent;
+import com.nevzatcirak.sharedsignals.core.validation.SubjectValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Single-pass decoder for the ingestion request body.
+ * <p>
+ * Reads the body with Jackson's streaming parser and builds the subject map of the
+ * {@link GenericSecurityEvent} directly, instead of binding the polymorphic REST records and
+ * converting them back into maps. Size and nesting limits are enforced by the parser itself, and
+ * each subject object is validated as soon as it is closed, so oversized, over-deep or invalid
+ * input is rejected before the rest of the body is read.
+ * <p>
+ * The event data is bound from the same parser straight into its per-intent {@link RestEventPayload}
+ * record, and only the fields declared by that record are forwarded into the SET payload. Errors
+ * name the field that failed.
+ * </p>
+ */
+@Component
+public class RestIngestRequestDecoder {
+
+    private static final int MAX_IDENTIFIER_LENGTH = 128;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final JsonFactory jsonFactory;
+    private final Map<Class<?>, List<RecordComponent>> payloadFields = new ConcurrentHashMap<>();
+
+    public RestIngestRequestDecoder(
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Value("${sharedsignals.ingestion.max-request-bytes:65536}") int maxRequestBytes,
+            @Value("${sharedsignals.ingestion.max-nesting-depth:32}") int maxNestingDepth) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.jsonFactory = objectMapper.getFactory().copy();
+        this.jsonFactory.setStreamReadConstraints(StreamReadConstraints.builder()
+                .maxDocumentLength(maxRequestBytes)
+                .maxStringLength(maxRequestBytes)
+                .maxNestingDepth(maxNestingDepth)
+                .build());
+    }
+
+    /**
+     * Decodes an ingestion request body into a framework-agnostic Domain Event.
+     *
+     * @param body the raw JSON request body
+     * @param producerId the authenticated client that submitted the request, or null; scopes retry deduplication
+     * @return A {@link GenericSecurityEvent} ready for processing by the Core layer.
+     * @throws SsfBadRequestException if the body is malformed, exceeds limits or fails validation
+     */
+    public GenericSecurityEvent decode(InputStream body, String producerId) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw malformed("Request body must be a JSON object.");
+            }
+
+            Map<String, Object> subject = null;
+            RestEventPayload data = null;
+            Instant occurrenceTime = null;
+            String id = null;
+            String txn = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "subject" -> subject = readSubject(parser, token, field, 0);
+                    case "data" -> data = readData(parser, token);
+                    case "occurrenceTime" -> occurrenceTime = readInstant(parser, token);
+                    case "id" -> id = readIdentifier(parser, token, field);
+                    case "txn" -> txn = readIdentifier(parser, token, field);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (subject == null) {
+                throw malformed("Field 'subject' is required.");
+            }
+            if (data == null) {
+                throw malformed("Field 'data' is required.");
+            }
+            return toDomain(producerId, id, txn, subject, data, occurrenceTime);
+        } catch (StreamConstraintsException e) {
+            throw malformed("Request exceeds size or nesting limits: " + e.getOriginalMessage());
+        } catch (JsonProcessingException e) {
+            throw malformed("Malformed JSON request or invalid data format.");
+        } catch (IOException e) {
+            throw malformed("Unable to read request body.");
+        }
+    }
+
+    private GenericSecurityEvent toDomain(String producerId, String id, String txn, Map<String, Object> subject,
+                                          RestEventPayload data, Instant occurrenceTime) {
+        SecurityIntent intent;
+        try {
+            intent = SecurityIntent.fromValue(data.intent());
+        } catch (IllegalArgumentException e) {
+            throw malformed("Field 'data.intent' has unsupported value '" + data.intent() + "'.");
+        }
+        validatePayload(data);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (RecordComponent component : payloadFields.computeIfAbsent(data.getClass(), RestIngestRequestDecoder::recordFields)) {
+            Object value = readComponent(component, data);
+            if (value != null) {
+                payload.put(component.getName(), value);
+            }
+        }
+
+        return new GenericSecurityEvent(producerId, id, txn, intent, subject, payload, occurrenceTime);
+    }
+
+    private void validatePayload(RestEventPayload payload) {
+        Set<ConstraintViolation<RestEventPayload>> violations = validator.validate(payload);
+        if (!violations.isEmpty()) {
+            String details = violations.stream()
+                    .map(v -> "data." + v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            throw new SsfBadRequestException("Request validation failed: " + details);
+        }
+    }
+
+    /**
+     * Reads a subject object, enforcing the subject nesting limit before descending.
+     * Nested objects (alias identifiers, complex members) are read as subjects one level deeper.
+     * Each object is validated when it is closed; its nested objects have been validated by then.
+     */
+    private Map<String, Object> readSubject(JsonParser parser, JsonToken token, String path, int depth) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new SsfBadRequestException(SsfErrorCode.INVALID_SUBJECT_FORMAT, "Field '" + path + "' must be a JSON object.");
+        }
+        if (depth > SubjectValidator.MAX_DEPTH) {
+            throw new SsfBadRequestException(SsfErrorCode.INVALID_SUBJECT_FORMAT,
+                    "Subject nesting too deep (Max " + SubjectValidator.MAX_DEPTH + "). Possible DoS attempt.");
+        }
+        Map<String, Object> subject = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            subject.put(name, readSubjectMember(parser, parser.nextToken(), path + "." + name, depth));
+        }
+        try {
+            SubjectValidator.validateObject(subject);
+        } catch (SsfBadRequestException e) {
+            throw new SsfBadRequestException(SsfErrorCode.INVALID_SUBJECT_FORMAT, "Field '" + path + "': " + e.getMessage());
+        }
+        Object format = subject.get("format");
+        if (depth == 0 && !SharedSignalConstants.SUPPORTED_SUBJECT_FORMATS.contains(format)) {
+            throw new SsfBadRequestException(SsfErrorCode.INVALID_SUBJECT_FORMAT, "Unsupported subject format: " + format);
+        }
+        return subject;
+    }
+
+    private Object readSubjectMember(JsonParser parser, JsonToken token, String path, int depth) throws IOException {
+        if (token == JsonToken.START_OBJECT) {
+            return readSubject(parser, token, path, depth + 1);
+        }
+        if (token == JsonToken.START_ARRAY) {
+            List<Object> items = new ArrayList<>();
+            JsonToken next;
+            while ((next = parser.nextToken()) != JsonToken.END_ARRAY) {
+                items.add(readSubjectMember(parser, next, path + "[" + items.size() + "]", depth));
+            }
+            return items;
+        }
+        return readScalar(parser, token);
+    }
+
+    /**
+     * Binds the event data from the current position of the parser into its per-intent record.
+     */
+    private RestEventPayload readData(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw malformed("Field 'data' must be a JSON object.");
+        }
+        try {
+            return objectMapper.readValue(parser, RestEventPayload.class);
+        } catch (InvalidTypeIdException e) {
+            throw malformed(e.getTypeId() == null
+                    ? "Field 'data.intent' is required."
+                    : "Field 'data.intent' has unsupported value '" + e.getTypeId() + "'.");
+        } catch (StreamConstraintsException e) {
+            throw e;
+        } catch (JsonMappingException e) {
+            throw malformed("Field '" + fieldPath("data", e.getPath()) + "' has an invalid value.");
+        }
+    }
+
+    private Object readScalar(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> throw malformed("Unexpected token: " + token);
+        };
+    }
+
+    private Instant readInstant(JsonParser parser, JsonToken token) throws IOException {
+        try {
+            return switch (token) {
+                case VALUE_STRING -> Instant.parse(parser.getText());
+                case VALUE_NUMBER_INT -> Instant.ofEpochSecond(parser.getLongValue());
+                case VALUE_NUMBER_FLOAT -> {
+                    BigDecimal seconds = parser.getDecimalValue();
+                    yield Instant.ofEpochSecond(seconds.longValue(),
+                            seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+                }
+                case VALUE_NULL -> null;
+                default -> throw malformed("Field 'occurrenceTime' must be an ISO-8601 string or epoch seconds.");
+            };
+        } catch (DateTimeException e) {
+            throw malformed("Field 'occurrenceTime' must be an ISO-8601 string or epoch seconds.");
+        }
+    }
+
+    private String readIdentifier(JsonParser parser, JsonToken token, String field) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            throw malformed("Field '" + field + "' must be a string.");
+        }
+        String value = parser.getText();
+        if (value.length() > MAX_IDENTIFIER_LENGTH) {
+            throw malformed("Field '" + field + "' must not exceed " + MAX_IDENTIFIER_LENGTH + " characters.");
+        }
+        return value;
+    }
+
+    private static List<RecordComponent> recordFields(Class<?> type) {
+        List<RecordComponent> fields = Arrays.stream(type.getRecordComponents())
+                .filter(c -> !"intent".equals(c.getName()))
+                .toList();
+        fields.forEach(c -> c.getAccessor().setAccessible(true));
+        return fields;
+    }
+
+    private static Object readComponent(RecordComponent component, RestEventPayload data) {
+        try {
+            return component.getAccessor().invoke(data);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + component, e);
+        }
+    }
+
+    private static String fieldPath(String root, List<JsonMappingException.Reference> path) {
+        StringBuilder field = new StringBuilder(root);
+        for (JsonMappingException.Reference reference : path) {
+            if (reference.getFieldName() != null) {
+                field.append('.').append(reference.getFieldName());
+            } else if (reference.getIndex() >= 0) {
+                field.append('[').append(reference.getIndex()).append(']');
+            }
+        }
+        return field.toString();
+    }
+
+    private static SsfBadRequestException malformed(String message) {
+        return new SsfBadRequestException(SsfErrorCode.MALFORMED_REQUEST, message);
+    }
+}
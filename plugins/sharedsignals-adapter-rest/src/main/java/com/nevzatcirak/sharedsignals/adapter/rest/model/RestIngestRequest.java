@@ -4,11 +4,16 @@ import com.nevzatcirak.sharedsignals.adapter.rest.model.subjects.RestSubject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.time.Instant;
 
 @Schema(description = "Ingestion Request Body")
 public record RestIngestRequest(
     @NotNull @Valid RestSubject subject,
     @NotNull @Valid RestEventPayload data,
-    @Schema(description = "Optional occurrence time") Instant occurrenceTime
+    @Schema(description = "Optional occurrence time") Instant occurrenceTime,
+    @Schema(description = "Optional producer event id. Retries with the same id from the same client are not fanned out twice.", example = "evt-7f3c2a")
+    @Size(max = 128) String id,
+    @Schema(description = "Optional transaction id (RFC 8417 'txn'). Used as the SET txn claim and for retry deduplication.", example = "txn-2f0c9e")
+    @Size(max = 128) String txn
 ) {}
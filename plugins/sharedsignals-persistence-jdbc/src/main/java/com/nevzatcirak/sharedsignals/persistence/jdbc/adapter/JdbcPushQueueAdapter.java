@@ -0,0 +1,238 @@
+package com.nevzatcirak.sharedsignals.persistence.jdbc.adapter;
+
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
+import com.nevzatcirak.sharedsignals.api.model.PushMessage;
+import com.nevzatcirak.sharedsignals.api.spi.EventSender;
+import com.nevzatcirak.sharedsignals.api.spi.PushQueueStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Plain JDBC implementation of {@link PushQueueStore} and {@link EventSender} on the
+ * {@code ssf_push_queue} table.
+ * <p>
+ * Every operation is a single statement: status changes are unconditional updates instead of a
+ * load and save, and {@link #claimReadyMessages} selects the ready partition heads and claims them
+ * in one {@code UPDATE ... RETURNING} (a {@code FINAL TABLE} query on H2). {@link #claimNextInPartition}
+ * claims the next message of a partition the same way.
+ */
+@Component
+public class JdbcPushQueueAdapter implements PushQueueStore, EventSender {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcPushQueueAdapter.class);
+
+    private static final String COLUMNS = "id, stream_id, endpoint_url, auth_header, signed_token, status, " +
+            "retry_count, next_retry_at, last_error, priority, due_at, partition_key";
+
+    /** Claimable: pending, failed with its retry time passed, or in flight with a stale claim (worker died). */
+    private static final String CLAIMABLE = "(status = 'PENDING' " +
+            "OR (status = 'FAILED' AND next_retry_at <= ?) " +
+            "OR (status = 'IN_PROGRESS' AND updated_at <= ?))";
+
+    /**
+     * The head message of every ordering partition, if claimable, ordered by virtual deadline.
+     */
+    private static final String READY = "SELECT " + COLUMNS + " FROM ssf_push_queue " +
+            "WHERE id IN (SELECT MIN(id) FROM ssf_push_queue " +
+            "             WHERE status IN ('PENDING', 'FAILED', 'IN_PROGRESS') " +
+            "             GROUP BY partition_key) " +
+            "AND " + CLAIMABLE + " " +
+            "ORDER BY due_at ASC, id ASC LIMIT ?";
+
+    private static final String CLAIM_READY = "UPDATE ssf_push_queue SET status = 'IN_PROGRESS', updated_at = ? " +
+            "WHERE id IN (SELECT id FROM (" + READY + ") ready) AND " + CLAIMABLE;
+
+    private static final String CLAIM_NEXT = "UPDATE ssf_push_queue SET status = 'IN_PROGRESS', updated_at = ? " +
+            "WHERE id = (SELECT MIN(id) FROM ssf_push_queue " +
+            "            WHERE partition_key = ? AND status IN ('PENDING', 'FAILED', 'IN_PROGRESS')) " +
+            "AND " + CLAIMABLE;
+
+    private static final String INSERT = "INSERT INTO ssf_push_queue (stream_id, endpoint_url, auth_header, signed_token, " +
+            "status, retry_count, next_retry_at, created_at, priority, due_at, partition_key, coalesce_key) " +
+            "VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxLaneWait;
+    private final Duration inFlightTimeout;
+    private final Duration coalescingWindow;
+    private volatile ClaimStatements claimStatements;
+
+    public JdbcPushQueueAdapter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${sharedsignals.delivery.priority.max-lane-wait-seconds:30}") long maxLaneWaitSeconds,
+            @Value("${sharedsignals.delivery.ordering.in-flight-timeout-seconds:300}") long inFlightTimeoutSeconds,
+            @Value("${sharedsignals.delivery.coalescing.window-seconds:300}") long coalescingWindowSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxLaneWait = Duration.ofSeconds(maxLaneWaitSeconds);
+        this.inFlightTimeout = Duration.ofSeconds(inFlightTimeoutSeconds);
+        this.coalescingWindow = Duration.ofSeconds(coalescingWindowSeconds);
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String streamId, String url, String token, String authHeader) {
+        return enqueue(streamId, url, token, authHeader, DeliveryOptions.DEFAULT);
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String streamId, String url, String token, String authHeader, DeliveryOptions options) {
+        return enqueue(streamId, url, token, authHeader, options);
+    }
+
+    @Override
+    public CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader) {
+        return enqueue(streamId, url, token, authHeader, DeliveryOptions.DEFAULT);
+    }
+
+    /**
+     * A single insert; supersedes and inserts in one transaction when coalescing.
+     */
+    @Override
+    public CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader, DeliveryOptions options) {
+        EventPriority priority = options.priority();
+        String coalesceKey = options.coalesceKey();
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp dueAt = Timestamp.from(priority.dueAt(now.toInstant(), maxLaneWait));
+        String partition = options.partitionKeyOr(streamId);
+        if (coalesceKey == null) {
+            jdbcTemplate.update(INSERT, streamId, url, authHeader, token, now, now, priority.getLane(), dueAt, partition, null);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                int superseded = jdbcTemplate.update("UPDATE ssf_push_queue SET status = 'SUPERSEDED', updated_at = ? " +
+                                "WHERE stream_id = ? AND coalesce_key = ? AND status IN ('PENDING', 'FAILED') AND created_at >= ?",
+                        now, streamId, coalesceKey, Timestamp.from(now.toInstant().minus(coalescingWindow)));
+                if (superseded > 0) {
+                    log.debug("Superseded {} queued message(s): stream={}, key={}", superseded, streamId, coalesceKey);
+                }
+                jdbcTemplate.update(INSERT, streamId, url, authHeader, token, now, now, priority.getLane(), dueAt, partition, coalesceKey);
+            });
+        }
+        log.debug("Enqueued message for stream: {} (priority: {})", streamId, priority);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public List<PushMessage> fetchReadyMessages(int batchSize) {
+        Instant now = Instant.now();
+        return jdbcTemplate.query(READY, MESSAGE_MAPPER, Timestamp.from(now), Timestamp.from(now.minus(inFlightTimeout)),
+                batchSize);
+    }
+
+    @Override
+    public Optional<List<PushMessage>> claimReadyMessages(int batchSize) {
+        Instant now = Instant.now();
+        Timestamp at = Timestamp.from(now);
+        Timestamp staleBefore = Timestamp.from(now.minus(inFlightTimeout));
+        // Rows come back in no particular order: restore the delivery order of fetchReadyMessages
+        List<Claimed> claimed = jdbcTemplate.query(claimStatements().ready(), (rs, rowNum) -> new Claimed(
+                        MESSAGE_MAPPER.mapRow(rs, rowNum), rs.getTimestamp("due_at")),
+                at, at, staleBefore, batchSize, at, staleBefore);
+        return Optional.of(claimed.stream()
+                .sorted(Comparator.comparing(Claimed::dueAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(c -> c.message().getId()))
+                .map(Claimed::message)
+                .toList());
+    }
+
+    @Override
+    public Optional<PushMessage> claimNextInPartition(String partitionKey) {
+        Instant now = Instant.now();
+        Timestamp at = Timestamp.from(now);
+        return jdbcTemplate.query(claimStatements().next(), MESSAGE_MAPPER,
+                at, partitionKey, at, Timestamp.from(now.minus(inFlightTimeout))).stream().findFirst();
+    }
+
+    @Override
+    public void updateStatus(Long messageId, String statusName, String lastError, Long nextRetryAt, int retryCount) {
+        jdbcTemplate.update("UPDATE ssf_push_queue SET status = ?, last_error = ?, retry_count = ?, " +
+                        "next_retry_at = COALESCE(?, next_retry_at), updated_at = ? WHERE id = ?",
+                statusName, lastError, retryCount, nextRetryAt != null ? new Timestamp(nextRetryAt) : null,
+                Timestamp.from(Instant.now()), messageId);
+    }
+
+    @Override
+    public boolean claim(Long messageId) {
+        Instant now = Instant.now();
+        return jdbcTemplate.update("UPDATE ssf_push_queue SET status = 'IN_PROGRESS', updated_at = ? WHERE id = ? AND " + CLAIMABLE,
+                Timestamp.from(now), messageId, Timestamp.from(now), Timestamp.from(now.minus(inFlightTimeout))) == 1;
+    }
+
+    /**
+     * Checks at startup that the database is one the claim statements are written for, rather than
+     * failing on the first delivery round.
+     */
+    @PostConstruct
+    void checkDatabase() {
+        claimStatements();
+    }
+
+    /**
+     * PostgreSQL returns the claimed rows with {@code RETURNING}; H2 has no {@code RETURNING} and
+     * reads them from the {@code FINAL TABLE} of the update instead. Other databases support
+     * neither form as written here and are rejected.
+     */
+    private ClaimStatements claimStatements() {
+        ClaimStatements statements = claimStatements;
+        if (statements == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            boolean finalTable;
+            if ("H2".equalsIgnoreCase(product)) {
+                finalTable = true;
+            } else if ("PostgreSQL".equalsIgnoreCase(product)) {
+                finalTable = false;
+            } else {
+                throw new IllegalStateException("JdbcPushQueueAdapter supports H2 and PostgreSQL, not " + product +
+                        "; remove sharedsignals-persistence-jdbc to use the JPA push queue");
+            }
+            statements = new ClaimStatements(returning(CLAIM_READY, finalTable), returning(CLAIM_NEXT, finalTable));
+            claimStatements = statements;
+        }
+        return statements;
+    }
+
+    private static String returning(String update, boolean finalTable) {
+        return finalTable ? "SELECT " + COLUMNS + " FROM FINAL TABLE (" + update + ")" : update + " RETURNING " + COLUMNS;
+    }
+
+    private static final RowMapper<PushMessage> MESSAGE_MAPPER = (rs, rowNum) -> {
+        PushMessage model = new PushMessage();
+        model.setId(rs.getLong("id"));
+        model.setStreamId(rs.getString("stream_id"));
+        model.setEndpointUrl(rs.getString("endpoint_url"));
+        model.setAuthHeader(rs.getString("auth_header"));
+        model.setSignedToken(rs.getString("signed_token"));
+        model.setStatus(rs.getString("status"));
+        model.setRetryCount(rs.getInt("retry_count"));
+        Timestamp nextRetryAt = rs.getTimestamp("next_retry_at");
+        model.setNextRetryAt(nextRetryAt != null ? nextRetryAt.toInstant() : null);
+        model.setLastError(rs.getString("last_error"));
+        model.setPriority(EventPriority.fromLane(rs.getInt("priority")));
+        model.setPartitionKey(rs.getString("partition_key"));
+        return model;
+    };
+
+    private record Claimed(PushMessage message, Timestamp dueAt) {
+    }
+
+    private record ClaimStatements(String ready, String next) {
+    }
+}
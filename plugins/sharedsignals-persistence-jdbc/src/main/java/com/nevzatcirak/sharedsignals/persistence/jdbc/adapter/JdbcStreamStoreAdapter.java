@@ -0,0 +1,808 @@
+package com.nevzatcirak.sharedsignals.persistence.jdbc.adapter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.enums.ReadPreference;
+import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.exception.SsfBadRequestException;
+import com.nevzatcirak.sharedsignals.api.exception.SsfInternalServerException;
+import com.nevzatcirak.sharedsignals.api.exception.StreamNotFoundException;
+import com.nevzatcirak.sharedsignals.api.exception.SubjectAlreadyExistsException;
+import com.nevzatcirak.sharedsignals.api.model.InactiveStream;
+import com.nevzatcirak.sharedsignals.api.model.RemovedSubject;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Plain JDBC implementation of the {@link StreamStore} SPI on the tables of the JPA plugin.
+ * <p>
+ * Each operation is written as the fewest statements that do the job: single-column changes are
+ * one {@code UPDATE}, subject matching joins the subject, identifier and membership tables in the
+ * query that returns the streams, the identifiers of a compound subject are stored with one
+ * multi-row insert, and activity flushes are sent as one JDBC batch. Stream updates bump
+ * {@code opt_lock_version} like the JPA store, so caches on nodes running either store see them.
+ * <p>
+ * Read-only lookups run in a {@link ReadPreference#REPLICA} scope, with the same read-your-writes
+ * window for streams written through this node as the JPA store.
+ */
+@Component
+public class JdbcStreamStoreAdapter implements StreamStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcStreamStoreAdapter.class);
+
+    private static final String STREAM_COLUMNS = "stream_id, iss, audience, delivery_method, endpoint_url, " +
+            "authorization_header, events_requested, events_authorized, events_delivered, description, " +
+            "min_verification_interval, inactivity_timeout, status, status_reason, process_all_subjects, " +
+            "event_priorities, coalesced_events, opt_lock_version";
+
+    private static final String INACTIVE_AFTER = "CASE WHEN inactivity_timeout > 0 " +
+            "THEN %s + inactivity_timeout * INTERVAL '1' SECOND END";
+
+    private static final TypeReference<Set<String>> SET_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int subjectRemovalGracePeriodSeconds;
+    private final Duration maxLaneWait;
+    private final Duration coalescingWindow;
+    private final long readYourWritesWindowNanos;
+    /** Stream identifier -> nanoTime of the last write through this node, kept for the read-your-writes window. */
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private volatile long lastPruneNanos = System.nanoTime();
+
+    public JdbcStreamStoreAdapter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${sharedsignals.retention.subject-grace-period-seconds:604800}") int gracePeriodSeconds,
+            @Value("${sharedsignals.delivery.priority.max-lane-wait-seconds:30}") long maxLaneWaitSeconds,
+            @Value("${sharedsignals.delivery.coalescing.window-seconds:300}") long coalescingWindowSeconds,
+            @Value("${sharedsignals.datasource.replicas.read-your-writes-window-ms:5000}") long readYourWritesWindowMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.subjectRemovalGracePeriodSeconds = gracePeriodSeconds;
+        this.maxLaneWait = Duration.ofSeconds(maxLaneWaitSeconds);
+        this.coalescingWindow = Duration.ofSeconds(coalescingWindowSeconds);
+        this.readYourWritesWindowNanos = Duration.ofMillis(readYourWritesWindowMillis).toNanos();
+    }
+
+    // ========== Stream Management ==========
+
+    @Override
+    @Transactional
+    public StreamConfiguration save(StreamConfiguration model) {
+        StreamRow existing = model.getStream_id() == null ? null
+                : queryStream("SELECT " + STREAM_COLUMNS + " FROM ssf_streams WHERE stream_id = ?", model.getStream_id());
+        StreamRow row = merge(model, existing);
+        markWritten(row.streamId());
+        Timestamp now = Timestamp.from(Instant.now());
+        if (existing == null) {
+            Integer timeout = row.inactivityTimeout();
+            jdbcTemplate.update("INSERT INTO ssf_streams (stream_id, iss, audience, delivery_method, endpoint_url, " +
+                            "authorization_header, events_requested, events_authorized, events_delivered, description, " +
+                            "min_verification_interval, inactivity_timeout, status, status_reason, process_all_subjects, " +
+                            "opt_lock_version, created_at, updated_at, last_activity_at, inactive_after) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, 0, ?, ?, ?, ?)",
+                    row.streamId(), row.issuer(), writeSet(row.audience()), row.deliveryMethod(), row.endpointUrl(),
+                    row.authorizationHeader(), writeSet(row.eventsRequested()), writeSet(row.eventsAuthorized()),
+                    writeSet(row.eventsDelivered()), row.description(), row.minVerificationInterval(), timeout,
+                    row.status(), row.statusReason(), now, now, now,
+                    timeout != null && timeout > 0 ? Timestamp.from(now.toInstant().plusSeconds(timeout)) : null);
+            return toModel(row);
+        }
+        int updated = jdbcTemplate.update("UPDATE ssf_streams SET iss = ?, audience = ?, delivery_method = ?, endpoint_url = ?, " +
+                        "authorization_header = ?, events_requested = ?, events_authorized = ?, events_delivered = ?, " +
+                        "description = ?, min_verification_interval = ?, inactivity_timeout = ?, status = ?, status_reason = ?, " +
+                        "updated_at = ?, opt_lock_version = opt_lock_version + 1 WHERE stream_id = ? AND opt_lock_version = ?",
+                row.issuer(), writeSet(row.audience()), row.deliveryMethod(), row.endpointUrl(), row.authorizationHeader(),
+                writeSet(row.eventsRequested()), writeSet(row.eventsAuthorized()), writeSet(row.eventsDelivered()),
+                row.description(), row.minVerificationInterval(), row.inactivityTimeout(), row.status(), row.statusReason(),
+                now, row.streamId(), existing.version());
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException("Stream " + row.streamId() + " was updated concurrently");
+        }
+        if (!Objects.equals(existing.inactivityTimeout(), row.inactivityTimeout())) {
+            jdbcTemplate.update("UPDATE ssf_streams SET inactive_after = " + INACTIVE_AFTER.formatted("last_activity_at") +
+                    " WHERE stream_id = ?", row.streamId());
+        }
+        return toModel(row);
+    }
+
+    /**
+     * Applies a configuration to the stored row (or a new one), keeping what the configuration leaves
+     * out: the delivery and status when absent, and the authorized events once set.
+     */
+    private static StreamRow merge(StreamConfiguration model, StreamRow existing) {
+        String streamId = model.getStream_id() != null ? model.getStream_id() : UUID.randomUUID().toString();
+        String status = model.getStatus() != null ? model.getStatus()
+                : existing != null ? existing.status() : SharedSignalConstants.STATUS_ENABLED;
+        String method = existing != null ? existing.deliveryMethod() : null;
+        String endpointUrl = existing != null ? existing.endpointUrl() : null;
+        String authorizationHeader = existing != null ? existing.authorizationHeader() : null;
+        if (model.getDelivery() != null) {
+            method = model.getDelivery().getMethod();
+            endpointUrl = model.getDelivery().getEndpoint_url();
+            authorizationHeader = model.getDelivery().getAuthorization_header();
+        }
+        Set<String> requested = model.getEvents_requested() != null ? new HashSet<>(model.getEvents_requested()) : new HashSet<>();
+        Set<String> authorized = existing != null ? existing.eventsAuthorized() : new HashSet<>();
+        if (authorized.isEmpty() && model.getEvents_requested() != null) {
+            authorized = new HashSet<>(model.getEvents_requested());
+        }
+        Set<String> delivered = new HashSet<>(requested);
+        delivered.retainAll(authorized);
+        return new StreamRow(streamId, model.getIss(),
+                model.getAud() != null ? new HashSet<>(model.getAud()) : new HashSet<>(),
+                method, endpointUrl, authorizationHeader, requested, authorized, delivered,
+                model.getDescription(), model.getMin_verification_interval(), model.getInactivity_timeout(),
+                status, model.getReason(),
+                existing != null && existing.processAllSubjects(),
+                existing != null ? existing.eventPriorities() : null,
+                existing != null ? existing.coalescedEvents() : null,
+                existing != null ? existing.version() + 1 : 0);
+    }
+
+    @Override
+    public Optional<StreamConfiguration> findById(String streamId) {
+        return read(streamId, () -> Optional.ofNullable(
+                queryStream("SELECT " + STREAM_COLUMNS + " FROM ssf_streams WHERE stream_id = ?", streamId))
+                .map(this::toModel));
+    }
+
+    @Override
+    public Optional<Long> findVersion(String streamId) {
+        return read(streamId, () -> jdbcTemplate.query("SELECT opt_lock_version FROM ssf_streams WHERE stream_id = ?",
+                rs -> rs.next() ? Optional.ofNullable(rs.getObject(1, Long.class)) : Optional.<Long>empty(), streamId));
+    }
+
+    @Override
+    @Transactional
+    public void deleteById(String streamId) {
+        markWritten(streamId);
+        jdbcTemplate.update("DELETE FROM ssf_subject_memberships WHERE stream_id = ?", streamId);
+        jdbcTemplate.update("DELETE FROM ssf_streams WHERE stream_id = ?", streamId);
+    }
+
+    /**
+     * Pre-filters on the JSON-encoded audience value, then checks the decoded audience for an exact match.
+     */
+    @Override
+    public List<StreamConfiguration> findByAudience(String audience) {
+        return read(null, () -> jdbcTemplate.query("SELECT " + STREAM_COLUMNS + " FROM ssf_streams WHERE audience LIKE ? ESCAPE '!'",
+                        streamMapper, audiencePattern(audience)).stream()
+                .filter(row -> row.audience().contains(audience))
+                .map(this::toModel)
+                .toList());
+    }
+
+    @Override
+    public List<StreamConfiguration> findStreamsBySubject(Map<String, Object> subject) {
+        return findStreamsBySubject(SubjectId.of(subject));
+    }
+
+    /**
+     * Broadcast streams and streams on which one of the matching subjects is approved, in one query.
+     */
+    @Override
+    public List<StreamConfiguration> findStreamsBySubject(SubjectId subject) {
+        SubjectMatch match = SubjectMatch.of(subject);
+        return read(null, () -> jdbcTemplate.query("SELECT " + STREAM_COLUMNS + " FROM ssf_streams " +
+                        "WHERE status = 'enabled' AND (process_all_subjects = TRUE OR stream_id IN (" +
+                        "SELECT stream_id FROM ssf_subject_memberships WHERE status = 'APPROVED' AND subject_id IN (" + match.sql() + ")))",
+                streamMapper, match.args()).stream().map(this::toModel).toList());
+    }
+
+    @Override
+    public List<StreamConfiguration> findSubscribedStreamsBySubject(Map<String, Object> subject) {
+        return findSubscribedStreamsBySubject(SubjectId.of(subject));
+    }
+
+    @Override
+    public List<StreamConfiguration> findSubscribedStreamsBySubject(SubjectId subject) {
+        SubjectMatch match = SubjectMatch.of(subject);
+        return read(null, () -> jdbcTemplate.query("SELECT " + STREAM_COLUMNS + " FROM ssf_streams " +
+                        "WHERE status = 'enabled' AND process_all_subjects = FALSE AND stream_id IN (" +
+                        "SELECT stream_id FROM ssf_subject_memberships WHERE status = 'APPROVED' AND subject_id IN (" + match.sql() + "))",
+                streamMapper, match.args()).stream().map(this::toModel).toList());
+    }
+
+    @Override
+    public List<StreamConfiguration> findBroadcastStreams() {
+        return read(null, () -> jdbcTemplate.query("SELECT " + STREAM_COLUMNS + " FROM ssf_streams " +
+                "WHERE status = 'enabled' AND process_all_subjects = TRUE", streamMapper).stream().map(this::toModel).toList());
+    }
+
+    // ========== Admin Operations ==========
+
+    @Override
+    @Transactional
+    public void updateAuthorizedEvents(String streamId, Set<String> authorizedEvents) {
+        markWritten(streamId);
+        Set<String> requested = jdbcTemplate.query("SELECT events_requested FROM ssf_streams WHERE stream_id = ?",
+                rs -> rs.next() ? readSet(rs.getString(1)) : null, streamId);
+        if (requested == null) {
+            throw new StreamNotFoundException(streamId);
+        }
+        Set<String> delivered = new HashSet<>(requested);
+        delivered.retainAll(authorizedEvents);
+        updateStream(streamId, "events_authorized = ?, events_delivered = ?", writeSet(authorizedEvents), writeSet(delivered));
+    }
+
+    @Override
+    @Transactional
+    public void updateSubjectStatus(String streamId, String subjectHash, SubjectStatus status) {
+        markWritten(streamId);
+        byte[] digest = decodeSubjectHash(subjectHash);
+        int updated = jdbcTemplate.update("UPDATE ssf_subject_memberships SET status = ? WHERE stream_id = ? AND subject_id = " +
+                        "(SELECT id FROM ssf_subjects WHERE subject_fingerprint = ? AND subject_digest = ?)",
+                status.name(), streamId, SubjectId.fingerprint64(digest), digest);
+        if (updated == 0) {
+            throw new SsfBadRequestException("Subject not found or hash mismatch");
+        }
+        log.info("Subject status updated to {} for stream {}", status, streamId);
+    }
+
+    @Override
+    public void updateStreamMode(String streamId, boolean processAllSubjects) {
+        markWritten(streamId);
+        updateStream(streamId, "process_all_subjects = ?", processAllSubjects);
+        log.info("Stream {} processAllSubjects mode updated to {}", streamId, processAllSubjects);
+    }
+
+    @Override
+    public void updateEventPriorities(String streamId, Map<String, EventPriority> priorities) {
+        markWritten(streamId);
+        updateStream(streamId, "event_priorities = ?",
+                priorities == null || priorities.isEmpty() ? null : writeJson(priorities, "event priorities"));
+        log.info("Stream {} event priorities updated to {}", streamId, priorities);
+    }
+
+    @Override
+    public void updateCoalescedEvents(String streamId, Set<String> eventTypes) {
+        markWritten(streamId);
+        updateStream(streamId, "coalesced_events = ?",
+                eventTypes == null || eventTypes.isEmpty() ? null : writeJson(eventTypes, "coalesced events"));
+        log.info("Stream {} coalesced events updated to {}", streamId, eventTypes);
+    }
+
+    /**
+     * One update of the given columns that also bumps the version.
+     */
+    private void updateStream(String streamId, String assignments, Object... values) {
+        Object[] args = new Object[values.length + 2];
+        System.arraycopy(values, 0, args, 0, values.length);
+        args[values.length] = Timestamp.from(Instant.now());
+        args[values.length + 1] = streamId;
+        int updated = jdbcTemplate.update("UPDATE ssf_streams SET " + assignments +
+                ", updated_at = ?, opt_lock_version = opt_lock_version + 1 WHERE stream_id = ?", args);
+        if (updated == 0) {
+            throw new StreamNotFoundException(streamId);
+        }
+    }
+
+    // ========== Activity Tracking ==========
+
+    /**
+     * One batch with one update per stream.
+     */
+    @Override
+    public boolean recordStreamActivity(Map<String, Instant> lastActivity) {
+        List<Object[]> batch = new ArrayList<>(lastActivity.size());
+        lastActivity.forEach((streamId, at) -> {
+            Timestamp activityAt = Timestamp.from(at);
+            batch.add(new Object[]{activityAt, activityAt, streamId, activityAt});
+        });
+        jdbcTemplate.batchUpdate("UPDATE ssf_streams SET last_activity_at = ?, inactive_after = " +
+                INACTIVE_AFTER.formatted("CAST(? AS TIMESTAMP WITH TIME ZONE)") +
+                " WHERE stream_id = ? AND (last_activity_at IS NULL OR last_activity_at < ?)", batch);
+        return true;
+    }
+
+    @Override
+    public Optional<List<InactiveStream>> findInactiveStreams(Instant now, InactiveStream after, int limit) {
+        Timestamp afterInactiveAfter = Timestamp.from(after == null ? Instant.EPOCH : after.getInactiveSince());
+        String afterStreamId = after == null ? "" : after.getStreamId();
+        return Optional.of(jdbcTemplate.query("SELECT stream_id, last_activity_at, inactive_after FROM ssf_streams " +
+                        "WHERE status = 'enabled' AND inactive_after <= ? " +
+                        "AND (inactive_after > ? OR (inactive_after = ? AND stream_id > ?)) " +
+                        "ORDER BY inactive_after, stream_id LIMIT ?",
+                (rs, rowNum) -> new InactiveStream(rs.getString(1), instant(rs, 2), instant(rs, 3)),
+                Timestamp.from(now), afterInactiveAfter, afterInactiveAfter, afterStreamId, limit));
+    }
+
+    // ========== Subject Management ==========
+
+    @Override
+    @Transactional
+    public void addSubject(String streamId, Map<String, Object> subject, boolean verified) {
+        addSubject(streamId, SubjectId.of(subject), verified);
+    }
+
+    @Override
+    @Transactional
+    public void addSubject(String streamId, SubjectId subject, boolean verified) {
+        markWritten(streamId);
+        if (!exists("SELECT 1 FROM ssf_streams WHERE stream_id = ?", streamId)) {
+            throw new StreamNotFoundException(streamId);
+        }
+        Long subjectId = resolveSubjectId(subject)
+                .orElseGet(() -> registerSubject(subject));
+        //Verified is ignored due to security concern (SSF 9.2. Information Harvesting)
+        int inserted = jdbcTemplate.update("INSERT INTO ssf_subject_memberships (subject_id, stream_id, status) " +
+                "VALUES (?, ?, ?) ON CONFLICT DO NOTHING", subjectId, streamId, SubjectStatus.PENDING.name());
+        if (inserted == 0) {
+            throw new SubjectAlreadyExistsException("Subject already exists in stream: " + streamId);
+        }
+        log.info("Subject added to stream {} with status {}", streamId, SubjectStatus.PENDING);
+    }
+
+    private Optional<Long> resolveSubjectId(SubjectId subject) {
+        return jdbcTemplate.query("SELECT id FROM ssf_subjects WHERE subject_fingerprint = ? AND subject_digest = ?",
+                rs -> rs.next() ? Optional.of(rs.getLong(1)) : Optional.<Long>empty(),
+                subject.fingerprint64(), subject.digest());
+    }
+
+    /**
+     * Stores the subject once; aliases and complex subjects are also indexed by each of their
+     * identifiers, in one multi-row insert.
+     */
+    private Long registerSubject(SubjectId subject) {
+        jdbcTemplate.update("INSERT INTO ssf_subjects (subject_digest, subject_fingerprint, subject_payload, created_at) " +
+                        "VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING",
+                subject.digest(), subject.fingerprint64(), serializeSubject(subject.asMap()), Timestamp.from(Instant.now()));
+        Long subjectId = resolveSubjectId(subject)
+                .orElseThrow(() -> new SsfInternalServerException("Failed to register subject"));
+        if (subject.isCompound() && !subject.identifiers().isEmpty()) {
+            List<SubjectId> identifiers = subject.identifiers();
+            List<Object> args = new ArrayList<>(identifiers.size() * 3);
+            for (SubjectId identifier : identifiers) {
+                args.add(subjectId);
+                args.add(identifier.digest());
+                args.add(identifier.fingerprint64());
+            }
+            jdbcTemplate.update("INSERT INTO ssf_subject_identifiers (subject_id, identifier_digest, identifier_fingerprint) VALUES " +
+                    String.join(", ", Collections.nCopies(identifiers.size(), "(?, ?, ?)")) + " ON CONFLICT DO NOTHING", args.toArray());
+        }
+        return subjectId;
+    }
+
+    @Override
+    @Transactional
+    public void removeSubject(String streamId, Map<String, Object> subject) {
+        removeSubject(streamId, SubjectId.of(subject));
+    }
+
+    /**
+     * The removal record copies the stored subject row, so the payload is not read back.
+     */
+    @Override
+    @Transactional
+    public void removeSubject(String streamId, SubjectId subject) {
+        markWritten(streamId);
+        Long subjectId = resolveSubjectId(subject)
+                .filter(id -> jdbcTemplate.update("DELETE FROM ssf_subject_memberships WHERE subject_id = ? AND stream_id = ?",
+                        id, streamId) > 0)
+                .orElseThrow(() -> new StreamNotFoundException(
+                        "Subject not found in stream: " + streamId));
+
+        Instant now = Instant.now();
+        Instant gracePeriodExpiresAt = now.plusSeconds(subjectRemovalGracePeriodSeconds);
+        jdbcTemplate.update("INSERT INTO ssf_removed_subjects (stream_id, subject_digest, subject_fingerprint, subject_payload, " +
+                        "removed_at, grace_period_expires_at) " +
+                        "SELECT ?, subject_digest, subject_fingerprint, subject_payload, ?, ? FROM ssf_subjects WHERE id = ?",
+                streamId, Timestamp.from(now), Timestamp.from(gracePeriodExpiresAt), subjectId);
+
+        log.info("Subject removed from stream {} with grace period until {}", streamId, gracePeriodExpiresAt);
+    }
+
+    @Override
+    public boolean isSubjectRegistered(String streamId, Map<String, Object> subject) {
+        return isSubjectRegistered(streamId, SubjectId.of(subject));
+    }
+
+    @Override
+    public boolean isSubjectRegistered(String streamId, SubjectId subject) {
+        return read(streamId, () -> exists("SELECT 1 FROM ssf_subject_memberships m JOIN ssf_subjects s ON s.id = m.subject_id " +
+                        "WHERE s.subject_fingerprint = ? AND s.subject_digest = ? AND m.stream_id = ?",
+                subject.fingerprint64(), subject.digest(), streamId));
+    }
+
+    @Override
+    public boolean isSubjectApproved(String streamId, Map<String, Object> subject) {
+        return isSubjectApproved(streamId, SubjectId.of(subject));
+    }
+
+    @Override
+    public boolean isSubjectApproved(String streamId, SubjectId subject) {
+        SubjectMatch match = SubjectMatch.of(subject);
+        Object[] args = new Object[match.args().length + 1];
+        args[0] = streamId;
+        System.arraycopy(match.args(), 0, args, 1, match.args().length);
+        return read(streamId, () -> exists("SELECT 1 FROM ssf_subject_memberships " +
+                "WHERE stream_id = ? AND status = 'APPROVED' AND subject_id IN (" + match.sql() + ")", args));
+    }
+
+    @Override
+    public boolean isSubjectInGracePeriod(String streamId, Map<String, Object> subject) {
+        return isSubjectInGracePeriod(streamId, SubjectId.of(subject));
+    }
+
+    @Override
+    public boolean isSubjectInGracePeriod(String streamId, SubjectId subject) {
+        return exists("SELECT 1 FROM ssf_removed_subjects WHERE subject_fingerprint = ? AND stream_id = ? " +
+                        "AND subject_digest = ? AND grace_period_expires_at > ?",
+                subject.fingerprint64(), streamId, subject.digest(), Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public Optional<List<RemovedSubject>> findRemovedSubjectsSince(Instant removedSince) {
+        return Optional.of(jdbcTemplate.query("SELECT stream_id, subject_digest, grace_period_expires_at FROM ssf_removed_subjects " +
+                        "WHERE removed_at >= ? AND grace_period_expires_at > ? AND subject_digest IS NOT NULL",
+                (rs, rowNum) -> new RemovedSubject(rs.getString(1), rs.getBytes(2), instant(rs, 3)),
+                Timestamp.from(removedSince), Timestamp.from(Instant.now())));
+    }
+
+    /**
+     * Also deletes subjects that are no longer registered on any stream. A subject re-registered
+     * concurrently is protected by the membership foreign key.
+     */
+    @Override
+    @Transactional
+    public void deleteByGracePeriodExpiresAtBefore(Instant expiryTime) {
+        Timestamp before = Timestamp.from(expiryTime);
+        jdbcTemplate.update("DELETE FROM ssf_removed_subjects WHERE grace_period_expires_at < ?", before);
+        int unregistered = jdbcTemplate.update("DELETE FROM ssf_subjects s WHERE s.created_at < ? " +
+                "AND NOT EXISTS (SELECT 1 FROM ssf_subject_memberships m WHERE m.subject_id = s.id)", before);
+        if (unregistered > 0) {
+            log.info("Deleted {} subject(s) no longer registered on any stream", unregistered);
+        }
+    }
+
+    // ========== Event Buffering (Poll) ==========
+
+    @Override
+    public void saveEvent(String streamId, String jti, String setToken) {
+        saveEvent(streamId, jti, setToken, EventPriority.NORMAL, null);
+    }
+
+    @Override
+    public void saveEvent(String streamId, String jti, String setToken, EventPriority priority) {
+        saveEvent(streamId, jti, setToken, priority, null);
+    }
+
+    /**
+     * A single insert; deletes the superseded events and inserts in one transaction when coalescing.
+     */
+    @Override
+    public void saveEvent(String streamId, String jti, String setToken, EventPriority priority, String coalesceKey) {
+        markWritten(streamId);
+        log.debug("Saving event to buffer: stream={}, jti={}, priority={}", streamId, jti, priority);
+        Instant now = Instant.now();
+        Timestamp dueAt = Timestamp.from(priority.dueAt(now, maxLaneWait));
+        String insert = "INSERT INTO ssf_stream_events_buffer (stream_id, jti, set_token, created_at, acknowledged, priority, due_at, coalesce_key) " +
+                "VALUES (?, ?, ?, ?, FALSE, ?, ?, ?)";
+        if (coalesceKey == null) {
+            jdbcTemplate.update(insert, streamId, jti, setToken, Timestamp.from(now), priority.getLane(), dueAt, null);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                int superseded = jdbcTemplate.update("DELETE FROM ssf_stream_events_buffer " +
+                                "WHERE stream_id = ? AND coalesce_key = ? AND acknowledged = FALSE AND created_at >= ?",
+                        streamId, coalesceKey, Timestamp.from(now.minus(coalescingWindow)));
+                if (superseded > 0) {
+                    log.debug("Superseded {} buffered event(s): stream={}, key={}", superseded, streamId, coalesceKey);
+                }
+                jdbcTemplate.update(insert, streamId, jti, setToken, Timestamp.from(now), priority.getLane(), dueAt, coalesceKey);
+            });
+        }
+        log.info("Event buffered for POLL delivery: stream={}, jti={}", streamId, jti);
+    }
+
+    @Override
+    public Map<String, String> fetchEvents(String streamId, int maxEvents) {
+        log.debug("Fetching events from buffer: stream={}, maxEvents={}", streamId, maxEvents);
+        Map<String, String> result = new LinkedHashMap<>();
+        read(streamId, () -> {
+            jdbcTemplate.query("SELECT jti, set_token FROM ssf_stream_events_buffer WHERE stream_id = ? AND acknowledged = FALSE " +
+                            "ORDER BY due_at ASC, id ASC LIMIT ?",
+                    rs -> {
+                        result.put(rs.getString(1), rs.getString(2));
+                    },
+                    streamId, maxEvents);
+            return null;
+        });
+        log.info("Fetched {} events for stream: {}", result.size(), streamId);
+        return result;
+    }
+
+    @Override
+    public void acknowledgeEvents(String streamId, List<String> jtis) {
+        if (jtis == null || jtis.isEmpty()) {
+            return;
+        }
+        markWritten(streamId);
+        log.debug("Acknowledging events: stream={}, jtis={}", streamId, jtis);
+        Object[] args = new Object[jtis.size() + 1];
+        args[0] = Timestamp.from(Instant.now());
+        for (int i = 0; i < jtis.size(); i++) {
+            args[i + 1] = jtis.get(i);
+        }
+        jdbcTemplate.update("UPDATE ssf_stream_events_buffer SET acknowledged = TRUE, acknowledged_at = ? WHERE jti IN (" +
+                placeholders(jtis.size()) + ")", args);
+        log.info("Acknowledged {} events for stream: {}", jtis.size(), streamId);
+    }
+
+    @Override
+    public boolean hasMoreEvents(String streamId) {
+        return read(streamId, () -> exists("SELECT 1 FROM ssf_stream_events_buffer WHERE stream_id = ? AND acknowledged = FALSE",
+                streamId));
+    }
+
+    @Override
+    public void deleteByAcknowledgedTrueAndAcknowledgedAtBefore(Instant before) {
+        jdbcTemplate.update("DELETE FROM ssf_stream_events_buffer WHERE acknowledged = TRUE AND acknowledged_at < ?",
+                Timestamp.from(before));
+    }
+
+    @Override
+    public long countUnacknowledgedEvents(String streamId) {
+        return read(streamId, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ssf_stream_events_buffer WHERE stream_id = ? AND acknowledged = FALSE", Long.class, streamId));
+    }
+
+    @Override
+    public long getEventCount() {
+        return read(null, () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ssf_stream_events_buffer", Long.class));
+    }
+
+    // ========== Replica reads ==========
+
+    /**
+     * Runs a read-only lookup in a {@link ReadPreference#REPLICA} scope, unless the stream was written
+     * through this node within the read-your-writes window.
+     *
+     * @param streamId the stream the lookup is about, or null if it spans streams
+     */
+    private <T> T read(String streamId, Supplier<T> lookup) {
+        if (streamId != null && writtenRecently(streamId)) {
+            return lookup.get();
+        }
+        try (ReadPreference.Scope ignored = ReadPreference.REPLICA.enter()) {
+            return lookup.get();
+        }
+    }
+
+    private boolean writtenRecently(String streamId) {
+        Long writtenAt = recentWrites.get(streamId);
+        return writtenAt != null && System.nanoTime() - writtenAt < readYourWritesWindowNanos;
+    }
+
+    private void markWritten(String streamId) {
+        if (streamId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        recentWrites.put(streamId, now);
+        if (now - lastPruneNanos >= readYourWritesWindowNanos) {
+            lastPruneNanos = now;
+            recentWrites.values().removeIf(writtenAt -> now - writtenAt >= readYourWritesWindowNanos);
+        }
+    }
+
+    // ========== Mapping ==========
+
+    /**
+     * The columns of a stream row that the model is built from.
+     */
+    private record StreamRow(String streamId, String issuer, Set<String> audience,
+                             String deliveryMethod, String endpointUrl, String authorizationHeader,
+                             Set<String> eventsRequested, Set<String> eventsAuthorized, Set<String> eventsDelivered,
+                             String description, Integer minVerificationInterval, Integer inactivityTimeout,
+                             String status, String statusReason, boolean processAllSubjects,
+                             String eventPriorities, String coalescedEvents, long version) {
+    }
+
+    private final RowMapper<StreamRow> streamMapper = (rs, rowNum) -> new StreamRow(
+            rs.getString("stream_id"),
+            rs.getString("iss"),
+            readSet(rs.getString("audience")),
+            rs.getString("delivery_method"),
+            rs.getString("endpoint_url"),
+            rs.getString("authorization_header"),
+            readSet(rs.getString("events_requested")),
+            readSet(rs.getString("events_authorized")),
+            readSet(rs.getString("events_delivered")),
+            rs.getString("description"),
+            rs.getObject("min_verification_interval", Integer.class),
+            rs.getObject("inactivity_timeout", Integer.class),
+            rs.getString("status"),
+            rs.getString("status_reason"),
+            rs.getBoolean("process_all_subjects"),
+            rs.getString("event_priorities"),
+            rs.getString("coalesced_events"),
+            rs.getLong("opt_lock_version"));
+
+    private StreamRow queryStream(String sql, Object... args) {
+        List<StreamRow> rows = jdbcTemplate.query(sql, streamMapper, args);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private StreamConfiguration toModel(StreamRow row) {
+        StreamConfiguration model = new StreamConfiguration();
+        model.setStream_id(row.streamId());
+        model.setIss(row.issuer());
+        model.setAud(new ArrayList<>(row.audience()));
+        model.setDescription(row.description());
+        model.setMin_verification_interval(row.minVerificationInterval());
+        model.setInactivity_timeout(row.inactivityTimeout());
+
+        model.setStatus(row.status());
+        model.setReason(row.statusReason());
+
+        model.setProcessAllSubjects(row.processAllSubjects());
+        if (row.eventPriorities() != null) {
+            model.setEventPriorities(readJson(row.eventPriorities(), new TypeReference<Map<String, EventPriority>>() {}, "event priorities"));
+        }
+        if (row.coalescedEvents() != null) {
+            model.setCoalescedEvents(readJson(row.coalescedEvents(), SET_TYPE, "coalesced events"));
+        }
+
+        if (row.deliveryMethod() != null || row.endpointUrl() != null || row.authorizationHeader() != null) {
+            StreamDelivery delivery = new StreamDelivery();
+            delivery.setMethod(row.deliveryMethod());
+            delivery.setEndpoint_url(row.endpointUrl());
+            delivery.setAuthorization_header(row.authorizationHeader());
+            model.setDelivery(delivery);
+        }
+
+        model.setEvents_requested(new ArrayList<>(row.eventsRequested()));
+        model.setEvents_delivered(new ArrayList<>(row.eventsDelivered()));
+        model.setEvents_supported(SharedSignalConstants.SUPPORTED_EVENTS);
+        return model;
+    }
+
+    /**
+     * The registered subjects an event about this subject is delivered for, as a sub-select: the
+     * subject itself, simple subjects equal to one of its identifiers, and aliases/complex subjects
+     * containing one of them. Fingerprints select the rows through the indexes; digests confirm them.
+     */
+    private record SubjectMatch(String sql, Object[] args) {
+
+        static SubjectMatch of(SubjectId subject) {
+            Set<Long> fingerprints = new LinkedHashSet<>();
+            List<byte[]> digests = new ArrayList<>();
+            fingerprints.add(subject.fingerprint64());
+            digests.add(subject.digest());
+            for (SubjectId identifier : subject.identifiers()) {
+                if (fingerprints.add(identifier.fingerprint64())) {
+                    digests.add(identifier.digest());
+                }
+            }
+            String fp = placeholders(fingerprints.size());
+            String dg = placeholders(digests.size());
+            List<Object> args = new ArrayList<>((fingerprints.size() + digests.size()) * 2);
+            for (int i = 0; i < 2; i++) {
+                args.addAll(fingerprints);
+                args.addAll(digests);
+            }
+            return new SubjectMatch(
+                    "SELECT id FROM ssf_subjects WHERE subject_fingerprint IN (" + fp + ") AND subject_digest IN (" + dg + ") " +
+                    "UNION SELECT subject_id FROM ssf_subject_identifiers " +
+                    "WHERE identifier_fingerprint IN (" + fp + ") AND identifier_digest IN (" + dg + ")",
+                    args.toArray());
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private boolean exists(String sql, Object... args) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(sql + " LIMIT 1", ResultSet::next, args));
+    }
+
+    private static Instant instant(ResultSet rs, int column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toInstant() : null;
+    }
+
+    /**
+     * Decodes the Base64 subject hash used by the admin API ({@link SubjectId#fingerprint()}).
+     */
+    private byte[] decodeSubjectHash(String subjectHash) {
+        try {
+            byte[] digest = subjectHash == null ? null : Base64.getDecoder().decode(subjectHash);
+            if (digest != null && digest.length == 32) {
+                return digest;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new SsfBadRequestException("Invalid subject hash");
+    }
+
+    private String serializeSubject(Map<String, Object> subject) {
+        return writeJson(subject, "subject");
+    }
+
+    /**
+     * LIKE pattern matching the JSON-encoded audience value anywhere in the audience array.
+     */
+    private String audiencePattern(String audience) {
+        String quoted = writeJson(audience, "audience");
+        return "%" + quoted.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    /**
+     * String sets are stored as sorted JSON arrays, as the JPA plugin writes them.
+     */
+    private String writeSet(Collection<String> values) {
+        return writeJson(values == null ? Set.of() : new TreeSet<>(values), "string set");
+    }
+
+    private Set<String> readSet(String json) {
+        if (json == null || json.isBlank()) {
+            return new HashSet<>();
+        }
+        try {
+            return new HashSet<>(objectMapper.readValue(json, SET_TYPE));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize string set", e);
+        }
+    }
+
+    private String writeJson(Object value, String what) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new SsfInternalServerException("Failed to serialize " + what + ": " + e.getMessage());
+        }
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type, String what) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable {}: {}", what, e.getMessage());
+            return null;
+        }
+    }
+}
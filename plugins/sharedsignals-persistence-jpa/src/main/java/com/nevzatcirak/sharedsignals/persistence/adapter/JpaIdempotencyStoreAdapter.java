@@ -0,0 +1,62 @@
+package com.nevzatcirak.sharedsignals.persistence.adapter;
+
+import com.nevzatcirak.sharedsignals.api.spi.IdempotencyStore;
+import com.nevzatcirak.sharedsignals.persistence.repository.IngestionKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * JPA implementation of the ingestion idempotency key table.
+ * <p>
+ * Claims are taken with an insert-if-absent statement so that concurrent retries
+ * arriving on different nodes fan out at most once.
+ */
+@Component
+public class JpaIdempotencyStoreAdapter implements IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaIdempotencyStoreAdapter.class);
+    private final IngestionKeyRepository repository;
+
+    public JpaIdempotencyStoreAdapter(IngestionKeyRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    @Transactional
+    public boolean tryClaim(String key, Instant leaseUntil) {
+        if (repository.insertIfAbsent(key, leaseUntil) == 1) {
+            return true;
+        }
+        return repository.reclaimExpired(key, leaseUntil, Instant.now()) == 1;
+    }
+
+    @Override
+    public Optional<Integer> findOutcome(String key) {
+        return repository.findOutcome(key, Instant.now());
+    }
+
+    @Override
+    @Transactional
+    public void complete(String key, int fanOut, Instant expiresAt) {
+        repository.complete(key, fanOut, expiresAt);
+    }
+
+    @Override
+    @Transactional
+    public void release(String key) {
+        repository.release(key);
+    }
+
+    @Override
+    @Transactional
+    public int deleteExpired(Instant now) {
+        int deleted = repository.deleteExpired(now);
+        log.debug("Deleted {} expired ingestion keys", deleted);
+        return deleted;
+    }
+}
@@ -1,5 +1,7 @@
 package com.nevzatcirak.sharedsignals.persistence.adapter;
 
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
 import com.nevzatcirak.sharedsignals.api.model.PushMessage;
 import com.nevzatcirak.sharedsignals.api.spi.EventSender;
 import com.nevzatcirak.sharedsignals.api.spi.PushQueueStore;
@@ -7,40 +9,76 @@ import com.nevzatcirak.sharedsignals.persistence.entity.PushMessageEntity;
 import com.nevzatcirak.sharedsignals.persistence.repository.PushMessageRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.annotation.Primary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Fallback;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * Adapter implementation that bridges API SPIs to JPA Repository.
  * Implements PushQueueStore (for Core) and EventSender (for Publishing).
+ * A fallback bean: another persistence plugin on the classpath takes precedence.
  */
 @Component
-@Primary
+@Fallback
 public class JpaPushQueueAdapter implements PushQueueStore, EventSender {
 
     private static final Logger log = LoggerFactory.getLogger(JpaPushQueueAdapter.class);
     private final PushMessageRepository repository;
+    private final Duration maxLaneWait;
+    private final Duration inFlightTimeout;
+    private final Duration coalescingWindow;
 
-    public JpaPushQueueAdapter(PushMessageRepository repository) {
+    public JpaPushQueueAdapter(
+            PushMessageRepository repository,
+            @Value("${sharedsignals.delivery.priority.max-lane-wait-seconds:30}") long maxLaneWaitSeconds,
+            @Value("${sharedsignals.delivery.ordering.in-flight-timeout-seconds:300}") long inFlightTimeoutSeconds,
+            @Value("${sharedsignals.delivery.coalescing.window-seconds:300}") long coalescingWindowSeconds) {
         this.repository = repository;
+        this.maxLaneWait = Duration.ofSeconds(maxLaneWaitSeconds);
+        this.inFlightTimeout = Duration.ofSeconds(inFlightTimeoutSeconds);
+        this.coalescingWindow = Duration.ofSeconds(coalescingWindowSeconds);
     }
 
     @Override
     @Transactional
     public CompletableFuture<Void> send(String streamId, String url, String token, String authHeader) {
-        return enqueue(streamId, url, token, authHeader);
+        return enqueue(streamId, url, token, authHeader, DeliveryOptions.DEFAULT);
+    }
+
+    @Override
+    @Transactional
+    public CompletableFuture<Void> send(String streamId, String url, String token, String authHeader, DeliveryOptions options) {
+        return enqueue(streamId, url, token, authHeader, options);
     }
 
     @Override
     @Transactional
     public CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader) {
+        return enqueue(streamId, url, token, authHeader, DeliveryOptions.DEFAULT);
+    }
+
+    @Override
+    @Transactional
+    public CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader, DeliveryOptions options) {
+        String coalesceKey = options.coalesceKey();
+        EventPriority priority = options.priority();
+        if (coalesceKey != null) {
+            Instant now = Instant.now();
+            int superseded = repository.supersede(streamId, coalesceKey, now.minus(coalescingWindow), now);
+            if (superseded > 0) {
+                log.debug("Superseded {} queued message(s): stream={}, key={}", superseded, streamId, coalesceKey);
+            }
+        }
+
         PushMessageEntity entity = new PushMessageEntity();
         entity.setStreamId(streamId);
         entity.setEndpointUrl(url);
@@ -48,15 +86,21 @@ public class JpaPushQueueAdapter implements PushQueueStore, EventSender {
         entity.setAuthHeader(authHeader);
         entity.setStatus(PushMessageEntity.DeliveryStatus.PENDING);
         entity.setNextRetryAt(Instant.now());
+        entity.setPriority(priority.getLane());
+        entity.setDueAt(priority.dueAt(entity.getCreatedAt(), maxLaneWait));
+        entity.setPartitionKey(options.partitionKeyOr(streamId));
+        entity.setCoalesceKey(coalesceKey);
 
         repository.save(entity);
-        log.debug("Enqueued message for stream: {}", streamId);
+        log.debug("Enqueued message for stream: {} (priority: {})", streamId, priority);
         return CompletableFuture.completedFuture(null);
     }
 
     @Override
     public List<PushMessage> fetchReadyMessages(int batchSize) {
-        return repository.findReadyToProcess(Instant.now(), PageRequest.of(0, batchSize))
+        Instant now = Instant.now();
+        return repository.findReadyToProcess(now, now.minus(inFlightTimeout),
+                        PageRequest.of(0, batchSize))
                 .stream()
                 .map(this::toModel)
                 .collect(Collectors.toList());
@@ -76,6 +120,23 @@ public class JpaPushQueueAdapter implements PushQueueStore, EventSender {
         });
     }
 
+    @Override
+    @Transactional
+    public boolean claim(Long messageId) {
+        Instant now = Instant.now();
+        return repository.claim(messageId, now, now.minus(inFlightTimeout)) == 1;
+    }
+
+    @Override
+    @Transactional
+    public Optional<PushMessage> claimNextInPartition(String partitionKey) {
+        Instant now = Instant.now();
+        return repository.findPartitionHead(partitionKey, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .filter(head -> repository.claim(head.getId(), now, now.minus(inFlightTimeout)) == 1)
+                .map(this::toModel);
+    }
+
     private PushMessage toModel(PushMessageEntity entity) {
         PushMessage model = new PushMessage();
         model.setId(entity.getId());
@@ -87,6 +148,8 @@ public class JpaPushQueueAdapter implements PushQueueStore, EventSender {
         model.setRetryCount(entity.getRetryCount());
         model.setNextRetryAt(entity.getNextRetryAt());
         model.setLastError(entity.getLastError());
+        model.setPriority(EventPriority.fromLane(entity.getPriority()));
+        model.setPartitionKey(entity.getPartitionKey());
         return model;
     }
 }
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.nevzatcirak.sharedsignals.persistence.adapter;
+
+import com.nevzatcirak.sharedsignals.api.model.RateLimitPolicy;
+import com.nevzatcirak.sharedsignals.api.model.RateLimitResult;
+import com.nevzatcirak.sharedsignals.api.spi.RateLimiter;
+import com.nevzatcirak.sharedsignals.persistence.entity.RateLimitBucketEntity;
+import com.nevzatcirak.sharedsignals.persistence.repository.RateLimitBucketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter whose buckets live in the shared database, so a client gets the configured
+ * capacity across the whole cluster rather than per node.
+ * <p>
+ * A node takes tokens from the shared bucket in small batches with a compare-and-set on the
+ * bucket row and hands them out from memory for a short lease; a rejection is remembered until
+ * the next token is due. Most requests therefore never touch the database. Tokens are taken
+ * before they are used, so the cluster never exceeds the limit; tokens a node leased but did
+ * not use within the lease are lost, which is why batches shrink to the request cost once the
+ * bucket runs low.
+ * <p>
+ * If the database cannot be reached, requests are let through.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "sharedsignals.ratelimit.backend", havingValue = "database")
+public class JpaRateLimiterAdapter implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaRateLimiterAdapter.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int LOCK_STRIPES = 64;
+
+    private final RateLimitBucketRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final RateLimitPolicy defaultPolicy;
+    private final long batchSize;
+    private final long leaseNanos;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<String, RateLimitPolicy> policies = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLong lastLeaseSweepNanos = new AtomicLong(System.nanoTime());
+
+    public JpaRateLimiterAdapter(
+            RateLimitBucketRepository repository,
+            PlatformTransactionManager transactionManager,
+            @Value("${sharedsignals.ratelimit.capacity:100}") long capacity,
+            @Value("${sharedsignals.ratelimit.refill-tokens:100}") long refillTokens,
+            @Value("${sharedsignals.ratelimit.refill-duration-seconds:60}") long refillDurationSeconds,
+            @Value("${sharedsignals.ratelimit.database.batch-size:10}") long batchSize,
+            @Value("${sharedsignals.ratelimit.database.lease-millis:1000}") long leaseMillis) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultPolicy = new RateLimitPolicy("default", capacity, refillTokens, Duration.ofSeconds(refillDurationSeconds));
+        this.batchSize = Math.max(batchSize, 1);
+        this.leaseNanos = TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        policies.put(defaultPolicy.getName(), defaultPolicy);
+    }
+
+    @Override
+    public RateLimitResult tryConsume(String key) {
+        return tryConsume(key, 1, defaultPolicy);
+    }
+
+    @Override
+    public RateLimitResult tryConsume(String key, long tokens, RateLimitPolicy policy) {
+        String bucketKey = policy.bucketKey(key);
+        RateLimitResult result = consumeLeased(bucketKey, tokens, System.nanoTime());
+        if (result != null) {
+            return result;
+        }
+        policies.putIfAbsent(policy.getName(), policy);
+        synchronized (lockFor(bucketKey)) {
+            // Another request for the key may have leased tokens meanwhile
+            long now = System.nanoTime();
+            result = consumeLeased(bucketKey, tokens, now);
+            if (result != null) {
+                return result;
+            }
+            Lease previous = leases.get(bucketKey);
+            long leftover = previous != null && previous.isValid(now) ? previous.drain() : 0;
+            Lease lease;
+            try {
+                lease = lease(bucketKey, tokens - leftover, leftover, new Bandwidth(policy), now);
+            } catch (DataAccessException e) {
+                log.warn("Rate limit bucket {} unavailable, allowing request: {}", bucketKey, e.getMessage());
+                return RateLimitResult.success(0);
+            }
+            evictExpiredLeases(now);
+            leases.put(bucketKey, lease);
+            result = lease.consume(tokens, now);
+            return result != null ? result : RateLimitResult.rejected(1);
+        }
+    }
+
+    /**
+     * Charges leased tokens first, and the rest directly to the shared bucket.
+     */
+    @Override
+    public void forceConsume(String key, long tokens, RateLimitPolicy policy) {
+        if (tokens <= 0) {
+            return;
+        }
+        String bucketKey = policy.bucketKey(key);
+        long remaining = tokens;
+        Lease lease = leases.get(bucketKey);
+        if (lease != null && lease.isValid(System.nanoTime())) {
+            remaining -= lease.take(remaining);
+        }
+        if (remaining == 0) {
+            return;
+        }
+        long debt = remaining;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (repository.debit(bucketKey, debt) == 0) {
+                    repository.insertIfAbsent(bucketKey, policy.getCapacity(), Instant.now());
+                    repository.debit(bucketKey, debt);
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Rate limit bucket {} unavailable, dropping charge of {} tokens: {}", bucketKey, debt, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes buckets that are full again (idle for a whole refill period of the slowest tier).
+     */
+    @Override
+    public void purgeIdleBuckets() {
+        long fullRefillMillis = policies.values().stream()
+                .mapToLong(policy -> new Bandwidth(policy).fullRefillMillis())
+                .max().orElse(0);
+        int deleted = transactionTemplate.execute(status ->
+                repository.deleteRefilledBefore(Instant.now().minusMillis(fullRefillMillis)));
+        log.debug("Deleted {} idle rate limit buckets", deleted);
+    }
+
+    private Object lockFor(String bucketKey) {
+        return locks[Math.floorMod(bucketKey.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Drops leases of clients that went quiet, at most once per lease period.
+     */
+    private void evictExpiredLeases(long now) {
+        long last = lastLeaseSweepNanos.get();
+        if (now - last >= leaseNanos && lastLeaseSweepNanos.compareAndSet(last, now)) {
+            leases.values().removeIf(lease -> !lease.isValid(now));
+        }
+    }
+
+    private RateLimitResult consumeLeased(String bucketKey, long tokens, long now) {
+        Lease lease = leases.get(bucketKey);
+        return lease != null ? lease.consume(tokens, now) : null;
+    }
+
+    /**
+     * Takes at least {@code needed} tokens from the shared bucket, retrying when another node changed
+     * it concurrently. The new lease also holds the {@code leftover} of the previous one.
+     */
+    private Lease lease(String bucketKey, long needed, long leftover, Bandwidth bandwidth, long nowNanos) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long now = System.currentTimeMillis();
+            Optional<RateLimitBucketEntity> row = repository.findById(bucketKey);
+            if (row.isEmpty()) {
+                transactionTemplate.execute(status -> repository.insertIfAbsent(bucketKey, bandwidth.capacity, Instant.ofEpochMilli(now)));
+                continue;
+            }
+            RateLimitBucketEntity bucket = row.get();
+            long refilledAt = bucket.getRefilledAt().toEpochMilli();
+            long added = Math.max(now - refilledAt, 0) * bandwidth.refillTokens / bandwidth.refillMillis;
+            long tokens;
+            if (bucket.getTokens() + added >= bandwidth.capacity) {
+                tokens = bandwidth.capacity;
+                refilledAt = now;
+            } else {
+                tokens = bucket.getTokens() + added;
+                refilledAt += added * bandwidth.refillMillis / bandwidth.refillTokens;
+            }
+            if (tokens < needed) {
+                long waitMillis = Math.max(Math.ceilDiv((needed - tokens) * bandwidth.refillMillis, bandwidth.refillTokens)
+                        - (now - refilledAt), 1);
+                return Lease.rejected(leftover, nowNanos + Math.min(TimeUnit.MILLISECONDS.toNanos(waitMillis), leaseNanos),
+                        Math.ceilDiv(waitMillis, 1000));
+            }
+            long granted = tokens * 10 < bandwidth.capacity ? needed : Math.min(tokens, Math.max(needed, batchSize));
+            long remaining = tokens - granted;
+            Instant newRefilledAt = Instant.ofEpochMilli(refilledAt);
+            Integer updated = transactionTemplate.execute(status ->
+                    repository.compareAndSet(bucketKey, bucket.getVersion(), remaining, newRefilledAt));
+            if (updated != null && updated == 1) {
+                return Lease.granted(leftover + granted, remaining, nowNanos + leaseNanos);
+            }
+        }
+        log.debug("Rate limit bucket {} contended, rejecting request", bucketKey);
+        return Lease.rejected(leftover, nowNanos, 1);
+    }
+
+    /**
+     * A tier's refill rate in whole milliseconds.
+     */
+    private static final class Bandwidth {
+        final long capacity;
+        final long refillTokens;
+        final long refillMillis;
+
+        Bandwidth(RateLimitPolicy policy) {
+            this.capacity = policy.getCapacity();
+            this.refillTokens = Math.max(policy.getRefillTokens(), 1);
+            this.refillMillis = Math.max(policy.getRefillDuration().toMillis(), 1);
+        }
+
+        long fullRefillMillis() {
+            return Math.ceilDiv(capacity * refillMillis, refillTokens);
+        }
+    }
+
+    /**
+     * Tokens a node took from the shared bucket, or a remembered rejection.
+     */
+    private static final class Lease {
+        final AtomicLong tokens;
+        final long remainingShared;
+        final long expiresAtNanos;
+        final long waitSeconds;
+
+        private Lease(long tokens, long remainingShared, long expiresAtNanos, long waitSeconds) {
+            this.tokens = new AtomicLong(tokens);
+            this.remainingShared = remainingShared;
+            this.expiresAtNanos = expiresAtNanos;
+            this.waitSeconds = waitSeconds;
+        }
+
+        static Lease granted(long tokens, long remainingShared, long expiresAtNanos) {
+            return new Lease(tokens, remainingShared, expiresAtNanos, 0);
+        }
+
+        static Lease rejected(long tokens, long expiresAtNanos, long waitSeconds) {
+            return new Lease(tokens, 0, expiresAtNanos, waitSeconds);
+        }
+
+        boolean isValid(long now) {
+            return now - expiresAtNanos < 0;
+        }
+
+        /**
+         * @return the result, or null if the lease has run out and the bucket must be asked again
+         */
+        RateLimitResult consume(long cost, long now) {
+            if (!isValid(now)) {
+                return null;
+            }
+            long current;
+            do {
+                current = tokens.get();
+                if (current < cost) {
+                    return waitSeconds > 0 ? RateLimitResult.rejected(waitSeconds) : null;
+                }
+            } while (!tokens.compareAndSet(current, current - cost));
+            return RateLimitResult.success(remainingShared + current - cost);
+        }
+
+        /**
+         * Takes up to {@code wanted} tokens.
+         *
+         * @return the tokens taken
+         */
+        long take(long wanted) {
+            long current;
+            long taken;
+            do {
+                current = tokens.get();
+                taken = Math.min(current, wanted);
+            } while (taken > 0 && !tokens.compareAndSet(current, current - taken));
+            return Math.max(taken, 0);
+        }
+
+        long drain() {
+            return tokens.getAndSet(0);
+        }
+    }
+}
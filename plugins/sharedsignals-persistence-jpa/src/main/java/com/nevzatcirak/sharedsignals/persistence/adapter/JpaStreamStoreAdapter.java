@@ -1,26 +1,35 @@
 package com.nevzatcirak.sharedsignals.persistence.adapter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.enums.ReadPreference;
 import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
 import com.nevzatcirak.sharedsignals.api.exception.*;
+import com.nevzatcirak.sharedsignals.api.model.InactiveStream;
+import com.nevzatcirak.sharedsignals.api.model.RemovedSubject;
 import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
 import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
 import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
 import com.nevzatcirak.sharedsignals.persistence.entity.*;
 import com.nevzatcirak.sharedsignals.persistence.repository.*;
-import com.nevzatcirak.sharedsignals.persistence.util.SubjectHashUtil;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Fallback;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -35,71 +44,148 @@ import java.util.stream.Collectors;
  * <li>JSON serialization of complex subjects.</li>
  * </ul>
  * </p>
+ * <p>
+ * Read-only lookups run in a {@link ReadPreference#REPLICA} scope, so they may be served by a read
+ * replica when one is configured. A stream written through this node is read from the primary for
+ * the read-your-writes window afterwards; writes made on other nodes are seen within the replica
+ * lag bound.
+ * <p>
+ * A fallback bean: another persistence plugin on the classpath takes precedence.
  */
 @Component
+@Fallback
 public class JpaStreamStoreAdapter implements StreamStore {
 
     private static final Logger log = LoggerFactory.getLogger(JpaStreamStoreAdapter.class);
 
     private final StreamRepository streamRepository;
     private final SubjectRepository subjectRepository;
+    private final SubjectMembershipRepository membershipRepository;
+    private final SubjectIdentifierRepository identifierRepository;
     private final RemovedSubjectRepository removedSubjectRepository;
     private final StreamEventRepository streamEventRepository;
-    private final SubjectHashUtil subjectHashUtil;
     private final ObjectMapper objectMapper;
     private final int subjectRemovalGracePeriodSeconds;
+    private final Duration maxLaneWait;
+    private final Duration coalescingWindow;
+    private final long readYourWritesWindowNanos;
+    /** Stream identifier -> nanoTime of the last write through this node, kept for the read-your-writes window. */
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private volatile long lastPruneNanos = System.nanoTime();
 
     public JpaStreamStoreAdapter(
             StreamRepository streamRepository,
             SubjectRepository subjectRepository,
+            SubjectMembershipRepository membershipRepository,
+            SubjectIdentifierRepository identifierRepository,
             RemovedSubjectRepository removedSubjectRepository,
             StreamEventRepository streamEventRepository,
-            SubjectHashUtil subjectHashUtil,
             ObjectMapper objectMapper,
-            @Value("${sharedsignals.retention.subject-grace-period-seconds:604800}") int gracePeriodSeconds) {
+            @Value("${sharedsignals.retention.subject-grace-period-seconds:604800}") int gracePeriodSeconds,
+            @Value("${sharedsignals.delivery.priority.max-lane-wait-seconds:30}") long maxLaneWaitSeconds,
+            @Value("${sharedsignals.delivery.coalescing.window-seconds:300}") long coalescingWindowSeconds,
+            @Value("${sharedsignals.datasource.replicas.read-your-writes-window-ms:5000}") long readYourWritesWindowMillis) {
         this.streamRepository = streamRepository;
         this.subjectRepository = subjectRepository;
+        this.membershipRepository = membershipRepository;
+        this.identifierRepository = identifierRepository;
         this.removedSubjectRepository = removedSubjectRepository;
         this.streamEventRepository = streamEventRepository;
-        this.subjectHashUtil = subjectHashUtil;
         this.objectMapper = objectMapper;
         this.subjectRemovalGracePeriodSeconds = gracePeriodSeconds;
+        this.maxLaneWait = Duration.ofSeconds(maxLaneWaitSeconds);
+        this.coalescingWindow = Duration.ofSeconds(coalescingWindowSeconds);
+        this.readYourWritesWindowNanos = Duration.ofMillis(readYourWritesWindowMillis).toNanos();
     }
 
     @Override
     @Transactional
     public void addSubject(String streamId, Map<String, Object> subject, boolean verified) {
-        StreamEntity stream = streamRepository.findById(streamId).orElseThrow(() -> new StreamNotFoundException(streamId));
-        String subjectHash = subjectHashUtil.computeHash(subject);
-        if (subjectRepository.existsByStreamStreamIdAndSubjectHash(streamId, subjectHash)) {
+        addSubject(streamId, SubjectId.of(subject), verified);
+    }
+
+    @Override
+    @Transactional
+    public void addSubject(String streamId, SubjectId subject, boolean verified) {
+        markWritten(streamId);
+        if (!streamRepository.existsById(streamId)) {
+            throw new StreamNotFoundException(streamId);
+        }
+        Long subjectId = resolveSubjectId(subject)
+                .orElseGet(() -> registerSubject(subject));
+        if (membershipRepository.existsBySubjectIdAndStreamId(subjectId, streamId)) {
             throw new SubjectAlreadyExistsException("Subject already exists in stream: " + streamId);
         }
-        SubjectEntity subjectEntity = new SubjectEntity();
-        subjectEntity.setStream(stream);
-        subjectEntity.setSubjectPayload(serializeSubject(subject));
-        subjectEntity.setSubjectHash(subjectHash);
 
         //Verified is ignored due to security concern (SSF 9.2. Information Harvesting)
-        subjectEntity.setStatus(SubjectStatus.PENDING);
+        membershipRepository.save(new SubjectMembershipEntity(subjectId, streamId, SubjectStatus.PENDING));
+        log.info("Subject added to stream {} with status {}", streamId, SubjectStatus.PENDING);
+    }
 
-        subjectRepository.save(subjectEntity);
-        log.info("Subject added to stream {} with status {}", streamId, subjectEntity.getStatus());
+    private Optional<Long> resolveSubjectId(SubjectId subject) {
+        return subjectRepository.findIdByDigest(subject.fingerprint64(), subject.digest());
+    }
+
+    /**
+     * Stores the subject once; aliases and complex subjects are also indexed by each of their identifiers.
+     */
+    private Long registerSubject(SubjectId subject) {
+        subjectRepository.insertIfAbsent(subject.digest(), subject.fingerprint64(),
+                serializeSubject(subject.asMap()), Instant.now());
+        Long subjectId = resolveSubjectId(subject)
+                .orElseThrow(() -> new SsfInternalServerException("Failed to register subject"));
+        if (subject.isCompound()) {
+            for (SubjectId identifier : subject.identifiers()) {
+                identifierRepository.insertIfAbsent(subjectId, identifier.digest(), identifier.fingerprint64());
+            }
+        }
+        return subjectId;
+    }
+
+    /**
+     * Resolves the registered subjects an event about this subject is delivered for: the subject itself,
+     * simple subjects equal to one of its identifiers, and aliases/complex subjects containing one of them.
+     * Two indexed lookups, whatever the number of identifiers.
+     */
+    private Set<Long> matchingSubjectIds(SubjectId subject) {
+        Map<Long, List<byte[]>> digestsByFingerprint = new HashMap<>();
+        digestsByFingerprint.computeIfAbsent(subject.fingerprint64(), fp -> new ArrayList<>()).add(subject.digest());
+        for (SubjectId identifier : subject.identifiers()) {
+            digestsByFingerprint.computeIfAbsent(identifier.fingerprint64(), fp -> new ArrayList<>()).add(identifier.digest());
+        }
+        Set<Long> subjectIds = new HashSet<>();
+        collectMatches(subjectRepository.findByFingerprints(digestsByFingerprint.keySet()), digestsByFingerprint, subjectIds);
+        collectMatches(identifierRepository.findByFingerprints(digestsByFingerprint.keySet()), digestsByFingerprint, subjectIds);
+        return subjectIds;
+    }
+
+    private static void collectMatches(List<Object[]> rows, Map<Long, List<byte[]>> digestsByFingerprint, Set<Long> out) {
+        for (Object[] row : rows) {
+            byte[] digest = (byte[]) row[1];
+            List<byte[]> candidates = digestsByFingerprint.get(SubjectId.fingerprint64(digest));
+            if (candidates != null && candidates.stream().anyMatch(candidate -> Arrays.equals(candidate, digest))) {
+                out.add((Long) row[0]);
+            }
+        }
     }
 
     @Override
     @Transactional
     public void updateSubjectStatus(String streamId, String subjectHash, SubjectStatus status) {
-        SubjectEntity subject = subjectRepository.findByStreamStreamIdAndSubjectHash(streamId, subjectHash)
+        markWritten(streamId);
+        byte[] digest = decodeSubjectHash(subjectHash);
+        Long subjectId = subjectRepository.findIdByDigest(SubjectId.fingerprint64(digest), digest)
                 .orElseThrow(() -> new SsfBadRequestException("Subject not found or hash mismatch"));
-
-        subject.setStatus(status);
-        subjectRepository.save(subject);
+        if (membershipRepository.updateStatus(subjectId, streamId, status) == 0) {
+            throw new SsfBadRequestException("Subject not found or hash mismatch");
+        }
         log.info("Subject status updated to {} for stream {}", status, streamId);
     }
 
     @Override
     @Transactional
     public void updateAuthorizedEvents(String streamId, Set<String> authorizedEvents) {
+        markWritten(streamId);
         StreamEntity stream = streamRepository.findById(streamId)
                 .orElseThrow(() -> new StreamNotFoundException(streamId));
 
@@ -116,6 +202,7 @@ public class JpaStreamStoreAdapter implements StreamStore {
     @Override
     @Transactional
     public StreamConfiguration save(StreamConfiguration model) {
+        markWritten(model.getStream_id());
         StreamEntity entity;
         if (model.getStream_id() != null) {
             entity = streamRepository.findById(model.getStream_id()).orElse(new StreamEntity());
@@ -123,14 +210,21 @@ public class JpaStreamStoreAdapter implements StreamStore {
         } else {
             entity = new StreamEntity();
         }
+        boolean timeoutChanged = entity.getCreatedAt() != null
+                && !Objects.equals(entity.getInactivityTimeout(), model.getInactivity_timeout());
         mergeToEntity(model, entity);
-        return toModel(streamRepository.save(entity));
+        StreamEntity saved = streamRepository.save(entity);
+        markWritten(saved.getStreamId());
+        if (timeoutChanged) {
+            streamRepository.refreshInactiveAfter(saved.getStreamId());
+        }
+        return toModel(saved);
     }
 
     private void mergeToEntity(StreamConfiguration model, StreamEntity entity) {
         entity.setIssuer(model.getIss());
         if (model.getAud() != null) entity.setAudience(new HashSet<>(model.getAud()));
-        else entity.getAudience().clear();
+        else entity.setAudience(new HashSet<>());
 
         entity.setDescription(model.getDescription());
         entity.setMinVerificationInterval(model.getMin_verification_interval());
@@ -153,7 +247,7 @@ public class JpaStreamStoreAdapter implements StreamStore {
         if (model.getEvents_requested() != null) {
             entity.setEventsRequested(new HashSet<>(model.getEvents_requested()));
         } else {
-            entity.getEventsRequested().clear();
+            entity.setEventsRequested(new HashSet<>());
         }
 
         if (entity.getEventsAuthorized().isEmpty() && model.getEvents_requested() != null) {
@@ -168,6 +262,7 @@ public class JpaStreamStoreAdapter implements StreamStore {
     @Override
     @Transactional
     public void updateStreamMode(String streamId, boolean processAllSubjects) {
+        markWritten(streamId);
         StreamEntity stream = streamRepository.findById(streamId)
                 .orElseThrow(() -> new StreamNotFoundException(streamId));
         stream.setProcessAllSubjects(processAllSubjects);
@@ -175,49 +270,140 @@ public class JpaStreamStoreAdapter implements StreamStore {
         log.info("Stream {} processAllSubjects mode updated to {}", streamId, processAllSubjects);
     }
 
+    @Override
+    @Transactional
+    public void updateEventPriorities(String streamId, Map<String, EventPriority> priorities) {
+        markWritten(streamId);
+        StreamEntity stream = streamRepository.findById(streamId)
+                .orElseThrow(() -> new StreamNotFoundException(streamId));
+        stream.setEventPriorities(priorities == null || priorities.isEmpty() ? null : serializePriorities(priorities));
+        streamRepository.save(stream);
+        log.info("Stream {} event priorities updated to {}", streamId, priorities);
+    }
+
+    @Override
+    @Transactional
+    public void updateCoalescedEvents(String streamId, Set<String> eventTypes) {
+        markWritten(streamId);
+        StreamEntity stream = streamRepository.findById(streamId)
+                .orElseThrow(() -> new StreamNotFoundException(streamId));
+        stream.setCoalescedEvents(eventTypes == null || eventTypes.isEmpty() ? null : serializeCoalescedEvents(eventTypes));
+        streamRepository.save(stream);
+        log.info("Stream {} coalesced events updated to {}", streamId, eventTypes);
+    }
+
+    /**
+     * One update per distinct instant; observations are truncated to the activity resolution, so a
+     * flush usually holds a single instant.
+     */
+    @Override
+    @Transactional
+    public boolean recordStreamActivity(Map<String, Instant> lastActivity) {
+        Map<Instant, List<String>> streamsByInstant = new HashMap<>();
+        lastActivity.forEach((streamId, at) -> streamsByInstant.computeIfAbsent(at, k -> new ArrayList<>()).add(streamId));
+        streamsByInstant.forEach((at, streamIds) -> streamRepository.advanceLastActivity(streamIds, at));
+        return true;
+    }
+
+    @Override
+    public Optional<List<InactiveStream>> findInactiveStreams(Instant now, InactiveStream after, int limit) {
+        Instant afterInactiveAfter = after == null ? Instant.EPOCH : after.getInactiveSince();
+        String afterStreamId = after == null ? "" : after.getStreamId();
+        return Optional.of(streamRepository.findInactiveAfter(now, afterInactiveAfter, afterStreamId, Pageable.ofSize(limit)).stream()
+                .map(row -> new InactiveStream((String) row[0], (Instant) row[1], (Instant) row[2]))
+                .collect(Collectors.toList()));
+    }
+
     @Override
     public Optional<StreamConfiguration> findById(String streamId) {
-        return streamRepository.findById(streamId).map(this::toModel);
+        return read(streamId, () -> streamRepository.findById(streamId).map(this::toModel));
+    }
+
+    @Override
+    public Optional<Long> findVersion(String streamId) {
+        return read(streamId, () -> streamRepository.findVersionByStreamId(streamId));
     }
 
     @Override
     @Transactional
     public void deleteById(String streamId) {
+        markWritten(streamId);
+        membershipRepository.deleteByStreamId(streamId);
         streamRepository.deleteById(streamId);
     }
 
     @Override
     public List<StreamConfiguration> findByAudience(String audience) {
-        return streamRepository.findByAudience(audience).stream().map(this::toModel).collect(Collectors.toList());
+        return read(null, () -> streamRepository.findByAudienceLike(audiencePattern(audience)).stream()
+                .filter(entity -> entity.getAudience().contains(audience))
+                .map(this::toModel)
+                .collect(Collectors.toList()));
     }
 
     @Override
     public List<StreamConfiguration> findStreamsBySubject(Map<String, Object> subject) {
-        String hash = subjectHashUtil.computeHash(subject);
-        return streamRepository.findEnabledStreamsBySubjectHash(hash).stream().map(s -> toModel(s)).collect(Collectors.toList());
+        return findStreamsBySubject(SubjectId.of(subject));
+    }
+
+    @Override
+    public List<StreamConfiguration> findStreamsBySubject(SubjectId subject) {
+        return read(null, () -> {
+            Set<Long> subjectIds = matchingSubjectIds(subject);
+            List<StreamEntity> streams = subjectIds.isEmpty()
+                    ? streamRepository.findEnabledBroadcastStreams()
+                    : streamRepository.findEnabledStreamsBySubjectIds(subjectIds);
+            return streams.stream().map(s -> toModel(s)).collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    public List<StreamConfiguration> findSubscribedStreamsBySubject(Map<String, Object> subject) {
+        return findSubscribedStreamsBySubject(SubjectId.of(subject));
+    }
+
+    @Override
+    public List<StreamConfiguration> findSubscribedStreamsBySubject(SubjectId subject) {
+        return read(null, () -> {
+            Set<Long> subjectIds = matchingSubjectIds(subject);
+            if (subjectIds.isEmpty()) {
+                return List.<StreamConfiguration>of();
+            }
+            return streamRepository.findEnabledSubscribedStreamsBySubjectIds(subjectIds).stream().map(this::toModel).collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    public List<StreamConfiguration> findBroadcastStreams() {
+        return read(null, () -> streamRepository.findEnabledBroadcastStreams().stream().map(this::toModel).collect(Collectors.toList()));
     }
 
     @Override
     @Transactional
     public void removeSubject(String streamId, Map<String, Object> subject) {
-        String subjectHash = subjectHashUtil.computeHash(subject);
+        removeSubject(streamId, SubjectId.of(subject));
+    }
 
-        SubjectEntity subjectEntity = subjectRepository
-                .findByStreamStreamIdAndSubjectHash(streamId, subjectHash)
+    @Override
+    @Transactional
+    public void removeSubject(String streamId, SubjectId subject) {
+        markWritten(streamId);
+        Long subjectId = resolveSubjectId(subject)
+                .filter(id -> membershipRepository.deleteMembership(id, streamId) > 0)
                 .orElseThrow(() -> new StreamNotFoundException(
                         "Subject not found in stream: " + streamId));
 
         RemovedSubjectEntity removedSubject = new RemovedSubjectEntity();
         removedSubject.setStreamId(streamId);
-        removedSubject.setSubjectHash(subjectHash);
-        removedSubject.setSubjectPayload(subjectEntity.getSubjectPayload());
+        removedSubject.setSubjectDigest(subject.digest());
+        removedSubject.setSubjectFingerprint(subject.fingerprint64());
+        removedSubject.setSubjectPayload(subjectRepository.findPayloadById(subjectId)
+                .orElseGet(() -> serializeSubject(subject.asMap())));
         removedSubject.setRemovedAt(Instant.now());
         removedSubject.setGracePeriodExpiresAt(
                 Instant.now().plusSeconds(subjectRemovalGracePeriodSeconds)
         );
 
         removedSubjectRepository.save(removedSubject);
-        subjectRepository.delete(subjectEntity);
 
         log.info("Subject removed from stream {} with grace period until {}",
                 streamId, removedSubject.getGracePeriodExpiresAt());
@@ -225,39 +411,93 @@ public class JpaStreamStoreAdapter implements StreamStore {
 
     @Override
     public boolean isSubjectInGracePeriod(String streamId, Map<String, Object> subject) {
-        String subjectHash = subjectHashUtil.computeHash(subject);
+        return isSubjectInGracePeriod(streamId, SubjectId.of(subject));
+    }
+
+    @Override
+    public boolean isSubjectInGracePeriod(String streamId, SubjectId subject) {
         return removedSubjectRepository
-                .findActiveGracePeriod(streamId, subjectHash, Instant.now())
+                .findActiveGracePeriod(streamId, subject.fingerprint64(), subject.digest(), Instant.now())
                 .isPresent();
     }
 
     @Override
+    public Optional<List<RemovedSubject>> findRemovedSubjectsSince(Instant removedSince) {
+        return Optional.of(removedSubjectRepository.findActiveRemovedSince(removedSince, Instant.now()).stream()
+                .map(r -> new RemovedSubject(r.getStreamId(), r.getSubjectDigest(), r.getGracePeriodExpiresAt()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Also deletes subjects that are no longer registered on any stream. A subject re-registered
+     * concurrently is protected by the membership foreign key.
+     */
+    @Override
+    @Transactional
     public void deleteByGracePeriodExpiresAtBefore(Instant expiryTime) {
         removedSubjectRepository.deleteByGracePeriodExpiresAtBefore(expiryTime);
+        int unregistered = subjectRepository.deleteUnregisteredCreatedBefore(expiryTime);
+        if (unregistered > 0) {
+            log.info("Deleted {} subject(s) no longer registered on any stream", unregistered);
+        }
     }
 
     @Override
     public boolean isSubjectRegistered(String streamId, Map<String, Object> subject) {
-        return subjectRepository.existsByStreamStreamIdAndSubjectHash(streamId, subjectHashUtil.computeHash(subject));
+        return isSubjectRegistered(streamId, SubjectId.of(subject));
+    }
+
+    @Override
+    public boolean isSubjectRegistered(String streamId, SubjectId subject) {
+        return read(streamId, () -> resolveSubjectId(subject)
+                .map(id -> membershipRepository.existsBySubjectIdAndStreamId(id, streamId))
+                .orElse(false));
     }
 
 
     @Override
     public boolean isSubjectApproved(String streamId, Map<String, Object> subject) {
-        String hash = subjectHashUtil.computeHash(subject);
-        return subjectRepository.findByStreamStreamIdAndSubjectHash(streamId, hash)
-                .map(s -> s.getStatus() == SubjectStatus.APPROVED)
-                .orElse(false);
+        return isSubjectApproved(streamId, SubjectId.of(subject));
+    }
+
+    @Override
+    public boolean isSubjectApproved(String streamId, SubjectId subject) {
+        return read(streamId, () -> {
+            Set<Long> subjectIds = matchingSubjectIds(subject);
+            return !subjectIds.isEmpty()
+                    && membershipRepository.existsByStreamIdAndStatusAndSubjectIdIn(streamId, SubjectStatus.APPROVED, subjectIds);
+        });
     }
 
     // --- POLL METHODS ---
     @Override
     public void saveEvent(String streamId, String jti, String setToken) {
-        log.debug("Saving event to buffer: stream={}, jti={}", streamId, jti);
+        saveEvent(streamId, jti, setToken, EventPriority.NORMAL);
+    }
+
+    @Override
+    public void saveEvent(String streamId, String jti, String setToken, EventPriority priority) {
+        saveEvent(streamId, jti, setToken, priority, null);
+    }
+
+    @Override
+    @Transactional
+    public void saveEvent(String streamId, String jti, String setToken, EventPriority priority, String coalesceKey) {
+        markWritten(streamId);
+        if (coalesceKey != null) {
+            int superseded = streamEventRepository.deleteSuperseded(streamId, coalesceKey, Instant.now().minus(coalescingWindow));
+            if (superseded > 0) {
+                log.debug("Superseded {} buffered event(s): stream={}, key={}", superseded, streamId, coalesceKey);
+            }
+        }
+        log.debug("Saving event to buffer: stream={}, jti={}, priority={}", streamId, jti, priority);
         StreamEventEntity event = new StreamEventEntity();
         event.setStreamId(streamId);
         event.setJti(jti);
         event.setSetToken(setToken);
+        event.setPriority(priority.getLane());
+        event.setDueAt(priority.dueAt(event.getCreatedAt(), maxLaneWait));
+        event.setCoalesceKey(coalesceKey);
 
         streamEventRepository.save(event);
 
@@ -267,10 +507,10 @@ public class JpaStreamStoreAdapter implements StreamStore {
     @Override
     public Map<String, String> fetchEvents(String streamId, int maxEvents) {
         log.debug("Fetching events from buffer: stream={}, maxEvents={}", streamId, maxEvents);
-        List<StreamEventEntity> events = streamEventRepository.findUnacknowledgedEvents(
+        List<StreamEventEntity> events = read(streamId, () -> streamEventRepository.findUnacknowledgedEvents(
                 streamId,
                 Pageable.ofSize(maxEvents)
-        );
+        ));
 
         Map<String, String> result = new LinkedHashMap<>();
         for (StreamEventEntity event : events) {
@@ -284,6 +524,7 @@ public class JpaStreamStoreAdapter implements StreamStore {
     @Override
     @Transactional
     public void acknowledgeEvents(String streamId, List<String> jtis) {
+        markWritten(streamId);
         if (jtis == null || jtis.isEmpty()) {
             return;
         }
@@ -306,12 +547,44 @@ public class JpaStreamStoreAdapter implements StreamStore {
 
     @Override
     public long countUnacknowledgedEvents(String streamId) {
-        return streamEventRepository.countByStreamIdAndAcknowledgedFalse(streamId);
+        return read(streamId, () -> streamEventRepository.countByStreamIdAndAcknowledgedFalse(streamId));
     }
 
     @Override
     public long getEventCount() {
-        return streamEventRepository.count();
+        return read(null, streamEventRepository::count);
+    }
+
+    /**
+     * Runs a read-only lookup in a {@link ReadPreference#REPLICA} scope, unless the stream was written
+     * through this node within the read-your-writes window.
+     *
+     * @param streamId the stream the lookup is about, or null if it spans streams
+     */
+    private <T> T read(String streamId, Supplier<T> lookup) {
+        if (streamId != null && writtenRecently(streamId)) {
+            return lookup.get();
+        }
+        try (ReadPreference.Scope ignored = ReadPreference.REPLICA.enter()) {
+            return lookup.get();
+        }
+    }
+
+    private boolean writtenRecently(String streamId) {
+        Long writtenAt = recentWrites.get(streamId);
+        return writtenAt != null && System.nanoTime() - writtenAt < readYourWritesWindowNanos;
+    }
+
+    private void markWritten(String streamId) {
+        if (streamId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        recentWrites.put(streamId, now);
+        if (now - lastPruneNanos >= readYourWritesWindowNanos) {
+            lastPruneNanos = now;
+            recentWrites.values().removeIf(writtenAt -> now - writtenAt >= readYourWritesWindowNanos);
+        }
     }
 
     private StreamConfiguration toModel(StreamEntity entity) {
@@ -327,6 +600,12 @@ public class JpaStreamStoreAdapter implements StreamStore {
         model.setReason(entity.getStatusReason());
 
         model.setProcessAllSubjects(entity.isProcessAllSubjects());
+        if (entity.getEventPriorities() != null) {
+            model.setEventPriorities(deserializePriorities(entity.getEventPriorities()));
+        }
+        if (entity.getCoalescedEvents() != null) {
+            model.setCoalescedEvents(deserializeCoalescedEvents(entity.getCoalescedEvents()));
+        }
 
         if (entity.getDelivery() != null) {
             StreamDelivery delivery = new StreamDelivery();
@@ -350,6 +629,21 @@ public class JpaStreamStoreAdapter implements StreamStore {
         return model;
     }
 
+    /**
+     * Decodes the Base64 subject hash used by the admin API ({@link SubjectId#fingerprint()}).
+     */
+    private byte[] decodeSubjectHash(String subjectHash) {
+        try {
+            byte[] digest = subjectHash == null ? null : Base64.getDecoder().decode(subjectHash);
+            if (digest != null && digest.length == 32) {
+                return digest;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new SsfBadRequestException("Invalid subject hash");
+    }
+
     private String serializeSubject(Map<String, Object> subject) {
         try {
             return objectMapper.writeValueAsString(subject);
@@ -357,4 +651,50 @@ public class JpaStreamStoreAdapter implements StreamStore {
             throw new SsfInternalServerException("Failed to serialize subject: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * LIKE pattern matching the JSON-encoded audience value anywhere in the audience array.
+     */
+    private String audiencePattern(String audience) {
+        try {
+            String quoted = objectMapper.writeValueAsString(audience);
+            return "%" + quoted.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        } catch (JsonProcessingException e) {
+            throw new SsfInternalServerException("Failed to serialize audience: " + e.getMessage());
+        }
+    }
+
+    private String serializePriorities(Map<String, EventPriority> priorities) {
+        try {
+            return objectMapper.writeValueAsString(priorities);
+        } catch (JsonProcessingException e) {
+            throw new SsfInternalServerException("Failed to serialize event priorities: " + e.getMessage());
+        }
+    }
+
+    private Map<String, EventPriority> deserializePriorities(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, EventPriority>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable event priorities: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String serializeCoalescedEvents(Set<String> eventTypes) {
+        try {
+            return objectMapper.writeValueAsString(eventTypes);
+        } catch (JsonProcessingException e) {
+            throw new SsfInternalServerException("Failed to serialize coalesced events: " + e.getMessage());
+        }
+    }
+
+    private Set<String> deserializeCoalescedEvents(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<Set<String>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable coalesced events: {}", e.getMessage());
+            return null;
+        }
+    }
+}
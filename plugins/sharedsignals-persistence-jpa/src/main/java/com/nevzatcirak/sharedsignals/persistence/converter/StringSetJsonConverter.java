@@ -0,0 +1,45 @@
+package com.nevzatcirak.sharedsignals.persistence.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Stores a set of strings as a JSON array in a single column.
+ * <p>
+ * Values are written sorted, so an unchanged set always produces the same column value
+ * and does not cause a spurious update.
+ */
+@Converter
+public class StringSetJsonConverter implements AttributeConverter<Set<String>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Set<String>> SET_TYPE = new TypeReference<>() {};
+
+    @Override
+    public String convertToDatabaseColumn(Set<String> values) {
+        try {
+            return MAPPER.writeValueAsString(values == null ? Set.of() : new TreeSet<>(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize string set", e);
+        }
+    }
+
+    @Override
+    public Set<String> convertToEntityAttribute(String json) {
+        if (json == null || json.isBlank()) {
+            return new HashSet<>();
+        }
+        try {
+            return new HashSet<>(MAPPER.readValue(json, SET_TYPE));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize string set", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.nevzatcirak.sharedsignals.persistence.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Compact record of a processed ingestion key (producer event id / txn).
+ * <p>
+ * Lets the transmitter answer producer retries from the recorded fan-out outcome
+ * instead of signing and queueing the same event twice. Rows are short-lived and
+ * removed once {@code expires_at} has passed.
+ */
+@Entity
+@Table(name = "ssf_ingestion_keys",
+        indexes = @Index(name = "idx_ingestion_key_expiry", columnList = "expires_at"))
+public class IngestionKeyEntity {
+
+    @Id
+    @Column(name = "idempotency_key", length = 300)
+    private String idempotencyKey;
+
+    /**
+     * Number of streams the event was fanned out to; null while ingestion is in progress.
+     */
+    @Column(name = "fan_out_count")
+    private Integer fanOutCount;
+
+    /**
+     * Claim lease while in progress, retention deadline once completed.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Getters and Setters
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public Integer getFanOutCount() {
+        return fanOutCount;
+    }
+
+    public void setFanOutCount(Integer fanOutCount) {
+        this.fanOutCount = fanOutCount;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
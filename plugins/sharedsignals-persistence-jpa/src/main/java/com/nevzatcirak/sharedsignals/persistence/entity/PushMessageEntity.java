@@ -10,7 +10,10 @@ import java.time.Instant;
 @Entity
 @Table(name = "ssf_push_queue", indexes = {
         @Index(name = "idx_push_status_next_retry", columnList = "status, next_retry_at"),
-        @Index(name = "idx_push_created", columnList = "created_at")
+        @Index(name = "idx_push_created", columnList = "created_at"),
+        @Index(name = "idx_push_partition_status", columnList = "partition_key, status, id"),
+        @Index(name = "idx_push_coalesce", columnList = "stream_id, coalesce_key"),
+        @Index(name = "idx_push_status_due", columnList = "status, due_at")
 })
 public class PushMessageEntity {
 
@@ -49,6 +52,31 @@ public class PushMessageEntity {
     @Column(name = "last_error", columnDefinition = "TEXT")
     private String lastError;
 
+    /**
+     * Delivery lane (0 = highest). See {@code EventPriority}.
+     */
+    @Column(name = "priority", nullable = false, columnDefinition = "integer default 1")
+    private int priority = 1;
+
+    /**
+     * Virtual deadline: creation time plus the lane offset. Delivery order. See {@code EventPriority#dueAt}.
+     */
+    @Column(name = "due_at")
+    private Instant dueAt;
+
+    /**
+     * Ordering partition (stream, or stream and subject hash). Rows written before
+     * partitioning existed are given their stream by {@code PushPartitionMigration}.
+     */
+    @Column(name = "partition_key")
+    private String partitionKey;
+
+    /**
+     * Supersession group and subject hash, set only for event types the stream coalesces.
+     */
+    @Column(name = "coalesce_key")
+    private String coalesceKey;
+
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = Instant.now();
@@ -59,7 +87,8 @@ public class PushMessageEntity {
         IN_PROGRESS,
         COMPLETED,
         FAILED,
-        PERMANENTLY_FAILED
+        PERMANENTLY_FAILED,
+        SUPERSEDED
     }
 
     public Long getId() { return id; }
@@ -78,6 +107,18 @@ public class PushMessageEntity {
     public void setRetryCount(int retryCount) { this.retryCount = retryCount; }
     public Instant getNextRetryAt() { return nextRetryAt; }
     public void setNextRetryAt(Instant nextRetryAt) { this.nextRetryAt = nextRetryAt; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+    public Instant getDueAt() { return dueAt; }
+    public void setDueAt(Instant dueAt) { this.dueAt = dueAt; }
+    public String getPartitionKey() { return partitionKey; }
+    public void setPartitionKey(String partitionKey) { this.partitionKey = partitionKey; }
+    public String getCoalesceKey() { return coalesceKey; }
+    public void setCoalesceKey(String coalesceKey) { this.coalesceKey = coalesceKey; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
     public String getLastError() { return lastError; }
     public void setLastError(String lastError) { this.lastError = lastError; }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.nevzatcirak.sharedsignals.persistence.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Token bucket shared by all nodes, keyed by client id or remote address.
+ * <p>
+ * Nodes take tokens in batches with a compare-and-set on {@code version}. Rows are
+ * removed once the bucket would be full again, so the table only holds active clients.
+ */
+@Entity
+@Table(name = "ssf_rate_limit_buckets",
+        indexes = @Index(name = "idx_rate_limit_refilled_at", columnList = "refilled_at"))
+public class RateLimitBucketEntity {
+
+    @Id
+    @Column(name = "bucket_key", length = 300)
+    private String bucketKey;
+
+    /**
+     * Tokens left as of {@code refilled_at}.
+     */
+    @Column(name = "tokens", nullable = false)
+    private long tokens;
+
+    @Column(name = "refilled_at", nullable = false)
+    private Instant refilledAt;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Getters and Setters
+
+    public String getBucketKey() {
+        return bucketKey;
+    }
+
+    public void setBucketKey(String bucketKey) {
+        this.bucketKey = bucketKey;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(long tokens) {
+        this.tokens = tokens;
+    }
+
+    public Instant getRefilledAt() {
+        return refilledAt;
+    }
+
+    public void setRefilledAt(Instant refilledAt) {
+        this.refilledAt = refilledAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
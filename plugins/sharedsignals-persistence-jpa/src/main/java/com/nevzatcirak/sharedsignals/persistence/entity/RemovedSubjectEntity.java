@@ -12,7 +12,10 @@ import java.time.Instant;
  */
 @Entity
 @Table(name = "ssf_removed_subjects",
-        indexes = @Index(name = "idx_removed_subject", columnList = "stream_id, subject_hash"))
+        indexes = {
+                @Index(name = "idx_removed_subject_fp", columnList = "subject_fingerprint, stream_id"),
+                @Index(name = "idx_removed_subject_removed_at", columnList = "removed_at")
+        })
 public class RemovedSubjectEntity {
 
     @Id
@@ -22,8 +25,14 @@ public class RemovedSubjectEntity {
     @Column(name = "stream_id", nullable = false)
     private String streamId;
 
-    @Column(name = "subject_hash", nullable = false)
-    private String subjectHash;
+    /**
+     * SHA-256 digest of the canonical subject; looked up by {@link #subjectFingerprint}.
+     */
+    @Column(name = "subject_digest", length = 32)
+    private byte[] subjectDigest;
+
+    @Column(name = "subject_fingerprint")
+    private Long subjectFingerprint;
 
     @Column(name = "subject_payload", nullable = false, columnDefinition = "TEXT")
     private String subjectPayload;
@@ -61,12 +70,20 @@ public class RemovedSubjectEntity {
         this.streamId = streamId;
     }
 
-    public String getSubjectHash() {
-        return subjectHash;
+    public byte[] getSubjectDigest() {
+        return subjectDigest;
+    }
+
+    public void setSubjectDigest(byte[] subjectDigest) {
+        this.subjectDigest = subjectDigest;
+    }
+
+    public Long getSubjectFingerprint() {
+        return subjectFingerprint;
     }
 
-    public void setSubjectHash(String subjectHash) {
-        this.subjectHash = subjectHash;
+    public void setSubjectFingerprint(Long subjectFingerprint) {
+        this.subjectFingerprint = subjectFingerprint;
     }
 
     public String getSubjectPayload() {
@@ -0,0 +1,36 @@
+package com.nevzatcirak.sharedsignals.persistence.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Heartbeat a node writes to the primary and reads back from each read replica; how old the beat
+ * seen on a replica is bounds its replication lag. One row per node, by the node's own clock.
+ */
+@Entity
+@Table(name = "ssf_replica_heartbeat")
+public class ReplicaHeartbeatEntity {
+
+    @Id
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+
+    @Column(name = "beat_at", nullable = false)
+    private Instant beatAt;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Instant getBeatAt() {
+        return beatAt;
+    }
+
+    public void setBeatAt(Instant beatAt) {
+        this.beatAt = beatAt;
+    }
+}
@@ -6,32 +6,34 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.persistence.converter.StringSetJsonConverter;
 
+/**
+ * Stream row. The audience and event type sets are stored as JSON arrays on the row itself,
+ * so a stream is loaded with a single primary-key read.
+ */
 @Entity
-@Table(name = "ssf_streams")
+@Table(name = "ssf_streams",
+        indexes = @Index(name = "idx_stream_inactive_after", columnList = "status, inactive_after"))
 public class StreamEntity {
     @Id
     @Column(name = "stream_id", nullable = false, updatable = false)
     private String streamId;
     @Column(name = "iss", nullable = false)
     private String issuer;
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "ssf_stream_audience", joinColumns = @JoinColumn(name = "stream_id"))
-    @Column(name = "aud")
+    @Convert(converter = StringSetJsonConverter.class)
+    @Column(name = "audience", columnDefinition = "TEXT")
     private Set<String> audience = new HashSet<>();
     @Embedded
     private DeliveryEmbeddable delivery;
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "ssf_stream_events_requested", joinColumns = @JoinColumn(name = "stream_id"))
-    @Column(name = "event_type_uri")
+    @Convert(converter = StringSetJsonConverter.class)
+    @Column(name = "events_requested", columnDefinition = "TEXT")
     private Set<String> eventsRequested = new HashSet<>();
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "stream_events_authorized", joinColumns = @JoinColumn(name = "stream_id"))
-    @Column(name = "event_type")
+    @Convert(converter = StringSetJsonConverter.class)
+    @Column(name = "events_authorized", columnDefinition = "TEXT")
     private Set<String> eventsAuthorized = new HashSet<>();
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "ssf_stream_events_delivered", joinColumns = @JoinColumn(name = "stream_id"))
-    @Column(name = "event_type_uri")
+    @Convert(converter = StringSetJsonConverter.class)
+    @Column(name = "events_delivered", columnDefinition = "TEXT")
     private Set<String> eventsDelivered = new HashSet<>();
     @Column(name = "description")
     private String description;
@@ -54,10 +56,40 @@ public class StreamEntity {
     @Column(name = "process_all_subjects", nullable = false)
     private boolean processAllSubjects = false;
 
+    /**
+     * Operator overrides of the delivery lane per event type, stored as a JSON object.
+     */
+    @Column(name = "event_priorities", columnDefinition = "TEXT")
+    private String eventPriorities;
+
+    /**
+     * Event types opted in to coalescing of superseded undelivered events, stored as a JSON array.
+     */
+    @Column(name = "coalesced_events", columnDefinition = "TEXT")
+    private String coalescedEvents;
+
+    /**
+     * Last receiver activity, set on creation and then only moved by the batched activity flush:
+     * a bulk update neither bumps the version nor is overwritten when a stale entity is saved.
+     */
+    @Column(name = "last_activity_at", updatable = false)
+    private Instant lastActivityAt;
+
+    /**
+     * When the stream becomes inactive: the last activity plus the inactivity timeout, or null
+     * without a timeout. Maintained with the last activity so the sweep is a range scan.
+     */
+    @Column(name = "inactive_after", updatable = false)
+    private Instant inactiveAfter;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = Instant.now();
         this.updatedAt = Instant.now();
+        this.lastActivityAt = this.createdAt;
+        if (this.inactivityTimeout != null && this.inactivityTimeout > 0) {
+            this.inactiveAfter = this.createdAt.plusSeconds(this.inactivityTimeout);
+        }
         if (this.streamId == null) {
             this.streamId = UUID.randomUUID().toString();
         }
@@ -102,6 +134,12 @@ public class StreamEntity {
     public Long getVersion() { return version; }
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
+    public Instant getLastActivityAt() { return lastActivityAt; }
+    public Instant getInactiveAfter() { return inactiveAfter; }
     public boolean isProcessAllSubjects() { return processAllSubjects; }
     public void setProcessAllSubjects(boolean processAllSubjects) { this.processAllSubjects = processAllSubjects; }
+    public String getEventPriorities() { return eventPriorities; }
+    public void setEventPriorities(String eventPriorities) { this.eventPriorities = eventPriorities; }
+    public String getCoalescedEvents() { return coalescedEvents; }
+    public void setCoalescedEvents(String coalescedEvents) { this.coalescedEvents = coalescedEvents; }
 }
@@ -10,7 +10,8 @@ import java.time.Instant;
 @Table(name = "ssf_stream_events_buffer", indexes = {
     @Index(name = "idx_event_stream_ts", columnList = "stream_id, created_at"),
     @Index(name = "idx_jti_unique", columnList = "jti", unique = true),
-    @Index(name = "idx_stream_unack", columnList = "stream_id, acknowledged")
+    @Index(name = "idx_event_stream_due", columnList = "stream_id, acknowledged, due_at"),
+    @Index(name = "idx_event_coalesce", columnList = "stream_id, coalesce_key")
 })
 public class StreamEventEntity {
 
@@ -43,6 +44,24 @@ public class StreamEventEntity {
     @Column(name = "acknowledged_at")
     private Instant acknowledgedAt;
 
+    /**
+     * Delivery lane (0 = highest). See {@code EventPriority}.
+     */
+    @Column(name = "priority", nullable = false, columnDefinition = "integer default 1")
+    private int priority = 1;
+
+    /**
+     * Virtual deadline: creation time plus the lane offset. Delivery order. See {@code EventPriority#dueAt}.
+     */
+    @Column(name = "due_at")
+    private Instant dueAt;
+
+    /**
+     * Supersession group and subject hash, set only for event types the stream coalesces.
+     */
+    @Column(name = "coalesce_key")
+    private String coalesceKey;
+
     // Getters and Setters
 
     public Long getId() {
@@ -100,4 +119,28 @@ public class StreamEventEntity {
     public void setAcknowledgedAt(Instant acknowledgedAt) {
         this.acknowledgedAt = acknowledgedAt;
     }
-}
\ No newline at end of file
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public Instant getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(Instant dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public String getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    public void setCoalesceKey(String coalesceKey) {
+        this.coalesceKey = coalesceKey;
+    }
+}
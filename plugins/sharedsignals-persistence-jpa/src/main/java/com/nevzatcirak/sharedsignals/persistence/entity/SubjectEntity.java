@@ -1,56 +1,60 @@
 package com.nevzatcirak.sharedsignals.persistence.entity;
 
-import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
 import jakarta.persistence.*;
-import java.util.Objects;
+import java.time.Instant;
+import java.util.Arrays;
 
 /**
- * JPA Entity for Subjects monitored by a stream.
+ * JPA Entity for a distinct subject, shared by every stream that registered it.
+ * <p>
+ * A subject is identified by the 32-byte SHA-256 digest of its canonical form. Lookups go through
+ * the index on the 64-bit fingerprint (the first 8 digest bytes) and confirm on the full digest.
+ * Stream registrations reference the surrogate id ({@link SubjectMembershipEntity}), so storage
+ * grows with distinct subjects rather than with subscriptions.
  */
 @Entity
-@Table(name = "ssf_stream_subjects", indexes = @Index(name = "idx_stream_subject_hash", columnList = "stream_id, subject_hash"))
+@Table(name = "ssf_subjects",
+        uniqueConstraints = @UniqueConstraint(name = "uk_subject_digest", columnNames = "subject_digest"),
+        indexes = @Index(name = "idx_subject_fp", columnList = "subject_fingerprint"))
 public class SubjectEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "stream_id", nullable = false)
-    private StreamEntity stream;
+    @Column(name = "subject_digest", nullable = false, length = 32)
+    private byte[] subjectDigest;
+
+    @Column(name = "subject_fingerprint", nullable = false)
+    private long subjectFingerprint;
 
     @Column(name = "subject_payload", nullable = false, columnDefinition = "TEXT")
     private String subjectPayload;
 
-    @Column(name = "subject_hash", nullable = false)
-    private String subjectHash;
-
-    @Enumerated(EnumType.STRING)
-    @Column(name = "status", nullable = false)
-    private SubjectStatus status = SubjectStatus.PENDING;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
 
     public SubjectEntity() {}
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
-    public StreamEntity getStream() { return stream; }
-    public void setStream(StreamEntity stream) { this.stream = stream; }
-    public String getSubjectHash() { return subjectHash; }
-    public void setSubjectHash(String subjectHash) { this.subjectHash = subjectHash; }
+    public byte[] getSubjectDigest() { return subjectDigest; }
+    public void setSubjectDigest(byte[] subjectDigest) { this.subjectDigest = subjectDigest; }
+    public long getSubjectFingerprint() { return subjectFingerprint; }
+    public void setSubjectFingerprint(long subjectFingerprint) { this.subjectFingerprint = subjectFingerprint; }
     public String getSubjectPayload() { return subjectPayload; }
     public void setSubjectPayload(String subjectPayload) { this.subjectPayload = subjectPayload; }
-    public SubjectStatus getStatus() { return status; }
-    public void setStatus(SubjectStatus status) { this.status = status; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof SubjectEntity that)) return false;
-        return Objects.equals(getSubjectHash(), that.getSubjectHash()) &&
-               Objects.equals(getStream().getStreamId(), that.getStream().getStreamId());
+        return Arrays.equals(getSubjectDigest(), that.getSubjectDigest());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getStream().getStreamId(), getSubjectHash());
+        return Long.hashCode(getSubjectFingerprint());
     }
 }
@@ -0,0 +1,49 @@
+package com.nevzatcirak.sharedsignals.persistence.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * JPA Entity for one simple identifier of a registered {@code aliases} or {@code complex} subject.
+ * <p>
+ * Lets an incoming subject find compound registrations that contain any of its identifiers through
+ * the index on the identifier fingerprint, confirmed on the full digest. Rows are deleted together
+ * with their subject.
+ */
+@Entity
+@Table(name = "ssf_subject_identifiers",
+        uniqueConstraints = @UniqueConstraint(name = "uk_subject_identifier", columnNames = {"subject_id", "identifier_digest"}),
+        indexes = @Index(name = "idx_subject_identifier_fp", columnList = "identifier_fingerprint, subject_id"))
+public class SubjectIdentifierEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+
+    @Column(name = "identifier_digest", nullable = false, length = 32)
+    private byte[] identifierDigest;
+
+    @Column(name = "identifier_fingerprint", nullable = false)
+    private long identifierFingerprint;
+
+    /**
+     * Only mapped for the foreign key.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subject_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private SubjectEntity subject;
+
+    public SubjectIdentifierEntity() {}
+
+    public Long getId() { return id; }
+    public Long getSubjectId() { return subjectId; }
+    public void setSubjectId(Long subjectId) { this.subjectId = subjectId; }
+    public byte[] getIdentifierDigest() { return identifierDigest; }
+    public void setIdentifierDigest(byte[] identifierDigest) { this.identifierDigest = identifierDigest; }
+    public long getIdentifierFingerprint() { return identifierFingerprint; }
+    public void setIdentifierFingerprint(long identifierFingerprint) { this.identifierFingerprint = identifierFingerprint; }
+}
@@ -0,0 +1,81 @@
+package com.nevzatcirak.sharedsignals.persistence.entity;
+
+import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * JPA Entity for the registration of a subject on a stream.
+ * <p>
+ * Kept narrow on purpose: fan-out resolves the subject id once and reads the approved stream ids
+ * from {@code idx_membership_subject_status} alone.
+ */
+@Entity
+@IdClass(SubjectMembershipEntity.Key.class)
+@Table(name = "ssf_subject_memberships", indexes = {
+        @Index(name = "idx_membership_subject_status", columnList = "subject_id, status, stream_id"),
+        @Index(name = "idx_membership_stream", columnList = "stream_id")
+})
+public class SubjectMembershipEntity {
+    @Id
+    @Column(name = "subject_id")
+    private Long subjectId;
+
+    @Id
+    @Column(name = "stream_id")
+    private String streamId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private SubjectStatus status = SubjectStatus.PENDING;
+
+    /**
+     * Only mapped for the foreign key, so a subject cannot be deleted while it is still registered.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subject_id", insertable = false, updatable = false)
+    private SubjectEntity subject;
+
+    public SubjectMembershipEntity() {}
+
+    public SubjectMembershipEntity(Long subjectId, String streamId, SubjectStatus status) {
+        this.subjectId = subjectId;
+        this.streamId = streamId;
+        this.status = status;
+    }
+
+    public Long getSubjectId() { return subjectId; }
+    public void setSubjectId(Long subjectId) { this.subjectId = subjectId; }
+    public String getStreamId() { return streamId; }
+    public void setStreamId(String streamId) { this.streamId = streamId; }
+    public SubjectStatus getStatus() { return status; }
+    public void setStatus(SubjectStatus status) { this.status = status; }
+
+    /**
+     * Composite primary key (subject_id, stream_id).
+     */
+    public static class Key implements Serializable {
+        private Long subjectId;
+        private String streamId;
+
+        public Key() {}
+
+        public Key(Long subjectId, String streamId) {
+            this.subjectId = subjectId;
+            this.streamId = streamId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key that)) return false;
+            return Objects.equals(subjectId, that.subjectId) && Objects.equals(streamId, that.streamId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subjectId, streamId);
+        }
+    }
+}
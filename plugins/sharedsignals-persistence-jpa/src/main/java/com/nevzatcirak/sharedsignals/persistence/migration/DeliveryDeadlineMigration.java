@@ -0,0 +1,51 @@
+package com.nevzatcirak.sharedsignals.persistence.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the virtual delivery deadline ({@code due_at}) of undelivered outbox and poll buffer rows
+ * queued before the column existed. They get their creation time, the deadline of the highest
+ * lane, so the backlog of an upgrade drains in creation order.
+ * <p>
+ * Runs once per startup and only touches unfinished rows without a deadline, so it is
+ * idempotent and safe to run on several nodes at once.
+ */
+@Component
+public class DeliveryDeadlineMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryDeadlineMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    /**
+     * Depends on the {@link EntityManagerFactory} so that the {@code due_at} columns exist before the update runs.
+     */
+    public DeliveryDeadlineMigration(
+            JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${sharedsignals.features.maintenance.initialize-delivery-deadlines:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        int queued = jdbcTemplate.update("UPDATE ssf_push_queue SET due_at = created_at " +
+                "WHERE status IN ('PENDING', 'FAILED', 'IN_PROGRESS') AND due_at IS NULL");
+        int buffered = jdbcTemplate.update("UPDATE ssf_stream_events_buffer SET due_at = created_at " +
+                "WHERE acknowledged = FALSE AND due_at IS NULL");
+        if (queued + buffered > 0) {
+            log.info("Set the delivery deadline of {} queued and {} buffered event(s)", queued, buffered);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.nevzatcirak.sharedsignals.persistence.migration;
+
+import com.nevzatcirak.sharedsignals.persistence.converter.StringSetJsonConverter;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copies stream audience and event type sets from the legacy element-collection tables
+ * into the JSON columns of {@code ssf_streams}.
+ * <p>
+ * Runs once per startup, after the schema has been updated and before the stream store is used.
+ * Only columns that are still NULL are filled, so the migration is idempotent and safe to run on
+ * several nodes at once. The legacy tables are left untouched; drop them once every node runs
+ * this version.
+ */
+@Component
+public class LegacyStreamCollectionsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyStreamCollectionsMigration.class);
+
+    /** Legacy table, its value column and the target column on ssf_streams. */
+    private static final List<String[]> LEGACY_COLLECTIONS = List.of(
+            new String[]{"ssf_stream_audience", "aud", "audience"},
+            new String[]{"ssf_stream_events_requested", "event_type_uri", "events_requested"},
+            new String[]{"stream_events_authorized", "event_type", "events_authorized"},
+            new String[]{"ssf_stream_events_delivered", "event_type_uri", "events_delivered"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final StringSetJsonConverter converter = new StringSetJsonConverter();
+
+    /**
+     * Depends on the {@link EntityManagerFactory} so that the JSON columns exist before the copy runs.
+     */
+    public LegacyStreamCollectionsMigration(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${sharedsignals.features.maintenance.migrate-legacy-stream-collections:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        for (String[] collection : LEGACY_COLLECTIONS) {
+            String table = collection[0];
+            if (tableExists(table)) {
+                int migrated = transactionTemplate.execute(status -> copy(table, collection[1], collection[2]));
+                if (migrated > 0) {
+                    log.info("Migrated {} stream(s) from legacy table {} to ssf_streams.{}", migrated, table, collection[2]);
+                }
+            }
+        }
+    }
+
+    private int copy(String table, String valueColumn, String targetColumn) {
+        Map<String, Set<String>> valuesByStream = new HashMap<>();
+        jdbcTemplate.query("SELECT stream_id, " + valueColumn + " FROM " + table, rs -> {
+            valuesByStream.computeIfAbsent(rs.getString(1), id -> new HashSet<>()).add(rs.getString(2));
+        });
+
+        int migrated = 0;
+        for (Map.Entry<String, Set<String>> entry : valuesByStream.entrySet()) {
+            migrated += jdbcTemplate.update(
+                    "UPDATE ssf_streams SET " + targetColumn + " = ? WHERE stream_id = ? AND " + targetColumn + " IS NULL",
+                    converter.convertToDatabaseColumn(entry.getValue()), entry.getKey());
+        }
+        return migrated;
+    }
+
+    private boolean tableExists(String table) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet rs = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,161 @@
+package com.nevzatcirak.sharedsignals.persistence.migration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves per-stream subject rows from the legacy {@code ssf_stream_subjects} table into the shared
+ * subject registry ({@code ssf_subjects}) and the membership table ({@code ssf_subject_memberships}).
+ * <p>
+ * Runs once per startup. The digest is taken from {@code subject_digest} or the Base64
+ * {@code subject_hash}, whichever the legacy table has, or recomputed from the payload. Rows are moved
+ * in id order in batches; each batch is copied and deleted from the legacy table in one transaction,
+ * so an interrupted run resumes where it stopped and later startups find nothing to do. Inserts
+ * ignore rows that already exist, so several nodes can run it at once. Drop the empty legacy table
+ * once every node runs this version.
+ */
+@Component
+public class LegacyStreamSubjectsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyStreamSubjectsMigration.class);
+
+    private static final String LEGACY_TABLE = "ssf_stream_subjects";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    /**
+     * Depends on the {@link EntityManagerFactory} so that the registry tables exist before the move runs.
+     */
+    public LegacyStreamSubjectsMigration(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            ObjectMapper objectMapper,
+            @Value("${sharedsignals.features.maintenance.migrate-legacy-stream-subjects:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled || !tableExists(LEGACY_TABLE)) {
+            return;
+        }
+        String digestColumn = columnExists(LEGACY_TABLE, "subject_digest") ? "subject_digest"
+                : columnExists(LEGACY_TABLE, "subject_hash") ? "subject_hash" : "NULL";
+        int moved = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> moveBatch(digestColumn));
+            moved += batch;
+        } while (batch == BATCH_SIZE);
+        if (moved > 0) {
+            log.info("Moved {} subject registration(s) from {} to ssf_subjects/ssf_subject_memberships", moved, LEGACY_TABLE);
+        }
+    }
+
+    private int moveBatch(String digestColumn) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, stream_id, subject_payload, " + digestColumn + " AS digest, status FROM " + LEGACY_TABLE +
+                " ORDER BY id LIMIT " + BATCH_SIZE);
+        Timestamp now = Timestamp.from(Instant.now());
+        for (Map<String, Object> row : rows) {
+            String payload = (String) row.get("subject_payload");
+            byte[] digest = toDigest(row.get("digest"));
+            if (digest == null) {
+                digest = digestOf(payload);
+            }
+            long fingerprint = SubjectId.fingerprint64(digest);
+            jdbcTemplate.update("INSERT INTO ssf_subjects (subject_digest, subject_fingerprint, subject_payload, created_at) " +
+                    "VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING", digest, fingerprint, payload, now);
+            Long subjectId = jdbcTemplate.queryForObject(
+                    "SELECT id FROM ssf_subjects WHERE subject_fingerprint = ? AND subject_digest = ?",
+                    Long.class, fingerprint, digest);
+            jdbcTemplate.update("INSERT INTO ssf_subject_memberships (subject_id, stream_id, status) " +
+                    "VALUES (?, ?, ?) ON CONFLICT DO NOTHING", subjectId, row.get("stream_id"), row.get("status"));
+            jdbcTemplate.update("DELETE FROM " + LEGACY_TABLE + " WHERE id = ?", row.get("id"));
+        }
+        return rows.size();
+    }
+
+    private static byte[] toDigest(Object value) {
+        if (value instanceof byte[] bytes && bytes.length == 32) {
+            return bytes;
+        }
+        if (value instanceof String hash) {
+            try {
+                byte[] bytes = Base64.getDecoder().decode(hash);
+                return bytes.length == 32 ? bytes : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recomputes the digest of rows whose legacy hash could not be converted.
+     */
+    private byte[] digestOf(String payload) {
+        try {
+            return SubjectId.of(objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {})).digest();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot migrate subject with unreadable payload", e);
+        }
+    }
+
+    private boolean columnExists(String table, String column) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+                try (ResultSet rs = metaData.getColumns(null, null, names[0], names[1])) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private boolean tableExists(String table) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet rs = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (rs.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,58 @@
+package com.nevzatcirak.sharedsignals.persistence.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepares the outbox for the partition head query, which groups unfinished messages by
+ * {@code partition_key}.
+ * <p>
+ * Unfinished rows queued before ordering partitions existed get their stream as partition. On
+ * PostgreSQL, a partial index on {@code (partition_key, id)} over unfinished rows is created, so
+ * finding the heads reads only the undelivered part of the outbox; other databases use the
+ * {@code (partition_key, status, id)} index of the entity.
+ * <p>
+ * Runs once per startup; both steps are idempotent and safe to run on several nodes at once.
+ */
+@Component
+public class PushPartitionMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(PushPartitionMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    /**
+     * Depends on the {@link EntityManagerFactory} so that the outbox table exists before the update runs.
+     */
+    public PushPartitionMigration(
+            JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${sharedsignals.features.maintenance.prepare-push-partitions:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        int partitioned = jdbcTemplate.update("UPDATE ssf_push_queue SET partition_key = stream_id " +
+                "WHERE partition_key IS NULL AND status IN ('PENDING', 'FAILED', 'IN_PROGRESS')");
+        if (partitioned > 0) {
+            log.info("Assigned {} queued message(s) without ordering partition to their stream", partitioned);
+        }
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equalsIgnoreCase(product)) {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_push_unfinished_head ON ssf_push_queue (partition_key, id) " +
+                    "WHERE status IN ('PENDING', 'FAILED', 'IN_PROGRESS')");
+        }
+    }
+}
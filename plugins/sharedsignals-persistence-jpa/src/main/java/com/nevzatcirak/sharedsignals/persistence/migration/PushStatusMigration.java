@@ -0,0 +1,115 @@
+package com.nevzatcirak.sharedsignals.persistence.migration;
+
+import com.nevzatcirak.sharedsignals.persistence.entity.PushMessageEntity.DeliveryStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Lets the outbox status column hold every {@link DeliveryStatus}. Schema update adds the column
+ * once but never widens its value list, so outboxes created before a status existed (such as
+ * {@code SUPERSEDED}) reject it.
+ * <p>
+ * On PostgreSQL and other databases, the column is a varchar with a CHECK constraint: each CHECK
+ * constraint on it that misses a status is dropped and one allowing every status is added, in one
+ * transaction. On H2, the column is a native ENUM, which is redefined with every status.
+ * <p>
+ * Runs once per startup and changes nothing once the column allows every status, so it is
+ * idempotent and safe to run on several nodes at once.
+ */
+@Component
+public class PushStatusMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(PushStatusMigration.class);
+
+    private static final String CONSTRAINT = "ssf_push_queue_status_check";
+
+    private static final List<String> STATUSES = Arrays.stream(DeliveryStatus.values()).map(Enum::name).toList();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    /**
+     * Depends on the {@link EntityManagerFactory} so that the outbox table exists before the update runs.
+     */
+    public PushStatusMigration(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${sharedsignals.features.maintenance.widen-push-statuses:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("H2".equalsIgnoreCase(product) && isEnumColumn()) {
+            widenEnum();
+        } else {
+            replaceCheckConstraints();
+        }
+    }
+
+    private static String valueList() {
+        return STATUSES.stream().map(status -> "'" + status + "'").collect(Collectors.joining(", "));
+    }
+
+    private boolean isEnumColumn() {
+        List<String> types = jdbcTemplate.queryForList("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_NAME = 'SSF_PUSH_QUEUE' AND COLUMN_NAME = 'STATUS'", String.class);
+        return types.contains("ENUM");
+    }
+
+    private void widenEnum() {
+        List<String> values = jdbcTemplate.queryForList("SELECT e.VALUE_NAME FROM INFORMATION_SCHEMA.ENUM_VALUES e " +
+                "JOIN INFORMATION_SCHEMA.COLUMNS c ON e.OBJECT_SCHEMA = c.TABLE_SCHEMA AND e.OBJECT_NAME = c.TABLE_NAME " +
+                "AND e.ENUM_IDENTIFIER = c.DTD_IDENTIFIER " +
+                "WHERE e.OBJECT_TYPE = 'TABLE' AND c.TABLE_NAME = 'SSF_PUSH_QUEUE' AND c.COLUMN_NAME = 'STATUS'", String.class);
+        if (values.containsAll(STATUSES)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE ssf_push_queue ALTER COLUMN status ENUM(" + valueList() + ") NOT NULL");
+        log.info("Widened the outbox status column to every delivery status");
+    }
+
+    private void replaceCheckConstraints() {
+        List<Map<String, Object>> constraints = jdbcTemplate.queryForList("SELECT cc.constraint_name, cc.check_clause " +
+                "FROM information_schema.check_constraints cc JOIN information_schema.constraint_column_usage u " +
+                "ON cc.constraint_schema = u.constraint_schema AND cc.constraint_name = u.constraint_name " +
+                "WHERE LOWER(u.table_name) = 'ssf_push_queue' AND LOWER(u.column_name) = 'status'");
+        List<String> outdated = constraints.stream()
+                .filter(constraint -> {
+                    String clause = String.valueOf(constraint.get("check_clause"));
+                    return STATUSES.stream().anyMatch(status -> !clause.contains("'" + status + "'"));
+                })
+                .map(constraint -> String.valueOf(constraint.get("constraint_name")))
+                .toList();
+        if (outdated.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            outdated.forEach(name -> jdbcTemplate.execute("ALTER TABLE ssf_push_queue DROP CONSTRAINT IF EXISTS " + name));
+            jdbcTemplate.execute("ALTER TABLE ssf_push_queue DROP CONSTRAINT IF EXISTS " + CONSTRAINT);
+            jdbcTemplate.execute("ALTER TABLE ssf_push_queue ADD CONSTRAINT " + CONSTRAINT + " CHECK (status IN (" + valueList() + "))");
+        });
+        log.info("Replaced {} outbox status constraint(s) with one allowing every delivery status", outdated.size());
+    }
+}
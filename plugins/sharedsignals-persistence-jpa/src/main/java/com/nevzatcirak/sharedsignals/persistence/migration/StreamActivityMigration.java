@@ -0,0 +1,55 @@
+package com.nevzatcirak.sharedsignals.persistence.migration;
+
+import com.nevzatcirak.sharedsignals.persistence.repository.StreamRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+/**
+ * Starts the inactivity timer of streams created before activity was stored on the stream row,
+ * so that the inactivity sweep sees them. They get a full timeout from the first startup of
+ * this version.
+ * <p>
+ * Runs once per startup and only touches streams without recorded activity, so it is
+ * idempotent and safe to run on several nodes at once.
+ */
+@Component
+public class StreamActivityMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamActivityMigration.class);
+
+    private final StreamRepository streamRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    /**
+     * Depends on the {@link EntityManagerFactory} so that the activity columns exist before the update runs.
+     */
+    public StreamActivityMigration(
+            StreamRepository streamRepository,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${sharedsignals.features.maintenance.initialize-stream-activity:true}") boolean enabled) {
+        this.streamRepository = streamRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        Integer initialized = transactionTemplate.execute(status -> streamRepository.initializeMissingActivity(Instant.now()));
+        if (initialized != null && initialized > 0) {
+            log.info("Started the inactivity timer of {} stream(s) without recorded activity", initialized);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.nevzatcirak.sharedsignals.persistence.migration;
+
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backfills the binary subject digest and 64-bit fingerprint columns from the legacy Base64
+ * {@code subject_hash} column of {@code ssf_removed_subjects}. Registered subjects are converted
+ * by {@link LegacyStreamSubjectsMigration}.
+ * <p>
+ * Runs once per startup, after the schema has been updated. Rows are converted in id order in
+ * batches, each in its own transaction, and only where the digest is still NULL, so the migration
+ * is idempotent and safe to run on several nodes at once. Afterwards the legacy column is made
+ * nullable if it is not already (new rows no longer write it) and its index is dropped. The column
+ * itself is kept; drop it once every node runs this version.
+ * <p>
+ * During a rolling upgrade, nodes still on the previous version keep writing removals with only
+ * {@code subject_hash} set. Lookups by digest do not see those rows, so the backfill is repeated
+ * every {@code sharedsignals.features.maintenance.subject-digest-backfill-interval-ms} for as long
+ * as the legacy column exists. A row backfilled later than the grace period index's sync overlap
+ * after its removal only reaches that index on its next full sync.
+ */
+@Component
+public class SubjectDigestMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(SubjectDigestMigration.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    /** Table and the index on its legacy hash column. */
+    private static final Map<String, String> LEGACY_HASH_INDEXES = Map.of(
+            "ssf_removed_subjects", "idx_removed_subject"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    /**
+     * Depends on the {@link EntityManagerFactory} so that the digest columns exist before the backfill runs.
+     */
+    public SubjectDigestMigration(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${sharedsignals.features.maintenance.migrate-subject-digests:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        LEGACY_HASH_INDEXES.forEach((table, index) -> {
+            Boolean nullable = columnNullable(table, "subject_hash");
+            if (nullable == null) {
+                return;
+            }
+            int migrated = backfill(table);
+            if (migrated > 0) {
+                log.info("Backfilled subject digests for {} row(s) of {}", migrated, table);
+            }
+            if (!nullable) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN subject_hash DROP NOT NULL");
+            }
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + index);
+        });
+    }
+
+    /**
+     * Backfills rows written since startup by nodes that do not write the digest yet.
+     */
+    @Scheduled(
+            fixedDelayString = "${sharedsignals.features.maintenance.subject-digest-backfill-interval-ms:60000}",
+            initialDelayString = "${sharedsignals.features.maintenance.subject-digest-backfill-interval-ms:60000}"
+    )
+    public void backfillLegacyRows() {
+        if (!enabled) {
+            return;
+        }
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter()) {
+            for (String table : LEGACY_HASH_INDEXES.keySet()) {
+                if (columnNullable(table, "subject_hash") == null) {
+                    continue;
+                }
+                int migrated = backfill(table);
+                if (migrated > 0) {
+                    log.info("Backfilled subject digests for {} row(s) of {} written by older nodes", migrated, table);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error during subject digest backfill: {}", e.getMessage(), e);
+        }
+    }
+
+    private int backfill(String table) {
+        int migrated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, subject_hash FROM " + table +
+                    " WHERE id > ? AND subject_digest IS NULL AND subject_hash IS NOT NULL ORDER BY id LIMIT " + BATCH_SIZE,
+                    lastId);
+            if (rows.isEmpty()) {
+                return migrated;
+            }
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                lastId = id;
+                byte[] digest = decode((String) row.get("subject_hash"));
+                if (digest == null) {
+                    log.warn("Skipping {} row {}: subject_hash is not a Base64 SHA-256 digest", table, id);
+                    continue;
+                }
+                batch.add(new Object[]{digest, SubjectId.fingerprint64(digest), id});
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE " + table + " SET subject_digest = ?, subject_fingerprint = ? WHERE id = ? AND subject_digest IS NULL",
+                    batch));
+            migrated += batch.size();
+        }
+    }
+
+    private static byte[] decode(String subjectHash) {
+        try {
+            byte[] digest = Base64.getDecoder().decode(subjectHash);
+            return digest.length == 32 ? digest : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return whether the column accepts NULL, or null if it does not exist
+     */
+    private Boolean columnNullable(String table, String column) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+                try (ResultSet rs = metaData.getColumns(null, null, names[0], names[1])) {
+                    if (rs.next()) {
+                        return rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
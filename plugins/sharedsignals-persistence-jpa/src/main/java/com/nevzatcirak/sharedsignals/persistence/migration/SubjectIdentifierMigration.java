@@ -0,0 +1,106 @@
+package com.nevzatcirak.sharedsignals.persistence.migration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the identifiers of {@code aliases} and {@code complex} subjects registered before the
+ * identifier index ({@code ssf_subject_identifiers}) existed.
+ * <p>
+ * Runs once per startup, after {@link LegacyStreamSubjectsMigration}. Only compound subjects without
+ * index rows are read, in id order and batches; inserts ignore existing rows, so the migration is
+ * idempotent and safe to run on several nodes at once.
+ */
+@Component
+@DependsOn("legacyStreamSubjectsMigration")
+public class SubjectIdentifierMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(SubjectIdentifierMigration.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    /**
+     * Depends on the {@link EntityManagerFactory} so that the index table exists before the backfill runs.
+     */
+    public SubjectIdentifierMigration(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            ObjectMapper objectMapper,
+            @Value("${sharedsignals.features.maintenance.index-subject-identifiers:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        int indexed = 0;
+        long lastId = 0;
+        while (true) {
+            // The payload filter is a cheap pre-check; the parsed format decides
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT s.id, s.subject_payload FROM ssf_subjects s WHERE s.id > ? " +
+                    "AND (s.subject_payload LIKE '%\"aliases\"%' OR s.subject_payload LIKE '%\"complex\"%') " +
+                    "AND NOT EXISTS (SELECT 1 FROM ssf_subject_identifiers i WHERE i.subject_id = s.id) " +
+                    "ORDER BY s.id LIMIT " + BATCH_SIZE, lastId);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> batch = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                lastId = id;
+                SubjectId subject = parse(id, (String) row.get("subject_payload"));
+                if (subject == null || !subject.isCompound()) {
+                    continue;
+                }
+                for (SubjectId identifier : subject.identifiers()) {
+                    batch.add(new Object[]{id, identifier.digest(), identifier.fingerprint64()});
+                }
+                indexed++;
+            }
+            if (!batch.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "INSERT INTO ssf_subject_identifiers (subject_id, identifier_digest, identifier_fingerprint) " +
+                        "VALUES (?, ?, ?) ON CONFLICT DO NOTHING", batch));
+            }
+        }
+        if (indexed > 0) {
+            log.info("Indexed the identifiers of {} aliases/complex subject(s)", indexed);
+        }
+    }
+
+    private SubjectId parse(long id, String payload) {
+        try {
+            return SubjectId.of(objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {}));
+        } catch (Exception e) {
+            log.warn("Skipping ssf_subjects row {}: unreadable payload", id);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.nevzatcirak.sharedsignals.persistence.repository;
+
+import com.nevzatcirak.sharedsignals.persistence.entity.IngestionKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository for ingestion idempotency keys.
+ */
+@Repository
+public interface IngestionKeyRepository extends JpaRepository<IngestionKeyEntity, String> {
+
+    /**
+     * Inserts a claim row unless the key already exists.
+     *
+     * @return 1 if inserted, 0 if the key was already present
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ssf_ingestion_keys (idempotency_key, expires_at) VALUES (:key, :expiresAt) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Takes over a key whose claim lease or retention has run out.
+     *
+     * @return 1 if the key was taken over, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE IngestionKeyEntity k SET k.fanOutCount = null, k.expiresAt = :expiresAt " +
+            "WHERE k.idempotencyKey = :key AND k.expiresAt <= :now")
+    int reclaimExpired(@Param("key") String key, @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    @Query("SELECT k.fanOutCount FROM IngestionKeyEntity k " +
+            "WHERE k.idempotencyKey = :key AND k.fanOutCount IS NOT NULL AND k.expiresAt > :now")
+    Optional<Integer> findOutcome(@Param("key") String key, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE IngestionKeyEntity k SET k.fanOutCount = :count, k.expiresAt = :expiresAt " +
+            "WHERE k.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("count") int count, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IngestionKeyEntity k WHERE k.idempotencyKey = :key AND k.fanOutCount IS NULL")
+    int release(@Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM IngestionKeyEntity k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
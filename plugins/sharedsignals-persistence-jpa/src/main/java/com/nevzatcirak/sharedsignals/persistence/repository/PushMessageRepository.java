@@ -3,6 +3,7 @@ package com.nevzatcirak.sharedsignals.persistence.repository;
 import com.nevzatcirak.sharedsignals.persistence.entity.PushMessageEntity;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,12 +15,55 @@ import java.util.List;
 public interface PushMessageRepository extends JpaRepository<PushMessageEntity, Long> {
 
     /**
-     * Finds messages ready to be processed:
+     * Finds the head message of every ordering partition, if it is ready to be processed:
      * 1. Status is PENDING
      * 2. OR Status is FAILED (Retryable) AND retry time has passed
+     * 3. OR Status is IN_PROGRESS but its claim is older than {@code staleBefore} (worker died)
+     * <p>
+     * The head is the oldest message of the partition that is not yet finished, so a partition
+     * whose head is in flight or waiting for a retry yields nothing and later messages keep their order.
+     * Ordered by virtual deadline ({@code dueAt}), so lower lanes yield to higher ones for a bounded time only.
      */
     @Query("SELECT p FROM PushMessageEntity p " +
-           "WHERE p.status = 'PENDING' " +
-           "OR (p.status = 'FAILED' AND p.nextRetryAt <= :now)")
-    List<PushMessageEntity> findReadyToProcess(@Param("now") Instant now, Pageable pageable);
+           "WHERE p.id IN (SELECT MIN(q.id) FROM PushMessageEntity q " +
+           "               WHERE q.status IN ('PENDING', 'FAILED', 'IN_PROGRESS') " +
+           "               GROUP BY q.partitionKey) " +
+           "AND (p.status = 'PENDING' " +
+           "OR (p.status = 'FAILED' AND p.nextRetryAt <= :now) " +
+           "OR (p.status = 'IN_PROGRESS' AND p.updatedAt <= :staleBefore)) " +
+           "ORDER BY p.dueAt ASC, p.id ASC")
+    List<PushMessageEntity> findReadyToProcess(@Param("now") Instant now,
+                                               @Param("staleBefore") Instant staleBefore,
+                                               Pageable pageable);
+
+    /**
+     * The oldest unfinished message of one ordering partition, whatever its status; the caller
+     * claims it with {@link #claim} only if it is ready.
+     */
+    @Query("SELECT p FROM PushMessageEntity p " +
+           "WHERE p.partitionKey = :partitionKey AND p.status IN ('PENDING', 'FAILED', 'IN_PROGRESS') " +
+           "ORDER BY p.id ASC")
+    List<PushMessageEntity> findPartitionHead(@Param("partitionKey") String partitionKey, Pageable pageable);
+
+    /**
+     * Conditionally claims a message for delivery. Returns 0 if another worker claimed it first.
+     */
+    @Modifying
+    @Query("UPDATE PushMessageEntity p SET p.status = 'IN_PROGRESS', p.updatedAt = :now " +
+           "WHERE p.id = :id " +
+           "AND (p.status = 'PENDING' " +
+           "OR (p.status = 'FAILED' AND p.nextRetryAt <= :now) " +
+           "OR (p.status = 'IN_PROGRESS' AND p.updatedAt <= :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Supersedes queued messages of a stream with the same coalescing key, enqueued since {@code since}.
+     * Messages already claimed for delivery are left alone.
+     */
+    @Modifying
+    @Query("UPDATE PushMessageEntity p SET p.status = 'SUPERSEDED', p.updatedAt = :now " +
+           "WHERE p.streamId = :streamId AND p.coalesceKey = :coalesceKey " +
+           "AND p.status IN ('PENDING', 'FAILED') AND p.createdAt >= :since")
+    int supersede(@Param("streamId") String streamId, @Param("coalesceKey") String coalesceKey,
+                  @Param("since") Instant since, @Param("now") Instant now);
 }
\ No newline at end of file
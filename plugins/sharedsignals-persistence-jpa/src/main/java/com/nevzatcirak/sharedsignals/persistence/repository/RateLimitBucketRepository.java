@@ -0,0 +1,51 @@
+package com.nevzatcirak.sharedsignals.persistence.repository;
+
+import com.nevzatcirak.sharedsignals.persistence.entity.RateLimitBucketEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repository for the shared rate limit buckets.
+ */
+@Repository
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucketEntity, String> {
+
+    /**
+     * Creates a bucket unless another node created it first.
+     *
+     * @return 1 if inserted, 0 if the bucket was already present
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ssf_rate_limit_buckets (bucket_key, tokens, refilled_at, version) " +
+            "VALUES (:key, :tokens, :refilledAt, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("tokens") long tokens, @Param("refilledAt") Instant refilledAt);
+
+    /**
+     * Stores the new bucket state if no other node changed it since it was read.
+     *
+     * @return 1 if stored, 0 if the bucket changed meanwhile
+     */
+    @Modifying
+    @Query("UPDATE RateLimitBucketEntity b SET b.tokens = :tokens, b.refilledAt = :refilledAt, b.version = b.version + 1 " +
+            "WHERE b.bucketKey = :key AND b.version = :version")
+    int compareAndSet(@Param("key") String key, @Param("version") long version,
+                      @Param("tokens") long tokens, @Param("refilledAt") Instant refilledAt);
+
+    /**
+     * Takes tokens regardless of the balance, possibly leaving the bucket in debt.
+     *
+     * @return 1 if charged, 0 if the bucket does not exist
+     */
+    @Modifying
+    @Query("UPDATE RateLimitBucketEntity b SET b.tokens = b.tokens - :tokens, b.version = b.version + 1 WHERE b.bucketKey = :key")
+    int debit(@Param("key") String key, @Param("tokens") long tokens);
+
+    @Modifying
+    @Query("DELETE FROM RateLimitBucketEntity b WHERE b.refilledAt < :before")
+    int deleteRefilledBefore(@Param("before") Instant before);
+}
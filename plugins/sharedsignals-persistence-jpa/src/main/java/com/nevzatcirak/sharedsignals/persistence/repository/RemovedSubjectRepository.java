@@ -22,20 +22,35 @@ public interface RemovedSubjectRepository extends JpaRepository<RemovedSubjectEn
      * Checks if a subject is in the grace period (still eligible for events).
      *
      * @param streamId the stream identifier
-     * @param subjectHash the subject hash
+     * @param fingerprint the subject fingerprint (indexed)
+     * @param digest the full subject digest
      * @param now the current time
-     * @return the removed subject if in grace period, empty otherwise
+     * @return the most recent removal if in grace period, empty otherwise
      */
     @Query("SELECT r FROM RemovedSubjectEntity r " +
-            "WHERE r.streamId = :streamId " +
-            "AND r.subjectHash = :subjectHash " +
-            "AND r.gracePeriodExpiresAt > :now")
+            "WHERE r.subjectFingerprint = :fingerprint " +
+            "AND r.streamId = :streamId " +
+            "AND r.subjectDigest = :digest " +
+            "AND r.gracePeriodExpiresAt > :now " +
+            "ORDER BY r.gracePeriodExpiresAt DESC LIMIT 1")
     Optional<RemovedSubjectEntity> findActiveGracePeriod(
             @Param("streamId") String streamId,
-            @Param("subjectHash") String subjectHash,
+            @Param("fingerprint") Long fingerprint,
+            @Param("digest") byte[] digest,
             @Param("now") Instant now
     );
 
+    /**
+     * Finds removals recorded at or after {@code since} whose grace period is still running.
+     *
+     * @param since the lower bound of the removal time
+     * @param now the current time
+     * @return list of removed subjects in grace period
+     */
+    @Query("SELECT r FROM RemovedSubjectEntity r " +
+            "WHERE r.removedAt >= :since AND r.gracePeriodExpiresAt > :now AND r.subjectDigest IS NOT NULL")
+    List<RemovedSubjectEntity> findActiveRemovedSince(@Param("since") Instant since, @Param("now") Instant now);
+
     /**
      * Finds all removed subjects whose grace period has expired.
      *
@@ -18,12 +18,13 @@ import java.util.List;
 public interface StreamEventRepository extends JpaRepository<StreamEventEntity, Long> {
 
     /**
-     * Finds unacknowledged events for a stream, ordered by creation time (FIFO).
+     * Finds unacknowledged events for a stream, ordered by virtual deadline ({@code dueAt}), then insertion order.
+     * Served from the {@code (stream_id, acknowledged, due_at)} index.
      */
     @Query("SELECT e FROM StreamEventEntity e " +
             "WHERE e.streamId = :streamId " +
             "AND e.acknowledged = false " +
-            "ORDER BY e.createdAt ASC")
+            "ORDER BY e.dueAt ASC, e.id ASC")
     List<StreamEventEntity> findUnacknowledgedEvents(@Param("streamId") String streamId, Pageable pageable);
 
     long countByStreamIdAndAcknowledgedFalse(String streamId);
@@ -39,5 +40,15 @@ public interface StreamEventRepository extends JpaRepository<StreamEventEntity,
 
     void deleteByAcknowledgedTrueAndAcknowledgedAtBefore(Instant before);
 
+    /**
+     * Removes unacknowledged events of a stream with the same coalescing key, buffered since {@code since}.
+     */
+    @Modifying
+    @Query("DELETE FROM StreamEventEntity e " +
+            "WHERE e.streamId = :streamId AND e.coalesceKey = :coalesceKey " +
+            "AND e.acknowledged = false AND e.createdAt >= :since")
+    int deleteSuperseded(@Param("streamId") String streamId, @Param("coalesceKey") String coalesceKey,
+                         @Param("since") Instant since);
+
     List<StreamEventEntity> findByJtiIn(List<String> jtis);
 }
@@ -1,25 +1,77 @@
 package com.nevzatcirak.sharedsignals.persistence.repository;
 import com.nevzatcirak.sharedsignals.persistence.entity.StreamEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StreamRepository extends JpaRepository<StreamEntity, String> {
-    List<StreamEntity> findByAudience(String audience);
+    /**
+     * Finds streams whose JSON audience array contains the given pattern.
+     * This is a pre-filter; callers must check the decoded audience for an exact match.
+     */
+    @Query(value = "SELECT * FROM ssf_streams WHERE audience LIKE :pattern ESCAPE '!'", nativeQuery = true)
+    List<StreamEntity> findByAudienceLike(@Param("pattern") String pattern);
 
-    // Return streams that match the subject hash (and are APPROVED)
+    @Query("SELECT s.version FROM StreamEntity s WHERE s.streamId = :streamId")
+    Optional<Long> findVersionByStreamId(@Param("streamId") String streamId);
+
+    // Return streams on which one of the subjects is registered and APPROVED
     // OR streams that are configured to process ALL subjects (Wildcard Mode).
-    // Uses DISTINCT because a stream could potentially match both conditions (though unlikely in logic).
-    @Query("SELECT DISTINCT s FROM StreamEntity s " +
-           "LEFT JOIN SubjectEntity sub ON s.streamId = sub.stream.streamId AND sub.subjectHash = :subjectHash " +
+    @Query("SELECT s FROM StreamEntity s " +
            "WHERE s.status = 'enabled' " +
            "AND (" +
-           "   (s.processAllSubjects = true) " +
-           "   OR " +
-           "   (sub.subjectHash IS NOT NULL AND sub.status = 'APPROVED')" +
+           "   s.processAllSubjects = true " +
+           "   OR s.streamId IN (SELECT m.streamId FROM SubjectMembershipEntity m " +
+           "                     WHERE m.subjectId IN :subjectIds AND m.status = 'APPROVED')" +
            ")")
-    List<StreamEntity> findEnabledStreamsBySubjectHash(@Param("subjectHash") String subjectHash);
+    List<StreamEntity> findEnabledStreamsBySubjectIds(@Param("subjectIds") Collection<Long> subjectIds);
+
+    // Streams on which one of the subjects is registered and APPROVED, excluding broadcast streams.
+    @Query("SELECT s FROM StreamEntity s " +
+           "WHERE s.status = 'enabled' AND s.processAllSubjects = false " +
+           "AND s.streamId IN (SELECT m.streamId FROM SubjectMembershipEntity m " +
+           "                   WHERE m.subjectId IN :subjectIds AND m.status = 'APPROVED')")
+    List<StreamEntity> findEnabledSubscribedStreamsBySubjectIds(@Param("subjectIds") Collection<Long> subjectIds);
+
+    @Query("SELECT s FROM StreamEntity s WHERE s.status = 'enabled' AND s.processAllSubjects = true")
+    List<StreamEntity> findEnabledBroadcastStreams();
+
+    // Moves the last activity of the streams forward to the given instant; never backwards.
+    @Modifying
+    @Query("UPDATE StreamEntity s SET s.lastActivityAt = :activityAt, " +
+           "s.inactiveAfter = CASE WHEN s.inactivityTimeout > 0 THEN :activityAt + (s.inactivityTimeout) second END " +
+           "WHERE s.streamId IN :streamIds AND (s.lastActivityAt IS NULL OR s.lastActivityAt < :activityAt)")
+    int advanceLastActivity(@Param("streamIds") Collection<String> streamIds, @Param("activityAt") Instant activityAt);
+
+    // Recomputes when the stream becomes inactive after its inactivity timeout changed.
+    @Modifying
+    @Query("UPDATE StreamEntity s SET " +
+           "s.inactiveAfter = CASE WHEN s.inactivityTimeout > 0 THEN s.lastActivityAt + (s.inactivityTimeout) second END " +
+           "WHERE s.streamId = :streamId")
+    int refreshInactiveAfter(@Param("streamId") String streamId);
+
+    // Gives streams without recorded activity a full timeout from now.
+    @Modifying
+    @Query("UPDATE StreamEntity s SET s.lastActivityAt = :now, " +
+           "s.inactiveAfter = CASE WHEN s.inactivityTimeout > 0 THEN :now + (s.inactivityTimeout) second END " +
+           "WHERE s.lastActivityAt IS NULL")
+    int initializeMissingActivity(@Param("now") Instant now);
+
+    // Enabled streams inactive at :now, in (inactiveAfter, streamId) order after the given key; served by idx_stream_inactive_after.
+    @Query("SELECT s.streamId, s.lastActivityAt, s.inactiveAfter FROM StreamEntity s " +
+           "WHERE s.status = 'enabled' AND s.inactiveAfter <= :now " +
+           "AND (s.inactiveAfter > :afterInactiveAfter OR (s.inactiveAfter = :afterInactiveAfter AND s.streamId > :afterStreamId)) " +
+           "ORDER BY s.inactiveAfter, s.streamId")
+    List<Object[]> findInactiveAfter(@Param("now") Instant now,
+                                     @Param("afterInactiveAfter") Instant afterInactiveAfter,
+                                     @Param("afterStreamId") String afterStreamId,
+                                     Pageable pageable);
 }
@@ -0,0 +1,31 @@
+package com.nevzatcirak.sharedsignals.persistence.repository;
+
+import com.nevzatcirak.sharedsignals.persistence.entity.SubjectIdentifierEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the identifier index of compound subjects.
+ */
+@Repository
+public interface SubjectIdentifierRepository extends JpaRepository<SubjectIdentifierEntity, Long> {
+
+    /**
+     * Candidate matches by fingerprint; callers confirm each row on the identifier digest.
+     *
+     * @return rows of (subject id, identifier digest)
+     */
+    @Query("SELECT i.subjectId, i.identifierDigest FROM SubjectIdentifierEntity i WHERE i.identifierFingerprint IN :fingerprints")
+    List<Object[]> findByFingerprints(@Param("fingerprints") Collection<Long> fingerprints);
+
+    @Modifying
+    @Query(value = "INSERT INTO ssf_subject_identifiers (subject_id, identifier_digest, identifier_fingerprint) " +
+            "VALUES (:subjectId, :digest, :fingerprint) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("subjectId") Long subjectId, @Param("digest") byte[] digest, @Param("fingerprint") long fingerprint);
+}
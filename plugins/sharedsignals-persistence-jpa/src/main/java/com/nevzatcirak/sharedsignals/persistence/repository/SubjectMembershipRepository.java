@@ -0,0 +1,34 @@
+package com.nevzatcirak.sharedsignals.persistence.repository;
+
+import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.persistence.entity.SubjectMembershipEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Repository for subject registrations on streams.
+ */
+@Repository
+public interface SubjectMembershipRepository extends JpaRepository<SubjectMembershipEntity, SubjectMembershipEntity.Key> {
+
+    boolean existsBySubjectIdAndStreamId(Long subjectId, String streamId);
+
+    boolean existsByStreamIdAndStatusAndSubjectIdIn(String streamId, SubjectStatus status, Collection<Long> subjectIds);
+
+    @Modifying
+    @Query("UPDATE SubjectMembershipEntity m SET m.status = :status WHERE m.subjectId = :subjectId AND m.streamId = :streamId")
+    int updateStatus(@Param("subjectId") Long subjectId, @Param("streamId") String streamId, @Param("status") SubjectStatus status);
+
+    @Modifying
+    @Query("DELETE FROM SubjectMembershipEntity m WHERE m.subjectId = :subjectId AND m.streamId = :streamId")
+    int deleteMembership(@Param("subjectId") Long subjectId, @Param("streamId") String streamId);
+
+    @Modifying
+    @Query("DELETE FROM SubjectMembershipEntity m WHERE m.streamId = :streamId")
+    int deleteByStreamId(@Param("streamId") String streamId);
+}
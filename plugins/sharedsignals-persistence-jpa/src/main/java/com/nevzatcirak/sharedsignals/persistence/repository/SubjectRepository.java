@@ -1,11 +1,49 @@
 package com.nevzatcirak.sharedsignals.persistence.repository;
 import com.nevzatcirak.sharedsignals.persistence.entity.SubjectEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SubjectRepository extends JpaRepository<SubjectEntity, Long> {
-    boolean existsByStreamStreamIdAndSubjectHash(String streamId, String subjectHash);
-    Optional<SubjectEntity> findByStreamStreamIdAndSubjectHash(String streamId, String subjectHash);
+
+    // Fingerprint first (indexed), confirmed on the full digest
+    @Query("SELECT s.id FROM SubjectEntity s WHERE s.subjectFingerprint = :fingerprint AND s.subjectDigest = :digest")
+    Optional<Long> findIdByDigest(@Param("fingerprint") long fingerprint, @Param("digest") byte[] digest);
+
+    /**
+     * Candidate matches by fingerprint; callers confirm each row on the digest.
+     *
+     * @return rows of (subject id, subject digest)
+     */
+    @Query("SELECT s.id, s.subjectDigest FROM SubjectEntity s WHERE s.subjectFingerprint IN :fingerprints")
+    List<Object[]> findByFingerprints(@Param("fingerprints") Collection<Long> fingerprints);
+
+    @Query("SELECT s.subjectPayload FROM SubjectEntity s WHERE s.id = :id")
+    Optional<String> findPayloadById(@Param("id") Long id);
+
+    /**
+     * Registers a subject unless a row with the same digest exists (concurrent registrations are safe).
+     *
+     * @return 1 if inserted, 0 if the subject was already present
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ssf_subjects (subject_digest, subject_fingerprint, subject_payload, created_at) " +
+            "VALUES (:digest, :fingerprint, :payload, :createdAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("digest") byte[] digest, @Param("fingerprint") long fingerprint,
+                       @Param("payload") String payload, @Param("createdAt") Instant createdAt);
+
+    /**
+     * Deletes subjects that are no longer registered on any stream.
+     */
+    @Modifying
+    @Query("DELETE FROM SubjectEntity s WHERE s.createdAt < :before " +
+            "AND NOT EXISTS (SELECT 1 FROM SubjectMembershipEntity m WHERE m.subjectId = s.id)")
+    int deleteUnregisteredCreatedBefore(@Param("before") Instant before);
 }
@@ -1,12 +1,9 @@
 package com.nevzatcirak.sharedsignals.persistence.util;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
 import org.springframework.stereotype.Component;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.util.Base64;
 import java.util.Map;
 
 /**
@@ -21,12 +18,7 @@ public class SubjectHashUtil {
         this.objectMapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
     }
     public String computeHash(Map<String, Object> subject) {
-        try {
-            String json = objectMapper.writeValueAsString(subject);
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(json.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hashBytes);
-        } catch (Exception e) { throw new RuntimeException(e); }
+        return SubjectId.of(subject).fingerprint();
     }
     public String serialize(Map<String, Object> subject) {
         try { return objectMapper.writeValueAsString(subject); } catch (Exception e) { throw new RuntimeException(e); }
@@ -3,20 +3,28 @@ package com.nevzatcirak.sharedsignals.security.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nevzatcirak.sharedsignals.security.handler.SsfAuthenticationEntryPoint;
 import com.nevzatcirak.sharedsignals.security.handler.SsfAccessDeniedHandler;
+import com.nevzatcirak.sharedsignals.security.jwt.CachingJwtDecoder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 /**
  * Security Configuration for Shared Signals Framework.
  * <p>
- * Configures OAuth2 Resource Server with JWT authentication.
+ * Configures OAuth2 Resource Server with JWT authentication. Verified access tokens are cached
+ * ({@link CachingJwtDecoder}) so that repeat pollers are not verified again on every request.
  * IMPORTANT: This configuration is DISABLED in the 'test' profile to allow
  * integration tests to use a bypass configuration (TestSecurityConfig).
  */
@@ -28,8 +36,19 @@ public class SsfSecurityAutoConfiguration {
     @Value("${sharedsignals.issuer}")
     private String issuerUrl;
 
+    @Value("${sharedsignals.security.token-cache.enabled:true}")
+    private boolean tokenCacheEnabled;
+
+    @Value("${sharedsignals.security.token-cache.maximum-size:10000}")
+    private long tokenCacheMaximumSize;
+
+    @Value("${sharedsignals.security.token-cache.max-ttl-seconds:300}")
+    private long tokenCacheMaxTtlSeconds;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, ObjectMapper objectMapper) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ObjectMapper objectMapper, JwtDecoder jwtDecoder,
+                                           ObjectProvider<MeterRegistry> meterRegistry) throws Exception {
+        JwtDecoder decoder = tokenCacheEnabled ? cachingDecoder(jwtDecoder, meterRegistry) : jwtDecoder;
         http
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .csrf(csrf -> csrf.disable())
@@ -49,10 +68,33 @@ public class SsfSecurityAutoConfiguration {
                 .anyRequest().authenticated()
             )
             .oauth2ResourceServer(oauth2 -> oauth2
-                .jwt(Customizer.withDefaults())
+                .jwt(jwt -> jwt.decoder(decoder))
                 .authenticationEntryPoint(new SsfAuthenticationEntryPoint(objectMapper, issuerUrl))
                 .accessDeniedHandler(new SsfAccessDeniedHandler(objectMapper, issuerUrl))
             );
         return http.build();
     }
+
+    /**
+     * Wraps the decoder configured by Spring Boot. It is not a bean itself, since a {@link JwtDecoder}
+     * bean would replace Boot's.
+     */
+    private CachingJwtDecoder cachingDecoder(JwtDecoder jwtDecoder, ObjectProvider<MeterRegistry> meterRegistry) {
+        CachingJwtDecoder cache = new CachingJwtDecoder(jwtDecoder, tokenCacheMaximumSize,
+                Duration.ofSeconds(tokenCacheMaxTtlSeconds));
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("sharedsignals.security.token.cache", cache, CachingJwtDecoder::getHitCount)
+                    .description("Access tokens answered from the verified-token cache")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("sharedsignals.security.token.cache", cache, CachingJwtDecoder::getMissCount)
+                    .description("Access tokens verified by the decoder")
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("sharedsignals.security.token.cache.size", cache, CachingJwtDecoder::getSize)
+                    .description("Verified access tokens held in the cache")
+                    .register(registry);
+        });
+        return cache;
+    }
 }
@@ -0,0 +1,102 @@
+package com.nevzatcirak.sharedsignals.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * In-memory cache of verified access tokens in front of a {@link JwtDecoder}.
+ * <p>
+ * Polling receivers present the same bearer token on every request; the delegate parses it and
+ * verifies its signature each time. Tokens the delegate accepted are cached by the SHA-256 of the
+ * raw token, so the token itself is not kept as a key, until their {@code exp} or for at most
+ * {@code maxTtl}, whichever comes first. Rejected tokens are not cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> tokens;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Duration maxTtl) {
+        this.delegate = delegate;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilExpiry(maxTtl))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Jwt jwt = tokens.getIfPresent(key);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        tokens.put(key, jwt);
+        return jwt;
+    }
+
+    public long getHitCount() {
+        return tokens.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return tokens.stats().missCount();
+    }
+
+    public long getSize() {
+        return tokens.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Expires a token at its {@code exp}, never later than {@code maxTtl} after it was cached. The
+     * time left is compared as a {@link Duration} first, since an {@code exp} far in the future does
+     * not fit in nanoseconds.
+     */
+    private record UntilExpiry(Duration maxTtl) implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return maxTtl.toNanos();
+            }
+            Duration remaining = Duration.between(Instant.now(), expiresAt);
+            if (remaining.isNegative()) {
+                return 0;
+            }
+            return remaining.compareTo(maxTtl) < 0 ? remaining.toNanos() : maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
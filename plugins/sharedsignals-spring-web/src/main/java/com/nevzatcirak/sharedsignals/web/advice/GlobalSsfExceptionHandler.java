@@ -73,6 +73,9 @@ public class GlobalSsfExceptionHandler {
             if (ssfEx instanceof StreamNotFoundException) {
                 return handleStreamNotFound((StreamNotFoundException) ssfEx);
             }
+            if (ssfEx instanceof IngestionInProgressException inProgress) {
+                return handleIngestionInProgress(inProgress);
+            }
             return handleGenericSsf(ssfEx);
         }
 
@@ -94,6 +97,11 @@ public class GlobalSsfExceptionHandler {
         return buildProblemDetail(HttpStatus.CONFLICT, e.getErrorCode(), e.getMessage());
     }
 
+    @ExceptionHandler(IngestionInProgressException.class)
+    ProblemDetail handleIngestionInProgress(IngestionInProgressException e) {
+        return buildProblemDetail(HttpStatus.CONFLICT, e.getErrorCode(), e.getMessage());
+    }
+
     @ExceptionHandler({InvalidConfigurationException.class, SsfBadRequestException.class})
     ProblemDetail handleBadRequest(SsfException e) {
         return buildProblemDetail(HttpStatus.BAD_REQUEST, e.getErrorCode(), e.getMessage());
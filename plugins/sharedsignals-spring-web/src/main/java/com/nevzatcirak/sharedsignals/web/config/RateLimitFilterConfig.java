@@ -0,0 +1,32 @@
+package com.nevzatcirak.sharedsignals.web.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.web.filter.IpRateLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the per-address rate limit ahead of the Spring Security filter chain.
+ */
+@Configuration
+public class RateLimitFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<IpRateLimitFilter> ipRateLimitFilter(
+            ObjectMapper objectMapper,
+            @Value("${sharedsignals.issuer}") String issuerUrl,
+            @Value("${sharedsignals.ratelimit.enabled:true}") boolean enabled,
+            @Value("${sharedsignals.ratelimit.ip.capacity:0}") long capacity,
+            @Value("${sharedsignals.ratelimit.ip.refill-tokens-per-second:50}") long tokensPerSecond,
+            @Value("${sharedsignals.ratelimit.ip.max-tracked-addresses:100000}") int maxTrackedAddresses) {
+        FilterRegistrationBean<IpRateLimitFilter> registration = new FilterRegistrationBean<>(
+                new IpRateLimitFilter(capacity, tokensPerSecond, maxTrackedAddresses, objectMapper, issuerUrl));
+        registration.addUrlPatterns("/ssf/*", "/api/v1/ingest", "/api/v1/ingest/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.setEnabled(enabled && capacity > 0);
+        return registration;
+    }
+}
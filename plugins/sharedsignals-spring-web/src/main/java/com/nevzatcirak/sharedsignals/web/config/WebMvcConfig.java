@@ -22,7 +22,9 @@ public class WebMvcConfig implements WebMvcConfigurer {
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(rateLimitInterceptor)
                 .addPathPatterns(
-                        "/ssf/**"
+                        "/ssf/**",
+                        "/api/v1/ingest",
+                        "/api/v1/ingest/**"
                 );
 
         registry.addInterceptor(activityTrackingInterceptor)
@@ -1,10 +1,14 @@
 package com.nevzatcirak.sharedsignals.web.controller;
 
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
 import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.exception.SsfBadRequestException;
 import com.nevzatcirak.sharedsignals.api.facade.AuthFacade;
 import com.nevzatcirak.sharedsignals.api.service.StreamAdministrationService;
 import com.nevzatcirak.sharedsignals.web.model.StreamModeRequest;
 import com.nevzatcirak.sharedsignals.web.model.UpdateAuthorizedEventsRequest;
+import com.nevzatcirak.sharedsignals.web.model.UpdateCoalescedEventsRequest;
+import com.nevzatcirak.sharedsignals.web.model.UpdateEventPrioritiesRequest;
 import com.nevzatcirak.sharedsignals.web.model.UpdateSubjectStatusRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -12,6 +16,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/admin")
 @Tag(name = "Admin Operations", description = "Management endpoints for SSF Security & Privacy")
@@ -64,4 +72,36 @@ public class AdminController {
         adminService.setStreamBroadcastMode(streamId, request.isProcessAllSubjects(), authFacade.getClientId());
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    @PutMapping("/stream/{streamId}/events/priorities")
+    @Operation(summary = "Set Event Priorities", description = "Override the delivery lane (high/normal/low) of event types on this stream.")
+    public ResponseEntity<Void> setEventPriorities(
+            @PathVariable("streamId") String streamId,
+            @RequestBody UpdateEventPrioritiesRequest request) {
+
+        Map<String, EventPriority> priorities = new HashMap<>();
+        if (request.getEventPriorities() != null) {
+            request.getEventPriorities().forEach((eventType, value) -> {
+                try {
+                    priorities.put(eventType, EventPriority.fromValue(value));
+                } catch (IllegalArgumentException e) {
+                    throw new SsfBadRequestException("Invalid priority '" + value + "' for event type: " + eventType);
+                }
+            });
+        }
+
+        adminService.updateEventPriorities(streamId, priorities, authFacade.getClientId());
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/stream/{streamId}/events/coalescing")
+    @Operation(summary = "Set Coalesced Events", description = "Let later events of these types supersede undelivered ones for the same subject on this stream.")
+    public ResponseEntity<Void> setCoalescedEvents(
+            @PathVariable("streamId") String streamId,
+            @RequestBody UpdateCoalescedEventsRequest request) {
+
+        Set<String> eventTypes = request.getCoalescedEvents() != null ? request.getCoalescedEvents() : Set.of();
+        adminService.updateCoalescedEvents(streamId, eventTypes, authFacade.getClientId());
+        return ResponseEntity.ok().build();
+    }
+}
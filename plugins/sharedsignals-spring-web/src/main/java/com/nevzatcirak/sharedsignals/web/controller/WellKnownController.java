@@ -1,33 +1,44 @@
 package com.nevzatcirak.sharedsignals.web.controller;
 
 import com.nevzatcirak.sharedsignals.api.model.TransmitterMetadata;
-import com.nevzatcirak.sharedsignals.api.service.JwkSetService;
-import com.nevzatcirak.sharedsignals.api.service.TransmitterMetadataService;
+import com.nevzatcirak.sharedsignals.web.discovery.DiscoveryDocumentCache;
+import com.nevzatcirak.sharedsignals.web.discovery.DiscoveryDocumentCache.Document;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import java.util.Map;
-import java.util.Collections;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
 
 /**
  * Controller serving standard discovery endpoints.
  * Compliant with SSF Section 7.2.
+ * <p>
+ * The documents are served pre-serialized ({@link DiscoveryDocumentCache}) with a strong ETag and
+ * {@code Cache-Control}; a request whose {@code If-None-Match} matches gets 304 Not Modified.
  */
 @RestController
 @RequestMapping("/.well-known")
 @Tag(name = "Discovery", description = "Public endpoints for Transmitter Metadata and Keys. SSF Spec Section 7.")
 public class WellKnownController {
 
-    private final TransmitterMetadataService metadataService;
-    private final JwkSetService jwkSetService;
+    private final DiscoveryDocumentCache documents;
+    private final CacheControl cacheControl;
 
-    public WellKnownController(TransmitterMetadataService metadataService, JwkSetService jwkSetService) {
-        this.metadataService = metadataService;
-        this.jwkSetService = jwkSetService;
+    public WellKnownController(DiscoveryDocumentCache documents,
+                               @Value("${sharedsignals.discovery.cache-max-age-seconds:300}") long cacheMaxAgeSeconds) {
+        this.documents = documents;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(cacheMaxAgeSeconds)).cachePublic();
     }
 
     /**
@@ -40,8 +51,9 @@ public class WellKnownController {
         produces = MediaType.APPLICATION_JSON_VALUE
     )
     @Operation(summary = "SSF Configuration", description = "Returns the Transmitter Configuration Metadata (SSF 7.1).")
-    public ResponseEntity<TransmitterMetadata> getSsfConfiguration() {
-        return ResponseEntity.ok(metadataService.getMetadata());
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = TransmitterMetadata.class)))
+    public ResponseEntity<byte[]> getSsfConfiguration(WebRequest request) {
+        return serve(documents.getMetadata(), request);
     }
 
     /**
@@ -53,14 +65,28 @@ public class WellKnownController {
         produces = MediaType.APPLICATION_JSON_VALUE
     )
     @Operation(summary = "RISC Configuration", description = "Backward compatibility endpoint for RISC metadata.")
-    public ResponseEntity<TransmitterMetadata> getRiscConfiguration() {
-        return ResponseEntity.ok(metadataService.getMetadata());
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = TransmitterMetadata.class)))
+    public ResponseEntity<byte[]> getRiscConfiguration(WebRequest request) {
+        return serve(documents.getMetadata(), request);
     }
 
     @GetMapping(value = "/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "JSON Web Key Set", description = "Returns the public keys used to verify SET signatures.")
-    public ResponseEntity<Map<String, Object>> getJwkSet() {
-        Map<String, Object> keys = jwkSetService.getJwkSet();
-        return ResponseEntity.ok(Collections.singletonMap("keys", Collections.singletonList(keys)));
+    public ResponseEntity<byte[]> getJwkSet(WebRequest request) {
+        return serve(documents.getJwkSet(), request);
+    }
+
+    private ResponseEntity<byte[]> serve(Document document, WebRequest request) {
+        if (request.checkNotModified(document.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(document.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(document.etag())
+                .cacheControl(cacheControl)
+                .body(document.body());
     }
 }
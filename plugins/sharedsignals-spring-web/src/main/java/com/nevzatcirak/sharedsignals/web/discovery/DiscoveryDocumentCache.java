@@ -0,0 +1,81 @@
+package com.nevzatcirak.sharedsignals.web.discovery;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.service.JwkSetService;
+import com.nevzatcirak.sharedsignals.api.service.TransmitterMetadataService;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The discovery documents (transmitter metadata and JWK set), serialized once and served as bytes
+ * with a strong ETag computed from their content.
+ * <p>
+ * Both are built from the configuration and the signing key, which are fixed at startup; whatever
+ * changes either (e.g. a key rotation) calls {@link #refresh()} to rebuild them.
+ */
+@Component
+public class DiscoveryDocumentCache {
+
+    /**
+     * A serialized document and its ETag (quoted).
+     */
+    public record Document(byte[] body, String etag) {
+    }
+
+    private final TransmitterMetadataService metadataService;
+    private final JwkSetService jwkSetService;
+    private final ObjectMapper objectMapper;
+
+    private volatile Document metadata;
+    private volatile Document jwkSet;
+
+    public DiscoveryDocumentCache(TransmitterMetadataService metadataService, JwkSetService jwkSetService,
+                                  ObjectMapper objectMapper) {
+        this.metadataService = metadataService;
+        this.jwkSetService = jwkSetService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Document getMetadata() {
+        Document document = metadata;
+        if (document == null) {
+            document = serialize(metadataService.getMetadata());
+            metadata = document;
+        }
+        return document;
+    }
+
+    public Document getJwkSet() {
+        Document document = jwkSet;
+        if (document == null) {
+            Map<String, Object> key = jwkSetService.getJwkSet();
+            document = serialize(Collections.singletonMap("keys", Collections.singletonList(key)));
+            jwkSet = document;
+        }
+        return document;
+    }
+
+    /**
+     * Rebuilds the documents on their next request, after the configuration or the signing key changed.
+     */
+    public void refresh() {
+        metadata = null;
+        jwkSet = null;
+    }
+
+    private Document serialize(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new Document(body, "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"");
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot serialize discovery document", e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.nevzatcirak.sharedsignals.web.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.exception.SsfErrorCode;
+import com.nevzatcirak.sharedsignals.web.interceptor.GcraBucket;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per remote address rate limit applied before authentication, so that a flood is rejected before
+ * its bearer tokens are verified. Buckets are kept in memory on each node; the rejection is written
+ * from a problem+json body serialized once.
+ * <p>
+ * The address is {@link HttpServletRequest#getRemoteAddr()}. Behind a reverse proxy or load
+ * balancer that is the proxy's address, shared by every client, unless
+ * {@code server.forward-headers-strategy} is set so that the client address is taken from the
+ * forwarded headers of trusted proxies.
+ * <p>
+ * Full buckets are dropped at most once per second, and only full buckets are dropped: a bucket
+ * that is still limiting its address is never reset to make room, so rotating through more than
+ * {@code maxTrackedAddresses} addresses does not lift the limit of any of them. If the table is
+ * full when a new address arrives, the oldest tracked addresses are checked for a full bucket to
+ * drop; if there is none, every tracked address has been active within the last
+ * {@code capacity / tokensPerSecond} seconds and the new address is rejected until one refills.
+ * Under such a flood, new clients are turned away rather than clients already limited let through.
+ */
+public class IpRateLimitFilter extends OncePerRequestFilter {
+
+    private static final long PRUNE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** Oldest tracked addresses checked for a full bucket when a new address needs room. */
+    private static final int EVICTION_CANDIDATES = 16;
+
+    private final long capacity;
+    private final long tokensPerSecond;
+    private final int maxTrackedAddresses;
+    /** Retry-After for addresses rejected because the table is full: the time a bucket takes to refill. */
+    private final String tableFullWaitSeconds;
+    private final Map<String, GcraBucket> buckets = new ConcurrentHashMap<>();
+    /** Tracked addresses, oldest first; may hold addresses whose bucket was dropped, or an address twice. */
+    private final Queue<String> admissionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong lastPruneNanos = new AtomicLong(System.nanoTime());
+    private final byte[] rejectionBody;
+
+    public IpRateLimitFilter(long capacity, long tokensPerSecond, int maxTrackedAddresses, ObjectMapper objectMapper, String issuerUrl) {
+        this.capacity = capacity;
+        this.tokensPerSecond = tokensPerSecond;
+        this.maxTrackedAddresses = Math.max(maxTrackedAddresses, 1);
+        this.tableFullWaitSeconds = String.valueOf(Math.max(Math.ceilDiv(capacity, Math.max(tokensPerSecond, 1)), 1));
+        this.rejectionBody = rejectionBody(objectMapper, issuerUrl);
+    }
+
+    private static byte[] rejectionBody(ObjectMapper objectMapper, String issuerUrl) {
+        String issuer = issuerUrl.endsWith("/") ? issuerUrl.substring(0, issuerUrl.length() - 1) : issuerUrl;
+        SsfErrorCode errorCode = SsfErrorCode.TOO_MANY_REQUESTS;
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded for this address.");
+        problem.setTitle(errorCode.getDescription());
+        problem.setType(URI.create(issuer + "/errors/" + errorCode.getCode()));
+        problem.setProperty("code", errorCode.getCode());
+        try {
+            return objectMapper.writeValueAsBytes(problem);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize rate limit rejection", e);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/.well-known");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        GcraBucket bucket = bucketFor(request.getRemoteAddr(), now);
+        if (bucket == null) {
+            reject(response, tableFullWaitSeconds);
+        } else if (bucket.tryConsume(1, now)) {
+            chain.doFilter(request, response);
+        } else {
+            reject(response, String.valueOf(bucket.waitSeconds(1, now)));
+        }
+    }
+
+    private void reject(HttpServletResponse response, String waitSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(rejectionBody.length);
+        response.setHeader(HttpHeaders.RETRY_AFTER, waitSeconds);
+        response.setHeader("X-Rate-Limit-Retry-After-Seconds", waitSeconds);
+        response.getOutputStream().write(rejectionBody);
+    }
+
+    /**
+     * @return the address's bucket, or null if the table is full of buckets still limiting their address
+     */
+    private GcraBucket bucketFor(String address, long now) {
+        GcraBucket bucket = buckets.get(address);
+        if (bucket != null) {
+            return bucket;
+        }
+        pruneFullBuckets(now);
+        if (buckets.size() >= maxTrackedAddresses && !evictFullBucket(now)) {
+            return null;
+        }
+        return buckets.computeIfAbsent(address, key -> {
+            admissionOrder.add(key);
+            return new GcraBucket(capacity, tokensPerSecond);
+        });
+    }
+
+    /**
+     * Drops the first full bucket among the oldest tracked addresses. Addresses whose bucket is not
+     * full go to the back of the order.
+     *
+     * @return true if there is room for a new address
+     */
+    private boolean evictFullBucket(long now) {
+        for (int i = 0; i < EVICTION_CANDIDATES; i++) {
+            if (buckets.size() < maxTrackedAddresses) {
+                return true;
+            }
+            String oldest = admissionOrder.poll();
+            if (oldest == null) {
+                return false;
+            }
+            GcraBucket candidate = buckets.get(oldest);
+            if (candidate == null) {
+                continue;
+            }
+            if (candidate.isFull(now) && buckets.remove(oldest, candidate)) {
+                return true;
+            }
+            admissionOrder.add(oldest);
+        }
+        return buckets.size() < maxTrackedAddresses;
+    }
+
+    private void pruneFullBuckets(long now) {
+        long last = lastPruneNanos.get();
+        if (now - last >= PRUNE_INTERVAL_NANOS && lastPruneNanos.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+            admissionOrder.removeIf(address -> !buckets.containsKey(address));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.nevzatcirak.sharedsignals.web.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free in-memory token bucket, kept as a theoretical arrival time (GCRA) in one atomic: each
+ * token pushes the time forward by one refill interval, and tokens are granted while the time stays
+ * within the capacity's worth of intervals ahead of now.
+ */
+public final class GcraBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param capacity the burst the bucket admits
+     * @param tokensPerSecond the sustained rate the bucket admits (at least 1)
+     */
+    public GcraBucket(long capacity, long tokensPerSecond) {
+        this.intervalNanos = Math.max(TimeUnit.SECONDS.toNanos(1) / Math.max(tokensPerSecond, 1), 1);
+        this.toleranceNanos = capacity * intervalNanos;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return true if the bucket has {@code tokens} left, which are then taken
+     */
+    public boolean tryConsume(long tokens, long nowNanos) {
+        long current;
+        long next;
+        do {
+            current = theoreticalArrival.get();
+            next = Math.max(current, nowNanos) + tokens * intervalNanos;
+            if (next - nowNanos > toleranceNanos) {
+                return false;
+            }
+        } while (!theoreticalArrival.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Takes tokens for work already done, possibly leaving the bucket in debt.
+     */
+    public void forceConsume(long tokens, long nowNanos) {
+        theoreticalArrival.accumulateAndGet(tokens * intervalNanos, (current, cost) -> Math.max(current, nowNanos) + cost);
+    }
+
+    /**
+     * @return the whole seconds until {@code tokens} are available again (at least 1)
+     */
+    public long waitSeconds(long tokens, long nowNanos) {
+        long waitNanos = theoreticalArrival.get() + tokens * intervalNanos - toleranceNanos - nowNanos;
+        return Math.max(Math.ceilDiv(waitNanos, TimeUnit.SECONDS.toNanos(1)), 1);
+    }
+
+    /**
+     * @return true if the bucket is full, so dropping it loses nothing
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.nevzatcirak.sharedsignals.web.interceptor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token bucket shared by all clients of this node, which caps the load a node puts on the database
+ * however many clients are within their own limits. It is checked before the client buckets and
+ * needs no database access.
+ */
+@Component
+public class NodeRateLimiter {
+
+    private final GcraBucket bucket;
+
+    /**
+     * @param capacity the burst the node admits (0 disables the node limit)
+     * @param tokensPerSecond the sustained rate the node admits
+     */
+    public NodeRateLimiter(
+            @Value("${sharedsignals.ratelimit.node.capacity:0}") long capacity,
+            @Value("${sharedsignals.ratelimit.node.refill-tokens-per-second:1000}") long tokensPerSecond) {
+        this.bucket = capacity > 0 && tokensPerSecond > 0 ? new GcraBucket(capacity, tokensPerSecond) : null;
+    }
+
+    /**
+     * @return true if the node has {@code tokens} left, which are then taken
+     */
+    public boolean tryConsume(long tokens) {
+        return bucket == null || bucket.tryConsume(tokens, System.nanoTime());
+    }
+
+    /**
+     * Takes tokens for work already done, possibly leaving the node bucket in debt.
+     */
+    public void forceConsume(long tokens) {
+        if (bucket != null) {
+            bucket.forceConsume(tokens, System.nanoTime());
+        }
+    }
+
+    /**
+     * @return the seconds until {@code tokens} are available again
+     */
+    public long waitSeconds(long tokens) {
+        return bucket == null ? 0 : bucket.waitSeconds(tokens, System.nanoTime());
+    }
+}
@@ -0,0 +1,93 @@
+package com.nevzatcirak.sharedsignals.web.interceptor;
+
+import com.nevzatcirak.sharedsignals.api.model.RateLimitPolicy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What a request costs in rate limit tokens.
+ * <p>
+ * Requests are grouped into route classes, each with its own bucket per client and a token weight.
+ * Every request is also charged its weight to the client's overall bucket (the global
+ * {@code sharedsignals.ratelimit} settings), so all receivers get the same budget whichever
+ * endpoints they use. Ingest can additionally be charged per stream the event fanned out to.
+ * Tier settings left unset fall back to the global ones.
+ */
+@Component
+public class RateLimitCostModel {
+
+    public enum RouteClass {
+        INGEST, POLL, MANAGEMENT
+    }
+
+    private final RateLimitPolicy overall;
+    private final Map<RouteClass, RateLimitPolicy> policies = new EnumMap<>(RouteClass.class);
+    private final Map<RouteClass, Long> weights = new EnumMap<>(RouteClass.class);
+    private final long streamsPerToken;
+
+    public RateLimitCostModel(
+            @Value("${sharedsignals.ratelimit.capacity:100}") long capacity,
+            @Value("${sharedsignals.ratelimit.refill-tokens:100}") long refillTokens,
+            @Value("${sharedsignals.ratelimit.refill-duration-seconds:60}") long refillDurationSeconds,
+            @Value("${sharedsignals.ratelimit.tiers.ingest.capacity:${sharedsignals.ratelimit.capacity:100}}") long ingestCapacity,
+            @Value("${sharedsignals.ratelimit.tiers.ingest.refill-tokens:${sharedsignals.ratelimit.refill-tokens:100}}") long ingestRefillTokens,
+            @Value("${sharedsignals.ratelimit.tiers.ingest.weight:1}") long ingestWeight,
+            @Value("${sharedsignals.ratelimit.tiers.ingest.streams-per-token:0}") long streamsPerToken,
+            @Value("${sharedsignals.ratelimit.tiers.poll.capacity:${sharedsignals.ratelimit.capacity:100}}") long pollCapacity,
+            @Value("${sharedsignals.ratelimit.tiers.poll.refill-tokens:${sharedsignals.ratelimit.refill-tokens:100}}") long pollRefillTokens,
+            @Value("${sharedsignals.ratelimit.tiers.poll.weight:1}") long pollWeight,
+            @Value("${sharedsignals.ratelimit.tiers.management.capacity:${sharedsignals.ratelimit.capacity:100}}") long managementCapacity,
+            @Value("${sharedsignals.ratelimit.tiers.management.refill-tokens:${sharedsignals.ratelimit.refill-tokens:100}}") long managementRefillTokens,
+            @Value("${sharedsignals.ratelimit.tiers.management.weight:1}") long managementWeight) {
+        Duration refillDuration = Duration.ofSeconds(refillDurationSeconds);
+        this.overall = new RateLimitPolicy("default", capacity, refillTokens, refillDuration);
+        register(RouteClass.INGEST, new RateLimitPolicy("ingest", ingestCapacity, ingestRefillTokens, refillDuration), ingestWeight);
+        register(RouteClass.POLL, new RateLimitPolicy("poll", pollCapacity, pollRefillTokens, refillDuration), pollWeight);
+        register(RouteClass.MANAGEMENT, new RateLimitPolicy("management", managementCapacity, managementRefillTokens, refillDuration), managementWeight);
+        this.streamsPerToken = streamsPerToken;
+    }
+
+    private void register(RouteClass routeClass, RateLimitPolicy policy, long weight) {
+        policies.put(routeClass, policy);
+        weights.put(routeClass, Math.max(weight, 0));
+    }
+
+    public RouteClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/v1/ingest")) {
+            return RouteClass.INGEST;
+        }
+        if (path.startsWith("/ssf/events/poll")) {
+            return RouteClass.POLL;
+        }
+        return RouteClass.MANAGEMENT;
+    }
+
+    /**
+     * @return the client's bucket shared by all route classes
+     */
+    public RateLimitPolicy overallPolicy() {
+        return overall;
+    }
+
+    public RateLimitPolicy policy(RouteClass routeClass) {
+        return policies.get(routeClass);
+    }
+
+    public long weight(RouteClass routeClass) {
+        return weights.get(routeClass);
+    }
+
+    /**
+     * @param streams the number of streams an ingested event was delivered to
+     * @return the extra tokens charged for the fan-out (0 if fan-out is not charged)
+     */
+    public long fanOutCost(long streams) {
+        return streamsPerToken > 0 && streams > 0 ? Math.ceilDiv(streams, streamsPerToken) : 0;
+    }
+}
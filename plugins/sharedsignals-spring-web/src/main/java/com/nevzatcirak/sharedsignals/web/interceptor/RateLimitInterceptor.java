@@ -4,22 +4,36 @@ import com.nevzatcirak.sharedsignals.api.constant.SecurityConstants;
 import com.nevzatcirak.sharedsignals.api.exception.RateLimitExceededException;
 import com.nevzatcirak.sharedsignals.api.model.RateLimitResult;
 import com.nevzatcirak.sharedsignals.api.spi.RateLimiter;
+import com.nevzatcirak.sharedsignals.web.interceptor.RateLimitCostModel.RouteClass;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+/**
+ * Charges each request its weight to the node bucket, the client's overall bucket and the client's
+ * bucket for the route class ({@link RateLimitCostModel}). The fan-out of an ingested event is
+ * only known once it has been processed, so it is charged on the async dispatch that completes
+ * the request, and may leave the buckets in debt.
+ */
 @Component
 public class RateLimitInterceptor implements HandlerInterceptor {
 
     private final RateLimiter rateLimiter;
+    private final RateLimitCostModel costModel;
+    private final NodeRateLimiter nodeRateLimiter;
     private final boolean enabled;
 
     public RateLimitInterceptor(
             RateLimiter rateLimiter,
+            RateLimitCostModel costModel,
+            NodeRateLimiter nodeRateLimiter,
             @Value("${sharedsignals.ratelimit.enabled:true}") boolean enabled) {
         this.rateLimiter = rateLimiter;
+        this.costModel = costModel;
+        this.nodeRateLimiter = nodeRateLimiter;
         this.enabled = enabled;
     }
 
@@ -38,16 +52,49 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             rateLimitKey = request.getRemoteAddr();
         }
 
-        RateLimitResult result = rateLimiter.tryConsume(rateLimitKey);
+        RouteClass routeClass = costModel.classify(request);
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            chargeFanOut(request, rateLimitKey, routeClass);
+            return true;
+        }
 
-        if (result.isAllowed()) {
-            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(result.getRemainingTokens()));
+        long weight = costModel.weight(routeClass);
+        if (weight == 0) {
             return true;
-        } else {
-            response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(result.getWaitTimeSeconds()));
-            throw new RateLimitExceededException(
-                String.format("Rate limit exceeded. Try again in %d seconds.", result.getWaitTimeSeconds())
-            );
         }
+        if (!nodeRateLimiter.tryConsume(weight)) {
+            throw rejected(response, nodeRateLimiter.waitSeconds(weight));
+        }
+        RateLimitResult overall = rateLimiter.tryConsume(rateLimitKey, weight, costModel.overallPolicy());
+        if (!overall.isAllowed()) {
+            throw rejected(response, overall.getWaitTimeSeconds());
+        }
+        RateLimitResult result = rateLimiter.tryConsume(rateLimitKey, weight, costModel.policy(routeClass));
+        if (!result.isAllowed()) {
+            throw rejected(response, result.getWaitTimeSeconds());
+        }
+
+        response.addHeader("X-Rate-Limit-Remaining",
+                String.valueOf(Math.min(overall.getRemainingTokens(), result.getRemainingTokens())));
+        return true;
+    }
+
+    private void chargeFanOut(HttpServletRequest request, String rateLimitKey, RouteClass routeClass) {
+        if (!(request.getAttribute(SecurityConstants.ATTRIBUTE_FAN_OUT) instanceof Integer streams)) {
+            return;
+        }
+        long cost = costModel.fanOutCost(streams);
+        if (cost > 0) {
+            nodeRateLimiter.forceConsume(cost);
+            rateLimiter.forceConsume(rateLimitKey, cost, costModel.overallPolicy());
+            rateLimiter.forceConsume(rateLimitKey, cost, costModel.policy(routeClass));
+        }
+    }
+
+    private static RateLimitExceededException rejected(HttpServletResponse response, long waitSeconds) {
+        response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitSeconds));
+        return new RateLimitExceededException(
+            String.format("Rate limit exceeded. Try again in %d seconds.", waitSeconds)
+        );
     }
-}
\ No newline at end of file
+}
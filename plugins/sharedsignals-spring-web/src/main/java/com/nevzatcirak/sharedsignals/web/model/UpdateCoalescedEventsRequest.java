@@ -0,0 +1,18 @@
+package com.nevzatcirak.sharedsignals.web.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Set;
+
+@Schema(description = "Request to enable coalescing of superseded events on a stream")
+public class UpdateCoalescedEventsRequest {
+
+    @Schema(description = "Event type URIs whose undelivered events are replaced by a later event of the same kind for the same subject. An empty list disables coalescing.",
+            example = "[\"https://schemas.openid.net/secevent/caep/event-type/risk-level-change\"]",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    @JsonProperty("coalesced_events")
+    private Set<String> coalescedEvents;
+
+    public Set<String> getCoalescedEvents() { return coalescedEvents; }
+    public void setCoalescedEvents(Set<String> coalescedEvents) { this.coalescedEvents = coalescedEvents; }
+}
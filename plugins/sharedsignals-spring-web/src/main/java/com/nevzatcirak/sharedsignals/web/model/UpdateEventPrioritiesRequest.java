@@ -0,0 +1,18 @@
+package com.nevzatcirak.sharedsignals.web.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+
+@Schema(description = "Request to override the delivery priority of event types on a stream")
+public class UpdateEventPrioritiesRequest {
+
+    @Schema(description = "Event type URI to delivery priority (high, normal, low). Event types not listed use the transmitter defaults.",
+            example = "{\"https://schemas.openid.net/secevent/caep/event-type/session-established\": \"normal\"}",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    @JsonProperty("event_priorities")
+    private Map<String, String> eventPriorities;
+
+    public Map<String, String> getEventPriorities() { return eventPriorities; }
+    public void setEventPriorities(Map<String, String> eventPriorities) { this.eventPriorities = eventPriorities; }
+}
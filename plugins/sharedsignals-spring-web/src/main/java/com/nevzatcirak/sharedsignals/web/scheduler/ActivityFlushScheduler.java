@@ -0,0 +1,54 @@
+package com.nevzatcirak.sharedsignals.web.scheduler;
+
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
+import com.nevzatcirak.sharedsignals.api.service.InactivityTimeoutService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spring-based scheduled job that writes the stream activity coalesced on this node to the store.
+ * <p>
+ * Every node flushes its own activity, so the job is not cluster-locked. The last batch is
+ * flushed on shutdown.
+ * <p>
+ * Configuration:
+ * - Enable/disable: sharedsignals.features.stream-monitoring
+ * - Interval: sharedsignals.scheduler.activity-flush-interval (default: 1 minute)
+ */
+@Component
+@ConditionalOnProperty(
+        name = "sharedsignals.features.stream-monitoring",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class ActivityFlushScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityFlushScheduler.class);
+
+    private final InactivityTimeoutService inactivityService;
+
+    public ActivityFlushScheduler(InactivityTimeoutService inactivityService) {
+        this.inactivityService = inactivityService;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${sharedsignals.scheduler.activity-flush-interval:60000}",
+            initialDelayString = "${sharedsignals.scheduler.activity-flush-interval:60000}"
+    )
+    public void flushActivity() {
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter()) {
+            inactivityService.flushActivity();
+        } catch (Exception e) {
+            log.error("Error during stream activity flush: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushActivity();
+    }
+}
@@ -1,5 +1,6 @@
 package com.nevzatcirak.sharedsignals.web.scheduler;
 
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
 import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
@@ -44,7 +45,7 @@ public class EventBufferCleanupScheduler {
     @SchedulerLock(name = "EventBufferCleanupScheduler_cleanup", lockAtMostFor = "1h", lockAtLeastFor = "5m")
     public void cleanupAcknowledgedEvents() {
         log.info("Starting event buffer cleanup (retention: {} days)", retentionDays);
-        try {
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter()) {
             Instant cutoffTime = Instant.now().minusSeconds(retentionDays * 86400L);
 
             long countBefore = streamStore.getEventCount();
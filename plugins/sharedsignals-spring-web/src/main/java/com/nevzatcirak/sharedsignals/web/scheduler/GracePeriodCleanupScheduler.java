@@ -1,5 +1,6 @@
 package com.nevzatcirak.sharedsignals.web.scheduler;
 
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
 import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
@@ -44,7 +45,7 @@ public class GracePeriodCleanupScheduler {
     @SchedulerLock(name = "GracePeriodCleanupScheduler_cleanup", lockAtMostFor = "1h", lockAtLeastFor = "5m")
     public void cleanupExpiredGracePeriods() {
         log.debug("Starting grace period cleanup");
-        try {
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter()) {
             streamStore.deleteByGracePeriodExpiresAtBefore(Instant.now());
         } catch (Exception e) {
             log.error("Error during grace period cleanup: {}", e.getMessage(), e);
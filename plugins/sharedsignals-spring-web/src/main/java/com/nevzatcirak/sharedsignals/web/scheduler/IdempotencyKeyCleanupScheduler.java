@@ -0,0 +1,55 @@
+package com.nevzatcirak.sharedsignals.web.scheduler;
+
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
+import com.nevzatcirak.sharedsignals.api.spi.IdempotencyStore;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Scheduled job to purge expired ingestion idempotency keys.
+ * <p>
+ * Keys only need to outlive the producer retry window, so the table stays small.
+ */
+@Component
+@ConditionalOnProperty(
+        value = "sharedsignals.features.maintenance.idempotency-keys",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class IdempotencyKeyCleanupScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyCleanupScheduler.class);
+    private final IdempotencyStore idempotencyStore;
+
+    public IdempotencyKeyCleanupScheduler(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * Deletes expired keys.
+     * <p>
+     * Default: Runs hourly (3600000 ms).
+     */
+    @Scheduled(
+            fixedDelayString = "${sharedsignals.scheduler.idempotency-cleanup-interval:3600000}",
+            initialDelayString = "${sharedsignals.scheduler.idempotency-cleanup-initial-delay:600000}"
+    )
+    @SchedulerLock(name = "IdempotencyKeyCleanupScheduler_cleanup", lockAtMostFor = "30m", lockAtLeastFor = "1m")
+    public void cleanupExpiredKeys() {
+        log.debug("Starting idempotency key cleanup");
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter()) {
+            int deleted = idempotencyStore.deleteExpired(Instant.now());
+            if (deleted > 0) {
+                log.info("Idempotency key cleanup completed: {} expired keys deleted", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Error during idempotency key cleanup: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.nevzatcirak.sharedsignals.web.scheduler;
 
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
 import com.nevzatcirak.sharedsignals.api.service.InactivityTimeoutService;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
@@ -56,7 +57,7 @@ public class InactivityTimeoutScheduler {
     public void checkInactiveStreams() {
         log.debug("Starting scheduled inactivity timeout check");
 
-        try {
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter()) {
             inactivityService.checkAndHandleInactiveStreams();
             log.debug("Completed inactivity timeout check");
         } catch (Exception e) {
@@ -1,11 +1,13 @@
 package com.nevzatcirak.sharedsignals.web.scheduler;
 
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
 import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
 import com.nevzatcirak.sharedsignals.api.model.PushMessage;
 import com.nevzatcirak.sharedsignals.api.service.PushQueueService;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
@@ -16,14 +18,35 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Worker that processes the Outbox Queue using the Service Interface.
  * <p>
- * Uses ShedLock to ensure only one instance processes the queue at a time
- * to prevent duplicate delivery attempts.
+ * Delivery is ordered per partition (stream, or stream and subject): there is never more than one
+ * request in flight per partition. Each scheduler run claims the ready head of every idle
+ * partition and hands it to the worker pool without waiting for it. When a message is delivered,
+ * its worker claims the partition's next message right away and queues it, so every partition
+ * advances at its receiver's own pace and a slow receiver holds back only its own partition.
+ * A partition whose head failed waits for its retry time and is picked up by a later run.
+ * <p>
+ * Every message is claimed with a conditional update before it is sent, which makes it safe for
+ * several nodes to run this worker at the same time; no cluster-wide lock is taken. Stores that can
+ * claim a whole batch in the fetching statement do so; otherwise each worker claims its message.
+ * At most {@code max-in-flight} messages are claimed by this node at a time, which bounds how long
+ * a claimed message can wait for a free worker: each worker has at most
+ * {@code max-in-flight / workers} messages to send, each taking up to the connect plus read
+ * timeout. That must not exceed the in-flight timeout, after which a claimed message is delivered
+ * again. Unless set (0), {@code max-in-flight} is derived as the largest value that keeps within
+ * it, see {@link #maxInFlight}; a larger value is rejected at startup.
  */
 @Component
 @ConditionalOnProperty(name = "sharedsignals.features.push-delivery", havingValue = "true", matchIfMissing = true)
@@ -33,42 +56,133 @@ public class PushDeliveryScheduler {
     private final PushQueueService queueService;
     private final RestTemplate restTemplate;
 
+    private final ExecutorService workers;
+    /** One permit per message claimed by this node and not yet finished. */
+    private final Semaphore inFlight;
+
     private static final int BATCH_SIZE = 50;
 
-    public PushDeliveryScheduler(PushQueueService queueService, RestTemplateBuilder restTemplateBuilder) {
+    public PushDeliveryScheduler(
+            PushQueueService queueService,
+            RestTemplateBuilder restTemplateBuilder,
+            @Value("${sharedsignals.delivery.ordering.workers:8}") int workerCount,
+            @Value("${sharedsignals.delivery.ordering.max-in-flight:0}") int maxInFlight,
+            @Value("${sharedsignals.delivery.ordering.in-flight-timeout-seconds:300}") long inFlightTimeoutSeconds,
+            @Value("${sharedsignals.delivery.connect-timeout-seconds:10}") long connectTimeoutSeconds,
+            @Value("${sharedsignals.delivery.read-timeout-seconds:30}") long readTimeoutSeconds) {
+        int inFlightLimit = maxInFlight(workerCount, maxInFlight, inFlightTimeoutSeconds, connectTimeoutSeconds + readTimeoutSeconds);
         this.queueService = queueService;
-        this.restTemplate = restTemplateBuilder.build();
+        // Bounded timeouts keep a slow receiver from holding its partition past the in-flight timeout
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .readTimeout(Duration.ofSeconds(readTimeoutSeconds))
+                .build();
+        this.inFlight = new Semaphore(inFlightLimit);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "ssf-push-delivery-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     /**
-     * Processes pending push events.
-     * <p>
-     * Lock Configuration:
-     * - name: Unique identifier for this task.
-     * - lockAtMostFor: "30s" - If this node crashes, lock is released after 30s.
-     * - lockAtLeastFor: "500ms" - Prevents rapid re-execution by other nodes if this task finishes instantly.
+     * Messages this node may claim at a time. A message waits behind at most
+     * {@code ceil(limit / workers) - 1} requests of its worker before its own, so all of them
+     * finish within {@code ceil(limit / workers) * requestTimeout}, which must not exceed the
+     * in-flight timeout.
+     *
+     * @param configured the configured limit, or 0 to derive the largest one within the timeout
+     * @throws IllegalStateException if the configured limit, or a single request, can outlast the in-flight timeout
+     */
+    public static int maxInFlight(int workerCount, int configured, long inFlightTimeoutSeconds, long requestTimeoutSeconds) {
+        long requestsPerWorker = inFlightTimeoutSeconds / requestTimeoutSeconds;
+        if (requestsPerWorker == 0) {
+            throw new IllegalStateException("sharedsignals.delivery.ordering.in-flight-timeout-seconds (" + inFlightTimeoutSeconds +
+                    ") must be at least the connect plus read timeout (" + requestTimeoutSeconds + "s)");
+        }
+        long limit = Math.min(Integer.MAX_VALUE, workerCount * requestsPerWorker);
+        if (configured <= 0) {
+            return (int) limit;
+        }
+        if (configured > limit) {
+            throw new IllegalStateException("sharedsignals.delivery.ordering.max-in-flight (" + configured + ") lets a claimed message " +
+                    "wait longer than the in-flight timeout of " + inFlightTimeoutSeconds + "s with " + workerCount +
+                    " workers and " + requestTimeoutSeconds + "s per request; use at most " + limit + ", or 0 to derive it");
+        }
+        return configured;
+    }
+
+    /**
+     * Claims the ready heads of idle partitions and dispatches them to the workers.
+     * Returns without waiting for the deliveries.
      */
     @Scheduled(fixedDelayString = "${sharedsignals.scheduler.push-delivery-interval:1000}")
-    @SchedulerLock(name = "PushDeliveryScheduler_processOutbox", lockAtMostFor = "30s", lockAtLeastFor = "500ms")
     public void processOutbox() {
-        List<PushMessage> messages = queueService.findReadyMessages(BATCH_SIZE);
+        try (Workload.Scope ignored = Workload.DELIVERY.enter()) {
+            dispatchReady();
+        }
+    }
 
-        if (messages.isEmpty()) return;
+    private synchronized void dispatchReady() {
+        int batchSize = Math.min(BATCH_SIZE, inFlight.availablePermits());
+        if (batchSize == 0) {
+            return;
+        }
+        Optional<List<PushMessage>> claimed = queueService.claimReadyMessages(batchSize);
+        List<PushMessage> messages = claimed.orElseGet(() -> queueService.findReadyMessages(batchSize));
+        boolean alreadyClaimed = claimed.isPresent();
 
-        log.debug("Processing {} pending push events...", messages.size());
+        if (messages.isEmpty()) return;
 
+        log.debug("Dispatching {} pending push events...", messages.size());
         for (PushMessage msg : messages) {
-            try {
-                processMessage(msg);
-            } catch (Exception e) {
-                log.error("Unexpected error processing message ID: " + msg.getId(), e);
-            }
+            // Only this method acquires permits, so the permits counted above are still free
+            inFlight.acquireUninterruptibly();
+            dispatch(msg, alreadyClaimed);
         }
     }
 
-    private void processMessage(PushMessage msg) {
+    /**
+     * Delivers a message on a worker; the permit it holds passes to the partition's next message.
+     */
+    private void dispatch(PushMessage msg, boolean alreadyClaimed) {
+        try {
+            workers.execute(() -> {
+                PushMessage next = null;
+                try (Workload.Scope ignored = Workload.DELIVERY.enter()) {
+                    if (processMessage(msg, alreadyClaimed) && msg.getPartitionKey() != null) {
+                        next = queueService.claimNextInPartition(msg.getPartitionKey()).orElse(null);
+                    }
+                } catch (Exception e) {
+                    log.error("Unexpected error processing message ID: " + msg.getId(), e);
+                }
+                if (next != null) {
+                    dispatch(next, true);
+                } else {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the claim goes stale and the message is delivered again later
+            inFlight.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * @return true if the message was delivered by this worker
+     */
+    private boolean processMessage(PushMessage msg, boolean alreadyClaimed) {
+        if (!alreadyClaimed && !queueService.tryMarkInProgress(msg.getId())) {
+            log.debug("Message {} already claimed by another worker", msg.getId());
+            return false;
+        }
         try {
-            queueService.markInProgress(msg.getId());
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.parseMediaType(SharedSignalConstants.MEDIA_TYPE_SECEVENT_JWT));
@@ -84,12 +198,13 @@ public class PushDeliveryScheduler {
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 queueService.markSuccess(msg.getId());
-            } else {
-                queueService.markFailure(msg.getId(), "HTTP " + response.getStatusCode(), msg.getRetryCount());
+                return true;
             }
+            queueService.markFailure(msg.getId(), "HTTP " + response.getStatusCode(), msg.getRetryCount());
 
         } catch (Exception e) {
             queueService.markFailure(msg.getId(), e.getMessage(), msg.getRetryCount());
         }
+        return false;
     }
 }
\ No newline at end of file
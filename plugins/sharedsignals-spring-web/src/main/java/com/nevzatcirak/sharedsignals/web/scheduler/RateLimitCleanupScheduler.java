@@ -0,0 +1,48 @@
+package com.nevzatcirak.sharedsignals.web.scheduler;
+
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
+import com.nevzatcirak.sharedsignals.api.spi.RateLimiter;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled job to release the rate limit buckets of idle clients.
+ * <p>
+ * A bucket that has been idle for a whole refill period is full again, so dropping it
+ * does not change any client's limit.
+ */
+@Component
+@ConditionalOnProperty(
+        value = "sharedsignals.ratelimit.enabled",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class RateLimitCleanupScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitCleanupScheduler.class);
+    private final RateLimiter rateLimiter;
+
+    public RateLimitCleanupScheduler(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Default: Runs every 10 minutes (600000 ms).
+     */
+    @Scheduled(
+            fixedDelayString = "${sharedsignals.scheduler.rate-limit-cleanup-interval:600000}",
+            initialDelayString = "${sharedsignals.scheduler.rate-limit-cleanup-interval:600000}"
+    )
+    @SchedulerLock(name = "RateLimitCleanupScheduler_purge", lockAtMostFor = "5m", lockAtLeastFor = "1m")
+    public void purgeIdleBuckets() {
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter()) {
+            rateLimiter.purgeIdleBuckets();
+        } catch (Exception e) {
+            log.error("Error during rate limit bucket cleanup: {}", e.getMessage(), e);
+        }
+    }
+}
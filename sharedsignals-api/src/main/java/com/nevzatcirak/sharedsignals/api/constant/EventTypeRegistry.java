@@ -0,0 +1,85 @@
+package com.nevzatcirak.sharedsignals.api.constant;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the supported event type URIs to small integer ids.
+ * <p>
+ * Ids follow the order of {@link SharedSignalConstants#SUPPORTED_EVENTS} and are only stable within
+ * one build, so they are used for in-memory routing and never persisted. A set of event types is
+ * represented as a {@code long} bitmask, which makes "does this stream receive this type" a single AND.
+ */
+public final class EventTypeRegistry {
+    private EventTypeRegistry() {}
+
+    /** Id returned for event types that are not supported by this transmitter. */
+    public static final int UNKNOWN = -1;
+
+    private static final List<String> EVENT_TYPES = SharedSignalConstants.SUPPORTED_EVENTS;
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    static {
+        // One bit is kept free so that no valid mask equals -1
+        if (EVENT_TYPES.size() >= Long.SIZE) {
+            throw new IllegalStateException("At most " + (Long.SIZE - 1) + " event types can be interned");
+        }
+        for (int i = 0; i < EVENT_TYPES.size(); i++) {
+            IDS.put(EVENT_TYPES.get(i), i);
+        }
+    }
+
+    /**
+     * @return the number of interned event types
+     */
+    public static int size() {
+        return EVENT_TYPES.size();
+    }
+
+    /**
+     * @param eventTypeUri the event type URI
+     * @return its id, or {@link #UNKNOWN} if the type is not supported
+     */
+    public static int idOf(String eventTypeUri) {
+        Integer id = eventTypeUri == null ? null : IDS.get(eventTypeUri);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * @param id an event type id
+     * @return the event type URI
+     */
+    public static String uriOf(int id) {
+        return EVENT_TYPES.get(id);
+    }
+
+    /**
+     * Builds the bitmask of a set of event types. Unsupported types are ignored.
+     *
+     * @param eventTypeUris event type URIs, may be null
+     * @return the bitmask
+     */
+    public static long maskOf(Collection<String> eventTypeUris) {
+        long mask = 0L;
+        if (eventTypeUris != null) {
+            for (String uri : eventTypeUris) {
+                int id = idOf(uri);
+                if (id != UNKNOWN) {
+                    mask |= 1L << id;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @param mask a bitmask built by {@link #maskOf}
+     * @param id   an event type id
+     * @return true if the mask contains the event type
+     */
+    public static boolean contains(long mask, int id) {
+        return id != UNKNOWN && (mask & (1L << id)) != 0;
+    }
+}
@@ -10,4 +10,9 @@ public final class SecurityConstants {
      * Request Attribute key used to pass the authenticated Client ID/Owner.
      */
     public static final String ATTRIBUTE_CLIENT_ID = "SSF_CLIENT_ID";
+
+    /**
+     * Request Attribute key used to pass the number of streams an ingested event was delivered to.
+     */
+    public static final String ATTRIBUTE_FAN_OUT = "SSF_FAN_OUT";
 }
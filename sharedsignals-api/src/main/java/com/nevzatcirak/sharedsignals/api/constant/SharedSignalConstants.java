@@ -1,6 +1,9 @@
 package com.nevzatcirak.sharedsignals.api.constant;
 
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+
 import java.util.List;
+import java.util.Map;
 
 public final class SharedSignalConstants {
     private SharedSignalConstants() {}
@@ -101,4 +104,37 @@ public final class SharedSignalConstants {
         SSF_VERIFICATION,
         SSF_STREAM_UPDATED
     );
-}
\ No newline at end of file
+
+    // --- Delivery Priority ---
+    /**
+     * Default delivery lane per event type. Types not listed are delivered as {@link EventPriority#NORMAL}.
+     * Can be overridden per stream by the transmitter operator.
+     */
+    public static final Map<String, EventPriority> DEFAULT_EVENT_PRIORITIES = Map.ofEntries(
+        Map.entry(RISC_CREDENTIAL_COMPROMISE, EventPriority.HIGH),
+        Map.entry(RISC_ACCOUNT_DISABLED, EventPriority.HIGH),
+        Map.entry(RISC_ACCOUNT_PURGED, EventPriority.HIGH),
+        Map.entry(RISC_IDENTIFIER_RECYCLED, EventPriority.HIGH),
+        Map.entry(CAEP_SESSION_REVOKED, EventPriority.HIGH),
+        Map.entry(CAEP_CREDENTIAL_CHANGE, EventPriority.HIGH),
+        Map.entry(SSF_VERIFICATION, EventPriority.HIGH),
+        Map.entry(SSF_STREAM_UPDATED, EventPriority.HIGH),
+
+        Map.entry(CAEP_SESSION_ESTABLISHED, EventPriority.LOW),
+        Map.entry(CAEP_SESSION_PRESENTED, EventPriority.LOW)
+    );
+
+    // --- Event Coalescing ---
+    /**
+     * Event types whose latest event carries the full current state, mapped to their supersession group.
+     * An undelivered event is superseded by a later event of the same group for the same subject.
+     * Only these types can be enabled for coalescing on a stream.
+     */
+    public static final Map<String, String> SUPERSEDING_EVENT_GROUPS = Map.of(
+        CAEP_RISK_LEVEL_CHANGE, "risk-level",
+        CAEP_ASSURANCE_LEVEL_CHANGE, "assurance-level",
+        CAEP_DEVICE_COMPLIANCE_CHANGE, "device-compliance",
+        RISC_ACCOUNT_DISABLED, "account-status",
+        RISC_ACCOUNT_ENABLED, "account-status"
+    );
+}
@@ -0,0 +1,41 @@
+package com.nevzatcirak.sharedsignals.api.enums;
+
+/**
+ * How push deliveries are partitioned for ordering.
+ * <p>
+ * Events in the same partition are delivered strictly in enqueue order with at most one
+ * request in flight; different partitions are delivered in parallel.
+ */
+public enum DeliveryPartitioning {
+    /** One partition per stream. */
+    STREAM("stream"),
+    /** One partition per stream and subject; events for different subjects are not ordered. */
+    STREAM_SUBJECT("stream-subject");
+
+    private final String value;
+
+    DeliveryPartitioning(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+
+    public static DeliveryPartitioning fromValue(String value) {
+        if (value == null) {
+            return STREAM;
+        }
+        for (DeliveryPartitioning b : DeliveryPartitioning.values()) {
+            if (String.valueOf(b.value).equalsIgnoreCase(value) || b.name().equalsIgnoreCase(value)) {
+                return b;
+            }
+        }
+        throw new IllegalArgumentException("Unexpected value '" + value + "' for DeliveryPartitioning");
+    }
+}
@@ -0,0 +1,71 @@
+package com.nevzatcirak.sharedsignals.api.enums;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Delivery lane of a Security Event.
+ * <p>
+ * Outbox and poll buffer rows carry the lane number and are delivered in order of a virtual
+ * deadline, {@link #dueAt}: the creation time pushed back by one lane wait per lane below
+ * {@link #HIGH}. An event therefore yields only to higher-lane events created less than a lane
+ * wait (per lane of difference) after it, so low-priority traffic cannot be starved and an aged
+ * backlog does not jump ahead of fresh high-priority events.
+ */
+public enum EventPriority {
+    HIGH("high", 0),
+    NORMAL("normal", 1),
+    LOW("low", 2);
+
+    private final String value;
+    private final int lane;
+
+    EventPriority(String value, int lane) {
+        this.value = value;
+        this.lane = lane;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getLane() {
+        return lane;
+    }
+
+    /**
+     * The virtual deadline of an event in this lane: rows are delivered in ascending order of it.
+     *
+     * @param createdAt when the event was queued
+     * @param laneWait  how long an event waits at most behind the lane above it
+     */
+    public Instant dueAt(Instant createdAt, Duration laneWait) {
+        return createdAt.plus(laneWait.multipliedBy(lane));
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+
+    public static EventPriority fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (EventPriority b : EventPriority.values()) {
+            if (String.valueOf(b.value).equalsIgnoreCase(value) || b.name().equalsIgnoreCase(value)) {
+                return b;
+            }
+        }
+        throw new IllegalArgumentException("Unexpected value '" + value + "' for EventPriority");
+    }
+
+    public static EventPriority fromLane(int lane) {
+        for (EventPriority b : EventPriority.values()) {
+            if (b.lane == lane) {
+                return b;
+            }
+        }
+        return NORMAL;
+    }
+}
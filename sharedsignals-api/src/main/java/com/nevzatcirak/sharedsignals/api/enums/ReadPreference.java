@@ -0,0 +1,39 @@
+package com.nevzatcirak.sharedsignals.api.enums;
+
+/**
+ * Where the current thread's reads may be served from.
+ * <p>
+ * Stores mark explicitly read-only operations that tolerate a bounded replication lag with a
+ * {@link #REPLICA} scope; connections taken inside it may come from a read replica. Everything
+ * else reads from the {@link #PRIMARY}. As with {@link Workload}, a transaction keeps the
+ * connection it started with.
+ */
+public enum ReadPreference {
+    PRIMARY,
+    REPLICA;
+
+    private static final ThreadLocal<ReadPreference> CURRENT = new ThreadLocal<>();
+
+    /**
+     * @return the read preference of the current thread
+     */
+    public static ReadPreference current() {
+        ReadPreference preference = CURRENT.get();
+        return preference != null ? preference : PRIMARY;
+    }
+
+    /**
+     * Applies this preference to the current thread until the returned scope is closed.
+     */
+    public Scope enter() {
+        ReadPreference previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous == null ? CURRENT::remove : () -> CURRENT.set(previous);
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
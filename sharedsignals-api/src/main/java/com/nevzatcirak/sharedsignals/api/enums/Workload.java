@@ -0,0 +1,42 @@
+package com.nevzatcirak.sharedsignals.api.enums;
+
+/**
+ * Class of work the current thread is doing, used to pick its database connection pool so that
+ * saturation in one class does not starve the others.
+ * <p>
+ * Threads are {@link #INTERACTIVE} unless a scope says otherwise. A scope only affects connections
+ * taken after it was entered; a transaction keeps the connection it started with.
+ */
+public enum Workload {
+    /** Receiver and management API requests, including polls. */
+    INTERACTIVE,
+    /** Ingest fan-out and push delivery. */
+    DELIVERY,
+    /** Cleanup jobs, activity flushes and scheduler locks. */
+    MAINTENANCE;
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    /**
+     * @return the workload of the current thread
+     */
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : INTERACTIVE;
+    }
+
+    /**
+     * Marks the current thread as doing this workload until the returned scope is closed.
+     */
+    public Scope enter() {
+        Workload previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous == null ? CURRENT::remove : () -> CURRENT.set(previous);
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
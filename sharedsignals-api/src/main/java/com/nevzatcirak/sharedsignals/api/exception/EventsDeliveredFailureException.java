@@ -9,6 +9,6 @@ package com.nevzatcirak.sharedsignals.api.exception;
 public class EventsDeliveredFailureException extends SsfException {
 
     public EventsDeliveredFailureException(String message) {
-        super(SsfErrorCode.DELIVERY_FAILED, message);
+        super(SsfErrorCode.DELIVERY_FAILED, message, true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.nevzatcirak.sharedsignals.api.exception;
+
+/**
+ * Exception thrown when a producer retries an event whose first attempt is still being fanned out,
+ * possibly on another node, so its outcome is not known yet.
+ * <p>
+ * Results in HTTP 409 Conflict; the producer should retry later.
+ */
+public class IngestionInProgressException extends SsfException {
+
+    public IngestionInProgressException() {
+        super(SsfErrorCode.INGESTION_IN_PROGRESS,
+              "An event with the same identifiers is still being processed. Retry later.");
+    }
+}
@@ -13,6 +13,7 @@ public enum SsfErrorCode {
     // 409 - Conflict
     STREAM_ALREADY_EXISTS("SSF-1002", "A stream with the provided criteria already exists."),
     SUBJECT_ALREADY_REGISTERED("SSF-2001", "The subject is already registered to this stream."),
+    INGESTION_IN_PROGRESS("SSF-1006", "An event with the same identifiers is still being processed."),
 
     // 400 - Bad Request
     INVALID_STREAM_CONFIGURATION("SSF-1003", "The provided stream configuration is invalid."),
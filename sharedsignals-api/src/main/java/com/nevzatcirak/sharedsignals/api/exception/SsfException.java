@@ -2,12 +2,20 @@ package com.nevzatcirak.sharedsignals.api.exception;
 
 /**
  * Base abstract class for all Shared Signals Framework exceptions.
+ * <p>
+ * Most of them report client errors and are thrown on hot paths (rate limiting, validation), so by
+ * default they do not capture a stack trace. Exceptions for server-side failures pass
+ * {@code writableStackTrace} to keep it.
  */
 public abstract class SsfException extends RuntimeException {
     private final SsfErrorCode errorCode;
 
     protected SsfException(SsfErrorCode errorCode, String message) {
-        super(message);
+        this(errorCode, message, false);
+    }
+
+    protected SsfException(SsfErrorCode errorCode, String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
         this.errorCode = errorCode;
     }
 
@@ -6,10 +6,10 @@ package com.nevzatcirak.sharedsignals.api.exception;
 public class SsfInternalServerException extends SsfException {
 
     public SsfInternalServerException(SsfErrorCode errorCode, String message) {
-        super(errorCode, message);
+        super(errorCode, message, true);
     }
 
     public SsfInternalServerException(String message) {
-        super(SsfErrorCode.INTERNAL_ERROR, message);
+        super(SsfErrorCode.INTERNAL_ERROR, message, true);
     }
 }
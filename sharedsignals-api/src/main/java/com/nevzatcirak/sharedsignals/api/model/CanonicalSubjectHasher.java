@@ -0,0 +1,210 @@
+package com.nevzatcirak.sharedsignals.api.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * SHA-256 of a subject's canonical JSON form, computed without building the JSON.
+ * <p>
+ * Walks the subject in sorted key order and encodes the bytes Jackson would write with
+ * {@code ORDER_MAP_ENTRIES_BY_KEYS} (UTF-8, Jackson's escaping and number formatting) into a small
+ * per-thread buffer that is fed to a per-thread {@link MessageDigest}. The result is byte-for-byte
+ * the digest of that JSON, so stored subject hashes stay valid.
+ */
+final class CanonicalSubjectHasher {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private static final ThreadLocal<CanonicalSubjectHasher> LOCAL = ThreadLocal.withInitial(CanonicalSubjectHasher::new);
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[256];
+    private int position;
+
+    private CanonicalSubjectHasher() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @param subject the subject members
+     * @return the 32-byte SHA-256 digest of the canonical form
+     */
+    static byte[] digest(Map<?, ?> subject) {
+        CanonicalSubjectHasher hasher = LOCAL.get();
+        hasher.digest.reset();
+        hasher.position = 0;
+        hasher.writeValue(subject);
+        hasher.flush();
+        return hasher.digest.digest();
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            write(NULL);
+        } else if (value instanceof String text) {
+            writeString(text);
+        } else if (value instanceof Map<?, ?> map) {
+            writeMap(map);
+        } else if (value instanceof Collection<?> items) {
+            write('[');
+            boolean first = true;
+            for (Object item : items) {
+                if (!first) write(',');
+                first = false;
+                writeValue(item);
+            }
+            write(']');
+        } else if (value instanceof Boolean flag) {
+            write(flag ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Double d && !Double.isFinite(d)
+                || value instanceof Float f && !Float.isFinite(f)) {
+            writeString(value.toString());
+        } else if (value instanceof Number) {
+            writeAscii(value.toString());
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    private void writeMap(Map<?, ?> map) {
+        write('{');
+        int size = map.size();
+        if (size == 1) {
+            Map.Entry<?, ?> entry = map.entrySet().iterator().next();
+            writeString(String.valueOf(entry.getKey()));
+            write(':');
+            writeValue(entry.getValue());
+        } else if (size > 1) {
+            String[] keys = new String[size];
+            int i = 0;
+            for (Object key : map.keySet()) {
+                keys[i++] = String.valueOf(key);
+            }
+            Arrays.sort(keys);
+            for (i = 0; i < size; i++) {
+                if (i > 0) write(',');
+                writeString(keys[i]);
+                write(':');
+                writeValue(map.get(keys[i]));
+            }
+        }
+        write('}');
+    }
+
+    private void writeString(String value) {
+        write('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    write(c);
+                } else {
+                    writeEscaped(c);
+                }
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6));
+                write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                write(0xF0 | (codePoint >> 18));
+                write(0x80 | ((codePoint >> 12) & 0x3F));
+                write(0x80 | ((codePoint >> 6) & 0x3F));
+                write(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced the same way String.getBytes(UTF_8) does
+                write('?');
+            } else {
+                write(0xE0 | (c >> 12));
+                write(0x80 | ((c >> 6) & 0x3F));
+                write(0x80 | (c & 0x3F));
+            }
+        }
+        write('"');
+    }
+
+    private void writeEscaped(char c) {
+        write('\\');
+        switch (c) {
+            case '"' -> write('"');
+            case '\\' -> write('\\');
+            case '\b' -> write('b');
+            case '\t' -> write('t');
+            case '\n' -> write('n');
+            case '\f' -> write('f');
+            case '\r' -> write('r');
+            default -> {
+                write('u');
+                write('0');
+                write('0');
+                write(HEX[c >> 4]);
+                write(HEX[c & 0xF]);
+            }
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        ensure(20);
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int lo = start, hi = position - 1; lo < hi; lo++, hi--) {
+            byte tmp = buffer[lo];
+            buffer[lo] = buffer[hi];
+            buffer[hi] = tmp;
+        }
+    }
+
+    private void writeAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            write(value.charAt(i));
+        }
+    }
+
+    private void write(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void write(int b) {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.length - position < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        digest.update(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.nevzatcirak.sharedsignals.api.model;
+
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+
+/**
+ * How a push event is queued for delivery.
+ *
+ * @param priority     the delivery lane (null means {@link EventPriority#NORMAL})
+ * @param partitionKey the ordering partition; events sharing it are delivered in the order they were queued (null means the stream)
+ * @param coalesceKey  supersession group and subject within the stream (null disables coalescing)
+ */
+public record DeliveryOptions(EventPriority priority, String partitionKey, String coalesceKey) {
+
+    /** Normal lane, ordered per stream, never coalesced. */
+    public static final DeliveryOptions DEFAULT = new DeliveryOptions(EventPriority.NORMAL, null, null);
+
+    public DeliveryOptions {
+        if (priority == null) {
+            priority = EventPriority.NORMAL;
+        }
+    }
+
+    /**
+     * @return the ordering partition, or the stream if none was set
+     */
+    public String partitionKeyOr(String streamId) {
+        return partitionKey != null ? partitionKey : streamId;
+    }
+}
@@ -17,14 +17,39 @@ public class GenericSecurityEvent {
     private final Map<String, Object> payload;
     private final Instant occurrenceTime;
     private final String txnId;
+    private final String idempotencyKey;
 
     public GenericSecurityEvent(SecurityIntent intent, Map<String, Object> subject, Map<String, Object> payload, Instant occurrenceTime) {
-        this.id = UUID.randomUUID().toString();
+        this(null, null, null, intent, subject, payload, occurrenceTime);
+    }
+
+    /**
+     * Creates an event carrying producer-assigned identifiers.
+     * <p>
+     * When the producer supplies an event id and/or a transaction id (RFC 8417 {@code txn}),
+     * retries of the same event can be recognised and answered without a second fan-out.
+     * The identifiers are only unique per producer, so retries are recognised only for an
+     * authenticated producer. Missing identifiers are generated.
+     *
+     * @param producerId     the authenticated client that submitted the event, or {@code null}
+     * @param id             producer event id, or {@code null}
+     * @param txnId          producer transaction id, or {@code null}
+     * @param intent         the security intent
+     * @param subject        the subject identifier
+     * @param payload        the event payload
+     * @param occurrenceTime when the event occurred, defaults to now
+     */
+    public GenericSecurityEvent(String producerId, String id, String txnId, SecurityIntent intent,
+                                Map<String, Object> subject, Map<String, Object> payload, Instant occurrenceTime) {
+        this.id = id != null ? id : UUID.randomUUID().toString();
         this.intent = intent;
         this.subject = subject;
         this.payload = payload;
         this.occurrenceTime = occurrenceTime != null ? occurrenceTime : Instant.now();
-        this.txnId = UUID.randomUUID().toString();
+        this.txnId = txnId != null ? txnId : UUID.randomUUID().toString();
+        this.idempotencyKey = producerId == null || (id == null && txnId == null)
+                ? null
+                : producerId.length() + ":" + producerId + ":" + intent + ":" + (id != null ? id : "") + ":" + (txnId != null ? txnId : "");
     }
 
     public String getId() { return id; }
@@ -33,4 +58,11 @@ public class GenericSecurityEvent {
     public Map<String, Object> getPayload() { return payload; }
     public Instant getOccurrenceTime() { return occurrenceTime; }
     public String getTxnId() { return txnId; }
+
+    /**
+     * Returns the deduplication key derived from the producer and its identifiers.
+     *
+     * @return the key, or {@code null} if the producer is unknown or supplied neither an event id nor a txn
+     */
+    public String getIdempotencyKey() { return idempotencyKey; }
 }
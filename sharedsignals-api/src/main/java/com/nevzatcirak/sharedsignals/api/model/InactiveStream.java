@@ -0,0 +1,23 @@
+package com.nevzatcirak.sharedsignals.api.model;
+
+import java.time.Instant;
+
+/**
+ * An enabled stream whose inactivity timeout (SSF Spec Section 8.1.1) has elapsed.
+ */
+public class InactiveStream {
+    private final String streamId;
+    private final Instant lastActivityAt;
+    private final Instant inactiveSince;
+
+    public InactiveStream(String streamId, Instant lastActivityAt, Instant inactiveSince) {
+        this.streamId = streamId;
+        this.lastActivityAt = lastActivityAt;
+        this.inactiveSince = inactiveSince;
+    }
+
+    public String getStreamId() { return streamId; }
+    public Instant getLastActivityAt() { return lastActivityAt; }
+    /** The last activity plus the stream's inactivity timeout. */
+    public Instant getInactiveSince() { return inactiveSince; }
+}
@@ -1,5 +1,7 @@
 package com.nevzatcirak.sharedsignals.api.model;
 
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+
 import java.time.Instant;
 
 /**
@@ -17,6 +19,8 @@ public class PushMessage {
     private int retryCount;
     private Instant nextRetryAt;
     private String lastError;
+    private EventPriority priority = EventPriority.NORMAL;
+    private String partitionKey;
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -44,4 +48,10 @@ public class PushMessage {
 
     public String getLastError() { return lastError; }
     public void setLastError(String lastError) { this.lastError = lastError; }
-}
\ No newline at end of file
+
+    public EventPriority getPriority() { return priority; }
+    public void setPriority(EventPriority priority) { this.priority = priority; }
+
+    public String getPartitionKey() { return partitionKey; }
+    public void setPartitionKey(String partitionKey) { this.partitionKey = partitionKey; }
+}
@@ -0,0 +1,38 @@
+package com.nevzatcirak.sharedsignals.api.model;
+
+import java.time.Duration;
+
+/**
+ * Token bucket settings of a rate limit tier. Each tier has its own bucket per client.
+ */
+public class RateLimitPolicy {
+    private final String name;
+    private final long capacity;
+    private final long refillTokens;
+    private final Duration refillDuration;
+
+    /**
+     * @param name the tier name, which separates its buckets from those of other tiers
+     * @param capacity the maximum number of tokens (burst)
+     * @param refillTokens the tokens added back per {@code refillDuration}
+     * @param refillDuration the refill period
+     */
+    public RateLimitPolicy(String name, long capacity, long refillTokens, Duration refillDuration) {
+        this.name = name;
+        this.capacity = capacity;
+        this.refillTokens = refillTokens;
+        this.refillDuration = refillDuration;
+    }
+
+    public String getName() { return name; }
+    public long getCapacity() { return capacity; }
+    public long getRefillTokens() { return refillTokens; }
+    public Duration getRefillDuration() { return refillDuration; }
+
+    /**
+     * @return the bucket key of a client in this tier
+     */
+    public String bucketKey(String key) {
+        return name + "|" + key;
+    }
+}
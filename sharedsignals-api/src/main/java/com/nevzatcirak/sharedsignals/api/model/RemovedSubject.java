@@ -0,0 +1,23 @@
+package com.nevzatcirak.sharedsignals.api.model;
+
+import java.time.Instant;
+
+/**
+ * A subject removed from a stream whose grace period (SSF Spec Section 9.3) is still running.
+ */
+public class RemovedSubject {
+    private final String streamId;
+    private final byte[] subjectDigest;
+    private final Instant gracePeriodExpiresAt;
+
+    public RemovedSubject(String streamId, byte[] subjectDigest, Instant gracePeriodExpiresAt) {
+        this.streamId = streamId;
+        this.subjectDigest = subjectDigest;
+        this.gracePeriodExpiresAt = gracePeriodExpiresAt;
+    }
+
+    public String getStreamId() { return streamId; }
+    /** The {@link SubjectId#digest()} of the removed subject. */
+    public byte[] getSubjectDigest() { return subjectDigest; }
+    public Instant getGracePeriodExpiresAt() { return gracePeriodExpiresAt; }
+}
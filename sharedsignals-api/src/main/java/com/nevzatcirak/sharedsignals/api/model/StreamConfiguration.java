@@ -1,6 +1,11 @@
 package com.nevzatcirak.sharedsignals.api.model;
 
+import com.nevzatcirak.sharedsignals.api.constant.EventTypeRegistry;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Model representing a Stream Configuration.
@@ -26,6 +31,12 @@ public class StreamConfiguration {
 
     private boolean processAllSubjects = false;
 
+    private Map<String, EventPriority> eventPriorities; // Transmitter-Supplied (Operator override per event type)
+
+    private Set<String> coalescedEvents; // Transmitter-Supplied (Operator opt-in per event type)
+
+    private transient long deliveredEventMask = -1L; // Derived from events_delivered, -1 = not computed
+
     // Getters and Setters
     public String getStream_id() { return stream_id; }
     public void setStream_id(String stream_id) { this.stream_id = stream_id; }
@@ -40,7 +51,10 @@ public class StreamConfiguration {
     public List<String> getEvents_supported() { return events_supported; }
     public void setEvents_supported(List<String> events_supported) { this.events_supported = events_supported; }
     public List<String> getEvents_delivered() { return events_delivered; }
-    public void setEvents_delivered(List<String> events_delivered) { this.events_delivered = events_delivered; }
+    public void setEvents_delivered(List<String> events_delivered) {
+        this.events_delivered = events_delivered;
+        this.deliveredEventMask = -1L;
+    }
     public Integer getMin_verification_interval() { return min_verification_interval; }
     public void setMin_verification_interval(Integer min_verification_interval) { this.min_verification_interval = min_verification_interval; }
     public String getDescription() { return description; }
@@ -54,4 +68,23 @@ public class StreamConfiguration {
 
     public boolean isProcessAllSubjects() { return processAllSubjects; }
     public void setProcessAllSubjects(boolean processAllSubjects) { this.processAllSubjects = processAllSubjects; }
+
+    public Map<String, EventPriority> getEventPriorities() { return eventPriorities; }
+    public void setEventPriorities(Map<String, EventPriority> eventPriorities) { this.eventPriorities = eventPriorities; }
+
+    /**
+     * Bitmask of {@code events_delivered} over {@link EventTypeRegistry} ids, computed on first use.
+     * Not a bean property, so it is never serialized.
+     */
+    public long deliveredEventMask() {
+        long mask = deliveredEventMask;
+        if (mask == -1L) {
+            mask = EventTypeRegistry.maskOf(events_delivered);
+            deliveredEventMask = mask;
+        }
+        return mask;
+    }
+
+    public Set<String> getCoalescedEvents() { return coalescedEvents; }
+    public void setCoalescedEvents(Set<String> coalescedEvents) { this.coalescedEvents = coalescedEvents; }
 }
@@ -0,0 +1,242 @@
+package com.nevzatcirak.sharedsignals.api.model;
+
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Immutable subject identifier (SSF Spec Section 3, RFC 9493 Subject Identifiers).
+ * <p>
+ * Wraps a deep, unmodifiable copy of the subject members. The SHA-256 fingerprint of the canonical
+ * form (compact JSON with map keys in sorted order) is hashed directly from the members by
+ * {@link CanonicalSubjectHasher} on first use and then reused, so a subject can be matched against
+ * many streams without being serialized and hashed again. The fingerprint is the
+ * {@code subject_hash} stored by the persistence adapters.
+ * <p>
+ * Two identifiers are equal when their digests are equal.
+ * <p>
+ * {@code aliases} and {@code complex} subjects are made of several simple identifiers, returned by
+ * {@link #identifiers()}; stores use them to match a subject against registrations that share one
+ * of its identifiers.
+ */
+public final class SubjectId {
+
+    private static final int MAX_DEPTH = 5;
+
+    private final Map<String, Object> members;
+    private volatile byte[] digest;
+    private volatile String fingerprint;
+    private int hash;
+    private volatile List<SubjectId> identifiers;
+
+    private SubjectId(Map<String, Object> members) {
+        this.members = members;
+    }
+
+    /**
+     * @param subject the subject members (format, email, iss/sub, nested identifiers, ...)
+     * @return the identifier of this subject
+     * @throws IllegalArgumentException if the subject is null or holds an {@link Optional}
+     */
+    public static SubjectId of(Map<String, Object> subject) {
+        if (subject == null) {
+            throw new IllegalArgumentException("Subject must not be null");
+        }
+        return new SubjectId(copyMap(subject));
+    }
+
+    /**
+     * @return the subject members (unmodifiable, in their original order)
+     */
+    public Map<String, Object> asMap() {
+        return members;
+    }
+
+    /**
+     * @return the subject format, or null if absent
+     */
+    public String getFormat() {
+        Object format = members.get("format");
+        return format instanceof String value ? value : null;
+    }
+
+    /**
+     * @return true for {@code aliases} and {@code complex} subjects
+     */
+    public boolean isCompound() {
+        String format = getFormat();
+        return SharedSignalConstants.FORMAT_ALIASES.equals(format) || SharedSignalConstants.FORMAT_COMPLEX.equals(format);
+    }
+
+    /**
+     * The simple identifiers this subject is made of: the entries of {@code identifiers} for an
+     * {@code aliases} subject, the member subjects of a {@code complex} subject, otherwise the
+     * subject itself. Nested compound members are expanded in turn.
+     *
+     * @return the distinct simple identifiers (unmodifiable)
+     */
+    public List<SubjectId> identifiers() {
+        List<SubjectId> value = identifiers;
+        if (value == null) {
+            if (isCompound()) {
+                Set<SubjectId> collected = new LinkedHashSet<>();
+                collectIdentifiers(members, collected, 0);
+                value = List.copyOf(collected);
+            } else {
+                value = List.of(this);
+            }
+            identifiers = value;
+        }
+        return value;
+    }
+
+    private static void collectIdentifiers(Map<String, Object> subject, Set<SubjectId> out, int depth) {
+        Iterable<?> parts = SharedSignalConstants.FORMAT_ALIASES.equals(subject.get("format"))
+                ? subject.get("identifiers") instanceof Collection<?> items ? items : List.of()
+                : subject.values();
+        for (Object part : parts) {
+            if (!(part instanceof Map<?, ?>)) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> member = (Map<String, Object>) part;
+            SubjectId id = new SubjectId(member);
+            if (id.isCompound() && depth < MAX_DEPTH) {
+                collectIdentifiers(member, out, depth + 1);
+            } else if (!id.isCompound()) {
+                out.add(id);
+            }
+        }
+    }
+
+    /**
+     * @return the Base64 encoded SHA-256 digest of the canonical form
+     */
+    public String fingerprint() {
+        String value = fingerprint;
+        if (value == null) {
+            value = Base64.getEncoder().encodeToString(sha256());
+            fingerprint = value;
+        }
+        return value;
+    }
+
+    /**
+     * @return the SHA-256 digest of the canonical form (32 bytes, a copy)
+     */
+    public byte[] digest() {
+        return sha256().clone();
+    }
+
+    /**
+     * @return the first 64 bits of the digest, for compact lookup indexes (not unique, confirm on the digest)
+     */
+    public long fingerprint64() {
+        return fingerprint64(sha256());
+    }
+
+    /**
+     * @param digest a subject digest (at least 8 bytes)
+     * @return the first 64 bits of the digest, big-endian
+     */
+    public static long fingerprint64(byte[] digest) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (digest[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private byte[] sha256() {
+        byte[] value = digest;
+        if (value == null) {
+            value = CanonicalSubjectHasher.digest(members);
+            digest = value;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SubjectId other)) return false;
+        return hashCode() == other.hashCode() && Arrays.equals(sha256(), other.sha256());
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            byte[] d = sha256();
+            h = (d[0] & 0xFF) << 24 | (d[1] & 0xFF) << 16 | (d[2] & 0xFF) << 8 | (d[3] & 0xFF);
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "SubjectId{format=" + getFormat() + ", fingerprint=" + fingerprint() + "}";
+    }
+
+    // ========== Copying ==========
+
+    private static Map<String, Object> copyMap(Map<?, ?> source) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            copy.put(String.valueOf(entry.getKey()), copyValue(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Copies a member value, turning arrays into the values Jackson writes for them (a list, a
+     * Base64 string for {@code byte[]}, a string for {@code char[]}) so that they hash the same
+     * as they did when subjects were serialized with Jackson.
+     */
+    private static Object copyValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return copyMap(map);
+        }
+        if (value instanceof Collection<?> items) {
+            List<Object> copy = new ArrayList<>(items.size());
+            for (Object item : items) {
+                copy.add(copyValue(item));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        if (value instanceof byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+        if (value instanceof char[] chars) {
+            return new String(chars);
+        }
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> copy = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                copy.add(copyValue(Array.get(value, i)));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        if (value instanceof Optional<?> || value instanceof OptionalInt || value instanceof OptionalLong
+                || value instanceof OptionalDouble) {
+            throw new IllegalArgumentException("Subject members must not be Optional");
+        }
+        return value;
+    }
+}
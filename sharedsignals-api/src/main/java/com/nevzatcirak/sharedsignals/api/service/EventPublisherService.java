@@ -1,5 +1,7 @@
 package com.nevzatcirak.sharedsignals.api.service;
 
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+
 import java.util.Map;
 
 /**
@@ -8,9 +10,24 @@ import java.util.Map;
  * Handles event generation, signing, and delivery via configured delivery methods.
  */
 public interface EventPublisherService {
-    int publishEvent(Map<String, Object> subject, String eventTypeUri, Map<String, Object> eventDetails);
+    default int publishEvent(Map<String, Object> subject, String eventTypeUri, Map<String, Object> eventDetails) {
+        return publishEvent(SubjectId.of(subject), eventTypeUri, eventDetails, null);
+    }
+
+    default int publishEvent(Map<String, Object> subject, String eventTypeUri, Map<String, Object> eventDetails, String txnId) {
+        return publishEvent(SubjectId.of(subject), eventTypeUri, eventDetails, txnId);
+    }
 
-    int publishEvent(Map<String, Object> subject, String eventTypeUri, Map<String, Object> eventDetails, String txnId);
+    /**
+     * Publishes an event to every enabled stream that receives this event type for the subject.
+     *
+     * @param subject the subject of the event
+     * @param eventTypeUri the event type URI
+     * @param eventDetails the event-specific claims
+     * @param txnId the transaction id (RFC 8417 {@code txn}), generated if null
+     * @return the number of streams the event was published to
+     */
+    int publishEvent(SubjectId subject, String eventTypeUri, Map<String, Object> eventDetails, String txnId);
 
     /**
      * Publishes an event to the specified stream.
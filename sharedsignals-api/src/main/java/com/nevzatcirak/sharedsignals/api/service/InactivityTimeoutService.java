@@ -21,6 +21,15 @@ public interface InactivityTimeoutService {
      */
     void recordActivity(String streamId);
 
+    /**
+     * Writes the activity recorded on this node to the shared store, so that the
+     * inactivity check sees the activity of the whole cluster.
+     * <p>
+     * This method is typically called by a scheduled job on every node.
+     */
+    default void flushActivity() {
+    }
+
     /**
      * Checks all streams for inactivity timeout and takes action.
      * <p>
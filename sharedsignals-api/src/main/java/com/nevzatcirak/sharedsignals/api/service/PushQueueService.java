@@ -1,7 +1,9 @@
 package com.nevzatcirak.sharedsignals.api.service;
 
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
 import com.nevzatcirak.sharedsignals.api.model.PushMessage;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -17,6 +19,11 @@ public interface PushQueueService {
      */
     CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader);
 
+    /**
+     * Enqueues a message in the lane, partition and coalescing group of the options.
+     */
+    CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader, DeliveryOptions options);
+
     /**
      * Finds messages ready for delivery.
      *
@@ -25,6 +32,26 @@ public interface PushQueueService {
      */
     List<PushMessage> findReadyMessages(int batchSize);
 
+    /**
+     * Finds messages ready for delivery and claims them at once, if the store supports it.
+     *
+     * @param batchSize number of messages
+     * @return the claimed messages, or empty if each message must be claimed with {@link #tryMarkInProgress}
+     */
+    default Optional<List<PushMessage>> claimReadyMessages(int batchSize) {
+        return Optional.empty();
+    }
+
+    /**
+     * Claims the next message of an ordering partition once its previous message was delivered.
+     *
+     * @param partitionKey the ordering partition
+     * @return the claimed message, or empty if the partition has nothing ready
+     */
+    default Optional<PushMessage> claimNextInPartition(String partitionKey) {
+        return Optional.empty();
+    }
+
     /**
      * Marks a message as successful.
      *
@@ -47,4 +74,12 @@ public interface PushQueueService {
      * @param messageId the message ID
      */
     void markInProgress(Long messageId);
+
+    /**
+     * Claims a message for delivery if no other worker has claimed it.
+     *
+     * @param messageId the message ID
+     * @return true if the caller owns the delivery attempt
+     */
+    boolean tryMarkInProgress(Long messageId);
 }
\ No newline at end of file
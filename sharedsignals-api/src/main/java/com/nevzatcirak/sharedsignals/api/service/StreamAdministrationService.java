@@ -1,6 +1,8 @@
 package com.nevzatcirak.sharedsignals.api.service;
 
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
 import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -31,4 +33,24 @@ public interface StreamAdministrationService {
     void updateAuthorizedEvents(String streamId, Set<String> authorizedEvents, String owner);
 
     void setStreamBroadcastMode(String streamId, boolean enabled, String owner);
+
+    /**
+     * Overrides the delivery lane of event types on this stream.
+     * Event types not listed use the transmitter defaults.
+     *
+     * @param streamId The ID of the stream.
+     * @param priorities Event type URI to delivery lane.
+     * @param owner The administrator performing the action.
+     */
+    void updateEventPriorities(String streamId, Map<String, EventPriority> priorities, String owner);
+
+    /**
+     * Enables coalescing of superseded undelivered events for the given event types on this stream.
+     * Event types not listed are always delivered individually.
+     *
+     * @param streamId The ID of the stream.
+     * @param eventTypes Event type URIs to coalesce (see {@code SharedSignalConstants.SUPERSEDING_EVENT_GROUPS}).
+     * @param owner The administrator performing the action.
+     */
+    void updateCoalescedEvents(String streamId, Set<String> eventTypes, String owner);
 }
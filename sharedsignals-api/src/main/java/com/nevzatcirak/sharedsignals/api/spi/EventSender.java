@@ -1,5 +1,7 @@
 package com.nevzatcirak.sharedsignals.api.spi;
 
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
+
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -16,4 +18,21 @@ public interface EventSender {
      * @return A future indicating success or failure.
      */
     CompletableFuture<Void> send(String streamId, String url, String token, String authHeader);
+
+    /**
+     * Sends the signed SET in the delivery lane, ordering partition and coalescing group of the options.
+     * <p>
+     * Senders without lane, partition or coalescing support ignore the options: they deliver every
+     * event in arrival order, with the stream as the partition.
+     *
+     * @param streamId   The ID of the stream (used for error handling/pausing).
+     * @param url        The receiver's endpoint.
+     * @param token      The signed JWT string.
+     * @param authHeader Authorization header value (optional).
+     * @param options    The lane, partition and coalescing key of the event.
+     * @return A future indicating success or failure.
+     */
+    default CompletableFuture<Void> send(String streamId, String url, String token, String authHeader, DeliveryOptions options) {
+        return send(streamId, url, token, authHeader);
+    }
 }
@@ -0,0 +1,55 @@
+package com.nevzatcirak.sharedsignals.api.spi;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * SPI for recording processed ingestion keys so that producer retries are not fanned out twice.
+ * <p>
+ * A key is first <b>claimed</b> with a short lease, then <b>completed</b> with the fan-out outcome
+ * and the final expiry. A claim whose lease runs out (e.g. the node died mid-ingest) may be
+ * claimed again.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Atomically claims a key.
+     *
+     * @param key        the idempotency key
+     * @param leaseUntil when an uncompleted claim may be taken over
+     * @return true if the caller owns the key now, false if it is already claimed or completed
+     */
+    boolean tryClaim(String key, Instant leaseUntil);
+
+    /**
+     * Returns the recorded outcome of a completed key.
+     *
+     * @param key the idempotency key
+     * @return the number of streams the event was fanned out to, empty if unknown or still in progress
+     */
+    Optional<Integer> findOutcome(String key);
+
+    /**
+     * Records the outcome of a claimed key.
+     *
+     * @param key       the idempotency key
+     * @param fanOut    the number of streams the event was sent to
+     * @param expiresAt when the key may be forgotten
+     */
+    void complete(String key, int fanOut, Instant expiresAt);
+
+    /**
+     * Releases a claim after a failed ingest so the producer can retry.
+     *
+     * @param key the idempotency key
+     */
+    void release(String key);
+
+    /**
+     * Deletes keys that expired before the given time.
+     *
+     * @param now the cutoff time
+     * @return number of deleted keys
+     */
+    int deleteExpired(Instant now);
+}
@@ -1,5 +1,9 @@
 package com.nevzatcirak.sharedsignals.api.spi;
 
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -73,6 +77,63 @@ public interface PrivacyPolicyValidator {
             String receiverAudience
     );
 
+    /**
+     * Same as {@link #validateSubjectIdentifier(Map, String)}, reusing the subject's precomputed fingerprint.
+     */
+    default PrivacyValidationResult validateSubjectIdentifier(SubjectId subject, String receiverAudience) {
+        return validateSubjectIdentifier(subject.asMap(), receiverAudience);
+    }
+
+    /**
+     * Same as {@link #hasConsentToShareWithReceiver(Map, String)}, reusing the subject's precomputed fingerprint.
+     */
+    default boolean hasConsentToShareWithReceiver(SubjectId subject, String receiverAudience) {
+        return hasConsentToShareWithReceiver(subject.asMap(), receiverAudience);
+    }
+
+    /**
+     * Validates the subject identifier for several receivers at once. Implementations backed by a
+     * remote service should override this with a single request.
+     *
+     * @param subject the subject identifier
+     * @param receiverAudiences the receiver audiences
+     * @return the result per receiver audience
+     */
+    default Map<String, PrivacyValidationResult> validateSubjectIdentifier(SubjectId subject, Collection<String> receiverAudiences) {
+        Map<String, PrivacyValidationResult> results = new LinkedHashMap<>();
+        for (String audience : receiverAudiences) {
+            results.put(audience, validateSubjectIdentifier(subject, audience));
+        }
+        return results;
+    }
+
+    /**
+     * Checks consent for several receivers at once. Implementations backed by a remote service
+     * should override this with a single request.
+     *
+     * @param subject the subject
+     * @param receiverAudiences the receiver audiences
+     * @return whether consent exists, per receiver audience
+     */
+    default Map<String, Boolean> hasConsentToShareWithReceivers(SubjectId subject, Collection<String> receiverAudiences) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (String audience : receiverAudiences) {
+            results.put(audience, hasConsentToShareWithReceiver(subject, audience));
+        }
+        return results;
+    }
+
+    /**
+     * Announces that the decisions for this subject and these receivers are about to be requested,
+     * once per stream of an event's fan-out. Caching implementations load the missing ones in bulk;
+     * the default does nothing.
+     *
+     * @param subject the subject of the event
+     * @param receiverAudiences the receiver audiences of the target streams
+     */
+    default void prefetch(SubjectId subject, Collection<String> receiverAudiences) {
+    }
+
     /**
      * Result of privacy validation.
      */
@@ -1,7 +1,10 @@
 package com.nevzatcirak.sharedsignals.api.spi;
 
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
 import com.nevzatcirak.sharedsignals.api.model.PushMessage;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -23,14 +26,62 @@ public interface PushQueueStore {
      */
     CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader);
 
+    /**
+     * Persists a message in the delivery lane and ordering partition of the options. With a
+     * coalescing key, queued, not yet claimed messages of the stream with the same key that were
+     * enqueued within the coalescing window are superseded.
+     * <p>
+     * Stores without lane, partition or coalescing support ignore the options.
+     *
+     * @param streamId   the stream identifier
+     * @param url        the destination URL
+     * @param token      the signed SET token
+     * @param authHeader optional authorization header
+     * @param options    the lane, partition and coalescing key of the message
+     * @return a future completing when persisted
+     */
+    default CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader, DeliveryOptions options) {
+        return enqueue(streamId, url, token, authHeader);
+    }
+
     /**
      * Retrieves messages ready for processing from storage.
+     * <p>
+     * Only the oldest undelivered message of each ordering partition is returned, and only
+     * while no earlier message of that partition is in flight, so a batch never contains two
+     * messages of the same partition.
+     * Heads are returned in order of their virtual deadline ({@link EventPriority#dueAt}):
+     * higher lanes first, but never more than the lane wait per lane ahead of older messages.
      *
      * @param batchSize number of messages to fetch
      * @return list of domain models
      */
     List<PushMessage> fetchReadyMessages(int batchSize);
 
+    /**
+     * Retrieves messages ready for processing, as {@link #fetchReadyMessages}, and claims them in
+     * the same statement. The returned messages are IN_PROGRESS and owned by the caller; messages
+     * claimed concurrently by another worker are not returned.
+     *
+     * @param batchSize number of messages to claim
+     * @return the claimed messages in delivery order, or empty if the store claims messages one by one ({@link #claim})
+     */
+    default Optional<List<PushMessage>> claimReadyMessages(int batchSize) {
+        return Optional.empty();
+    }
+
+    /**
+     * Claims the oldest unfinished message of an ordering partition, if it is ready. Called after
+     * the previous message of the partition was delivered, so that the partition continues without
+     * waiting for the next {@link #fetchReadyMessages} round.
+     *
+     * @param partitionKey the ordering partition
+     * @return the claimed message, or empty if the partition has no ready head or the store does not support it
+     */
+    default Optional<PushMessage> claimNextInPartition(String partitionKey) {
+        return Optional.empty();
+    }
+
     /**
      * Updates the status of a message.
      *
@@ -41,4 +92,18 @@ public interface PushQueueStore {
      * @param retryCount  updated retry count
      */
     void updateStatus(Long messageId, String status, String lastError, Long nextRetryAt, int retryCount);
+
+    /**
+     * Atomically moves a ready message to IN_PROGRESS.
+     * <p>
+     * Exactly one caller wins the claim when several workers or nodes race for the same message.
+     * Stores without conditional updates mark the message unconditionally.
+     *
+     * @param messageId the message ID
+     * @return true if this caller now owns the delivery attempt
+     */
+    default boolean claim(Long messageId) {
+        updateStatus(messageId, "IN_PROGRESS", null, null, 0);
+        return true;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.nevzatcirak.sharedsignals.api.spi;
 
+import com.nevzatcirak.sharedsignals.api.model.RateLimitPolicy;
 import com.nevzatcirak.sharedsignals.api.model.RateLimitResult;
 
 /**
@@ -8,4 +9,38 @@ import com.nevzatcirak.sharedsignals.api.model.RateLimitResult;
  */
 public interface RateLimiter {
     RateLimitResult tryConsume(String key);
+
+    /**
+     * Takes {@code tokens} from the client's bucket of the given tier, or none if it has fewer.
+     * <p>
+     * Implementations without tiers fall back to one token from the client's single bucket.
+     *
+     * @param key the client id or remote address
+     * @param tokens the cost of the request
+     * @param policy the tier whose bucket is charged
+     * @return the result
+     */
+    default RateLimitResult tryConsume(String key, long tokens, RateLimitPolicy policy) {
+        return tryConsume(key);
+    }
+
+    /**
+     * Takes {@code tokens} from the client's bucket of the given tier even if it has fewer, leaving it
+     * in debt. Used for costs only known once the request was served, such as an ingest fan-out;
+     * the client's next requests are rejected until the debt is refilled.
+     *
+     * @param key the client id or remote address
+     * @param tokens the cost to charge
+     * @param policy the tier whose bucket is charged
+     */
+    default void forceConsume(String key, long tokens, RateLimitPolicy policy) {
+    }
+
+    /**
+     * Releases the state of clients that have been idle long enough for their bucket to be full again.
+     * <p>
+     * Called periodically by a scheduled job; implementations that evict on their own need not override it.
+     */
+    default void purgeIdleBuckets() {
+    }
 }
@@ -1,8 +1,12 @@
 package com.nevzatcirak.sharedsignals.api.spi;
 
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
 import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.model.InactiveStream;
 import com.nevzatcirak.sharedsignals.api.model.RemoveSubjectCommand;
+import com.nevzatcirak.sharedsignals.api.model.RemovedSubject;
 import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
 
 import java.time.Instant;
 import java.util.List;
@@ -26,10 +30,67 @@ public interface StreamStore {
 
     void deleteById(String streamId);
 
+    /**
+     * Returns the optimistic-lock version of a stream, which changes on every update of the stream row.
+     * Used by caches to detect changes made on other nodes without loading the stream.
+     *
+     * @param streamId the stream identifier
+     * @return the current version, or empty if the stream does not exist or the store does not track versions
+     */
+    default Optional<Long> findVersion(String streamId) {
+        return Optional.empty();
+    }
+
     List<StreamConfiguration> findByAudience(String audience);
 
+    /**
+     * Finds enabled streams that receive events for this subject: broadcast streams and streams on
+     * which the subject is registered and approved. A subject also matches registrations that share
+     * one of its identifiers ({@link SubjectId#identifiers()}), e.g. an email subject matches an
+     * {@code aliases} subject listing that email, where the store supports it.
+     *
+     * @param subject the subject
+     * @return matching streams
+     */
     List<StreamConfiguration> findStreamsBySubject(Map<String, Object> subject);
 
+    /**
+     * Finds enabled streams that receive events for this subject because it is registered and approved
+     * on them. Unlike {@link #findStreamsBySubject}, broadcast streams are only included by stores that
+     * do not implement {@link #findBroadcastStreams()}.
+     *
+     * @param subject the subject
+     * @return matching streams
+     */
+    default List<StreamConfiguration> findSubscribedStreamsBySubject(Map<String, Object> subject) {
+        return findStreamsBySubject(subject);
+    }
+
+    /**
+     * Same as {@link #findStreamsBySubject(Map)}, reusing the subject's precomputed fingerprint.
+     */
+    default List<StreamConfiguration> findStreamsBySubject(SubjectId subject) {
+        return findStreamsBySubject(subject.asMap());
+    }
+
+    /**
+     * Same as {@link #findSubscribedStreamsBySubject(Map)}, reusing the subject's precomputed fingerprint.
+     */
+    default List<StreamConfiguration> findSubscribedStreamsBySubject(SubjectId subject) {
+        return findSubscribedStreamsBySubject(subject.asMap());
+    }
+
+    /**
+     * Finds enabled streams in broadcast mode (process all subjects).
+     * Stores returning an empty list here must include broadcast streams in
+     * {@link #findSubscribedStreamsBySubject}.
+     *
+     * @return broadcast streams
+     */
+    default List<StreamConfiguration> findBroadcastStreams() {
+        return List.of();
+    }
+
     //  ========== Admin Operations ==========
     void updateAuthorizedEvents(String streamId, Set<String> authorizedEvents);
 
@@ -37,6 +98,54 @@ public interface StreamStore {
 
     void updateStreamMode(String streamId, boolean processAllSubjects);
 
+    /**
+     * Replaces the operator-defined delivery lane overrides of a stream.
+     *
+     * @param streamId the stream identifier
+     * @param priorities event type URI -> delivery lane; empty to fall back to transmitter defaults
+     * @throws UnsupportedOperationException if the store cannot persist lane overrides
+     */
+    default void updateEventPriorities(String streamId, Map<String, EventPriority> priorities) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support per-stream event priorities");
+    }
+
+    /**
+     * Updates the event types whose superseded undelivered events are coalesced.
+     *
+     * @param streamId the stream identifier
+     * @param eventTypes event type URIs (empty disables coalescing)
+     * @throws UnsupportedOperationException if the store cannot persist coalesced event types
+     */
+    default void updateCoalescedEvents(String streamId, Set<String> eventTypes) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support event coalescing");
+    }
+
+    // ========== Activity Tracking ==========
+
+    /**
+     * Records the last receiver activity of streams (SSF Spec Section 8.1.1) in one batch. A stored
+     * instant is only moved forward, so nodes flushing older observations do not roll it back.
+     *
+     * @param lastActivity stream identifier -> last observed activity
+     * @return false if the store does not persist activity
+     */
+    default boolean recordStreamActivity(Map<String, Instant> lastActivity) {
+        return false;
+    }
+
+    /**
+     * Returns enabled streams whose inactivity timeout had elapsed at {@code now}, ordered by the
+     * time they became inactive and then by identifier, so that a sweep can page through them.
+     *
+     * @param now the instant the timeouts are evaluated at
+     * @param after the last stream of the previous page, or null for the first page
+     * @param limit the maximum number of streams to return
+     * @return the inactive streams, or empty if the store does not persist activity
+     */
+    default Optional<List<InactiveStream>> findInactiveStreams(Instant now, InactiveStream after, int limit) {
+        return Optional.empty();
+    }
+
     // ========== Subject Management ==========
 
     /**
@@ -50,6 +159,10 @@ public interface StreamStore {
      */
     void addSubject(String streamId, Map<String, Object> subject, boolean verified);
 
+    default void addSubject(String streamId, SubjectId subject, boolean verified) {
+        addSubject(streamId, subject.asMap(), verified);
+    }
+
     /**
      * Removes a subject from a stream.
      * <p>
@@ -60,6 +173,10 @@ public interface StreamStore {
      */
     void removeSubject(String streamId, Map<String, Object> subject);
 
+    default void removeSubject(String streamId, SubjectId subject) {
+        removeSubject(streamId, subject.asMap());
+    }
+
     /**
      * Checks if a subject is registered for a stream.
      *
@@ -69,8 +186,16 @@ public interface StreamStore {
      */
     boolean isSubjectRegistered(String streamId, Map<String, Object> subject);
 
+    default boolean isSubjectRegistered(String streamId, SubjectId subject) {
+        return isSubjectRegistered(streamId, subject.asMap());
+    }
+
     boolean isSubjectApproved(String streamId, Map<String, Object> subject);
 
+    default boolean isSubjectApproved(String streamId, SubjectId subject) {
+        return isSubjectApproved(streamId, subject.asMap());
+    }
+
     /**
      * Checks if a subject is in grace period after removal.
      * <p>
@@ -83,6 +208,21 @@ public interface StreamStore {
      */
     boolean isSubjectInGracePeriod(String streamId, Map<String, Object> subject);
 
+    default boolean isSubjectInGracePeriod(String streamId, SubjectId subject) {
+        return isSubjectInGracePeriod(streamId, subject.asMap());
+    }
+
+    /**
+     * Returns subjects removed at or after {@code removedSince} whose grace period has not expired,
+     * so that the grace-period check can be served from memory.
+     *
+     * @param removedSince lower bound of the removal time ({@link Instant#EPOCH} for all)
+     * @return the removals, or empty if the store does not support listing them
+     */
+    default Optional<List<RemovedSubject>> findRemovedSubjectsSince(Instant removedSince) {
+        return Optional.empty();
+    }
+
     void deleteByGracePeriodExpiresAtBefore(Instant expiryTime);
 
     // ========== Event Buffering (Poll) ==========
@@ -96,8 +236,37 @@ public interface StreamStore {
      */
     void saveEvent(String streamId, String jti, String setToken);
 
+    /**
+     * Saves a SET to the stream's event buffer in the given delivery lane.
+     *
+     * @param streamId the stream identifier
+     * @param jti the JWT ID (unique identifier for the event)
+     * @param setToken the serialized SET token (JWT string)
+     * @param priority the delivery lane
+     */
+    default void saveEvent(String streamId, String jti, String setToken, EventPriority priority) {
+        saveEvent(streamId, jti, setToken);
+    }
+
+    /**
+     * Saves a SET to the stream's event buffer and removes unacknowledged events with the same
+     * coalescing key that were buffered within the coalescing window.
+     *
+     * @param streamId the stream identifier
+     * @param jti the JWT ID (unique identifier for the event)
+     * @param setToken the serialized SET token (JWT string)
+     * @param priority the delivery lane
+     * @param coalesceKey supersession group and subject (null disables coalescing)
+     */
+    default void saveEvent(String streamId, String jti, String setToken, EventPriority priority, String coalesceKey) {
+        saveEvent(streamId, jti, setToken, priority);
+    }
+
     /**
      * Fetches events from the stream's buffer.
+     * <p>
+     * Events are returned in order of their virtual deadline ({@link EventPriority#dueAt}):
+     * higher lanes first, but never more than the lane wait per lane ahead of older events.
      *
      * @param streamId the stream identifier
      * @param maxEvents maximum number of events to fetch
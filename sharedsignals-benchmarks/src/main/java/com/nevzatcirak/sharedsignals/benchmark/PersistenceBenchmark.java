@@ -0,0 +1,192 @@
+package com.nevzatcirak.sharedsignals.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
+import com.nevzatcirak.sharedsignals.api.model.PushMessage;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.spi.PushQueueStore;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.persistence.adapter.JpaPushQueueAdapter;
+import com.nevzatcirak.sharedsignals.persistence.adapter.JpaStreamStoreAdapter;
+import com.nevzatcirak.sharedsignals.persistence.jdbc.adapter.JdbcPushQueueAdapter;
+import com.nevzatcirak.sharedsignals.persistence.jdbc.adapter.JdbcStreamStoreAdapter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JPA and the plain JDBC persistence plugins on the same schema, in an in-memory H2 database.
+ * <p>
+ * {@code deliveryRound} is one round of the push scheduler: a batch is enqueued on distinct
+ * ordering partitions, claimed ({@code fetchReadyMessages} and one {@code claim} per message for
+ * JPA, one {@code claimReadyMessages} statement for JDBC) and marked completed. The other benchmarks
+ * are the store calls made per published event or poll request. H2 has no network round trip,
+ * so the gap against a remote PostgreSQL is larger than measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"jpa", "jdbc"})
+    public String store;
+
+    private AnnotationConfigApplicationContext context;
+    private StreamStore streamStore;
+    private PushQueueStore pushQueueStore;
+    private String streamId;
+    private SubjectId subject;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(StoreConfiguration.class);
+        if ("jdbc".equals(store)) {
+            streamStore = context.getBean(JdbcStreamStoreAdapter.class);
+            pushQueueStore = context.getBean(JdbcPushQueueAdapter.class);
+        } else {
+            streamStore = context.getBean(JpaStreamStoreAdapter.class);
+            pushQueueStore = context.getBean(JpaPushQueueAdapter.class);
+        }
+
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(SharedSignalConstants.DELIVERY_METHOD_PUSH);
+        delivery.setEndpoint_url("https://receiver.example.com/events");
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setIss("https://transmitter.example.com/");
+        stream.setAud(List.of("https://receiver.example.com/"));
+        stream.setDelivery(delivery);
+        stream.setEvents_requested(List.of(SharedSignalConstants.CAEP_SESSION_REVOKED));
+        streamId = streamStore.save(stream).getStream_id();
+
+        subject = SubjectId.of(Map.of("format", "email", "email", "reginald@example.com"));
+        streamStore.addSubject(streamId, subject, true);
+        streamStore.updateSubjectStatus(streamId, subject.fingerprint(), SubjectStatus.APPROVED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int deliveryRound() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            pushQueueStore.enqueue(streamId, "https://receiver.example.com/events", "token-" + i, null,
+                    new DeliveryOptions(EventPriority.NORMAL, "partition-" + sequence++, null));
+        }
+        List<PushMessage> claimed = pushQueueStore.claimReadyMessages(BATCH_SIZE).orElseGet(() -> {
+            List<PushMessage> won = new ArrayList<>();
+            for (PushMessage message : pushQueueStore.fetchReadyMessages(BATCH_SIZE)) {
+                if (pushQueueStore.claim(message.getId())) {
+                    won.add(message);
+                }
+            }
+            return won;
+        });
+        for (PushMessage message : claimed) {
+            pushQueueStore.updateStatus(message.getId(), "COMPLETED", null, null, 0);
+        }
+        return claimed.size();
+    }
+
+    @Benchmark
+    public Object findById() {
+        return streamStore.findById(streamId);
+    }
+
+    @Benchmark
+    public Object findStreamsBySubject() {
+        return streamStore.findStreamsBySubject(subject);
+    }
+
+    @Benchmark
+    public Object pollRoundTrip() {
+        String jti = UUID.randomUUID().toString();
+        streamStore.saveEvent(streamId, jti, "token", EventPriority.NORMAL, null);
+        Map<String, String> events = streamStore.fetchEvents(streamId, 10);
+        streamStore.acknowledgeEvents(streamId, new ArrayList<>(events.keySet()));
+        return events;
+    }
+
+    /**
+     * Both plugins on one database; a fresh database per trial.
+     */
+    @Configuration
+    @EnableTransactionManagement(proxyTargetClass = true)
+    @EnableJpaRepositories("com.nevzatcirak.sharedsignals.persistence.repository")
+    @Import({JpaStreamStoreAdapter.class, JpaPushQueueAdapter.class, JdbcStreamStoreAdapter.class, JdbcPushQueueAdapter.class})
+    static class StoreConfiguration {
+
+        @Bean
+        DataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+            return dataSource;
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan("com.nevzatcirak.sharedsignals.persistence.entity");
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.nevzatcirak.sharedsignals.benchmark;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subject hashing: the former Jackson based {@code SubjectHashUtil.computeHash} against the
+ * serialization-free canonical hasher behind {@link SubjectId#fingerprint()}.
+ * <p>
+ * {@code canonical} includes the defensive copy made by {@link SubjectId#of}, i.e. the cost paid
+ * once per published event; {@code memoized} is the cost of every further lookup of the same subject.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubjectHashBenchmark {
+
+    @Param({"email", "iss_sub", "complex", "aliases"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> subject;
+    private SubjectId subjectId;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        objectMapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+        subject = switch (format) {
+            case "email" -> map("format", "email", "email", "reginald@example.com");
+            case "iss_sub" -> map("format", "iss_sub", "iss", "https://issuer.example.com/", "sub", "145234573");
+            case "complex" -> map("format", "complex",
+                    "user", map("format", "email", "email", "reginald@example.com"),
+                    "device", map("format", "iss_sub", "iss", "https://idp.example.com/", "sub", "e9297990-14d2-42ec-a4a9-4036db86509a"),
+                    "tenant", map("format", "opaque", "id", "tenant-7"));
+            case "aliases" -> map("format", "aliases", "identifiers", List.of(
+                    map("format", "email", "email", "reginald@example.com"),
+                    map("format", "phone_number", "phone_number", "+12065550100"),
+                    map("format", "iss_sub", "iss", "https://issuer.example.com/", "sub", "145234573")));
+            default -> throw new IllegalArgumentException(format);
+        };
+        subjectId = SubjectId.of(subject);
+        subjectId.fingerprint();
+    }
+
+    @Benchmark
+    public String jackson() throws Exception {
+        String json = objectMapper.writeValueAsString(subject);
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hashBytes = digest.digest(json.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hashBytes);
+    }
+
+    @Benchmark
+    public String canonical() {
+        return SubjectId.of(subject).fingerprint();
+    }
+
+    @Benchmark
+    public String memoized() {
+        return subjectId.fingerprint();
+    }
+
+    private static Map<String, Object> map(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
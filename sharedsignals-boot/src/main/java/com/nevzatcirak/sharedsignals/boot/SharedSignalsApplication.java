@@ -1,16 +1,24 @@
 package com.nevzatcirak.sharedsignals.boot;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.TypeExcludeFilter;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application entry point.
+ * <p>
+ * The component scan keeps the exclude filters of {@link SpringBootApplication}, so test
+ * configurations are only used by the tests that import them.
  */
 @SpringBootApplication
-@ComponentScan(basePackages = "com.nevzatcirak.sharedsignals")
+@ComponentScan(basePackages = "com.nevzatcirak.sharedsignals", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class)})
 @EnableJpaRepositories(basePackages = "com.nevzatcirak.sharedsignals.persistence.repository")
 @EntityScan(basePackages = "com.nevzatcirak.sharedsignals.persistence.entity")
 @EnableScheduling
@@ -0,0 +1,74 @@
+package com.nevzatcirak.sharedsignals.boot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas behind the data source used by JPA, enabled by
+ * {@code sharedsignals.datasource.replicas.urls} (comma separated JDBC URLs).
+ * <p>
+ * The primary is the per-workload pool set when bulkheads are enabled, otherwise a single pool on
+ * the {@code spring.datasource} settings. Each replica gets its own pool named
+ * {@code ssf-replica-<n>}; only reads the stream store marks as replica-safe use them.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharedsignals.datasource.replicas.urls")
+public class ReadReplicaConfiguration {
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource readReplicaRoutingDataSource(
+            DataSourceProperties properties,
+            ObjectProvider<WorkloadRoutingDataSource> workloadDataSource,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${sharedsignals.datasource.replicas.urls}") List<String> urls,
+            @Value("${sharedsignals.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${sharedsignals.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${sharedsignals.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${sharedsignals.datasource.replicas.max-lag-ms:5000}") long maxLagMillis,
+            @Value("${sharedsignals.datasource.replicas.heartbeat-interval-ms:1000}") long heartbeatIntervalMillis) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        DataSource workloads = workloadDataSource.getIfAvailable();
+        DataSource primary = workloads != null ? workloads
+                : properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        List<DataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("ssf-replica-" + replicas.size());
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(maximumPoolSize);
+            pool.setMinimumIdle(Math.min(2, maximumPoolSize));
+            // A replica that does not answer quickly is skipped rather than waited for
+            pool.setConnectionTimeout(1000);
+            if (registry != null) {
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+            replicas.add(pool);
+        }
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replicas,
+                Duration.ofMillis(maxLagMillis), Duration.ofMillis(heartbeatIntervalMillis), workloads == null);
+        if (registry != null) {
+            Gauge.builder("sharedsignals.datasource.replicas.fresh", dataSource, ReplicaRoutingDataSource::getFreshReplicaCount)
+                    .description("Read replicas currently within the replication lag bound")
+                    .register(registry);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,217 @@
+package com.nevzatcirak.sharedsignals.boot.config;
+
+import com.nevzatcirak.sharedsignals.api.enums.ReadPreference;
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections taken in a {@link ReadPreference#REPLICA} scope to a read replica that is
+ * fresh enough, and all others to the primary.
+ * <p>
+ * Every heartbeat interval the node writes the current time to its row in
+ * {@code ssf_replica_heartbeat} on the primary and reads the row back from each replica. A replica
+ * is used while the beat it shows is at most {@code maxLag} old; if none is, replica reads go to
+ * the primary. A replica that fails to hand out a connection is skipped until the next heartbeat.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final boolean closePrimary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService monitor;
+    private volatile boolean heartbeatFailing;
+
+    /**
+     * @param primary the primary data source
+     * @param replicas the replica data sources
+     * @param maxLag the freshness bound: replicas further behind are not used
+     * @param heartbeatInterval how often the lag is measured (not measured in the background if zero)
+     * @param closePrimary whether {@link #close()} also closes the primary
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag, Duration heartbeatInterval,
+                                    boolean closePrimary) {
+        this.primary = primary;
+        this.closePrimary = closePrimary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLag.toMillis();
+        if (heartbeatInterval.isZero()) {
+            this.monitor = null;
+            return;
+        }
+        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ssf-replica-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        monitor.scheduleWithFixedDelay(this::checkReplicas, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadPreference.current() == ReadPreference.REPLICA) {
+            Connection connection = replicaConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Connections use the configured credentials");
+    }
+
+    private Connection replicaConnection() {
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(count, 1));
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (!replica.fresh) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                connection.setReadOnly(true);
+                return connection;
+            } catch (SQLException e) {
+                replica.fresh = false;
+                log.warn("Read replica unavailable, reading from the primary: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes this node's heartbeat to the primary and measures how far behind each replica is.
+     */
+    public void checkReplicas() {
+        Instant beat = Instant.now();
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter()) {
+            writeHeartbeat(beat);
+            heartbeatFailing = false;
+        } catch (SQLException | RuntimeException e) {
+            // Replicas still age out below: the last beat they show gets older
+            if (!heartbeatFailing) {
+                log.warn("Cannot write replica heartbeat: {}", e.getMessage());
+            }
+            heartbeatFailing = true;
+        }
+        for (Replica replica : replicas) {
+            boolean fresh;
+            try {
+                Instant seen = readHeartbeat(replica.dataSource);
+                fresh = seen != null && Duration.between(seen, Instant.now()).toMillis() <= maxLagMillis;
+            } catch (SQLException | RuntimeException e) {
+                fresh = false;
+            }
+            if (fresh != replica.fresh) {
+                log.info("Read replica {} {}", replicas.indexOf(replica), fresh ? "caught up, serving reads" : "lagging, reads go to the primary");
+            }
+            replica.fresh = fresh;
+        }
+    }
+
+    private void writeHeartbeat(Instant beat) throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(true);
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE ssf_replica_heartbeat SET beat_at = ? WHERE node_id = ?")) {
+                update.setTimestamp(1, Timestamp.from(beat));
+                update.setString(2, nodeId);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO ssf_replica_heartbeat (node_id, beat_at) VALUES (?, ?)")) {
+                        insert.setString(1, nodeId);
+                        insert.setTimestamp(2, Timestamp.from(beat));
+                        insert.executeUpdate();
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private Instant readHeartbeat(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement query = connection.prepareStatement(
+                     "SELECT beat_at FROM ssf_replica_heartbeat WHERE node_id = ?")) {
+            query.setString(1, nodeId);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? rs.getTimestamp(1).toInstant() : null;
+            }
+        }
+    }
+
+    /**
+     * @return the number of replicas currently serving reads
+     */
+    public int getFreshReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.fresh).count();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void close() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+        if (closePrimary) {
+            closeQuietly(primary);
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.debug("Error closing data source: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class Replica {
+        final DataSource dataSource;
+        volatile boolean fresh;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
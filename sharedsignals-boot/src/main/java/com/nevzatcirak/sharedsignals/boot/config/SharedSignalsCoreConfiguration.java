@@ -1,18 +1,50 @@
 package com.nevzatcirak.sharedsignals.boot.config;
 
+import com.nevzatcirak.sharedsignals.adapter.caffeine.service.CaffeineIdempotencyStore;
+import com.nevzatcirak.sharedsignals.adapter.caffeine.service.CaffeinePrivacyPolicyValidator;
+import com.nevzatcirak.sharedsignals.adapter.caffeine.service.CaffeineStreamStore;
+import com.nevzatcirak.sharedsignals.api.enums.DeliveryPartitioning;
 import com.nevzatcirak.sharedsignals.api.service.*;
 import com.nevzatcirak.sharedsignals.api.spi.*;
 import com.nevzatcirak.sharedsignals.core.mapper.SecurityEventMapper;
 import com.nevzatcirak.sharedsignals.core.privacy.DefaultPrivacyPolicyValidator;
+import com.nevzatcirak.sharedsignals.core.routing.BroadcastRoutingTable;
+import com.nevzatcirak.sharedsignals.core.routing.GracePeriodIndex;
 import com.nevzatcirak.sharedsignals.core.service.impl.*;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class SharedSignalsCoreConfiguration {
 
+    /**
+     * Caches stream configurations in front of the persistent store: the JDBC store when that
+     * plugin is present, otherwise the JPA store (a fallback bean).
+     * Being primary, it is the {@link StreamStore} injected everywhere else.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "sharedsignals.cache.streams.enabled", havingValue = "true", matchIfMissing = true)
+    public StreamStore cachingStreamStore(
+            StreamStore persistentStreamStore,
+            @Value("${sharedsignals.cache.streams.maximum-size:10000}") long maximumSize,
+            @Value("${sharedsignals.cache.streams.ttl-seconds:300}") long ttlSeconds,
+            @Value("${sharedsignals.cache.streams.revalidate-after-millis:1000}") long revalidateAfterMillis) {
+        return new CaffeineStreamStore(persistentStreamStore, maximumSize,
+                Duration.ofSeconds(ttlSeconds), Duration.ofMillis(revalidateAfterMillis));
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public StreamConfigurationService streamConfigurationService(
@@ -31,8 +63,8 @@ public class SharedSignalsCoreConfiguration {
     }
 
     @Bean
-    public SubjectManagementService subjectManagementService(StreamStore streamStore) {
-        return new DefaultSubjectManagementService(streamStore);
+    public SubjectManagementService subjectManagementService(StreamStore streamStore, GracePeriodIndex gracePeriodIndex) {
+        return new DefaultSubjectManagementService(streamStore, gracePeriodIndex);
     }
 
     @Bean
@@ -56,11 +88,30 @@ public class SharedSignalsCoreConfiguration {
         return signer;
     }
 
+    @Bean
+    public BroadcastRoutingTable broadcastRoutingTable(
+            StreamStore streamStore,
+            @Value("${sharedsignals.delivery.routing.refresh-millis:2000}") long refreshMillis) {
+        return new BroadcastRoutingTable(streamStore, Duration.ofMillis(refreshMillis));
+    }
+
+    @Bean
+    public GracePeriodIndex gracePeriodIndex(
+            StreamStore streamStore,
+            @Value("${sharedsignals.delivery.routing.grace-period.refresh-millis:1000}") long refreshMillis,
+            @Value("${sharedsignals.delivery.routing.grace-period.full-sync-seconds:600}") long fullSyncSeconds,
+            @Value("${sharedsignals.delivery.routing.grace-period.expected-entries:100000}") int expectedEntries) {
+        return new GracePeriodIndex(streamStore, Duration.ofMillis(refreshMillis), Duration.ofSeconds(fullSyncSeconds), expectedEntries);
+    }
+
     @Bean
     public EventPublisherService eventPublisherService(
             StreamStore streamStore, TokenSigningService signingService,
-            EventSender eventSender, PrivacyPolicyValidator privacyValidator) {
-        return new DefaultEventPublisherService(streamStore, signingService, eventSender, privacyValidator);
+            EventSender eventSender, PrivacyPolicyValidator privacyValidator,
+            BroadcastRoutingTable broadcastRoutingTable, GracePeriodIndex gracePeriodIndex,
+            @Value("${sharedsignals.delivery.ordering.partition-by:stream}") String partitionBy) {
+        return new DefaultEventPublisherService(streamStore, signingService, eventSender, privacyValidator,
+                DeliveryPartitioning.fromValue(partitionBy), broadcastRoutingTable, gracePeriodIndex);
     }
 
     @Bean
@@ -79,8 +130,11 @@ public class SharedSignalsCoreConfiguration {
     }
 
     @Bean
-    public InactivityTimeoutService inactivityTimeoutService(StreamStore streamStore, StreamStatusService streamStatusService) {
-        return new DefaultInactivityTimeoutService(streamStore, streamStatusService);
+    public InactivityTimeoutService inactivityTimeoutService(
+            StreamStore streamStore,
+            StreamStatusService streamStatusService,
+            @Value("${sharedsignals.scheduler.activity-flush-interval:60000}") long activityFlushIntervalMillis) {
+        return new DefaultInactivityTimeoutService(streamStore, streamStatusService, Duration.ofMillis(activityFlushIntervalMillis));
     }
 
     @Bean
@@ -89,6 +143,39 @@ public class SharedSignalsCoreConfiguration {
         return new DefaultPrivacyPolicyValidator();
     }
 
+    /**
+     * Caches the decisions of the application's validator, which is injected here.
+     * Being primary, it is the {@link PrivacyPolicyValidator} used by the publisher.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "sharedsignals.cache.privacy.enabled", havingValue = "true", matchIfMissing = true)
+    public CaffeinePrivacyPolicyValidator cachingPrivacyPolicyValidator(
+            PrivacyPolicyValidator privacyPolicyValidator,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${sharedsignals.cache.privacy.maximum-size:100000}") long maximumSize,
+            @Value("${sharedsignals.cache.privacy.ttl-seconds:60}") long ttlSeconds,
+            @Value("${sharedsignals.cache.privacy.key-by:subject}") String keyBy) {
+        CaffeinePrivacyPolicyValidator cache = new CaffeinePrivacyPolicyValidator(privacyPolicyValidator,
+                maximumSize, Duration.ofSeconds(ttlSeconds), CaffeinePrivacyPolicyValidator.SubjectKey.fromValue(keyBy));
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("sharedsignals.privacy.cache", cache, CaffeinePrivacyPolicyValidator::getHitCount)
+                    .description("Privacy decisions answered from the cache")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("sharedsignals.privacy.cache", cache, CaffeinePrivacyPolicyValidator::getMissCount)
+                    .description("Privacy decisions requested from the validator")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionTimer.builder("sharedsignals.privacy.validator", cache,
+                            CaffeinePrivacyPolicyValidator::getLoadCount,
+                            CaffeinePrivacyPolicyValidator::getTotalLoadTimeNanos, TimeUnit.NANOSECONDS)
+                    .description("Calls to the privacy validator (bulk calls count once)")
+                    .register(registry);
+        });
+        return cache;
+    }
+
     @Bean
     public PushQueueService pushQueueService(PushQueueStore pushQueueStore) {
         return new DefaultPushQueueService(pushQueueStore);
@@ -100,12 +187,44 @@ public class SharedSignalsCoreConfiguration {
     }
 
     @Bean
-    public EventIngestionService eventIngestionService(EventPublisherService eventPublisherService, SecurityEventMapper mapper) {
-        return new DefaultEventIngestionService(eventPublisherService, mapper);
+    public EventIngestionService eventIngestionService(
+            EventPublisherService eventPublisherService, SecurityEventMapper mapper,
+            IdempotencyStore idempotencyStore,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${sharedsignals.ingestion.idempotency.enabled:true}") boolean idempotencyEnabled,
+            @Value("${sharedsignals.ingestion.idempotency.key-ttl-seconds:86400}") long keyTtlSeconds,
+            @Value("${sharedsignals.ingestion.idempotency.claim-lease-seconds:60}") long claimLeaseSeconds,
+            @Value("${sharedsignals.ingestion.idempotency.window-size:100000}") long windowSize,
+            @Value("${sharedsignals.ingestion.idempotency.window-seconds:600}") long windowSeconds) {
+        EventIngestionService ingestionService = new DefaultEventIngestionService(eventPublisherService, mapper);
+        if (!idempotencyEnabled) {
+            return ingestionService;
+        }
+
+        IdempotencyStore recentKeyWindow = new CaffeineIdempotencyStore(
+                idempotencyStore, windowSize, Duration.ofSeconds(windowSeconds));
+        IdempotentEventIngestionService idempotent = new IdempotentEventIngestionService(
+                ingestionService, recentKeyWindow,
+                Duration.ofSeconds(keyTtlSeconds), Duration.ofSeconds(claimLeaseSeconds));
+
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("sharedsignals.ingestion.idempotency", idempotent,
+                            IdempotentEventIngestionService::getHitCount)
+                    .description("Keyed ingestions answered as duplicates")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("sharedsignals.ingestion.idempotency", idempotent,
+                            IdempotentEventIngestionService::getMissCount)
+                    .description("Keyed ingestions fanned out for the first time")
+                    .tag("result", "miss")
+                    .register(registry);
+        });
+        return idempotent;
     }
 
     @Bean
-    public StreamAdministrationService streamAdministrationService(StreamStore streamStore) {
-        return new DefaultStreamAdministrationService(streamStore);
+    public StreamAdministrationService streamAdministrationService(StreamStore streamStore,
+                                                                   BroadcastRoutingTable broadcastRoutingTable) {
+        return new DefaultStreamAdministrationService(streamStore, broadcastRoutingTable);
     }
 }
@@ -1,5 +1,6 @@
 package com.nevzatcirak.sharedsignals.boot.config;
 
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
 import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.provider.jdbctemplate.JdbcTemplateLockProvider;
 import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
@@ -21,15 +22,21 @@ public class ShedLockConfiguration {
 
     /**
      * Configures the LockProvider using JDBC Template.
+     * <p>
+     * Locks are taken before the job enters its workload scope, so they use the maintenance pool
+     * directly when the pools are split per workload, and never a read replica.
      *
      * @param dataSource the Spring data source
      * @return the lock provider
      */
     @Bean
     public LockProvider lockProvider(DataSource dataSource) {
+        DataSource primary = dataSource instanceof ReplicaRoutingDataSource replicas ? replicas.getPrimary() : dataSource;
+        DataSource lockDataSource = primary instanceof WorkloadRoutingDataSource routing
+                ? routing.getDataSource(Workload.MAINTENANCE) : primary;
         return new JdbcTemplateLockProvider(
                 JdbcTemplateLockProvider.Configuration.builder()
-                        .withJdbcTemplate(new JdbcTemplate(dataSource))
+                        .withJdbcTemplate(new JdbcTemplate(lockDataSource))
                         .withTableName("ssf_shedlock")
                         .build()
         );
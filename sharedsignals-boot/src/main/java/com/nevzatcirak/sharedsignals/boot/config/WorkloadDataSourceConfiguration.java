@@ -0,0 +1,61 @@
+package com.nevzatcirak.sharedsignals.boot.config;
+
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One Hikari pool per {@link Workload} (interactive API, publish and delivery, maintenance and
+ * locks), all on the {@code spring.datasource} connection settings, behind a routing
+ * {@link javax.sql.DataSource} used by JPA. Pools are named {@code ssf-<workload>} and report the
+ * {@code hikaricp.*} metrics tagged with that name.
+ * <p>
+ * Replaces Spring Boot's single pool, so {@code spring.datasource.hikari.*} does not apply; size
+ * the pools with {@code sharedsignals.datasource.pools.<workload>.*}. With read replicas
+ * configured, these pools are the primary behind {@link ReadReplicaConfiguration}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharedsignals.datasource.bulkheads.enabled", havingValue = "true", matchIfMissing = true)
+public class WorkloadDataSourceConfiguration {
+
+    @Bean
+    public WorkloadRoutingDataSource dataSource(
+            DataSourceProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${sharedsignals.datasource.pools.interactive.maximum-pool-size:10}") int interactiveSize,
+            @Value("${sharedsignals.datasource.pools.interactive.connection-timeout-ms:5000}") long interactiveTimeout,
+            @Value("${sharedsignals.datasource.pools.delivery.maximum-pool-size:6}") int deliverySize,
+            @Value("${sharedsignals.datasource.pools.delivery.connection-timeout-ms:30000}") long deliveryTimeout,
+            @Value("${sharedsignals.datasource.pools.maintenance.maximum-pool-size:3}") int maintenanceSize,
+            @Value("${sharedsignals.datasource.pools.maintenance.connection-timeout-ms:60000}") long maintenanceTimeout) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+        pools.put(Workload.INTERACTIVE, pool(properties, registry, Workload.INTERACTIVE, interactiveSize, interactiveTimeout));
+        pools.put(Workload.DELIVERY, pool(properties, registry, Workload.DELIVERY, deliverySize, deliveryTimeout));
+        pools.put(Workload.MAINTENANCE, pool(properties, registry, Workload.MAINTENANCE, maintenanceSize, maintenanceTimeout));
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, MeterRegistry registry,
+                                         Workload workload, int maximumPoolSize, long connectionTimeoutMillis) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("ssf-" + workload.name().toLowerCase());
+        pool.setMaximumPoolSize(maximumPoolSize);
+        pool.setMinimumIdle(Math.min(2, maximumPoolSize));
+        pool.setConnectionTimeout(connectionTimeoutMillis);
+        if (registry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        return pool;
+    }
+}
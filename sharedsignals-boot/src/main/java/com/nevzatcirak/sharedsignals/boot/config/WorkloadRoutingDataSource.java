@@ -0,0 +1,43 @@
+package com.nevzatcirak.sharedsignals.boot.config;
+
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes each connection request to the pool of the current thread's {@link Workload}, so that a
+ * cleanup or a push retry storm exhausts its own pool instead of the one serving polls.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final Map<Workload, HikariDataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<Workload, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(Workload.INTERACTIVE));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Workload.current();
+    }
+
+    /**
+     * @return the pool of a workload, for components that take connections outside a workload scope
+     */
+    public HikariDataSource getDataSource(Workload workload) {
+        return pools.get(workload);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
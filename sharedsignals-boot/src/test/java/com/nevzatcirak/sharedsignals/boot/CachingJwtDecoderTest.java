@@ -0,0 +1,134 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.security.jwt.CachingJwtDecoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * The verified-token cache against a decoder that this test controls: tokens are verified once
+ * until their {@code exp} or the maximum TTL, and rejections are never remembered.
+ */
+class CachingJwtDecoderTest {
+
+    private final Map<String, Instant> expiries = new HashMap<>();
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    /** Accepts the tokens registered with an expiry, rejects every other one. */
+    private final JwtDecoder delegate = token -> {
+        verifications.incrementAndGet();
+        if (!expiries.containsKey(token)) {
+            throw new BadJwtException("invalid token");
+        }
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("receiver")
+                .expiresAt(expiries.get(token))
+                .build();
+    };
+
+    private CachingJwtDecoder decoder(Duration maxTtl) {
+        return new CachingJwtDecoder(delegate, 100, maxTtl);
+    }
+
+    private String token(String value, Instant expiresAt) {
+        expiries.put(value, expiresAt);
+        return value;
+    }
+
+    @Test
+    void repeatedTokensAreVerifiedOnce() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+        String token = token("token-a", Instant.now().plusSeconds(300));
+
+        Jwt first = decoder.decode(token);
+        assertThat(decoder.decode(token)).isSameAs(first);
+        assertThat(decoder.decode(token)).isSameAs(first);
+        assertThat(verifications).hasValue(1);
+        assertThat(decoder.getHitCount()).isEqualTo(2);
+        assertThat(decoder.getMissCount()).isEqualTo(1);
+
+        decoder.decode(token("token-b", Instant.now().plusSeconds(300)));
+        assertThat(verifications).hasValue(2);
+        assertThat(decoder.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void tokensDifferingOnlyInNonAsciiCharactersAreNotConfused() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+        String accepted = token("token-é", Instant.now().plusSeconds(300));
+
+        assertThat(decoder.decode(accepted).getTokenValue()).isEqualTo(accepted);
+        assertThatThrownBy(() -> decoder.decode("token-è")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("token-一")).isInstanceOf(BadJwtException.class);
+    }
+
+    @Test
+    void cachedTokenExpiresAtItsExp() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+        Instant expiresAt = Instant.now().plusMillis(1500);
+        String token = token("token-expiring", expiresAt);
+        decoder.decode(token);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            decoder.decode(token);
+            return verifications.get() > 1;
+        });
+        assertThat(Instant.now()).isAfterOrEqualTo(expiresAt);
+    }
+
+    @Test
+    void tokenPastItsExpIsNotCached() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+        // Accepted by the delegate within its clock skew
+        String token = token("token-expired", Instant.now().minusSeconds(10));
+
+        decoder.decode(token);
+        decoder.decode(token);
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void farFutureExpIsCappedAtTheMaximumTtl() {
+        CachingJwtDecoder decoder = decoder(Duration.ofMillis(500));
+        String token = token("token-forever", Instant.MAX);
+        Instant cachedAt = Instant.now();
+
+        decoder.decode(token);
+        assertThat(decoder.decode(token).getExpiresAt()).isEqualTo(Instant.MAX);
+        assertThat(verifications).hasValue(1);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            decoder.decode(token);
+            return verifications.get() > 1;
+        });
+        assertThat(Duration.between(cachedAt, Instant.now())).isGreaterThanOrEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    void rejectedTokensAreNotCached() {
+        CachingJwtDecoder decoder = decoder(Duration.ofHours(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        }
+
+        assertThat(verifications).hasValue(3);
+        assertThat(decoder.getSize()).isZero();
+        // The same value is accepted once it becomes valid
+        token("forged", Instant.now().plusSeconds(300));
+        assertThat(decoder.decode("forged").getTokenValue()).isEqualTo("forged");
+    }
+}
@@ -0,0 +1,142 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.adapter.caffeine.service.CaffeinePrivacyPolicyValidator;
+import com.nevzatcirak.sharedsignals.adapter.caffeine.service.CaffeinePrivacyPolicyValidator.SubjectKey;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.spi.PrivacyPolicyValidator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache keys and invalidation of cached privacy decisions.
+ */
+class CaffeinePrivacyPolicyValidatorTest {
+
+    private static final String RECEIVER = "https://receiver.example.com";
+    private static final String OTHER_RECEIVER = "https://other.example.com";
+
+    private static final SubjectId ALICE = SubjectId.of(Map.of("format", "email", "email", "alice@example.com"));
+    private static final SubjectId BOB = SubjectId.of(Map.of("format", "email", "email", "bob@example.com"));
+
+    /** Answers from a mutable consent table and counts its calls. */
+    private static class CountingValidator implements PrivacyPolicyValidator {
+        final Map<String, Boolean> consent = new ConcurrentHashMap<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public PrivacyValidationResult validateEventSharing(String streamId, Map<String, Object> subject, String eventTypeUri,
+                                                            Map<String, Object> eventDetails, String receiverAudience) {
+            calls.incrementAndGet();
+            return PrivacyValidationResult.allowed();
+        }
+
+        @Override
+        public PrivacyValidationResult validateSubjectIdentifier(Map<String, Object> subject, String receiverAudience) {
+            calls.incrementAndGet();
+            return PrivacyValidationResult.allowed();
+        }
+
+        @Override
+        public boolean hasConsentToShareWithReceiver(Map<String, Object> subject, String receiverAudience) {
+            calls.incrementAndGet();
+            return consent.getOrDefault(subject.get("email") + "|" + receiverAudience, true);
+        }
+    }
+
+    private final CountingValidator delegate = new CountingValidator();
+
+    private CaffeinePrivacyPolicyValidator cache(SubjectKey key) {
+        return new CaffeinePrivacyPolicyValidator(delegate, 100, Duration.ofMinutes(5), key);
+    }
+
+    @Test
+    void decisionsAreCachedPerSubjectAudienceAndKind() {
+        CaffeinePrivacyPolicyValidator cache = cache(SubjectKey.SUBJECT);
+
+        cache.hasConsentToShareWithReceiver(ALICE, RECEIVER);
+        cache.hasConsentToShareWithReceiver(ALICE, RECEIVER);
+        // An equal subject built from another map shares the decision
+        cache.hasConsentToShareWithReceiver(SubjectId.of(Map.of("email", "alice@example.com", "format", "email")), RECEIVER);
+        assertThat(delegate.calls).hasValue(1);
+
+        cache.hasConsentToShareWithReceiver(BOB, RECEIVER);
+        cache.hasConsentToShareWithReceiver(ALICE, OTHER_RECEIVER);
+        cache.validateSubjectIdentifier(ALICE, RECEIVER);
+        assertThat(delegate.calls).hasValue(4);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void subjectsAreNotMixedUp() {
+        delegate.consent.put("bob@example.com|" + RECEIVER, false);
+        CaffeinePrivacyPolicyValidator cache = cache(SubjectKey.SUBJECT);
+
+        assertThat(cache.hasConsentToShareWithReceiver(ALICE, RECEIVER)).isTrue();
+        assertThat(cache.hasConsentToShareWithReceiver(BOB, RECEIVER)).isFalse();
+    }
+
+    @Test
+    void formatKeySharesOneDecisionPerFormat() {
+        CaffeinePrivacyPolicyValidator cache = cache(SubjectKey.FORMAT);
+
+        cache.validateSubjectIdentifier(ALICE, RECEIVER);
+        cache.validateSubjectIdentifier(BOB, RECEIVER);
+        cache.validateSubjectIdentifier(SubjectId.of(Map.of("format", "opaque", "id", "u-1")), RECEIVER);
+
+        assertThat(delegate.calls).hasValue(2);
+    }
+
+    @Test
+    void eventSharingIsNeverCached() {
+        CaffeinePrivacyPolicyValidator cache = cache(SubjectKey.SUBJECT);
+
+        cache.validateEventSharing("stream", ALICE.asMap(), "type", Map.of(), RECEIVER);
+        cache.validateEventSharing("stream", ALICE.asMap(), "type", Map.of(), RECEIVER);
+
+        assertThat(delegate.calls).hasValue(2);
+    }
+
+    @Test
+    void prefetchLoadsAllAudiencesAndLaterLookupsHit() {
+        CaffeinePrivacyPolicyValidator cache = cache(SubjectKey.SUBJECT);
+
+        cache.prefetch(ALICE, List.of(RECEIVER, OTHER_RECEIVER));
+        int afterPrefetch = delegate.calls.get();
+        cache.hasConsentToShareWithReceiver(ALICE, RECEIVER);
+        cache.validateSubjectIdentifier(ALICE, OTHER_RECEIVER);
+
+        assertThat(afterPrefetch).isEqualTo(4);
+        assertThat(delegate.calls).hasValue(afterPrefetch);
+    }
+
+    @Test
+    void invalidationDropsOnlyTheAffectedDecisions() {
+        CaffeinePrivacyPolicyValidator cache = cache(SubjectKey.SUBJECT);
+        cache.hasConsentToShareWithReceiver(ALICE, RECEIVER);
+        cache.hasConsentToShareWithReceiver(BOB, RECEIVER);
+        cache.hasConsentToShareWithReceiver(BOB, OTHER_RECEIVER);
+
+        // Alice withdraws consent
+        delegate.consent.put("alice@example.com|" + RECEIVER, false);
+        assertThat(cache.hasConsentToShareWithReceiver(ALICE, RECEIVER)).isTrue();
+        cache.invalidateSubject(ALICE);
+        assertThat(cache.hasConsentToShareWithReceiver(ALICE, RECEIVER)).isFalse();
+        assertThat(delegate.calls).hasValue(4);
+
+        cache.invalidateReceiver(OTHER_RECEIVER);
+        cache.hasConsentToShareWithReceiver(BOB, RECEIVER);
+        cache.hasConsentToShareWithReceiver(BOB, OTHER_RECEIVER);
+        assertThat(delegate.calls).hasValue(5);
+
+        cache.invalidateAll();
+        cache.hasConsentToShareWithReceiver(BOB, RECEIVER);
+        assertThat(delegate.calls).hasValue(6);
+    }
+}
@@ -0,0 +1,117 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.adapter.caffeine.service.CaffeineStreamStore;
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.PersistenceStores;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Stream configuration cache: copy isolation, invalidation on local writes and revalidation
+ * against writes made on another node (simulated by writing to the persistent store directly).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class CaffeineStreamStoreTest {
+
+    private static final Duration REVALIDATE_AFTER = Duration.ofSeconds(1);
+
+    private StreamStore persistentStore;
+
+    @Autowired
+    void persistentStore(ConfigurableListableBeanFactory beanFactory) {
+        persistentStore = PersistenceStores.streamStore(beanFactory);
+    }
+
+    private CaffeineStreamStore cache;
+    private String streamId;
+
+    @BeforeEach
+    void setup() {
+        cache = new CaffeineStreamStore(persistentStore, 100, Duration.ofMinutes(5), REVALIDATE_AFTER);
+        streamId = "cached-" + UUID.randomUUID();
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setStream_id(streamId);
+        stream.setIss("https://transmitter.example.com");
+        stream.setAud(List.of("https://receiver.example.com"));
+        stream.setDescription("original");
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(SharedSignalConstants.DELIVERY_METHOD_POLL);
+        stream.setDelivery(delivery);
+        persistentStore.save(stream);
+    }
+
+    private String description() {
+        return cache.findById(streamId).orElseThrow().getDescription();
+    }
+
+    /** A write on another node: the persistent store changes without going through this cache. */
+    private void describeElsewhere(String description) {
+        StreamConfiguration stream = persistentStore.findById(streamId).orElseThrow();
+        stream.setDescription(description);
+        persistentStore.save(stream);
+    }
+
+    @Test
+    void modifyingAReturnedConfigurationDoesNotChangeTheCache() {
+        StreamConfiguration first = cache.findById(streamId).orElseThrow();
+        first.setDescription("modified by caller");
+        List<String> audience = new ArrayList<>(first.getAud());
+        audience.add("https://attacker.example.com");
+        first.setAud(audience);
+
+        StreamConfiguration second = cache.findById(streamId).orElseThrow();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getDescription()).isEqualTo("original");
+        assertThat(second.getAud()).containsExactly("https://receiver.example.com");
+    }
+
+    @Test
+    void readsAreServedFromTheSnapshotUntilRevalidation() {
+        assertThat(description()).isEqualTo("original");
+
+        describeElsewhere("changed elsewhere");
+
+        // Fresh snapshot: the store is not consulted
+        assertThat(description()).isEqualTo("original");
+        // Past the revalidation interval, the version check finds the change and reloads
+        await().atMost(Duration.ofSeconds(5)).pollDelay(REVALIDATE_AFTER)
+                .untilAsserted(() -> assertThat(description()).isEqualTo("changed elsewhere"));
+    }
+
+    @Test
+    void localWritesInvalidateImmediately() {
+        assertThat(description()).isEqualTo("original");
+
+        StreamConfiguration stream = cache.findById(streamId).orElseThrow();
+        stream.setDescription("saved here");
+        cache.save(stream);
+        assertThat(description()).isEqualTo("saved here");
+
+        cache.updateStreamMode(streamId, true);
+        assertThat(cache.findById(streamId).orElseThrow().isProcessAllSubjects()).isTrue();
+
+        cache.updateAuthorizedEvents(streamId, Set.of());
+        cache.deleteById(streamId);
+        assertThat(cache.findById(streamId)).isEmpty();
+    }
+}
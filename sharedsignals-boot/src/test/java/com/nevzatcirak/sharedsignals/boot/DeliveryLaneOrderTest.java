@@ -0,0 +1,161 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
+import com.nevzatcirak.sharedsignals.api.model.PushMessage;
+import com.nevzatcirak.sharedsignals.api.spi.PushQueueStore;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.PersistenceStores;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.repository.PushMessageRepository;
+import com.nevzatcirak.sharedsignals.persistence.repository.StreamEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivery order of the outbox and the poll buffer across priority lanes (30 s lane wait).
+ * The push worker is disabled so that queued messages stay where the test puts them.
+ */
+@SpringBootTest(properties = "sharedsignals.features.push-delivery=false")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class DeliveryLaneOrderTest {
+
+    private static final String STREAM = "lane-stream";
+
+    @Autowired
+    private PushQueueStore pushQueue;
+
+    private StreamStore streamStore;
+
+    @Autowired
+    void persistentStore(ConfigurableListableBeanFactory beanFactory) {
+        streamStore = PersistenceStores.streamStore(beanFactory);
+    }
+
+    @Autowired
+    private PushMessageRepository pushMessageRepository;
+
+    @Autowired
+    private StreamEventRepository streamEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int sequence;
+
+    @BeforeEach
+    void setup() {
+        pushMessageRepository.deleteAll();
+        streamEventRepository.deleteAll();
+    }
+
+    /** Queues a push message on its own partition, queued {@code age} ago; returns its token. */
+    private String push(EventPriority priority, Duration age) {
+        String token = priority + "-" + sequence++;
+        pushQueue.enqueue(STREAM, "https://receiver.example.com/events", token, null, new DeliveryOptions(priority, token, null));
+        age("ssf_push_queue", "signed_token", token, age);
+        return token;
+    }
+
+    /** Buffers a poll event, buffered {@code age} ago; returns its jti. */
+    private String buffer(EventPriority priority, Duration age) {
+        String jti = priority + "-" + sequence++;
+        streamStore.saveEvent(STREAM, jti, "token-" + jti, priority);
+        age("ssf_stream_events_buffer", "jti", jti, age);
+        return jti;
+    }
+
+    private void age(String table, String keyColumn, String key, Duration age) {
+        if (age.isZero()) {
+            return;
+        }
+        List<Instant[]> rows = jdbcTemplate.query("SELECT created_at, due_at FROM " + table + " WHERE " + keyColumn + " = ?",
+                (rs, i) -> new Instant[]{rs.getTimestamp(1).toInstant(), rs.getTimestamp(2).toInstant()}, key);
+        jdbcTemplate.update("UPDATE " + table + " SET created_at = ?, due_at = ? WHERE " + keyColumn + " = ?",
+                Timestamp.from(rows.get(0)[0].minus(age)), Timestamp.from(rows.get(0)[1].minus(age)), key);
+    }
+
+    private List<String> pushOrder() {
+        return pushQueue.fetchReadyMessages(10).stream().map(PushMessage::getSignedToken).toList();
+    }
+
+    private List<String> pollOrder() {
+        return List.copyOf(streamStore.fetchEvents(STREAM, 10).keySet());
+    }
+
+    @Test
+    void lanesAreDeliveredHighestFirst() {
+        String low = push(EventPriority.LOW, Duration.ZERO);
+        String normal = push(EventPriority.NORMAL, Duration.ZERO);
+        String high = push(EventPriority.HIGH, Duration.ZERO);
+
+        assertThat(pushOrder()).containsExactly(high, normal, low);
+    }
+
+    @Test
+    void eventsOfOneLaneKeepArrivalOrder() {
+        String first = push(EventPriority.NORMAL, Duration.ZERO);
+        String second = push(EventPriority.NORMAL, Duration.ZERO);
+
+        assertThat(pushOrder()).containsExactly(first, second);
+    }
+
+    @Test
+    void agedBacklogDoesNotJumpAheadOfNewHighEvents() {
+        // Older than one lane wait, but still due after a HIGH event queued now
+        String low = push(EventPriority.LOW, Duration.ofSeconds(45));
+        String normal = push(EventPriority.NORMAL, Duration.ofSeconds(20));
+        String high = push(EventPriority.HIGH, Duration.ZERO);
+
+        assertThat(pushOrder()).containsExactly(high, normal, low);
+    }
+
+    @Test
+    void lowerLanesWaitAtMostOneLaneWaitPerLane() {
+        String normal = push(EventPriority.NORMAL, Duration.ofSeconds(31));
+        String low = push(EventPriority.LOW, Duration.ofSeconds(65));
+        String high = push(EventPriority.HIGH, Duration.ZERO);
+
+        assertThat(pushOrder()).containsExactly(low, normal, high);
+    }
+
+    @Test
+    void steadyHighTrafficDoesNotStarveLowEvents() {
+        String low = push(EventPriority.LOW, Duration.ZERO);
+        for (int i = 0; i < 5; i++) {
+            push(EventPriority.HIGH, Duration.ZERO);
+        }
+        assertThat(pushOrder()).last().isEqualTo(low);
+
+        // Two lane waits later, the LOW event is due ahead of every HIGH event that arrives from now on
+        age("ssf_push_queue", "signed_token", low, Duration.ofSeconds(61));
+        String freshHigh = push(EventPriority.HIGH, Duration.ZERO);
+
+        List<String> order = pushOrder();
+        assertThat(order.indexOf(low)).isLessThan(order.indexOf(freshHigh));
+    }
+
+    @Test
+    void pollBufferUsesTheSameOrder() {
+        String agedLow = buffer(EventPriority.LOW, Duration.ofSeconds(45));
+        String high = buffer(EventPriority.HIGH, Duration.ZERO);
+        String starvedLow = buffer(EventPriority.LOW, Duration.ofSeconds(61));
+        String normal = buffer(EventPriority.NORMAL, Duration.ZERO);
+
+        assertThat(pollOrder()).containsExactly(starvedLow, high, agedLow, normal);
+    }
+}
@@ -0,0 +1,113 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.service.TransmitterMetadataService;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.web.discovery.DiscoveryDocumentCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Discovery documents served pre-serialized with a strong ETag, Cache-Control and 304 Not Modified.
+ */
+@SpringBootTest(properties = "sharedsignals.discovery.cache-max-age-seconds=120")
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class DiscoveryDocumentCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DiscoveryDocumentCache documents;
+
+    @Autowired
+    private TransmitterMetadataService metadataService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MvcResult fetch(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=120, public"))
+                .andReturn();
+    }
+
+    private static String etag(MvcResult result) {
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void metadataIsServedWithAStrongEtag() throws Exception {
+        MvcResult result = fetch("/.well-known/ssf-configuration");
+
+        assertThat(etag(result)).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+        JsonNode served = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+        assertThat(served).isEqualTo(objectMapper.valueToTree(metadataService.getMetadata()));
+    }
+
+    @Test
+    void matchingIfNoneMatchGetsNotModified() throws Exception {
+        String etag = etag(fetch("/.well-known/ssf-configuration"));
+
+        MvcResult notModified = mockMvc.perform(get("/.well-known/ssf-configuration").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=120, public"))
+                .andReturn();
+        assertThat(notModified.getResponse().getContentAsByteArray()).isEmpty();
+
+        mockMvc.perform(get("/.well-known/ssf-configuration").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void metadataAliasesShareOneDocument() throws Exception {
+        String etag = etag(fetch("/.well-known/ssf-configuration"));
+
+        assertThat(etag(fetch("/.well-known/ssf-configuration/issuer1"))).isEqualTo(etag);
+        assertThat(etag(fetch("/.well-known/risc-configuration"))).isEqualTo(etag);
+        mockMvc.perform(get("/.well-known/risc-configuration").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void jwkSetHasItsOwnEtag() throws Exception {
+        MvcResult jwks = fetch("/.well-known/jwks.json");
+
+        assertThat(objectMapper.readTree(jwks.getResponse().getContentAsByteArray()).get("keys")).hasSize(1);
+        assertThat(etag(jwks)).isNotEqualTo(etag(fetch("/.well-known/ssf-configuration")));
+        mockMvc.perform(get("/.well-known/jwks.json").header(HttpHeaders.IF_NONE_MATCH, etag(jwks)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void etagDependsOnlyOnTheContent() throws Exception {
+        DiscoveryDocumentCache.Document before = documents.getMetadata();
+        assertThat(documents.getMetadata()).isSameAs(before);
+
+        documents.refresh();
+
+        // Rebuilt, but an unchanged document keeps its ETag so clients' copies stay valid
+        DiscoveryDocumentCache.Document after = documents.getMetadata();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.etag()).isEqualTo(before.etag());
+        assertThat(etag(fetch("/.well-known/ssf-configuration"))).isEqualTo(before.etag());
+    }
+}
@@ -0,0 +1,124 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.service.EventPublisherService;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.entity.PushMessageEntity;
+import com.nevzatcirak.sharedsignals.persistence.repository.PushMessageRepository;
+import com.nevzatcirak.sharedsignals.persistence.repository.StreamEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coalescing of superseding events: a newer event replaces the pending one of the same subject only.
+ * The push worker is disabled so that queued messages stay in the outbox.
+ */
+@SpringBootTest(properties = "sharedsignals.features.push-delivery=false")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class EventCoalescingTest {
+
+    private static final String EVENT = SharedSignalConstants.RISC_ACCOUNT_DISABLED;
+
+    // Distinct subjects whose SubjectId.hashCode() collide (6630d9ba)
+    private static final Map<String, Object> SUBJECT = email("user-4725@example.com");
+    private static final Map<String, Object> COLLIDING_SUBJECT = email("user-16796@example.com");
+
+    @Autowired
+    private EventPublisherService publisher;
+
+    @Autowired
+    private StreamStore streamStore;
+
+    @Autowired
+    private PushMessageRepository pushMessageRepository;
+
+    @Autowired
+    private StreamEventRepository streamEventRepository;
+
+    private static Map<String, Object> email(String address) {
+        return Map.of("format", "email", "email", address);
+    }
+
+    @BeforeEach
+    void setup() {
+        pushMessageRepository.deleteAll();
+        streamEventRepository.deleteAll();
+    }
+
+    private String stream(String streamId, String method) {
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setStream_id(streamId);
+        stream.setIss("https://transmitter.example.com");
+        stream.setAud(List.of("https://receiver.example.com"));
+        stream.setEvents_requested(List.of(EVENT));
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(method);
+        delivery.setEndpoint_url("https://receiver.example.com/events");
+        stream.setDelivery(delivery);
+        streamStore.save(stream);
+        streamStore.updateStreamMode(streamId, true);
+        streamStore.updateCoalescedEvents(streamId, Set.of(EVENT));
+        return streamId;
+    }
+
+    private void publish(String streamId, Map<String, Object> subject) {
+        publisher.publishToStream(streamId, subject, EVENT, Map.of("reason", "hijacking"));
+    }
+
+    /** Messages of the stream still waiting in the outbox (the ready query only returns partition heads). */
+    private long queued(String streamId) {
+        return pushMessageRepository.findAll().stream()
+                .filter(m -> m.getStreamId().equals(streamId))
+                .filter(m -> m.getStatus() == PushMessageEntity.DeliveryStatus.PENDING)
+                .count();
+    }
+
+    @Test
+    void subjectsAreHashCodeCollisions() {
+        assertThat(SubjectId.of(SUBJECT).hashCode()).isEqualTo(SubjectId.of(COLLIDING_SUBJECT).hashCode());
+        assertThat(SubjectId.of(SUBJECT)).isNotEqualTo(SubjectId.of(COLLIDING_SUBJECT));
+    }
+
+    @Test
+    void newerEventSupersedesThePendingEventOfTheSameSubject() {
+        String push = stream("coalesce-push", SharedSignalConstants.DELIVERY_METHOD_PUSH);
+        String poll = stream("coalesce-poll", SharedSignalConstants.DELIVERY_METHOD_POLL);
+
+        publish(push, SUBJECT);
+        publish(push, SUBJECT);
+        publish(poll, SUBJECT);
+        publish(poll, SUBJECT);
+
+        assertThat(queued(push)).isEqualTo(1);
+        assertThat(streamStore.fetchEvents(poll, 10)).hasSize(1);
+    }
+
+    @Test
+    void subjectsWithCollidingHashCodeAreBothDelivered() {
+        String push = stream("collision-push", SharedSignalConstants.DELIVERY_METHOD_PUSH);
+        String poll = stream("collision-poll", SharedSignalConstants.DELIVERY_METHOD_POLL);
+
+        publish(push, SUBJECT);
+        publish(push, COLLIDING_SUBJECT);
+        publish(poll, SUBJECT);
+        publish(poll, COLLIDING_SUBJECT);
+
+        assertThat(queued(push)).isEqualTo(2);
+        assertThat(streamStore.fetchEvents(poll, 10)).hasSize(2);
+    }
+}
@@ -0,0 +1,175 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.constant.EventTypeRegistry;
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.service.EventPublisherService;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.core.routing.BroadcastRoutingTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Event routing by the streams' delivered event types (requested and authorized), matched as bitmasks.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class EventTypeRoutingTest {
+
+    private static final String DISABLED = SharedSignalConstants.RISC_ACCOUNT_DISABLED;
+    private static final String RISK = SharedSignalConstants.CAEP_RISK_LEVEL_CHANGE;
+    private static final String CUSTOM = "https://transmitter.example.com/event-type/custom";
+
+    @Autowired
+    private EventPublisherService publisher;
+
+    @Autowired
+    private StreamStore streamStore;
+
+    @Autowired
+    private BroadcastRoutingTable broadcastRoutingTable;
+
+    private SubjectId subject;
+
+    @BeforeEach
+    void setup() {
+        subject = SubjectId.of(Map.of("format", "email", "email", UUID.randomUUID() + "@example.com"));
+    }
+
+    /** A poll stream on which the test subject is approved. */
+    private String subscribedStream(List<String> eventsRequested) {
+        String streamId = stream(eventsRequested);
+        streamStore.addSubject(streamId, subject, true);
+        streamStore.updateSubjectStatus(streamId, subject.fingerprint(), SubjectStatus.APPROVED);
+        return streamId;
+    }
+
+    private String stream(List<String> eventsRequested) {
+        String streamId = "routing-" + UUID.randomUUID();
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setStream_id(streamId);
+        stream.setIss("https://transmitter.example.com");
+        stream.setAud(List.of("https://receiver.example.com"));
+        stream.setStatus(SharedSignalConstants.STATUS_ENABLED);
+        stream.setEvents_requested(eventsRequested);
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(SharedSignalConstants.DELIVERY_METHOD_POLL);
+        stream.setDelivery(delivery);
+        streamStore.save(stream);
+        return streamId;
+    }
+
+    private void publish(String eventType) {
+        publisher.publishEvent(subject, eventType, Map.of(), null);
+    }
+
+    private long buffered(String streamId) {
+        return streamStore.countUnacknowledgedEvents(streamId);
+    }
+
+    @Test
+    void masksMatchExactlyTheirEventTypes() {
+        long mask = EventTypeRegistry.maskOf(List.of(DISABLED, CUSTOM));
+
+        assertThat(EventTypeRegistry.contains(mask, EventTypeRegistry.idOf(DISABLED))).isTrue();
+        assertThat(EventTypeRegistry.contains(mask, EventTypeRegistry.idOf(RISK))).isFalse();
+        assertThat(EventTypeRegistry.idOf(CUSTOM)).isEqualTo(EventTypeRegistry.UNKNOWN);
+        assertThat(EventTypeRegistry.contains(mask, EventTypeRegistry.UNKNOWN)).isFalse();
+        for (String type : SharedSignalConstants.SUPPORTED_EVENTS) {
+            assertThat(EventTypeRegistry.uriOf(EventTypeRegistry.idOf(type))).isEqualTo(type);
+        }
+    }
+
+    @Test
+    void streamMaskFollowsItsDeliveredEvents() {
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setEvents_delivered(List.of(DISABLED));
+        assertThat(stream.deliveredEventMask()).isEqualTo(EventTypeRegistry.maskOf(List.of(DISABLED)));
+
+        stream.setEvents_delivered(List.of(RISK));
+        assertThat(stream.deliveredEventMask()).isEqualTo(EventTypeRegistry.maskOf(List.of(RISK)));
+    }
+
+    @Test
+    void eventsReachOnlyStreamsThatDeliverTheirType() {
+        String disabledOnly = subscribedStream(List.of(DISABLED));
+        String riskOnly = subscribedStream(List.of(RISK));
+        String unsubscribed = stream(List.of(DISABLED));
+
+        publish(DISABLED);
+
+        assertThat(buffered(disabledOnly)).isEqualTo(1);
+        assertThat(buffered(riskOnly)).isZero();
+        assertThat(buffered(unsubscribed)).isZero();
+    }
+
+    @Test
+    void requestedButUnauthorizedTypesAreNotDelivered() {
+        String narrowed = subscribedStream(List.of(DISABLED, RISK));
+        streamStore.updateAuthorizedEvents(narrowed, Set.of(RISK));
+
+        publish(DISABLED);
+        publish(RISK);
+
+        assertThat(buffered(narrowed)).isEqualTo(1);
+    }
+
+    @Test
+    void typesOutsideTheRegistryFallBackToTheDeliveredList() {
+        String custom = subscribedStream(List.of(CUSTOM));
+        String other = subscribedStream(List.of(DISABLED));
+
+        publish(CUSTOM);
+
+        assertThat(buffered(custom)).isEqualTo(1);
+        assertThat(buffered(other)).isZero();
+    }
+
+    @Test
+    void broadcastStreamsAreRoutedByEventType() {
+        String disabledOnly = stream(List.of(DISABLED));
+        String riskOnly = stream(List.of(RISK));
+        streamStore.updateStreamMode(disabledOnly, true);
+        streamStore.updateStreamMode(riskOnly, true);
+        broadcastRoutingTable.invalidate();
+
+        publish(DISABLED);
+
+        assertThat(buffered(disabledOnly)).isEqualTo(1);
+        assertThat(buffered(riskOnly)).isZero();
+    }
+
+    @Test
+    void broadcastStreamsAreSentWithTheirCurrentConfiguration() {
+        String narrowed = stream(List.of(DISABLED, RISK));
+        String switchedBack = stream(List.of(DISABLED));
+        streamStore.updateStreamMode(narrowed, true);
+        streamStore.updateStreamMode(switchedBack, true);
+        broadcastRoutingTable.invalidate();
+        publish(DISABLED);
+
+        // Written to the store directly, without rebuilding the table
+        streamStore.updateAuthorizedEvents(narrowed, Set.of(RISK));
+        streamStore.updateStreamMode(switchedBack, false);
+        publish(DISABLED);
+
+        assertThat(buffered(narrowed)).isEqualTo(1);
+        assertThat(buffered(switchedBack)).isEqualTo(1);
+    }
+}
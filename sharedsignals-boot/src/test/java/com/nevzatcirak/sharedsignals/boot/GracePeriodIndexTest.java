@@ -0,0 +1,208 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.model.RemovedSubject;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.core.routing.GracePeriodIndex;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * The in-memory grace period index against a store of removals that this test controls: it must
+ * never answer false for a removal it should know of, whether made on this node, on another node,
+ * committed late, or held across a rebuild.
+ */
+class GracePeriodIndexTest {
+
+    private static final String STREAM = "stream-1";
+    private static final Duration LONG = Duration.ofHours(1);
+
+    /** A removal as the store holds it, with the time it was stamped. */
+    private record Removal(String streamId, SubjectId subject, Instant removedAt, Instant expiresAt) {
+    }
+
+    private final List<Removal> removals = new CopyOnWriteArrayList<>();
+    private final AtomicInteger listings = new AtomicInteger();
+    private final AtomicInteger directQueries = new AtomicInteger();
+    /** Runs inside the store's listing, after the removals were read. */
+    private volatile Runnable duringListing = () -> { };
+
+    private final StreamStore store = (StreamStore) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{StreamStore.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "findRemovedSubjectsSince" -> {
+                    listings.incrementAndGet();
+                    Instant since = (Instant) args[0];
+                    Instant now = Instant.now();
+                    List<RemovedSubject> listed = removals.stream()
+                            .filter(r -> !r.removedAt().isBefore(since) && r.expiresAt().isAfter(now))
+                            .map(r -> new RemovedSubject(r.streamId(), r.subject().digest(), r.expiresAt()))
+                            .toList();
+                    duringListing.run();
+                    yield Optional.of(listed);
+                }
+                case "isSubjectInGracePeriod" -> {
+                    directQueries.incrementAndGet();
+                    SubjectId subject = (SubjectId) args[1];
+                    yield removals.stream().anyMatch(r -> r.streamId().equals(args[0])
+                            && Arrays.equals(r.subject().digest(), subject.digest()) && r.expiresAt().isAfter(Instant.now()));
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+    private static SubjectId subject() {
+        return SubjectId.of(Map.of("format", "email", "email", UUID.randomUUID() + "@example.com"));
+    }
+
+    private SubjectId remove(String streamId, Instant removedAt, Duration gracePeriod) {
+        SubjectId subject = subject();
+        removals.add(new Removal(streamId, subject, removedAt, Instant.now().plus(gracePeriod)));
+        return subject;
+    }
+
+    private SubjectId remove() {
+        return remove(STREAM, Instant.now(), LONG);
+    }
+
+    @Test
+    void removalsOnThisNodeAreSeenByTheNextProbe() {
+        GracePeriodIndex index = new GracePeriodIndex(store, LONG, LONG, 100);
+        SubjectId earlier = remove();
+        assertThat(index.isInGracePeriod(STREAM, earlier)).isTrue();
+
+        SubjectId removed = remove();
+        index.invalidate();
+
+        assertThat(index.isInGracePeriod(STREAM, removed)).isTrue();
+        assertThat(index.isInGracePeriod("stream-2", removed)).isFalse();
+        assertThat(index.isInGracePeriod(STREAM, subject())).isFalse();
+        assertThat(directQueries).hasValue(0);
+    }
+
+    @Test
+    void removalsOnAnotherNodeAreSeenWithinOneRefreshInterval() {
+        GracePeriodIndex index = new GracePeriodIndex(store, Duration.ofMillis(200), LONG, 100);
+        assertThat(index.isInGracePeriod(STREAM, subject())).isFalse();
+
+        // No invalidation: the removal was made elsewhere
+        SubjectId removed = remove();
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> index.isInGracePeriod(STREAM, removed));
+        for (int i = 0; i < 5; i++) {
+            assertThat(index.isInGracePeriod(STREAM, removed)).isTrue();
+        }
+    }
+
+    @Test
+    void removalsCommittedAfterASyncButStampedBeforeItAreRead() {
+        GracePeriodIndex index = new GracePeriodIndex(store, Duration.ZERO, LONG, 100);
+        assertThat(index.isInGracePeriod(STREAM, subject())).isFalse();
+
+        // A transaction that stamped its removal 20 s ago commits only now, within the sync overlap
+        SubjectId late = remove(STREAM, Instant.now().minusSeconds(20), LONG);
+
+        assertThat(index.isInGracePeriod(STREAM, late)).isTrue();
+    }
+
+    @Test
+    void rebuildsKeepEveryActiveRemoval() {
+        GracePeriodIndex index = new GracePeriodIndex(store, Duration.ZERO, Duration.ZERO, 100);
+        // Old removals, far outside any incremental window
+        SubjectId old = remove(STREAM, Instant.now().minus(Duration.ofDays(3)), LONG);
+        assertThat(index.isInGracePeriod(STREAM, old)).isTrue();
+
+        for (int i = 0; i < 3; i++) {
+            SubjectId removed = remove();
+            assertThat(index.isInGracePeriod(STREAM, removed)).isTrue();
+            assertThat(index.isInGracePeriod(STREAM, old)).isTrue();
+        }
+        // More removals than the filter is sized for still have no false negatives
+        List<SubjectId> many = IntStream.range(0, 3_000).mapToObj(i -> remove()).toList();
+        assertThat(many).allMatch(subject -> index.isInGracePeriod(STREAM, subject));
+        assertThat(index.size()).isEqualTo(3_004);
+    }
+
+    @Test
+    void gracePeriodEndsAtItsExpiry() {
+        GracePeriodIndex index = new GracePeriodIndex(store, LONG, LONG, 100);
+        SubjectId expired = remove(STREAM, Instant.now().minusSeconds(60), Duration.ofMillis(-1));
+        SubjectId expiring = remove(STREAM, Instant.now(), Duration.ofMillis(1500));
+        Instant expiresAt = removals.get(1).expiresAt();
+
+        assertThat(index.isInGracePeriod(STREAM, expired)).isFalse();
+        assertThat(index.isInGracePeriod(STREAM, expiring)).isTrue();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !index.isInGracePeriod(STREAM, expiring));
+        assertThat(Instant.now()).isAfterOrEqualTo(expiresAt);
+    }
+
+    @Test
+    void probeAfterInvalidationWaitsForASyncThatStartedEarlier() throws Exception {
+        GracePeriodIndex index = new GracePeriodIndex(store, Duration.ZERO, LONG, 100);
+        assertThat(index.isInGracePeriod(STREAM, subject())).isFalse();
+
+        // A sync reads the removals, then stalls before publishing them
+        CountDownLatch listed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        duringListing = () -> {
+            duringListing = () -> { };
+            listed.countDown();
+            awaitLatch(release);
+        };
+        CompletableFuture<Boolean> stalled = CompletableFuture.supplyAsync(() -> index.isInGracePeriod(STREAM, subject()));
+        assertThat(listed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        SubjectId removed = remove();
+        index.invalidate();
+        CompletableFuture<Boolean> probe = CompletableFuture.supplyAsync(() -> index.isInGracePeriod(STREAM, removed));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(probe.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.get(5, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    void failedSyncAfterInvalidationQueriesTheStore() {
+        GracePeriodIndex index = new GracePeriodIndex(store, LONG, LONG, 100);
+        assertThat(index.isInGracePeriod(STREAM, subject())).isFalse();
+
+        SubjectId removed = remove();
+        index.invalidate();
+        duringListing = () -> {
+            duringListing = () -> { };
+            throw new IllegalStateException("database unavailable");
+        };
+
+        assertThat(index.isInGracePeriod(STREAM, removed)).isTrue();
+        assertThat(directQueries).hasValue(1);
+        // The invalidation survived the failure: the next probe syncs and answers from memory
+        assertThat(index.isInGracePeriod(STREAM, removed)).isTrue();
+        assertThat(directQueries).hasValue(1);
+        assertThat(listings).hasValue(3);
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
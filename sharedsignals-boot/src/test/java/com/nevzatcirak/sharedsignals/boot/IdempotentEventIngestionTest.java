@@ -0,0 +1,184 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.enums.SecurityIntent;
+import com.nevzatcirak.sharedsignals.api.exception.IngestionInProgressException;
+import com.nevzatcirak.sharedsignals.api.model.GenericSecurityEvent;
+import com.nevzatcirak.sharedsignals.api.service.EventIngestionService;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.core.service.impl.IdempotentEventIngestionService;
+import com.nevzatcirak.sharedsignals.persistence.adapter.JpaIdempotencyStoreAdapter;
+import com.nevzatcirak.sharedsignals.persistence.repository.IngestionKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs two idempotent ingestion services against the same key table, as two nodes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class IdempotentEventIngestionTest {
+
+    @Autowired
+    private JpaIdempotencyStoreAdapter store;
+
+    @Autowired
+    private IngestionKeyRepository repository;
+
+    private final AtomicInteger fanOuts = new AtomicInteger();
+    private final List<CompletableFuture<Integer>> pending = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAll();
+    }
+
+    /** Fans out to 3 streams immediately. */
+    private EventIngestionService delivering() {
+        return event -> {
+            fanOuts.incrementAndGet();
+            return CompletableFuture.completedFuture(3);
+        };
+    }
+
+    /** Fans out only when the test completes the returned future. */
+    private EventIngestionService slow() {
+        return event -> {
+            fanOuts.incrementAndGet();
+            CompletableFuture<Integer> result = new CompletableFuture<>();
+            pending.add(result);
+            return result;
+        };
+    }
+
+    private IdempotentEventIngestionService node(EventIngestionService delegate, Duration keyTtl, Duration claimLease) {
+        return new IdempotentEventIngestionService(delegate, store, keyTtl, claimLease);
+    }
+
+    private static GenericSecurityEvent event(String producer, String id) {
+        return new GenericSecurityEvent(producer, id, null, SecurityIntent.ACCOUNT_DISABLED,
+                Map.of("format", "email", "email", "user@example.com"), Map.of(), null);
+    }
+
+    @Test
+    void duplicateIsAnsweredWithRecordedOutcome() {
+        IdempotentEventIngestionService nodeA = node(delivering(), Duration.ofHours(1), Duration.ofMinutes(1));
+        IdempotentEventIngestionService nodeB = node(delivering(), Duration.ofHours(1), Duration.ofMinutes(1));
+
+        assertThat(nodeA.ingest(event("producer-1", "evt-1")).join()).isEqualTo(3);
+        assertThat(nodeB.ingest(event("producer-1", "evt-1")).join()).isEqualTo(3);
+
+        assertThat(fanOuts).hasValue(1);
+        assertThat(nodeB.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void identifiersAreScopedToTheProducer() {
+        IdempotentEventIngestionService service = node(delivering(), Duration.ofHours(1), Duration.ofMinutes(1));
+
+        service.ingest(event("producer-1", "evt-1")).join();
+        service.ingest(event("producer-2", "evt-1")).join();
+
+        assertThat(fanOuts).hasValue(2);
+    }
+
+    @Test
+    void eventsWithoutProducerAreNotDeduplicated() {
+        IdempotentEventIngestionService service = node(delivering(), Duration.ofHours(1), Duration.ofMinutes(1));
+
+        service.ingest(event(null, "evt-1")).join();
+        service.ingest(event(null, "evt-1")).join();
+
+        assertThat(fanOuts).hasValue(2);
+    }
+
+    @Test
+    void duplicateOfEventInProgressOnAnotherNodeIsRejected() {
+        IdempotentEventIngestionService nodeA = node(slow(), Duration.ofHours(1), Duration.ofMinutes(1));
+        IdempotentEventIngestionService nodeB = node(delivering(), Duration.ofHours(1), Duration.ofMinutes(1));
+
+        CompletableFuture<Integer> first = nodeA.ingest(event("producer-1", "evt-1"));
+        CompletableFuture<Integer> sameNode = nodeA.ingest(event("producer-1", "evt-1"));
+        CompletableFuture<Integer> otherNode = nodeB.ingest(event("producer-1", "evt-1"));
+
+        assertThatThrownBy(otherNode::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IngestionInProgressException.class);
+
+        pending.get(0).complete(5);
+        assertThat(first.join()).isEqualTo(5);
+        assertThat(sameNode.join()).isEqualTo(5);
+        assertThat(nodeB.ingest(event("producer-1", "evt-1")).join()).isEqualTo(5);
+        assertThat(fanOuts).hasValue(1);
+    }
+
+    @Test
+    void failedIngestReleasesTheKey() {
+        IdempotentEventIngestionService service = node(slow(), Duration.ofHours(1), Duration.ofMinutes(1));
+
+        CompletableFuture<Integer> first = service.ingest(event("producer-1", "evt-1"));
+        pending.get(0).completeExceptionally(new IllegalStateException("signing failed"));
+        assertThatThrownBy(first::join).isInstanceOf(CompletionException.class);
+
+        service.ingest(event("producer-1", "evt-1"));
+        assertThat(fanOuts).hasValue(2);
+    }
+
+    @Test
+    void synchronousRejectionReleasesTheKey() {
+        AtomicInteger attempts = new AtomicInteger();
+        IdempotentEventIngestionService service = node(event -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalArgumentException("invalid subject");
+            }
+            return CompletableFuture.completedFuture(3);
+        }, Duration.ofHours(1), Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> service.ingest(event("producer-1", "evt-1")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Neither held in flight on this node nor claimed in the store
+        assertThat(service.ingest(event("producer-1", "evt-1")).join()).isEqualTo(3);
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void expiredClaimLeaseIsTakenOver() throws InterruptedException {
+        IdempotentEventIngestionService crashed = node(slow(), Duration.ofHours(1), Duration.ofMillis(50));
+        IdempotentEventIngestionService nodeB = node(delivering(), Duration.ofHours(1), Duration.ofMinutes(1));
+
+        crashed.ingest(event("producer-1", "evt-1"));
+        Thread.sleep(100);
+
+        assertThat(nodeB.ingest(event("producer-1", "evt-1")).join()).isEqualTo(3);
+        assertThat(fanOuts).hasValue(2);
+    }
+
+    @Test
+    void expiredKeyIsIngestedAgain() throws InterruptedException {
+        IdempotentEventIngestionService service = node(delivering(), Duration.ofMillis(50), Duration.ofMinutes(1));
+
+        service.ingest(event("producer-1", "evt-1")).join();
+        Thread.sleep(100);
+        assertThat(store.deleteExpired(Instant.now())).isEqualTo(1);
+
+        service.ingest(event("producer-1", "evt-1")).join();
+        assertThat(fanOuts).hasValue(2);
+    }
+}
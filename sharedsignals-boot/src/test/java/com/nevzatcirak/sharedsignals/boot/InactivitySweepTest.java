@@ -0,0 +1,152 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.model.InactiveStream;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.service.InactivityTimeoutService;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.PersistenceStores;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The inactivity sweep: the indexed query for streams past their deadline, its keyset paging, and
+ * pausing expired streams with a Stream Updated event.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class InactivitySweepTest {
+
+    private StreamStore streamStore;
+
+    @Autowired
+    void persistentStore(ConfigurableListableBeanFactory beanFactory) {
+        streamStore = PersistenceStores.streamStore(beanFactory);
+    }
+
+    @Autowired
+    private InactivityTimeoutService inactivityTimeoutService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String stream(String idPrefix, int inactivityTimeout) {
+        String streamId = idPrefix + UUID.randomUUID();
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setStream_id(streamId);
+        stream.setIss("https://transmitter.example.com");
+        stream.setAud(List.of("https://receiver.example.com"));
+        stream.setStatus(SharedSignalConstants.STATUS_ENABLED);
+        stream.setInactivity_timeout(inactivityTimeout);
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(SharedSignalConstants.DELIVERY_METHOD_POLL);
+        stream.setDelivery(delivery);
+        streamStore.save(stream);
+        return streamId;
+    }
+
+    /** Moves the stream's last activity into the past, as flushed by some node. */
+    private void lastActive(String streamId, Instant at) {
+        jdbcTemplate.update("UPDATE ssf_streams SET last_activity_at = ?, " +
+                        "inactive_after = CASE WHEN inactivity_timeout > 0 THEN ? END WHERE stream_id = ?",
+                Timestamp.from(at), Timestamp.from(at.plusSeconds(600)), streamId);
+    }
+
+    private String status(String streamId) {
+        return streamStore.findById(streamId).orElseThrow().getStatus();
+    }
+
+    private List<String> bufferedEventTypes(String streamId) throws Exception {
+        List<String> types = new ArrayList<>();
+        for (String token : streamStore.fetchEvents(streamId, 10).values()) {
+            Map<String, Object> events = SignedJWT.parse(token).getJWTClaimsSet().getJSONObjectClaim("events");
+            types.addAll(events.keySet());
+        }
+        return types;
+    }
+
+    @Test
+    void expiredStreamsArePausedWithAStreamUpdatedEvent() throws Exception {
+        Instant longAgo = Instant.now().minus(Duration.ofDays(1));
+        String expired = stream("expired-", 600);
+        String alsoExpired = stream("expired-", 600);
+        String recent = stream("recent-", 600);
+        String paused = stream("paused-", 600);
+        String noTimeout = stream("no-timeout-", 0);
+        lastActive(expired, longAgo);
+        lastActive(alsoExpired, longAgo);
+        lastActive(recent, Instant.now());
+        lastActive(paused, longAgo);
+        lastActive(noTimeout, longAgo);
+        jdbcTemplate.update("UPDATE ssf_streams SET status = ? WHERE stream_id = ?", SharedSignalConstants.STATUS_PAUSED, paused);
+
+        inactivityTimeoutService.checkAndHandleInactiveStreams();
+
+        assertThat(status(expired)).isEqualTo(SharedSignalConstants.STATUS_PAUSED);
+        assertThat(streamStore.findById(expired).orElseThrow().getReason()).startsWith("Inactivity timeout exceeded");
+        assertThat(status(alsoExpired)).isEqualTo(SharedSignalConstants.STATUS_PAUSED);
+        assertThat(status(recent)).isEqualTo(SharedSignalConstants.STATUS_ENABLED);
+        assertThat(status(noTimeout)).isEqualTo(SharedSignalConstants.STATUS_ENABLED);
+
+        assertThat(bufferedEventTypes(expired)).containsExactly(SharedSignalConstants.SSF_STREAM_UPDATED);
+        assertThat(bufferedEventTypes(alsoExpired)).containsExactly(SharedSignalConstants.SSF_STREAM_UPDATED);
+        assertThat(bufferedEventTypes(paused)).isEmpty();
+        assertThat(bufferedEventTypes(recent)).isEmpty();
+    }
+
+    @Test
+    void pausedStreamsAreNotSweptAgain() throws Exception {
+        String expired = stream("expired-", 600);
+        lastActive(expired, Instant.now().minus(Duration.ofDays(1)));
+
+        inactivityTimeoutService.checkAndHandleInactiveStreams();
+        inactivityTimeoutService.checkAndHandleInactiveStreams();
+
+        assertThat(bufferedEventTypes(expired)).hasSize(1);
+    }
+
+    @Test
+    void inactiveStreamsArePagedWithoutGapsOrRepeats() {
+        // A deadline no other test uses, shared by all streams so that the stream id breaks the ties
+        Instant deadline = Instant.parse("2001-01-01T00:00:00Z");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String streamId = stream("page-", 600);
+            lastActive(streamId, deadline.minusSeconds(600));
+            expected.add(streamId);
+        }
+
+        List<String> seen = new ArrayList<>();
+        InactiveStream after = null;
+        while (true) {
+            List<InactiveStream> page = streamStore.findInactiveStreams(deadline, after, 2).orElseThrow();
+            page.forEach(stream -> seen.add(stream.getStreamId()));
+            if (page.size() < 2) {
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+
+        assertThat(seen).containsExactlyElementsOf(expected.stream().sorted().toList());
+        assertThat(streamStore.findInactiveStreams(deadline.minusSeconds(1), null, 10).orElseThrow()).isEmpty();
+    }
+}
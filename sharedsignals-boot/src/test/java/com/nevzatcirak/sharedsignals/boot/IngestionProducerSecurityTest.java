@@ -0,0 +1,88 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.service.EventIngestionService;
+import com.nevzatcirak.sharedsignals.core.service.impl.IdempotentEventIngestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Producer retries deduplicated behind the production security configuration: without the test
+ * profile and its bypass filter, the producer of an ingested event is the authenticated client.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ingestion-security-${random.uuid};DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "sharedsignals.features.push-delivery=false"
+})
+@AutoConfigureMockMvc
+class IngestionProducerSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EventIngestionService ingestionService;
+
+    private static RequestPostProcessor client(String clientId) {
+        return jwt().jwt(token -> token.subject(clientId));
+    }
+
+    private static String event(String id) {
+        return """
+                {"id": "%s",
+                 "subject": {"format": "email", "email": "user@example.com"},
+                 "data": {"intent": "ACCOUNT_DISABLED", "reason": "hijacking"}}
+                """.formatted(id);
+    }
+
+    private void ingest(RequestPostProcessor client, String id) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/ingest")
+                        .with(client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(event(id)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isAccepted());
+    }
+
+    @Test
+    void retriesOfTheAuthenticatedProducerAreDeduplicated() throws Exception {
+        IdempotentEventIngestionService idempotent = (IdempotentEventIngestionService) ingestionService;
+        long hits = idempotent.getHitCount();
+        long misses = idempotent.getMissCount();
+        String id = "evt-" + UUID.randomUUID();
+
+        ingest(client("producer-1"), id);
+        ingest(client("producer-1"), id);
+        // The same id from another producer is another event
+        ingest(client("producer-2"), id);
+
+        assertThat(idempotent.getMissCount() - misses).isEqualTo(2);
+        assertThat(idempotent.getHitCount() - hits).isEqualTo(1);
+    }
+
+    @Test
+    void unauthenticatedIngestionIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(event("evt-" + UUID.randomUUID())))
+                .andExpect(status().isUnauthorized());
+    }
+}
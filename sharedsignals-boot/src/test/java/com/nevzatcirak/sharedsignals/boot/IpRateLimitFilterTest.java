@@ -0,0 +1,146 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.web.config.RateLimitFilterConfig;
+import com.nevzatcirak.sharedsignals.web.filter.IpRateLimitFilter;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.ForwardedHeaderFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The per-address limit in front of authentication: one bucket per client address, bounded by
+ * dropping full buckets only, and keyed on the client behind a proxy once forwarded headers are
+ * applied.
+ */
+class IpRateLimitFilterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ISSUER = "https://transmitter.example.com/";
+    /** Answers every request that gets through with 200. */
+    private static final HttpServlet OK = new HttpServlet() {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+        }
+    };
+
+    /** Two requests per address, refilled slowly enough not to matter within a test. */
+    private static IpRateLimitFilter filter(int maxTrackedAddresses) {
+        return new IpRateLimitFilter(2, 1, maxTrackedAddresses, MAPPER, ISSUER);
+    }
+
+    private static MockHttpServletRequest request(String uri, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private static MockHttpServletResponse send(MockHttpServletRequest request, Filter... filters) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(OK, filters).doFilter(request, response);
+        return response;
+    }
+
+    private static MockHttpServletResponse send(String remoteAddress, Filter... filters) throws Exception {
+        return send(request("/ssf/status", remoteAddress), filters);
+    }
+
+    private static boolean admitted(IpRateLimitFilter filter, String remoteAddress) throws Exception {
+        return send(remoteAddress, filter).getStatus() != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    @Test
+    void eachAddressHasItsOwnBucket() throws Exception {
+        IpRateLimitFilter filter = filter(100);
+        assertThat(admitted(filter, "192.0.2.1")).isTrue();
+        assertThat(admitted(filter, "192.0.2.1")).isTrue();
+
+        MockHttpServletResponse rejected = send("192.0.2.1", filter);
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getContentType()).isEqualTo("application/problem+json");
+        assertThat(rejected.getHeader("Retry-After")).isNotNull();
+        assertThat(MAPPER.readTree(rejected.getContentAsByteArray()).get("type").asText())
+                .startsWith("https://transmitter.example.com/errors/");
+
+        assertThat(admitted(filter, "192.0.2.2")).isTrue();
+    }
+
+    @Test
+    void fullBucketsMakeRoomForNewAddresses() throws Exception {
+        // Refills in a tenth of a second
+        IpRateLimitFilter filter = new IpRateLimitFilter(2, 20, 2, MAPPER, ISSUER);
+
+        // Far more addresses than are tracked: each gets a bucket of its own once earlier ones refill
+        for (int i = 0; i < 20; i++) {
+            String address = "198.51.100." + i;
+            assertThat(admitted(filter, address)).as(address).isTrue();
+            assertThat(admitted(filter, address)).as(address).isTrue();
+            assertThat(admitted(filter, address)).as(address).isFalse();
+            Thread.sleep(150);
+        }
+    }
+
+    @Test
+    void rotatingAddressesDoesNotResetALimitedAddress() throws Exception {
+        IpRateLimitFilter filter = filter(2);
+        admitted(filter, "203.0.113.1");
+        admitted(filter, "203.0.113.1");
+        assertThat(admitted(filter, "203.0.113.1")).isFalse();
+
+        // One newcomer fits next to it
+        assertThat(admitted(filter, "203.0.113.2")).isTrue();
+
+        // The table is full of buckets still limiting their address: newcomers are turned away
+        for (int i = 3; i < 50; i++) {
+            MockHttpServletResponse rejected = send("203.0.113." + i, filter);
+            assertThat(rejected.getStatus()).isEqualTo(429);
+            assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+            assertThat(admitted(filter, "203.0.113.1")).isFalse();
+        }
+        assertThat(admitted(filter, "203.0.113.2")).isTrue();
+    }
+
+    @Test
+    void clientsBehindAProxyAreKeyedOnTheForwardedAddress() throws Exception {
+        IpRateLimitFilter filter = filter(100);
+        // What server.forward-headers-strategy=framework puts in front of the application's filters
+        ForwardedHeaderFilter forwarded = new ForwardedHeaderFilter();
+
+        for (String client : new String[]{"192.0.2.10", "192.0.2.11", "192.0.2.12"}) {
+            for (int i = 0; i < 2; i++) {
+                MockHttpServletRequest request = request("/ssf/status", "10.0.0.1");
+                request.addHeader("X-Forwarded-For", client);
+                assertThat(send(request, forwarded, filter).getStatus()).as(client).isEqualTo(200);
+            }
+        }
+        // Without the forwarded headers applied, the proxy's address is all the filter sees
+        assertThat(admitted(filter, "10.0.0.1")).isTrue();
+        assertThat(admitted(filter, "10.0.0.1")).isTrue();
+        assertThat(admitted(filter, "10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void discoveryIsNotLimited() throws Exception {
+        IpRateLimitFilter filter = filter(100);
+        for (int i = 0; i < 5; i++) {
+            assertThat(send(request("/.well-known/ssf-configuration", "192.0.2.1"), filter).getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void filterIsOffWithoutACapacity() {
+        RateLimitFilterConfig config = new RateLimitFilterConfig();
+
+        assertThat(config.ipRateLimitFilter(MAPPER, ISSUER, true, 0, 50, 100).isEnabled()).isFalse();
+        assertThat(config.ipRateLimitFilter(MAPPER, ISSUER, true, 200, 50, 100).isEnabled()).isTrue();
+        assertThat(config.ipRateLimitFilter(MAPPER, ISSUER, false, 200, 50, 100).isEnabled()).isFalse();
+    }
+}
@@ -0,0 +1,138 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.model.RateLimitPolicy;
+import com.nevzatcirak.sharedsignals.api.model.RateLimitResult;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.adapter.JpaRateLimiterAdapter;
+import com.nevzatcirak.sharedsignals.persistence.repository.RateLimitBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two rate limiter instances against the same H2 database, as two nodes sharing one bucket table.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class JpaRateLimiterAdapterTest {
+
+    @Autowired
+    private RateLimitBucketRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAll();
+    }
+
+    private JpaRateLimiterAdapter node(long capacity, long refillTokens, long refillSeconds) {
+        return new JpaRateLimiterAdapter(repository, transactionManager, capacity, refillTokens, refillSeconds, 10, 60_000);
+    }
+
+    @Test
+    void capacityHoldsAcrossNodes() {
+        JpaRateLimiterAdapter nodeA = node(50, 1, 3600);
+        JpaRateLimiterAdapter nodeB = node(50, 1, 3600);
+
+        int allowed = 0;
+        for (int i = 0; i < 200; i++) {
+            JpaRateLimiterAdapter node = i % 2 == 0 ? nodeA : nodeB;
+            if (node.tryConsume("client-1").isAllowed()) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isEqualTo(50);
+        assertThat(nodeA.tryConsume("client-2").isAllowed()).isTrue();
+    }
+
+    @Test
+    void concurrentNodesNeverExceedCapacity() throws Exception {
+        List<JpaRateLimiterAdapter> nodes = List.of(node(100, 1, 3600), node(100, 1, 3600), node(100, 1, 3600));
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < 6; t++) {
+                JpaRateLimiterAdapter node = nodes.get(t % nodes.size());
+                tasks.add(() -> {
+                    int allowed = 0;
+                    for (int i = 0; i < 100; i++) {
+                        if (node.tryConsume("client-1").isAllowed()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            int allowed = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                allowed += result.get();
+            }
+            assertThat(allowed).isLessThanOrEqualTo(100).isGreaterThan(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void leasedTokensAreServedFromMemory() {
+        JpaRateLimiterAdapter node = node(1000, 1, 3600);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(node.tryConsume("client-1").isAllowed()).isTrue();
+        }
+
+        // One compare-and-set per batch of 10 tokens
+        assertThat(repository.findById("default|client-1").orElseThrow().getVersion()).isEqualTo(10);
+        assertThat(repository.findById("default|client-1").orElseThrow().getTokens()).isEqualTo(900);
+    }
+
+    @Test
+    void rejectedUntilRefilled() throws Exception {
+        JpaRateLimiterAdapter node = new JpaRateLimiterAdapter(repository, transactionManager, 5, 5, 1, 10, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(node.tryConsume("client-1").isAllowed()).isTrue();
+        }
+        RateLimitResult rejected = node.tryConsume("client-1");
+        assertThat(rejected.isAllowed()).isFalse();
+        assertThat(rejected.getWaitTimeSeconds()).isEqualTo(1);
+
+        Thread.sleep(1100);
+        assertThat(node.tryConsume("client-1").isAllowed()).isTrue();
+    }
+
+    @Test
+    void weightedAndForcedChargesShareTheTierBucket() {
+        JpaRateLimiterAdapter nodeA = node(100, 1, 3600);
+        JpaRateLimiterAdapter nodeB = node(100, 1, 3600);
+        RateLimitPolicy poll = new RateLimitPolicy("poll", 20, 1, Duration.ofHours(1));
+
+        assertThat(nodeA.tryConsume("client-1", 5, poll).isAllowed()).isTrue();
+        assertThat(nodeB.tryConsume("client-1", 5, poll).isAllowed()).isTrue();
+        // The default tier is a separate bucket
+        assertThat(nodeA.tryConsume("client-1").isAllowed()).isTrue();
+
+        // Work charged after the fact may leave the bucket in debt
+        nodeA.forceConsume("client-1", 25, poll);
+        assertThat(nodeA.tryConsume("client-1", 1, poll).isAllowed()).isFalse();
+        assertThat(repository.findById("poll|client-1").orElseThrow().getTokens()).isNegative();
+    }
+}
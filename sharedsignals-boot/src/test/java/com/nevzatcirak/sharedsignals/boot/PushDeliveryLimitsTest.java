@@ -0,0 +1,46 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.web.scheduler.PushDeliveryScheduler;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The number of messages a node claims at a time never lets a claimed message wait out the
+ * in-flight timeout, after which it would be delivered a second time.
+ */
+class PushDeliveryLimitsTest {
+
+    @Test
+    void derivedLimitKeepsEveryClaimWithinTheTimeout() {
+        // Defaults: 8 workers, 300s in-flight timeout, 10s connect + 30s read
+        int limit = PushDeliveryScheduler.maxInFlight(8, 0, 300, 40);
+
+        assertThat(limit).isEqualTo(56);
+        long requestsPerWorker = (limit + 7) / 8;
+        assertThat(requestsPerWorker * 40).isLessThanOrEqualTo(300);
+    }
+
+    @Test
+    void configuredLimitWithinTheTimeoutIsKept() {
+        assertThat(PushDeliveryScheduler.maxInFlight(8, 32, 300, 40)).isEqualTo(32);
+        assertThat(PushDeliveryScheduler.maxInFlight(8, 56, 300, 40)).isEqualTo(56);
+    }
+
+    @Test
+    void configuredLimitBeyondTheTimeoutIsRejected() {
+        // 64 / 8 = 8 requests of up to 40s each: 320s > 300s
+        assertThatThrownBy(() -> PushDeliveryScheduler.maxInFlight(8, 64, 300, 40))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("max-in-flight (64)")
+                .hasMessageContaining("at most 56");
+    }
+
+    @Test
+    void timeoutShorterThanOneRequestIsRejected() {
+        assertThatThrownBy(() -> PushDeliveryScheduler.maxInFlight(8, 0, 30, 40))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("in-flight-timeout-seconds (30)");
+    }
+}
@@ -0,0 +1,132 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
+import com.nevzatcirak.sharedsignals.api.service.PushQueueService;
+import com.nevzatcirak.sharedsignals.api.spi.PushQueueStore;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.repository.PushMessageRepository;
+import com.nevzatcirak.sharedsignals.web.scheduler.PushDeliveryScheduler;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Continuous per-partition push delivery: order within a partition, and independence of partitions.
+ * The scheduled worker is disabled; each test drives its own scheduler with a single run.
+ */
+@SpringBootTest(properties = "sharedsignals.features.push-delivery=false")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class PushDeliveryOrderingTest {
+
+    private static WireMockServer wireMockServer;
+
+    @Autowired
+    private PushQueueStore pushQueueStore;
+
+    @Autowired
+    private PushQueueService queueService;
+
+    @Autowired
+    private PushMessageRepository pushMessageRepository;
+
+    private PushDeliveryScheduler scheduler;
+
+    @BeforeAll
+    static void startWireMock() {
+        wireMockServer = new WireMockServer(0);
+        wireMockServer.start();
+        WireMock.configureFor(wireMockServer.port());
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        wireMockServer.stop();
+    }
+
+    @BeforeEach
+    void setup() {
+        pushMessageRepository.deleteAll();
+        wireMockServer.resetAll();
+        stubFor(WireMock.post(urlEqualTo("/fast")).willReturn(aResponse().withStatus(202)));
+        stubFor(WireMock.post(urlEqualTo("/slow")).willReturn(aResponse().withStatus(202).withFixedDelay(3000)));
+        scheduler = new PushDeliveryScheduler(queueService, new RestTemplateBuilder(), 4, 0, 300, 10, 30);
+    }
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private void push(String partition, String path, String token) {
+        pushQueueStore.enqueue("ordering-stream", wireMockServer.baseUrl() + path, token, null, new DeliveryOptions(EventPriority.NORMAL, partition, null));
+    }
+
+    /** Bodies received on a path, in arrival order (the journal lists the newest first). */
+    private List<String> received(String path) {
+        return wireMockServer.getAllServeEvents().stream()
+                .filter(e -> e.getRequest().getUrl().equals(path))
+                .map(e -> e.getRequest().getBodyAsString())
+                .toList()
+                .reversed();
+    }
+
+    @Test
+    void partitionIsDeliveredInOrderWithinOneRun() {
+        for (int i = 0; i < 5; i++) {
+            push("partition-a", "/fast", "a-" + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            push("partition-b", "/fast", "b-" + i);
+        }
+
+        scheduler.processOutbox();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                verify(10, postRequestedFor(urlEqualTo("/fast"))));
+        List<String> bodies = received("/fast");
+        assertThat(bodies.stream().filter(b -> b.startsWith("a-"))).containsExactly("a-0", "a-1", "a-2", "a-3", "a-4");
+        assertThat(bodies.stream().filter(b -> b.startsWith("b-"))).containsExactly("b-0", "b-1", "b-2", "b-3", "b-4");
+    }
+
+    @Test
+    void slowPartitionDoesNotHoldBackOtherPartitions() {
+        push("partition-slow", "/slow", "slow-0");
+        push("partition-slow", "/slow", "slow-1");
+        for (int i = 0; i < 3; i++) {
+            push("partition-fast", "/fast", "fast-" + i);
+        }
+
+        scheduler.processOutbox();
+
+        // The fast partition drains while the slow receiver is still answering its first request
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(() ->
+                assertThat(received("/fast")).containsExactly("fast-0", "fast-1", "fast-2"));
+        assertThat(received("/slow")).doesNotContain("slow-1");
+
+        // The slow partition still sends one request at a time, in order
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(received("/slow")).containsExactly("slow-0", "slow-1"));
+    }
+}
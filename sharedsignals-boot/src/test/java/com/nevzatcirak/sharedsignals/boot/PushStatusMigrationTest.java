@@ -0,0 +1,97 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.migration.PushStatusMigration;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Outboxes created before {@code SUPERSEDED} existed: the status column's CHECK constraint
+ * (PostgreSQL) or ENUM type (H2) is widened at startup, since schema update leaves it as created.
+ * Runs in its own context, whose outbox schema it rewrites.
+ */
+@SpringBootTest(properties = "sharedsignals.features.maintenance.widen-push-statuses=false")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class PushStatusMigrationTest {
+
+    private static final String OLD_STATUSES = "'PENDING', 'IN_PROGRESS', 'COMPLETED', 'FAILED', 'PERMANENTLY_FAILED'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private PushStatusMigration migration;
+
+    @BeforeEach
+    void setup() {
+        migration = new PushStatusMigration(jdbcTemplate, transactionManager, entityManagerFactory, true);
+    }
+
+    @AfterEach
+    void restoreSchema() {
+        jdbcTemplate.update("DELETE FROM ssf_push_queue");
+        jdbcTemplate.execute("ALTER TABLE ssf_push_queue DROP CONSTRAINT IF EXISTS ssf_push_queue_status_check");
+        jdbcTemplate.execute("ALTER TABLE ssf_push_queue ALTER COLUMN status " +
+                "ENUM(" + OLD_STATUSES + ", 'SUPERSEDED') NOT NULL");
+    }
+
+    private void insert(String status) {
+        jdbcTemplate.update("INSERT INTO ssf_push_queue (stream_id, endpoint_url, signed_token, status, retry_count, priority, created_at) " +
+                "VALUES ('stream', 'https://receiver.example.com/events', 'token', ?, 0, 1, ?)", status, Timestamp.from(Instant.now()));
+    }
+
+    @Test
+    void oldCheckConstraintIsReplaced() {
+        // The PostgreSQL schema of the previous version
+        jdbcTemplate.execute("ALTER TABLE ssf_push_queue ALTER COLUMN status VARCHAR(255) NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE ssf_push_queue ADD CONSTRAINT ssf_push_queue_status_check " +
+                "CHECK (status IN (" + OLD_STATUSES + "))");
+        assertThatThrownBy(() -> insert("SUPERSEDED")).isInstanceOf(DataIntegrityViolationException.class);
+
+        migration.migrate();
+
+        assertThatCode(() -> insert("SUPERSEDED")).doesNotThrowAnyException();
+        // Still a constraint, not none
+        assertThatThrownBy(() -> insert("UNKNOWN")).isInstanceOf(DataIntegrityViolationException.class);
+        // Already widened: nothing left to replace
+        migration.migrate();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ssf_push_queue WHERE status = 'SUPERSEDED'", Integer.class)).isOne();
+    }
+
+    @Test
+    void oldEnumIsWidened() {
+        // The H2 schema of the previous version
+        jdbcTemplate.execute("ALTER TABLE ssf_push_queue ALTER COLUMN status ENUM(" + OLD_STATUSES + ") NOT NULL");
+        insert("PENDING");
+        assertThatThrownBy(() -> insert("SUPERSEDED")).isInstanceOf(DataIntegrityViolationException.class);
+
+        migration.migrate();
+
+        assertThatCode(() -> insert("SUPERSEDED")).doesNotThrowAnyException();
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM ssf_push_queue ORDER BY id", String.class))
+                .containsExactly("PENDING", "SUPERSEDED");
+        migration.migrate();
+    }
+}
@@ -0,0 +1,141 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.adapter.caffeine.service.CaffeineRateLimiterAdapter;
+import com.nevzatcirak.sharedsignals.api.constant.SecurityConstants;
+import com.nevzatcirak.sharedsignals.api.exception.RateLimitExceededException;
+import com.nevzatcirak.sharedsignals.web.interceptor.NodeRateLimiter;
+import com.nevzatcirak.sharedsignals.web.interceptor.RateLimitCostModel;
+import com.nevzatcirak.sharedsignals.web.interceptor.RateLimitCostModel.RouteClass;
+import com.nevzatcirak.sharedsignals.web.interceptor.RateLimitInterceptor;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Route-class weights and buckets of the rate limit cost model, as charged by the interceptor.
+ */
+class RateLimitCostModelTest {
+
+    private static final String INGEST = "/api/v1/ingest";
+    private static final String POLL = "/ssf/events/poll/stream-1";
+    private static final String MANAGEMENT = "/ssf/streams";
+
+    /** Overall capacity 20; ingest weighs 5 with one token per 2 streams, polls weigh 1 within 3, management is free. */
+    private static RateLimitCostModel costModel() {
+        return new RateLimitCostModel(20, 20, 3600,
+                100, 100, 5, 2,
+                3, 3, 1,
+                100, 100, 0);
+    }
+
+    private static RateLimitInterceptor interceptor(long nodeCapacity) {
+        return new RateLimitInterceptor(new CaffeineRateLimiterAdapter(100, 100, 3600), costModel(),
+                new NodeRateLimiter(nodeCapacity, 1), true);
+    }
+
+    private static MockHttpServletRequest request(String client, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setAttribute(SecurityConstants.ATTRIBUTE_CLIENT_ID, client);
+        return request;
+    }
+
+    private static boolean admitted(RateLimitInterceptor interceptor, MockHttpServletRequest request) {
+        try {
+            return interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        } catch (RateLimitExceededException e) {
+            return false;
+        }
+    }
+
+    @Test
+    void requestsAreClassifiedByRouteBelowTheContextPath() {
+        RateLimitCostModel costModel = costModel();
+        MockHttpServletRequest underContext = new MockHttpServletRequest("POST", "/transmitter" + INGEST);
+        underContext.setContextPath("/transmitter");
+
+        assertThat(costModel.classify(new MockHttpServletRequest("POST", INGEST))).isEqualTo(RouteClass.INGEST);
+        assertThat(costModel.classify(underContext)).isEqualTo(RouteClass.INGEST);
+        assertThat(costModel.classify(new MockHttpServletRequest("POST", POLL))).isEqualTo(RouteClass.POLL);
+        assertThat(costModel.classify(new MockHttpServletRequest("GET", MANAGEMENT))).isEqualTo(RouteClass.MANAGEMENT);
+        // Only the route prefix counts, not a lookalike deeper in the path
+        assertThat(costModel.classify(new MockHttpServletRequest("GET", "/ssf" + INGEST))).isEqualTo(RouteClass.MANAGEMENT);
+    }
+
+    @Test
+    void fanOutIsChargedPerStartedTokenAndOnlyWhenConfigured() {
+        RateLimitCostModel costModel = costModel();
+        RateLimitCostModel uncharged = new RateLimitCostModel(20, 20, 3600, 100, 100, 5, 0, 3, 3, 1, 100, 100, 0);
+
+        assertThat(costModel.fanOutCost(0)).isZero();
+        assertThat(costModel.fanOutCost(1)).isEqualTo(1);
+        assertThat(costModel.fanOutCost(4)).isEqualTo(2);
+        assertThat(costModel.fanOutCost(5)).isEqualTo(3);
+        assertThat(uncharged.fanOutCost(1_000)).isZero();
+    }
+
+    @Test
+    void weightsDrawOnTheSharedOverallBucket() {
+        RateLimitInterceptor interceptor = interceptor(0);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(admitted(interceptor, request("client-a", INGEST))).isTrue();
+        }
+        // Four ingests at weight 5 drained the overall bucket of 20, which polls share
+        assertThat(admitted(interceptor, request("client-a", INGEST))).isFalse();
+        assertThat(admitted(interceptor, request("client-a", POLL))).isFalse();
+        // Other clients have buckets of their own
+        assertThat(admitted(interceptor, request("client-b", INGEST))).isTrue();
+    }
+
+    @Test
+    void routeClassBucketsLimitEachClassSeparately() {
+        RateLimitInterceptor interceptor = interceptor(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(admitted(interceptor, request("client-a", POLL))).isTrue();
+        }
+        assertThat(admitted(interceptor, request("client-a", POLL))).isFalse();
+        assertThat(admitted(interceptor, request("client-a", INGEST))).isTrue();
+    }
+
+    @Test
+    void weightlessRoutesBypassEveryBucket() {
+        // The ingest drains the node bucket
+        RateLimitInterceptor interceptor = interceptor(5);
+        assertThat(admitted(interceptor, request("client-a", INGEST))).isTrue();
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(admitted(interceptor, request("client-a", MANAGEMENT))).isTrue();
+        }
+    }
+
+    @Test
+    void fanOutChargedOnAsyncDispatchLeavesTheClientInDebt() {
+        RateLimitInterceptor interceptor = interceptor(0);
+        assertThat(admitted(interceptor, request("client-a", INGEST))).isTrue();
+
+        MockHttpServletRequest completion = request("client-a", INGEST);
+        completion.setDispatcherType(DispatcherType.ASYNC);
+        completion.setAttribute(SecurityConstants.ATTRIBUTE_FAN_OUT, 40);
+        assertThat(admitted(interceptor, completion)).isTrue();
+
+        // 5 + 20 tokens for the fan-out to 40 streams exceed the overall bucket of 20
+        assertThat(admitted(interceptor, request("client-a", POLL))).isFalse();
+    }
+
+    @Test
+    void nodeBucketIsSharedByAllClients() {
+        RateLimitInterceptor interceptor = interceptor(10);
+        assertThat(admitted(interceptor, request("client-a", INGEST))).isTrue();
+        assertThat(admitted(interceptor, request("client-b", INGEST))).isTrue();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThatThrownBy(() -> interceptor.preHandle(request("client-c", INGEST), response, null))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThat(response.getHeader("X-Rate-Limit-Retry-After-Seconds")).isNotNull();
+    }
+}
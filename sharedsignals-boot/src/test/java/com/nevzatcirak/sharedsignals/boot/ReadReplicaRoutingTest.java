@@ -0,0 +1,120 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.enums.ReadPreference;
+import com.nevzatcirak.sharedsignals.boot.config.ReplicaRoutingDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes reads between two H2 databases, one standing in for the primary and one for a read replica
+ * that is kept up to date by copying the heartbeat row by hand.
+ */
+class ReadReplicaRoutingTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setup() {
+        primary = new JdbcTemplate(database("primary"));
+        replica = new JdbcTemplate(database("replica"));
+        for (JdbcTemplate db : List.of(primary, replica)) {
+            db.execute("CREATE TABLE ssf_replica_heartbeat (node_id VARCHAR(64) PRIMARY KEY, beat_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+            db.execute("CREATE TABLE origin (name VARCHAR(16))");
+        }
+        primary.update("INSERT INTO origin VALUES ('primary')");
+        replica.update("INSERT INTO origin VALUES ('replica')");
+        routing = new ReplicaRoutingDataSource(primary.getDataSource(), List.of(replica.getDataSource()),
+                Duration.ofSeconds(5), Duration.ZERO, false);
+    }
+
+    @AfterEach
+    void teardown() {
+        routing.close();
+        primary.execute("SHUTDOWN");
+        replica.execute("SHUTDOWN");
+    }
+
+    private static JdbcDataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private String origin() {
+        return new JdbcTemplate(routing).queryForObject("SELECT name FROM origin", String.class);
+    }
+
+    private String replicaOrigin() {
+        try (ReadPreference.Scope ignored = ReadPreference.REPLICA.enter()) {
+            return origin();
+        }
+    }
+
+    private void replicate() {
+        replica.update("DELETE FROM ssf_replica_heartbeat");
+        primary.query("SELECT node_id, beat_at FROM ssf_replica_heartbeat", rs -> {
+            replica.update("INSERT INTO ssf_replica_heartbeat VALUES (?, ?)", rs.getString(1), rs.getTimestamp(2));
+        });
+    }
+
+    @Test
+    void replicaReadsUsePrimaryUntilReplicaIsFresh() {
+        assertThat(replicaOrigin()).isEqualTo("primary");
+
+        routing.checkReplicas();
+        assertThat(routing.getFreshReplicaCount()).isZero();
+        assertThat(replicaOrigin()).isEqualTo("primary");
+    }
+
+    @Test
+    void onlyScopedReadsGoToFreshReplica() {
+        routing.checkReplicas();
+        replicate();
+        routing.checkReplicas();
+
+        assertThat(routing.getFreshReplicaCount()).isEqualTo(1);
+        assertThat(replicaOrigin()).isEqualTo("replica");
+        assertThat(origin()).isEqualTo("primary");
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM ssf_replica_heartbeat", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        routing.checkReplicas();
+        replicate();
+        routing.checkReplicas();
+        assertThat(replicaOrigin()).isEqualTo("replica");
+
+        replica.update("UPDATE ssf_replica_heartbeat SET beat_at = ?", Timestamp.from(Instant.now().minusSeconds(30)));
+        routing.checkReplicas();
+
+        assertThat(routing.getFreshReplicaCount()).isZero();
+        assertThat(replicaOrigin()).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaFailingHeartbeatReadFallsBackToPrimary() {
+        routing.checkReplicas();
+        replicate();
+        routing.checkReplicas();
+
+        replica.execute("DROP TABLE ssf_replica_heartbeat");
+        routing.checkReplicas();
+
+        assertThat(routing.getFreshReplicaCount()).isZero();
+        assertThat(replicaOrigin()).isEqualTo("primary");
+    }
+}
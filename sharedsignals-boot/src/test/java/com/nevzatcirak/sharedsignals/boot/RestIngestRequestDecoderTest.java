@@ -0,0 +1,152 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.adapter.rest.mapper.RestIngestRequestDecoder;
+import com.nevzatcirak.sharedsignals.api.enums.SecurityIntent;
+import com.nevzatcirak.sharedsignals.api.exception.SsfBadRequestException;
+import com.nevzatcirak.sharedsignals.api.exception.SsfErrorCode;
+import com.nevzatcirak.sharedsignals.api.model.GenericSecurityEvent;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Decoding of ingestion request bodies, including the error reported for malformed input.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class RestIngestRequestDecoderTest {
+
+    private static final String EMAIL_SUBJECT = "{\"format\":\"email\",\"email\":\"user@example.com\"}";
+
+    @Autowired
+    private RestIngestRequestDecoder decoder;
+
+    private GenericSecurityEvent decode(String json) {
+        return decoder.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "producer-1");
+    }
+
+    private static String request(String subject, String data) {
+        return "{\"subject\":" + subject + ",\"data\":" + data + "}";
+    }
+
+    private void assertRejected(String json, SsfErrorCode code, String message) {
+        assertThatThrownBy(() -> decode(json))
+                .isInstanceOf(SsfBadRequestException.class)
+                .hasMessageContaining(message)
+                .extracting(e -> ((SsfBadRequestException) e).getErrorCode())
+                .isEqualTo(code);
+    }
+
+    @Test
+    void decodesTypedPayloadAndDropsUndeclaredFields() {
+        GenericSecurityEvent event = decode("{\"id\":\"evt-1\",\"occurrenceTime\":1717152000,"
+                + "\"data\":{\"intent\":\"SESSION_REVOKED\",\"event_timestamp\":1717152000,"
+                + "\"reason_admin\":{\"en\":\"Policy\"},\"unknown\":\"dropped\"},"
+                + "\"subject\":" + EMAIL_SUBJECT + "}");
+
+        assertThat(event.getIntent()).isEqualTo(SecurityIntent.SESSION_REVOKED);
+        assertThat(event.getSubject()).isEqualTo(Map.of("format", "email", "email", "user@example.com"));
+        assertThat(event.getPayload())
+                .containsOnlyKeys("event_timestamp", "reason_admin")
+                .containsEntry("reason_admin", Map.of("en", "Policy"));
+        assertThat(event.getOccurrenceTime().getEpochSecond()).isEqualTo(1717152000L);
+    }
+
+    @Test
+    void decodesNestedAliasesSubject() {
+        GenericSecurityEvent event = decode(request(
+                "{\"format\":\"aliases\",\"identifiers\":[" + EMAIL_SUBJECT + ",{\"format\":\"opaque\",\"id\":\"u-1\"}]}",
+                "{\"intent\":\"ACCOUNT_ENABLED\"}"));
+
+        assertThat((List<?>) event.getSubject().get("identifiers")).hasSize(2);
+    }
+
+    @Test
+    void rejectsBodyThatIsNotAnObject() {
+        assertRejected("[1,2]", SsfErrorCode.MALFORMED_REQUEST, "must be a JSON object");
+        assertRejected("{\"subject\":" + EMAIL_SUBJECT + ",\"data\":", SsfErrorCode.MALFORMED_REQUEST, "Malformed JSON");
+    }
+
+    @Test
+    void rejectsMissingRequiredFields() {
+        assertRejected("{\"data\":{\"intent\":\"ACCOUNT_ENABLED\"}}", SsfErrorCode.MALFORMED_REQUEST, "'subject' is required");
+        assertRejected("{\"subject\":" + EMAIL_SUBJECT + "}", SsfErrorCode.MALFORMED_REQUEST, "'data' is required");
+    }
+
+    @Test
+    void reportsTheIntentField() {
+        assertRejected(request(EMAIL_SUBJECT, "{\"reason\":\"x\"}"), SsfErrorCode.MALFORMED_REQUEST, "'data.intent' is required");
+        assertRejected(request(EMAIL_SUBJECT, "{\"intent\":\"NOT_AN_EVENT\"}"),
+                SsfErrorCode.MALFORMED_REQUEST, "'data.intent' has unsupported value 'NOT_AN_EVENT'");
+        assertRejected(request(EMAIL_SUBJECT, "{\"intent\":\"GENERIC\"}"),
+                SsfErrorCode.MALFORMED_REQUEST, "'data.intent' has unsupported value 'GENERIC'");
+    }
+
+    @Test
+    void reportsTheDataFieldWithTheWrongType() {
+        assertRejected(request(EMAIL_SUBJECT, "{\"intent\":\"SESSION_REVOKED\",\"event_timestamp\":\"yesterday\"}"),
+                SsfErrorCode.MALFORMED_REQUEST, "'data.event_timestamp' has an invalid value");
+        assertRejected(request(EMAIL_SUBJECT, "{\"intent\":\"SESSION_REVOKED\",\"event_timestamp\":1,\"reason_admin\":[\"en\"]}"),
+                SsfErrorCode.MALFORMED_REQUEST, "'data.reason_admin' has an invalid value");
+    }
+
+    @Test
+    void reportsConstraintViolationsOnData() {
+        assertThatThrownBy(() -> decode(request(EMAIL_SUBJECT, "{\"intent\":\"OPT_OUT\",\"state\":\"maybe\"}")))
+                .isInstanceOf(SsfBadRequestException.class)
+                .hasMessageContaining("data.state");
+    }
+
+    @Test
+    void reportsTheSubjectFieldThatFailed() {
+        assertRejected(request("\"user@example.com\"", "{\"intent\":\"ACCOUNT_ENABLED\"}"),
+                SsfErrorCode.INVALID_SUBJECT_FORMAT, "Field 'subject' must be a JSON object");
+        assertRejected(request("{\"format\":\"email\"}", "{\"intent\":\"ACCOUNT_ENABLED\"}"),
+                SsfErrorCode.INVALID_SUBJECT_FORMAT, "Field 'subject': Subject format 'email' requires a 'email' field");
+        assertRejected(request("{\"format\":\"aliases\",\"identifiers\":[" + EMAIL_SUBJECT + ",{\"format\":\"opaque\"}]}",
+                        "{\"intent\":\"ACCOUNT_ENABLED\"}"),
+                SsfErrorCode.INVALID_SUBJECT_FORMAT, "Field 'subject.identifiers[1]': Subject format 'opaque' requires a 'id' field");
+        assertRejected(request("{\"format\":\"complex\",\"user\":{\"format\":\"complex\",\"device\":" + EMAIL_SUBJECT + "}}",
+                        "{\"intent\":\"ACCOUNT_ENABLED\"}"),
+                SsfErrorCode.INVALID_SUBJECT_FORMAT, "Nested 'complex' subjects are not allowed");
+        assertRejected(request("{\"format\":\"unknown_format\",\"id\":\"x\"}", "{\"intent\":\"ACCOUNT_ENABLED\"}"),
+                SsfErrorCode.INVALID_SUBJECT_FORMAT, "Unsupported subject format");
+    }
+
+    @Test
+    void invalidSubjectIsRejectedBeforeTheDataIsRead() {
+        assertRejected("{\"subject\":{\"format\":\"email\"},\"data\":{\"intent\":\"ACCOUNT_ENABLED\"", SsfErrorCode.INVALID_SUBJECT_FORMAT,
+                "requires a 'email' field");
+    }
+
+    @Test
+    void rejectsOverDeepSubject() {
+        String subject = EMAIL_SUBJECT;
+        for (int i = 0; i < 7; i++) {
+            subject = "{\"format\":\"aliases\",\"identifiers\":[" + subject + "]}";
+        }
+        assertRejected(request(subject, "{\"intent\":\"ACCOUNT_ENABLED\"}"), SsfErrorCode.INVALID_SUBJECT_FORMAT, "nesting too deep");
+    }
+
+    @Test
+    void reportsTheIdentifierFields() {
+        assertRejected("{\"id\":42," + request(EMAIL_SUBJECT, "{\"intent\":\"ACCOUNT_ENABLED\"}").substring(1),
+                SsfErrorCode.MALFORMED_REQUEST, "Field 'id' must be a string");
+        assertRejected("{\"txn\":\"" + "x".repeat(129) + "\"," + request(EMAIL_SUBJECT, "{\"intent\":\"ACCOUNT_ENABLED\"}").substring(1),
+                SsfErrorCode.MALFORMED_REQUEST, "Field 'txn' must not exceed 128 characters");
+        assertRejected("{\"occurrenceTime\":\"yesterday\"," + request(EMAIL_SUBJECT, "{\"intent\":\"ACCOUNT_ENABLED\"}").substring(1),
+                SsfErrorCode.MALFORMED_REQUEST, "Field 'occurrenceTime'");
+    }
+}
@@ -106,7 +106,7 @@ public class SsfEndToEndIntegrationTest {
         public PushDeliveryScheduler overrideScheduler(PushQueueService queueService) {
              org.springframework.boot.web.client.RestTemplateBuilder builder =
                  new org.springframework.boot.web.client.RestTemplateBuilder();
-             return new PushDeliveryScheduler(queueService, builder);
+             return new PushDeliveryScheduler(queueService, builder, 8, 0, 300, 10, 30);
         }
     }
 
@@ -208,8 +208,10 @@ public class SsfEndToEndIntegrationTest {
         pushDeliveryScheduler.processOutbox();
 
         // FIX: Verify count only (JWT body is encoded, string matching fails)
-        verify(2, postRequestedFor(urlEqualTo("/receiver/events"))
-                .withHeader("Content-Type", containing("application/secevent+jwt")));
+        // Delivery runs on the workers; the second message follows once the first is delivered
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                verify(2, postRequestedFor(urlEqualTo("/receiver/events"))
+                        .withHeader("Content-Type", containing("application/secevent+jwt"))));
 
         System.out.println(">>> PUSH & INGESTION VERIFIED SUCCESSFUL");
 
@@ -0,0 +1,175 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.service.StreamStatusService;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.PersistenceStores;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.core.service.impl.DefaultInactivityTimeoutService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stream activity coalesced in memory and flushed to the stream row in batches.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class StreamActivityFlushTest {
+
+    private static final Duration RESOLUTION = Duration.ofHours(1);
+
+    private StreamStore persistentStore;
+
+    @Autowired
+    void persistentStore(ConfigurableListableBeanFactory beanFactory) {
+        persistentStore = PersistenceStores.streamStore(beanFactory);
+    }
+
+    @Autowired
+    private StreamStatusService streamStatusService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger flushes = new AtomicInteger();
+    private DefaultInactivityTimeoutService activity;
+    private String streamId;
+
+    @BeforeEach
+    void setup() {
+        activity = new DefaultInactivityTimeoutService(countingStore(true), streamStatusService, RESOLUTION);
+        streamId = stream();
+    }
+
+    /** The persistent store, counting activity flushes; optionally as a store that does not persist activity. */
+    private StreamStore countingStore(boolean tracksActivity) {
+        return (StreamStore) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{StreamStore.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("recordStreamActivity")) {
+                        flushes.incrementAndGet();
+                        if (!tracksActivity) {
+                            return false;
+                        }
+                    }
+                    try {
+                        return method.invoke(persistentStore, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private String stream() {
+        String id = "activity-" + UUID.randomUUID();
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setStream_id(id);
+        stream.setIss("https://transmitter.example.com");
+        stream.setAud(List.of("https://receiver.example.com"));
+        stream.setInactivity_timeout(600);
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(SharedSignalConstants.DELIVERY_METHOD_POLL);
+        stream.setDelivery(delivery);
+        persistentStore.save(stream);
+        return id;
+    }
+
+    private Instant column(String column, String id) {
+        Timestamp value = jdbcTemplate.queryForObject("SELECT " + column + " FROM ssf_streams WHERE stream_id = ?", Timestamp.class, id);
+        return value == null ? null : value.toInstant();
+    }
+
+    private void setLastActivity(Instant at) {
+        jdbcTemplate.update("UPDATE ssf_streams SET last_activity_at = ? WHERE stream_id = ?", Timestamp.from(at), streamId);
+    }
+
+    @Test
+    void activityIsWrittenOnFlushOnly() {
+        setLastActivity(Instant.EPOCH);
+        Long version = persistentStore.findVersion(streamId).orElseThrow();
+        for (int i = 0; i < 100; i++) {
+            activity.recordActivity(streamId);
+        }
+        assertThat(flushes).hasValue(0);
+        assertThat(column("last_activity_at", streamId)).isEqualTo(Instant.EPOCH);
+
+        activity.flushActivity();
+
+        Instant flushed = column("last_activity_at", streamId);
+        assertThat(flushes).hasValue(1);
+        assertThat(flushed.toEpochMilli() % RESOLUTION.toMillis()).isZero();
+        assertThat(flushed).isAfter(Instant.now().minus(RESOLUTION).minusSeconds(1));
+        assertThat(column("inactive_after", streamId)).isEqualTo(flushed.plusSeconds(600));
+        // Activity does not conflict with configuration updates
+        assertThat(persistentStore.findVersion(streamId)).contains(version);
+    }
+
+    @Test
+    void activityWithinOneResolutionIsFlushedOnce() {
+        activity.recordActivity(streamId);
+        activity.flushActivity();
+        activity.recordActivity(streamId);
+        activity.flushActivity();
+        activity.flushActivity();
+
+        assertThat(flushes).hasValue(1);
+    }
+
+    @Test
+    void severalStreamsShareOneBatch() {
+        String other = stream();
+        setLastActivity(Instant.EPOCH);
+        jdbcTemplate.update("UPDATE ssf_streams SET last_activity_at = ? WHERE stream_id = ?", Timestamp.from(Instant.EPOCH), other);
+
+        activity.recordActivity(streamId);
+        activity.recordActivity(other);
+        activity.flushActivity();
+
+        assertThat(flushes).hasValue(1);
+        assertThat(column("last_activity_at", other)).isEqualTo(column("last_activity_at", streamId)).isNotEqualTo(Instant.EPOCH);
+    }
+
+    @Test
+    void flushNeverMovesActivityBack() {
+        // Another node already flushed later activity
+        Instant later = Instant.now().plus(Duration.ofDays(1)).truncatedTo(ChronoUnit.SECONDS);
+        setLastActivity(later);
+
+        activity.recordActivity(streamId);
+        activity.flushActivity();
+
+        assertThat(column("last_activity_at", streamId)).isEqualTo(later);
+    }
+
+    @Test
+    void storesWithoutActivitySupportAreAskedOnce() {
+        activity = new DefaultInactivityTimeoutService(countingStore(false), streamStatusService, Duration.ofMillis(1));
+
+        activity.recordActivity(streamId);
+        activity.flushActivity();
+        activity.recordActivity(stream());
+        activity.flushActivity();
+
+        assertThat(flushes).hasValue(1);
+    }
+}
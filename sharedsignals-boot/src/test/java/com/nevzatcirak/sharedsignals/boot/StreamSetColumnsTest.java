@@ -0,0 +1,110 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.PersistenceStores;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Audience and event type sets stored as JSON arrays on the stream row, and the audience lookup over them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class StreamSetColumnsTest {
+
+    private StreamStore streamStore;
+
+    @Autowired
+    void persistentStore(ConfigurableListableBeanFactory beanFactory) {
+        streamStore = PersistenceStores.streamStore(beanFactory);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String save(List<String> audience, List<String> eventsRequested) {
+        String streamId = "sets-" + UUID.randomUUID();
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setStream_id(streamId);
+        stream.setIss("https://transmitter.example.com");
+        stream.setAud(audience);
+        stream.setEvents_requested(eventsRequested);
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(SharedSignalConstants.DELIVERY_METHOD_POLL);
+        stream.setDelivery(delivery);
+        streamStore.save(stream);
+        return streamId;
+    }
+
+    private List<String> streamIdsOf(String audience) {
+        return streamStore.findByAudience(audience).stream().map(StreamConfiguration::getStream_id).toList();
+    }
+
+    @Test
+    void setsRoundTripIncludingCharactersThatNeedEscaping() {
+        List<String> audience = List.of("https://receiver.example.com", "quote\"d", "back\\slash", "ünïcödé ✓", "100%_!");
+        List<String> events = List.of(SharedSignalConstants.RISC_ACCOUNT_DISABLED, SharedSignalConstants.CAEP_RISK_LEVEL_CHANGE);
+        String streamId = save(audience, events);
+
+        StreamConfiguration loaded = streamStore.findById(streamId).orElseThrow();
+        assertThat(loaded.getAud()).containsExactlyInAnyOrderElementsOf(audience);
+        assertThat(loaded.getEvents_requested()).containsExactlyInAnyOrderElementsOf(events);
+        // Authorized defaults to the requested events, so everything requested is delivered
+        assertThat(loaded.getEvents_delivered()).containsExactlyInAnyOrderElementsOf(events);
+    }
+
+    @Test
+    void setsAreStoredSortedSoAnUnchangedSetKeepsItsColumnValue() {
+        String streamId = save(List.of("b", "c", "a"), List.of());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT audience FROM ssf_streams WHERE stream_id = ?", String.class, streamId))
+                .isEqualTo("[\"a\",\"b\",\"c\"]");
+        assertThat(streamStore.findById(streamId).orElseThrow().getEvents_requested()).isEmpty();
+    }
+
+    @Test
+    void narrowedAuthorizationUpdatesTheDeliveredSet() {
+        String streamId = save(List.of("narrowed"),
+                List.of(SharedSignalConstants.RISC_ACCOUNT_DISABLED, SharedSignalConstants.CAEP_RISK_LEVEL_CHANGE));
+
+        streamStore.updateAuthorizedEvents(streamId, Set.of(SharedSignalConstants.RISC_ACCOUNT_DISABLED));
+
+        assertThat(streamStore.findById(streamId).orElseThrow().getEvents_delivered())
+                .containsExactly(SharedSignalConstants.RISC_ACCOUNT_DISABLED);
+    }
+
+    @Test
+    void findByAudienceMatchesWholeValuesOnly() {
+        String suffix = UUID.randomUUID().toString();
+        String exact = save(List.of("https://r.example.com/" + suffix, "other"), List.of());
+        save(List.of("https://r.example.com/" + suffix + "/sub"), List.of());
+        String wildcard = save(List.of("aud_" + suffix), List.of());
+        String lookalike = save(List.of("audX" + suffix), List.of());
+        String percent = save(List.of("100%" + suffix), List.of());
+        String quoted = save(List.of("say \"" + suffix + "\""), List.of());
+
+        assertThat(streamIdsOf("https://r.example.com/" + suffix)).containsExactly(exact);
+        assertThat(streamIdsOf("aud_" + suffix)).containsExactly(wildcard);
+        assertThat(streamIdsOf("audX" + suffix)).containsExactly(lookalike);
+        assertThat(streamIdsOf("100%" + suffix)).containsExactly(percent);
+        assertThat(streamIdsOf("say \"" + suffix + "\"")).containsExactly(quoted);
+        assertThat(streamIdsOf("r.example.com/" + suffix)).isEmpty();
+        assertThat(streamIdsOf(suffix)).isEmpty();
+    }
+}
@@ -0,0 +1,146 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.PersistenceStores;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.migration.SubjectIdentifierMigration;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matching of events against {@code aliases} and {@code complex} registrations through their simple identifiers.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class SubjectAliasMatchingTest {
+
+    private StreamStore streamStore;
+
+    @Autowired
+    void persistentStore(ConfigurableListableBeanFactory beanFactory) {
+        streamStore = PersistenceStores.streamStore(beanFactory);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Map<String, Object> email;
+    private Map<String, Object> phone;
+    private Map<String, Object> device;
+
+    @BeforeEach
+    void setup() {
+        String unique = UUID.randomUUID().toString();
+        email = Map.of("format", "email", "email", unique + "@example.com");
+        phone = Map.of("format", "phone_number", "phone_number", "+1" + Math.abs(unique.hashCode()));
+        device = Map.of("format", "opaque", "id", "device-" + unique);
+    }
+
+    private static SubjectId aliases(Map<?, ?>... identifiers) {
+        return SubjectId.of(Map.of("format", "aliases", "identifiers", List.of(identifiers)));
+    }
+
+    /** A poll stream on which the subject is approved. */
+    private String register(SubjectId subject) {
+        String streamId = "alias-" + UUID.randomUUID();
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setStream_id(streamId);
+        stream.setIss("https://transmitter.example.com");
+        stream.setAud(List.of("https://receiver.example.com"));
+        stream.setStatus(SharedSignalConstants.STATUS_ENABLED);
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(SharedSignalConstants.DELIVERY_METHOD_POLL);
+        stream.setDelivery(delivery);
+        streamStore.save(stream);
+        streamStore.addSubject(streamId, subject, true);
+        streamStore.updateSubjectStatus(streamId, subject.fingerprint(), SubjectStatus.APPROVED);
+        return streamId;
+    }
+
+    private List<String> streamsOf(SubjectId subject) {
+        return streamStore.findSubscribedStreamsBySubject(subject).stream().map(StreamConfiguration::getStream_id).toList();
+    }
+
+    @Test
+    void compoundSubjectsDecomposeIntoDistinctSimpleIdentifiers() {
+        SubjectId nested = SubjectId.of(Map.of("format", "complex",
+                "user", Map.of("format", "aliases", "identifiers", List.of(email, phone, email)),
+                "device", device));
+
+        assertThat(nested.identifiers()).containsExactlyInAnyOrder(SubjectId.of(email), SubjectId.of(phone), SubjectId.of(device));
+        assertThat(SubjectId.of(email).identifiers()).containsExactly(SubjectId.of(email));
+    }
+
+    @Test
+    void simpleEventMatchesAliasesRegistration() {
+        String streamId = register(aliases(email, phone));
+
+        assertThat(streamsOf(SubjectId.of(email))).containsExactly(streamId);
+        assertThat(streamsOf(SubjectId.of(phone))).containsExactly(streamId);
+        assertThat(streamStore.isSubjectApproved(streamId, SubjectId.of(email))).isTrue();
+        assertThat(streamsOf(SubjectId.of(device))).doesNotContain(streamId);
+    }
+
+    @Test
+    void aliasesEventMatchesSimpleRegistration() {
+        String streamId = register(SubjectId.of(email));
+
+        SubjectId event = aliases(device, email);
+        assertThat(streamsOf(event)).containsExactly(streamId);
+        assertThat(streamStore.isSubjectApproved(streamId, event)).isTrue();
+        assertThat(streamsOf(aliases(device, phone))).doesNotContain(streamId);
+    }
+
+    @Test
+    void simpleEventMatchesComplexRegistration() {
+        String streamId = register(SubjectId.of(Map.of("format", "complex", "user", email, "device", device)));
+
+        assertThat(streamsOf(SubjectId.of(email))).containsExactly(streamId);
+        assertThat(streamsOf(SubjectId.of(device))).containsExactly(streamId);
+        assertThat(streamsOf(SubjectId.of(phone))).doesNotContain(streamId);
+    }
+
+    @Test
+    void migrationIndexesCompoundSubjectsRegisteredBeforeTheIndex() {
+        SubjectId registered = aliases(email, phone);
+        String streamId = register(registered);
+        jdbcTemplate.update("DELETE FROM ssf_subject_identifiers WHERE subject_id = " +
+                "(SELECT id FROM ssf_subjects WHERE subject_fingerprint = ?)", registered.fingerprint64());
+        assertThat(streamsOf(SubjectId.of(email))).doesNotContain(streamId);
+
+        new SubjectIdentifierMigration(jdbcTemplate, transactionManager, entityManagerFactory, objectMapper, true).migrate();
+
+        assertThat(streamsOf(SubjectId.of(email))).containsExactly(streamId);
+        assertThat(streamsOf(registered)).containsExactly(streamId);
+    }
+}
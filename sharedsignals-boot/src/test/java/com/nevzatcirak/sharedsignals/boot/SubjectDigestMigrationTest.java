@@ -0,0 +1,114 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.migration.SubjectDigestMigration;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Backfill of removed-subject digests from the legacy {@code subject_hash} column, at startup and
+ * for rows written later by nodes still on the previous version.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class SubjectDigestMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SubjectDigestMigration migration;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.execute("ALTER TABLE ssf_removed_subjects ADD COLUMN subject_hash VARCHAR(255) DEFAULT '' NOT NULL");
+        migration = new SubjectDigestMigration(jdbcTemplate, transactionManager, entityManagerFactory, true);
+    }
+
+    @AfterEach
+    void dropLegacyColumn() {
+        jdbcTemplate.execute("ALTER TABLE ssf_removed_subjects DROP COLUMN IF EXISTS subject_hash");
+    }
+
+    /** A removal as written by a node that only knows the legacy column. */
+    private SubjectId legacyRemoval(String streamId) {
+        SubjectId subject = SubjectId.of(Map.of("format", "email", "email", UUID.randomUUID() + "@example.com"));
+        Instant now = Instant.now();
+        jdbcTemplate.update("INSERT INTO ssf_removed_subjects (stream_id, subject_hash, subject_payload, removed_at, grace_period_expires_at) " +
+                        "VALUES (?, ?, ?, ?, ?)", streamId, subject.fingerprint(), "{}",
+                Timestamp.from(now), Timestamp.from(now.plus(Duration.ofDays(1))));
+        return subject;
+    }
+
+    private byte[] digest(String streamId) {
+        return jdbcTemplate.queryForObject("SELECT subject_digest FROM ssf_removed_subjects WHERE stream_id = ?", byte[].class, streamId);
+    }
+
+    private String hashNullable() {
+        return jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_NAME = 'SSF_REMOVED_SUBJECTS' AND COLUMN_NAME = 'SUBJECT_HASH'", String.class);
+    }
+
+    @Test
+    void startupBackfillsDigestsAndRelaxesTheLegacyColumnOnce() {
+        String streamId = "digest-" + UUID.randomUUID();
+        SubjectId subject = legacyRemoval(streamId);
+        assertThat(hashNullable()).isEqualTo("NO");
+
+        migration.migrate();
+
+        assertThat(digest(streamId)).isEqualTo(subject.digest());
+        assertThat(jdbcTemplate.queryForObject("SELECT subject_fingerprint FROM ssf_removed_subjects WHERE stream_id = ?",
+                Long.class, streamId)).isEqualTo(subject.fingerprint64());
+        assertThat(hashNullable()).isEqualTo("YES");
+        // Already nullable: nothing left to alter
+        migration.migrate();
+        assertThat(hashNullable()).isEqualTo("YES");
+    }
+
+    @Test
+    void rowsFromOlderNodesAreBackfilledPeriodically() {
+        migration.migrate();
+        String streamId = "digest-" + UUID.randomUUID();
+        SubjectId subject = legacyRemoval(streamId);
+        assertThat(digest(streamId)).isNull();
+
+        migration.backfillLegacyRows();
+
+        assertThat(digest(streamId)).isEqualTo(subject.digest());
+    }
+
+    @Test
+    void periodicBackfillStopsWithTheLegacyColumn() {
+        jdbcTemplate.execute("ALTER TABLE ssf_removed_subjects DROP COLUMN subject_hash");
+
+        migration.migrate();
+        migration.backfillLegacyRows();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_NAME = 'SSF_REMOVED_SUBJECTS' AND COLUMN_NAME = 'SUBJECT_HASH'", Integer.class)).isZero();
+    }
+}
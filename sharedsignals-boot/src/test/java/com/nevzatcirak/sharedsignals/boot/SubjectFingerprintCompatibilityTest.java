@@ -0,0 +1,175 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Subject fingerprints against the subject hashes stored before they were computed directly:
+ * SHA-256 of the subject serialized by an ObjectMapper with sorted map entries.
+ */
+class SubjectFingerprintCompatibilityTest {
+
+    /** Configured like the original {@code SubjectHashUtil}. */
+    private static final ObjectMapper LEGACY = JsonMapper.builder()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .build();
+
+    private static byte[] legacyDigest(Map<String, Object> subject) throws Exception {
+        String json = LEGACY.writeValueAsString(subject);
+        return MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String legacyHash(Map<String, Object> subject) throws Exception {
+        return Base64.getEncoder().encodeToString(legacyDigest(subject));
+    }
+
+    private static void assertCompatible(Map<String, Object> subject) throws Exception {
+        SubjectId id = SubjectId.of(subject);
+        assertThat(id.digest()).isEqualTo(legacyDigest(subject));
+        assertThat(id.fingerprint()).isEqualTo(legacyHash(subject));
+    }
+
+    private static Map<String, Object> email(String value) {
+        return Map.of("format", "email", "email", value);
+    }
+
+    @Test
+    void simpleSubjects() throws Exception {
+        assertCompatible(email("alice@example.com"));
+        assertCompatible(Map.of("format", "iss_sub", "iss", "https://idp.example.com/", "sub", "12345"));
+        assertCompatible(Map.of());
+        Map<String, Object> withNull = new HashMap<>(email("bob@example.com"));
+        withNull.put("note", null);
+        assertCompatible(withNull);
+    }
+
+    @Test
+    void keysAreSortedWhateverTheInsertionOrder() throws Exception {
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("z", "last");
+        reversed.put("email", "carol@example.com");
+        reversed.put("B", "upper case sorts first");
+        reversed.put("format", "email");
+        reversed.put("é", "non-ASCII key");
+        assertCompatible(reversed);
+    }
+
+    @Test
+    void escapes() throws Exception {
+        StringBuilder control = new StringBuilder();
+        for (char c = 0; c < 0x20; c++) {
+            control.append(c);
+        }
+        assertCompatible(Map.of("format", "opaque", "id", control.toString()));
+        assertCompatible(Map.of("format", "opaque", "id", "quote \" backslash \\ slash / delete \u007f"));
+        assertCompatible(Map.of("format", "opaque", "id\n\"key\"", "escaped key"));
+    }
+
+    @Test
+    void nonAsciiAndSurrogates() throws Exception {
+        assertCompatible(email("müller@例え.jp"));
+        assertCompatible(Map.of("format", "opaque", "id", "ÿĀ߿ࠀ￿"));
+        // Paired surrogates (U+1F600, U+10FFFF) and unpaired ones, which UTF-8 encoding replaces
+        assertCompatible(Map.of("format", "opaque", "id", "😀 􏿿"));
+        assertCompatible(Map.of("format", "opaque", "id", "high \ud83d alone, low \ude00 alone, reversed \ude00\ud83d, end \ud83d"));
+        // Long enough to cross the hasher's buffer
+        assertCompatible(Map.of("format", "opaque", "id", "😀é\"".repeat(300)));
+    }
+
+    @Test
+    void numbersAndBooleans() throws Exception {
+        Map<String, Object> numbers = new LinkedHashMap<>();
+        numbers.put("int", 42);
+        numbers.put("negative", -7);
+        numbers.put("long", Long.MAX_VALUE);
+        numbers.put("min", Long.MIN_VALUE);
+        numbers.put("short", (short) -12);
+        numbers.put("byte", (byte) 3);
+        numbers.put("double", 0.1);
+        numbers.put("small", 1.0E-10);
+        numbers.put("large", 1.0E21);
+        numbers.put("whole", 3.0);
+        numbers.put("float", 2.5f);
+        numbers.put("nan", Double.NaN);
+        numbers.put("infinity", Float.NEGATIVE_INFINITY);
+        numbers.put("bigInteger", new BigInteger("123456789012345678901234567890"));
+        numbers.put("bigDecimal", new BigDecimal("1.50"));
+        numbers.put("true", true);
+        numbers.put("false", false);
+        assertCompatible(numbers);
+    }
+
+    @Test
+    void nestedMapsAndLists() throws Exception {
+        Map<String, Object> complex = Map.of(
+                "format", "complex",
+                "user", Map.of("format", "aliases", "identifiers", List.of(
+                        email("dave@example.com"),
+                        Map.of("format", "phone_number", "phone_number", "+12065550100"))),
+                "device", Map.of("format", "opaque", "id", "d-1", "tags", List.of(List.of(), List.of(1, "two", Map.of()))),
+                "tenant", Map.of("format", "opaque", "id", "t-1"));
+        assertCompatible(complex);
+    }
+
+    @Test
+    void arraysHashLikeTheirJacksonForm() throws Exception {
+        Map<String, Object> arrays = new LinkedHashMap<>();
+        arrays.put("format", "opaque");
+        arrays.put("strings", new String[]{"b", "a"});
+        arrays.put("ints", new int[]{3, 1, 2});
+        arrays.put("doubles", new double[]{0.5, -1.0});
+        arrays.put("booleans", new boolean[]{true});
+        arrays.put("nested", new Object[]{new long[]{1L}, Map.of("k", new String[0])});
+        arrays.put("bytes", new byte[]{0, 1, -1, 127});
+        arrays.put("chars", new char[]{'h', 'i'});
+        assertCompatible(arrays);
+
+        // An array and the equivalent list are the same subject
+        assertThat(SubjectId.of(Map.of("format", "opaque", "ids", new String[]{"a", "b"})))
+                .isEqualTo(SubjectId.of(Map.of("format", "opaque", "ids", List.of("a", "b"))));
+    }
+
+    @Test
+    void arraysAreCopied() {
+        String[] ids = {"a", "b"};
+        SubjectId subject = SubjectId.of(Map.of("format", "opaque", "ids", ids));
+        String fingerprint = subject.fingerprint();
+
+        ids[0] = "changed";
+
+        assertThat(subject.asMap().get("ids")).isEqualTo(List.of("a", "b"));
+        assertThat(SubjectId.of(subject.asMap()).fingerprint()).isEqualTo(fingerprint);
+        assertThat(Arrays.asList(ids)).containsExactly("changed", "b");
+    }
+
+    @Test
+    void optionalMembersAreRejected() {
+        assertThatThrownBy(() -> SubjectId.of(Map.of("format", "email", "email", Optional.of("erin@example.com"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SubjectId.of(Map.of("format", "opaque", "ids", List.of(Optional.empty()))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SubjectId.of(Map.of("format", "opaque", "n", OptionalInt.of(1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
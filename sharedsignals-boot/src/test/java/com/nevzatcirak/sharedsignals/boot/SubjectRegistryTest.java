@@ -0,0 +1,153 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.StreamDelivery;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.PersistenceStores;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.migration.LegacyStreamSubjectsMigration;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The shared subject registry: one subject row per subject with per-stream memberships, and the
+ * move of legacy per-stream subject rows into it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class SubjectRegistryTest {
+
+    private StreamStore streamStore;
+
+    @Autowired
+    void persistentStore(ConfigurableListableBeanFactory beanFactory) {
+        streamStore = PersistenceStores.streamStore(beanFactory);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void dropLegacyTable() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS ssf_stream_subjects");
+    }
+
+    private String stream() {
+        String streamId = "registry-" + UUID.randomUUID();
+        StreamConfiguration stream = new StreamConfiguration();
+        stream.setStream_id(streamId);
+        stream.setIss("https://transmitter.example.com");
+        stream.setAud(List.of("https://receiver.example.com"));
+        StreamDelivery delivery = new StreamDelivery();
+        delivery.setMethod(SharedSignalConstants.DELIVERY_METHOD_POLL);
+        stream.setDelivery(delivery);
+        streamStore.save(stream);
+        return streamId;
+    }
+
+    private static SubjectId email() {
+        return SubjectId.of(Map.of("format", "email", "email", UUID.randomUUID() + "@example.com"));
+    }
+
+    private int subjectRows(SubjectId subject) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ssf_subjects WHERE subject_fingerprint = ?",
+                Integer.class, subject.fingerprint64());
+    }
+
+    private void migrate() {
+        new LegacyStreamSubjectsMigration(jdbcTemplate, transactionManager, entityManagerFactory, objectMapper, true).migrate();
+    }
+
+    @Test
+    void subjectRegisteredOnSeveralStreamsIsStoredOnce() {
+        SubjectId subject = email();
+        String first = stream();
+        String second = stream();
+
+        streamStore.addSubject(first, subject, true);
+        streamStore.addSubject(second, subject, true);
+
+        assertThat(subjectRows(subject)).isEqualTo(1);
+        assertThat(streamStore.isSubjectRegistered(first, subject)).isTrue();
+        assertThat(streamStore.isSubjectRegistered(second, subject)).isTrue();
+
+        streamStore.removeSubject(first, subject);
+        assertThat(streamStore.isSubjectRegistered(first, subject)).isFalse();
+        assertThat(streamStore.isSubjectRegistered(second, subject)).isTrue();
+    }
+
+    @Test
+    void legacyRowsMoveIntoTheRegistry() throws Exception {
+        SubjectId shared = email();
+        SubjectId unreadableHash = email();
+        String first = stream();
+        String second = stream();
+        jdbcTemplate.execute("CREATE TABLE ssf_stream_subjects (id BIGINT PRIMARY KEY, stream_id VARCHAR(255), " +
+                "subject_payload TEXT, subject_hash VARCHAR(255), status VARCHAR(16))");
+        String insert = "INSERT INTO ssf_stream_subjects (id, stream_id, subject_payload, subject_hash, status) VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.update(insert, 1, first, objectMapper.writeValueAsString(shared.asMap()), shared.fingerprint(), "APPROVED");
+        jdbcTemplate.update(insert, 2, second, objectMapper.writeValueAsString(shared.asMap()), shared.fingerprint(), "PENDING");
+        // Not a Base64 SHA-256: the digest is recomputed from the payload
+        jdbcTemplate.update(insert, 3, first, objectMapper.writeValueAsString(unreadableHash.asMap()), "legacy-hash", "APPROVED");
+
+        migrate();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ssf_stream_subjects", Integer.class)).isZero();
+        assertThat(subjectRows(shared)).isEqualTo(1);
+        assertThat(streamStore.isSubjectApproved(first, shared)).isTrue();
+        assertThat(streamStore.isSubjectRegistered(second, shared)).isTrue();
+        assertThat(streamStore.isSubjectApproved(second, shared)).isFalse();
+        assertThat(streamStore.isSubjectApproved(first, unreadableHash)).isTrue();
+        assertThat(streamStore.findSubscribedStreamsBySubject(shared)).extracting(StreamConfiguration::getStream_id)
+                .contains(first).doesNotContain(second);
+    }
+
+    @Test
+    void migrationIsIdempotent() throws Exception {
+        SubjectId subject = email();
+        String streamId = stream();
+        streamStore.addSubject(streamId, subject, true);
+        streamStore.updateSubjectStatus(streamId, subject.fingerprint(), SubjectStatus.APPROVED);
+        jdbcTemplate.execute("CREATE TABLE ssf_stream_subjects (id BIGINT PRIMARY KEY, stream_id VARCHAR(255), " +
+                "subject_payload TEXT, subject_hash VARCHAR(255), status VARCHAR(16))");
+        // A row another node already moved but had not deleted yet
+        jdbcTemplate.update("INSERT INTO ssf_stream_subjects (id, stream_id, subject_payload, subject_hash, status) VALUES (?, ?, ?, ?, ?)",
+                1, streamId, objectMapper.writeValueAsString(subject.asMap()), subject.fingerprint(), "APPROVED");
+
+        migrate();
+        migrate();
+
+        assertThat(subjectRows(subject)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ssf_subject_memberships WHERE stream_id = ?",
+                Integer.class, streamId)).isEqualTo(1);
+        assertThat(streamStore.isSubjectApproved(streamId, subject)).isTrue();
+    }
+}
@@ -0,0 +1,106 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
+import com.nevzatcirak.sharedsignals.boot.config.WorkloadDataSourceConfiguration;
+import com.nevzatcirak.sharedsignals.boot.config.WorkloadRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Routes connections to one pool per workload, built as in the application from a single H2
+ * database, with a maintenance pool of one connection to show that its saturation stays contained.
+ */
+class WorkloadRoutingTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private WorkloadRoutingDataSource routing;
+
+    @BeforeEach
+    void setup() throws Exception {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:workload-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        properties.setUsername("sa");
+        properties.afterPropertiesSet();
+        routing = new WorkloadDataSourceConfiguration().dataSource(properties,
+                new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class),
+                4, 5000, 2, 5000, 1, 250);
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void teardown() {
+        routing.close();
+    }
+
+    private int active(Workload workload) {
+        return routing.getDataSource(workload).getHikariPoolMXBean().getActiveConnections();
+    }
+
+    @Test
+    void poolsAreNamedAndSizedPerWorkload() throws Exception {
+        assertThat(routing.getDataSource(Workload.INTERACTIVE).getPoolName()).isEqualTo("ssf-interactive");
+        assertThat(routing.getDataSource(Workload.DELIVERY).getPoolName()).isEqualTo("ssf-delivery");
+        HikariDataSource maintenance = routing.getDataSource(Workload.MAINTENANCE);
+        assertThat(maintenance.getPoolName()).isEqualTo("ssf-maintenance");
+        assertThat(maintenance.getMaximumPoolSize()).isEqualTo(1);
+        assertThat(maintenance.getConnectionTimeout()).isEqualTo(250);
+        // Pools start, and register their metrics, on their first connection
+        routing.getDataSource(Workload.DELIVERY).getConnection().close();
+        assertThat(registry.find("hikaricp.connections.max").tag("pool", "ssf-delivery").gauge()).isNotNull();
+    }
+
+    @Test
+    void connectionsComeFromTheCurrentWorkloadsPool() throws Exception {
+        try (Connection connection = routing.getConnection()) {
+            assertThat(active(Workload.INTERACTIVE)).isEqualTo(1);
+        }
+        try (Workload.Scope ignored = Workload.DELIVERY.enter();
+             Connection connection = routing.getConnection()) {
+            assertThat(active(Workload.DELIVERY)).isEqualTo(1);
+            assertThat(active(Workload.INTERACTIVE)).isZero();
+        }
+        assertThat(active(Workload.DELIVERY)).isZero();
+    }
+
+    @Test
+    void scopesNestAndRestoreTheOuterWorkload() {
+        assertThat(Workload.current()).isEqualTo(Workload.INTERACTIVE);
+        try (Workload.Scope outer = Workload.DELIVERY.enter()) {
+            try (Workload.Scope inner = Workload.MAINTENANCE.enter()) {
+                assertThat(Workload.current()).isEqualTo(Workload.MAINTENANCE);
+            }
+            assertThat(Workload.current()).isEqualTo(Workload.DELIVERY);
+            // Other threads are not affected
+            assertThat(CompletableFuture.supplyAsync(Workload::current).join()).isEqualTo(Workload.INTERACTIVE);
+        }
+        assertThat(Workload.current()).isEqualTo(Workload.INTERACTIVE);
+    }
+
+    @Test
+    void exhaustedPoolDoesNotStarveOtherWorkloads() throws Exception {
+        try (Workload.Scope ignored = Workload.MAINTENANCE.enter();
+             Connection held = routing.getConnection()) {
+            assertThatThrownBy(routing::getConnection).isInstanceOf(SQLException.class);
+
+            try (Workload.Scope interactive = Workload.INTERACTIVE.enter();
+                 Connection connection = routing.getConnection()) {
+                assertThat(connection.isValid(1)).isTrue();
+            }
+        }
+    }
+}
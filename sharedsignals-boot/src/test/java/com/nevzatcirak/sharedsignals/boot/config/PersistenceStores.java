@@ -0,0 +1,34 @@
+package com.nevzatcirak.sharedsignals.boot.config;
+
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * The stream store of the persistence plugin in use, for tests that exercise it directly rather
+ * than through the stream cache: the JDBC store when that plugin is on the classpath, otherwise
+ * the JPA store, which is a fallback bean. The same tests thereby run against either plugin.
+ */
+public final class PersistenceStores {
+
+    private PersistenceStores() {
+    }
+
+    /** The store the primary caching store delegates to. */
+    public static StreamStore streamStore(ConfigurableListableBeanFactory beanFactory) {
+        String chosen = null;
+        for (String name : beanFactory.getBeanNamesForType(StreamStore.class)) {
+            BeanDefinition definition = beanFactory.getMergedBeanDefinition(name);
+            if (definition.isPrimary()) {
+                continue;
+            }
+            if (chosen == null || !definition.isFallback()) {
+                chosen = name;
+            }
+        }
+        if (chosen == null) {
+            throw new IllegalStateException("No persistent StreamStore in the context");
+        }
+        return beanFactory.getBean(chosen, StreamStore.class);
+    }
+}
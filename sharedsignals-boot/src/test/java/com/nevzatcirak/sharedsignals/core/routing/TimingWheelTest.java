@@ -0,0 +1,123 @@
+package com.nevzatcirak.sharedsignals.core.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deadlines on every level of the timing wheel, cascades between levels and the overflow list,
+ * with one-millisecond ticks so that deadlines are tick numbers.
+ */
+class TimingWheelTest {
+
+    private static final long START = 1_000_000;
+    /** Ticks covered by the four levels; later deadlines overflow. */
+    private static final long SPAN = 1L << 24;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(1, START);
+    private final List<String> fired = new ArrayList<>();
+
+    private void advance(long nowMillis) {
+        wheel.advance(nowMillis, fired::add);
+    }
+
+    /** Schedules the key and checks it fires on its deadline tick, not one tick earlier. */
+    private void assertFiresAt(String key, long deadline) {
+        wheel.schedule(key, deadline);
+        advance(deadline - 1);
+        assertThat(fired).doesNotContain(key);
+        advance(deadline);
+        assertThat(fired).contains(key);
+    }
+
+    @Test
+    void deadlinesFireOnTheirTickOnEveryLevel() {
+        assertFiresAt("level-0", START + 10);
+        assertFiresAt("level-1", START + 10 + 100);
+        assertFiresAt("level-2", START + 110 + 5_000);
+        assertFiresAt("level-3", START + 5_110 + 300_000);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlinesBeyondTheLastLevelWaitInTheOverflow() {
+        long deadline = START + SPAN + 12_345;
+        assertFiresAt("overflow", deadline);
+        assertFiresAt("far-overflow", deadline + 3 * SPAN);
+    }
+
+    @Test
+    void cascadesKeepKeysSharingADeadlineAndThoseAcrossBoundaries() {
+        // Deadlines on both sides of level-1, level-2 and level-3 span boundaries
+        long[] deadlines = {START + 4_095, START + 4_096, START + 4_097, START + 262_143, START + 262_144, START + 262_145};
+        for (long deadline : deadlines) {
+            wheel.schedule("a@" + deadline, deadline);
+            wheel.schedule("b@" + deadline, deadline);
+        }
+        for (long deadline : deadlines) {
+            advance(deadline - 1);
+            assertThat(fired).doesNotContain("a@" + deadline, "b@" + deadline);
+            advance(deadline);
+            assertThat(fired).contains("a@" + deadline, "b@" + deadline);
+        }
+        assertThat(fired).hasSize(deadlines.length * 2);
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTickAndFractionsRoundUp() {
+        TimingWheel<String> seconds = new TimingWheel<>(1000, 10_000);
+        List<String> out = new ArrayList<>();
+        seconds.schedule("past", 5_000);
+        seconds.schedule("fraction", 12_001);
+
+        seconds.advance(10_999, out::add);
+        assertThat(out).isEmpty();
+        seconds.advance(11_000, out::add);
+        assertThat(out).containsExactly("past");
+        seconds.advance(12_999, out::add);
+        assertThat(out).containsExactly("past");
+        seconds.advance(13_000, out::add);
+        assertThat(out).containsExactly("past", "fraction");
+    }
+
+    @Test
+    void emptyWheelJumpsAheadAndStillPlacesNewDeadlines() {
+        advance(START + 10 * SPAN);
+        assertFiresAt("after-jump", START + 10 * SPAN + 70_000);
+    }
+
+    @Test
+    void randomDeadlinesFireExactlyWhenReached() {
+        Random random = new Random(42);
+        Map<String, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            long delta = switch (i % 4) {
+                case 0 -> random.nextInt(64);
+                case 1 -> random.nextInt(4096);
+                case 2 -> random.nextInt(1 << 20);
+                default -> random.nextLong(2 * SPAN);
+            };
+            deadlines.put("key-" + i, START + 1 + delta);
+        }
+        deadlines.forEach(wheel::schedule);
+
+        long now = START;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(50_000);
+            advance(now);
+            long reached = now;
+            for (String key : fired) {
+                assertThat(deadlines.remove(key)).as(key).isLessThanOrEqualTo(reached);
+            }
+            fired.clear();
+            assertThat(deadlines.values()).as("due but not fired").allMatch(deadline -> deadline > reached);
+        }
+        assertThat(deadlines).isEmpty();
+    }
+}
@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Example implementation of PrivacyPolicyValidator with basic privacy logic.
@@ -18,6 +19,9 @@ import java.util.*;
  *   <li>Basic consent verification</li>
  *   <li>Data classification</li>
  * </ul>
+ * <p>
+ * Validators are called concurrently by the publishing threads, so the example state is kept in
+ * concurrent collections.
  */
 public class ExampleCustomPrivacyValidator implements PrivacyPolicyValidator {
 
@@ -25,11 +29,11 @@ public class ExampleCustomPrivacyValidator implements PrivacyPolicyValidator {
 
     // Track subject identifier formats per receiver (in-memory for example)
     // Production: Use database or cache
-    private final Map<String, Set<String>> subjectFormatsPerReceiver = new HashMap<>();
+    private final Map<String, Set<String>> subjectFormatsPerReceiver = new ConcurrentHashMap<>();
 
     // Example consent store (in-memory)
     // Production: Integrate with consent management system
-    private final Set<String> consents = new HashSet<>();
+    private final Set<String> consents = ConcurrentHashMap.newKeySet();
 
     @Override
     public PrivacyValidationResult validateEventSharing(
@@ -75,14 +79,17 @@ public class ExampleCustomPrivacyValidator implements PrivacyPolicyValidator {
         Set<String> usedFormats = subjectFormatsPerReceiver.computeIfAbsent(
                 receiverAudience, k -> new HashSet<>());
 
-        if (!usedFormats.isEmpty() && !usedFormats.contains(format)) {
-            log.warn("Subject format inconsistency for receiver {}: was {}, now {}",
-                    receiverAudience, usedFormats, format);
-            return PrivacyValidationResult.denied(
-                    "Subject identifier format inconsistent (prevents correlation)");
-        }
+        // Check and record atomically, so two first events with different formats cannot both pass
+        synchronized (usedFormats) {
+            if (!usedFormats.isEmpty() && !usedFormats.contains(format)) {
+                log.warn("Subject format inconsistency for receiver {}: was {}, now {}",
+                        receiverAudience, usedFormats, format);
+                return PrivacyValidationResult.denied(
+                        "Subject identifier format inconsistent (prevents correlation)");
+            }
 
-        usedFormats.add(format);
+            usedFormats.add(format);
+        }
         return PrivacyValidationResult.allowed();
     }
 
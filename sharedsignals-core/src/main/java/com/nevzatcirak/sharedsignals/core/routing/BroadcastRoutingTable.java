@@ -0,0 +1,93 @@
+package com.nevzatcirak.sharedsignals.core.routing;
+
+import com.nevzatcirak.sharedsignals.api.constant.EventTypeRegistry;
+import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed event type to broadcast stream routing.
+ * <p>
+ * Broadcast streams ({@code processAllSubjects}) receive every event of the types they deliver,
+ * whatever the subject. Instead of loading and filtering all broadcast streams on every event, the
+ * table indexes their ids by interned event type id and is rebuilt at most once per refresh
+ * interval, or on the next lookup after {@link #invalidate()}.
+ * <p>
+ * Only ids are kept: callers read each stream's configuration from the {@link StreamStore} when
+ * they send, so a change to a stream (endpoint, credentials, status, delivered types) applies to
+ * the next event whichever node or path wrote it. A stream that stopped broadcasting or delivering
+ * a type is listed until the next rebuild, so callers check both on the configuration they read.
+ */
+public class BroadcastRoutingTable {
+
+    private static final Logger log = LoggerFactory.getLogger(BroadcastRoutingTable.class);
+
+    private final StreamStore streamStore;
+    private final long refreshIntervalNanos;
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot;
+
+    public BroadcastRoutingTable(StreamStore streamStore, Duration refreshInterval) {
+        this.streamStore = streamStore;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * @param eventTypeId an {@link EventTypeRegistry} id
+     * @return ids of the broadcast streams that delivered this event type when the table was built (immutable)
+     */
+    public List<String> streamIdsFor(int eventTypeId) {
+        if (eventTypeId == EventTypeRegistry.UNKNOWN) {
+            return List.of();
+        }
+        return current().streamIdsByType().get(eventTypeId);
+    }
+
+    /**
+     * Forces a rebuild on the next lookup, e.g. after a stream's broadcast mode changed on this node.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.builtAt() < refreshIntervalNanos) {
+            return current;
+        }
+        synchronized (rebuildLock) {
+            current = snapshot;
+            if (current == null || System.nanoTime() - current.builtAt() >= refreshIntervalNanos) {
+                current = build();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot build() {
+        List<List<String>> byType = new ArrayList<>(EventTypeRegistry.size());
+        for (int i = 0; i < EventTypeRegistry.size(); i++) {
+            byType.add(new ArrayList<>());
+        }
+        List<StreamConfiguration> streams = streamStore.findBroadcastStreams();
+        for (StreamConfiguration stream : streams) {
+            long mask = stream.deliveredEventMask();
+            while (mask != 0) {
+                int id = Long.numberOfTrailingZeros(mask);
+                byType.get(id).add(stream.getStream_id());
+                mask &= mask - 1;
+            }
+        }
+        log.debug("Rebuilt broadcast routing table from {} stream(s)", streams.size());
+        return new Snapshot(byType.stream().map(List::copyOf).toList(), System.nanoTime());
+    }
+
+    private record Snapshot(List<List<String>> streamIdsByType, long builtAt) {
+    }
+}
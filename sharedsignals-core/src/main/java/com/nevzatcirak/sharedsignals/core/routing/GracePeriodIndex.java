@@ -0,0 +1,266 @@
+package com.nevzatcirak.sharedsignals.core.routing;
+
+import com.nevzatcirak.sharedsignals.api.model.RemovedSubject;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory mirror of the subjects removed from streams that are still in their grace period
+ * (SSF Spec Section 9.3), so that the grace-period check on the delivery path is a memory probe.
+ * <p>
+ * A Bloom filter in front of the hashed set answers the common case (the subject was never removed
+ * from the stream) without touching the set. Entries leave the set when their grace period expires,
+ * driven by a hierarchical {@link TimingWheel}; a probe also compares the expiry itself, so the
+ * answer is exact at the expiry instant.
+ * <p>
+ * The set follows the store: removals newer than the last sync are read at most once per refresh
+ * interval, or on the next probe after {@link #invalidate()}, and the whole set (and the filter,
+ * which cannot forget entries) is rebuilt once per full-sync interval. Removals made on this node
+ * are seen by the first probe after they were committed; removals made on another node within one
+ * refresh interval. Stores that cannot list removals are queried directly.
+ */
+public class GracePeriodIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GracePeriodIndex.class);
+
+    private static final long TICK_MILLIS = 1000;
+    /** Re-read window for removals committed after a sync but stamped before it. */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final StreamStore streamStore;
+    private final long refreshIntervalNanos;
+    private final long fullSyncIntervalNanos;
+    private final int expectedEntries;
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile State state;
+    private volatile boolean unsupported;
+    private volatile long lastSyncNanos;
+    private volatile boolean stale = true;
+    private Instant lastSyncAt;
+    private long lastFullSyncNanos;
+
+    /**
+     * @param streamStore the store holding the removals
+     * @param refreshInterval how often newer removals are read
+     * @param fullSyncInterval how often the whole index is rebuilt
+     * @param expectedEntries the number of removals the Bloom filter is sized for (1% false positives)
+     */
+    public GracePeriodIndex(StreamStore streamStore, Duration refreshInterval, Duration fullSyncInterval, int expectedEntries) {
+        this.streamStore = streamStore;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.fullSyncIntervalNanos = fullSyncInterval.toNanos();
+        this.expectedEntries = Math.max(expectedEntries, 1024);
+    }
+
+    /**
+     * @param streamId the stream identifier
+     * @param subject the subject
+     * @return true if the subject was removed from the stream and its grace period is still running
+     */
+    public boolean isInGracePeriod(String streamId, SubjectId subject) {
+        if (unsupported) {
+            return streamStore.isSubjectInGracePeriod(streamId, subject);
+        }
+        State current = current();
+        if (current == null) {
+            return streamStore.isSubjectInGracePeriod(streamId, subject);
+        }
+        Key key = new Key(streamId, subject.digest());
+        if (!current.filter.mightContain(key)) {
+            return false;
+        }
+        Long expiresAt = current.expiries.get(key);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Reads newer removals on the next probe, e.g. after a subject was removed on this node.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * @return the number of removals currently held
+     */
+    public int size() {
+        State current = state;
+        return current == null ? 0 : current.expiries.size();
+    }
+
+    private State current() {
+        State current = state;
+        long now = System.nanoTime();
+        if (current != null && !stale && now - lastSyncNanos < refreshIntervalNanos) {
+            return current;
+        }
+        // A probe that finds a sync in progress uses the current state instead of waiting, unless there
+        // is none yet or it was invalidated: the sync may have started before the removal was committed
+        boolean invalidated = stale;
+        if (current == null || invalidated) {
+            syncLock.lock();
+        } else if (!syncLock.tryLock()) {
+            return current;
+        }
+        try {
+            sync(now);
+        } catch (RuntimeException e) {
+            log.warn("Grace period index sync failed: {}", e.getMessage());
+            lastSyncNanos = now;
+            if (invalidated) {
+                // The state may lack the removal it was invalidated for: keep the invalidation and query the store
+                stale = true;
+                return null;
+            }
+        } finally {
+            syncLock.unlock();
+        }
+        return state;
+    }
+
+    private void sync(long nowNanos) {
+        if (state != null && !stale && nowNanos - lastSyncNanos < refreshIntervalNanos) {
+            return;
+        }
+        stale = false;
+        Instant syncStartedAt = Instant.now();
+        State current = state;
+        boolean full = current == null || nowNanos - lastFullSyncNanos >= fullSyncIntervalNanos;
+        Instant since = full ? Instant.EPOCH : lastSyncAt.minus(SYNC_OVERLAP);
+        Optional<List<RemovedSubject>> removals = streamStore.findRemovedSubjectsSince(since);
+        if (removals.isEmpty()) {
+            unsupported = true;
+            log.info("Stream store does not list removed subjects; grace period checks query the store");
+            return;
+        }
+        if (full) {
+            current = new State(Math.max(expectedEntries, removals.get().size() * 2), syncStartedAt.toEpochMilli());
+            lastFullSyncNanos = nowNanos;
+        }
+        for (RemovedSubject removal : removals.get()) {
+            current.add(new Key(removal.getStreamId(), removal.getSubjectDigest()), removal.getGracePeriodExpiresAt().toEpochMilli());
+        }
+        current.expire(System.currentTimeMillis());
+        if (full) {
+            log.debug("Rebuilt grace period index with {} removal(s)", current.expiries.size());
+        }
+        state = current;
+        lastSyncAt = syncStartedAt;
+        lastSyncNanos = nowNanos;
+    }
+
+    /**
+     * The filter, the set and the wheel; only the sync mutates them, probes read the filter and set concurrently.
+     */
+    private static final class State {
+        final BloomFilter filter;
+        final Map<Key, Long> expiries = new ConcurrentHashMap<>();
+        final TimingWheel<Key> wheel;
+
+        State(int capacity, long nowMillis) {
+            this.filter = new BloomFilter(capacity);
+            this.wheel = new TimingWheel<>(TICK_MILLIS, nowMillis);
+        }
+
+        void add(Key key, long expiresAtMillis) {
+            Long previous = expiries.get(key);
+            if (previous != null && previous >= expiresAtMillis) {
+                return;
+            }
+            filter.put(key);
+            expiries.put(key, expiresAtMillis);
+            wheel.schedule(key, expiresAtMillis);
+        }
+
+        void expire(long nowMillis) {
+            // A key removed again is scheduled twice; only the timer matching its latest expiry drops it
+            wheel.advance(nowMillis, key -> expiries.computeIfPresent(key, (k, expiresAt) -> expiresAt <= nowMillis ? null : expiresAt));
+        }
+    }
+
+    private static final class Key {
+        final String streamId;
+        final byte[] digest;
+        final long h1;
+        final long h2;
+
+        Key(String streamId, byte[] digest) {
+            this.streamId = streamId;
+            this.digest = digest;
+            // The digest is uniformly distributed; mix in the stream so one subject removed from many streams spreads out
+            this.h1 = SubjectId.fingerprint64(digest) ^ (streamId.hashCode() * 0x9E3779B97F4A7C15L);
+            this.h2 = (digest.length >= 16 ? readLong(digest, 8) : h1 >>> 17) | 1;
+        }
+
+        private static long readLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + Long.BYTES; i++) {
+                value = (value << 8) | (bytes[i] & 0xFF);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return h1 == other.h1 && streamId.equals(other.streamId) && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(h1);
+        }
+    }
+
+    /**
+     * Bloom filter with 7 probes and ~10 bits per entry (about 1% false positives at capacity),
+     * using double hashing over the key's two 64-bit hashes.
+     */
+    private static final class BloomFilter {
+        private static final int PROBES = 7;
+        private final AtomicLongArray bits;
+        private final long bitCount;
+
+        BloomFilter(int capacity) {
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.ceilDiv(capacity * 10L, Long.SIZE));
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * Long.SIZE;
+        }
+
+        void put(Key key) {
+            for (int i = 0; i < PROBES; i++) {
+                long bit = Math.floorMod(key.h1 + i * key.h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    // retry
+                }
+            }
+        }
+
+        boolean mightContain(Key key) {
+            for (int i = 0; i < PROBES; i++) {
+                long bit = Math.floorMod(key.h1 + i * key.h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.nevzatcirak.sharedsignals.core.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: schedules keys to fire at a deadline with O(1) insertion and
+ * amortized O(1) expiry, regardless of how many keys are pending.
+ * <p>
+ * Four levels of 64 slots each. Level 0 holds deadlines within the next 64 ticks, level 1 within
+ * 64<sup>2</sup> ticks and so on; when the wheel enters a new span of a higher level, that level's
+ * slot is cascaded down. Deadlines beyond the last level wait in an overflow list that is
+ * re-examined every time the last level cascades. Not thread-safe.
+ *
+ * @param <K> the key type
+ */
+final class TimingWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Timer<K>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private List<Timer<K>> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * @param key the key to fire
+     * @param deadlineMillis when to fire it (epoch millis, rounded up to the next tick)
+     */
+    void schedule(K key, long deadlineMillis) {
+        place(new Timer<>(key, Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1)));
+        size++;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis}, passing every key whose deadline has been reached to {@code expired}.
+     */
+    void advance(long nowMillis, Consumer<K> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    if (level == LEVELS - 1) {
+                        List<Timer<K>> waiting = overflow;
+                        overflow = new ArrayList<>();
+                        waiting.forEach(this::place);
+                    }
+                    cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+            List<Timer<K>> due = slots.get((int) (currentTick & SLOT_MASK));
+            if (!due.isEmpty()) {
+                List<Timer<K>> fired = new ArrayList<>(due);
+                due.clear();
+                size -= fired.size();
+                for (Timer<K> timer : fired) {
+                    expired.accept(timer.key());
+                }
+            }
+            if (size == 0) {
+                // Nothing pending: jump instead of stepping through empty ticks
+                currentTick = Math.max(currentTick, target);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        List<Timer<K>> bucket = slots.get(level * SLOTS + slot);
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Timer<K>> timers = new ArrayList<>(bucket);
+        bucket.clear();
+        timers.forEach(this::place);
+    }
+
+    private void place(Timer<K> timer) {
+        long delta = timer.deadlineTick() - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                int slot = (int) ((timer.deadlineTick() >>> (SLOT_BITS * level)) & SLOT_MASK);
+                slots.get(level * SLOTS + slot).add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private record Timer<K>(K key, long deadlineTick) {
+    }
+}
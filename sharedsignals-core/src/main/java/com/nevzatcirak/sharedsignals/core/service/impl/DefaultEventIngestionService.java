@@ -1,5 +1,6 @@
 package com.nevzatcirak.sharedsignals.core.service.impl;
 
+import com.nevzatcirak.sharedsignals.api.enums.Workload;
 import com.nevzatcirak.sharedsignals.api.model.GenericSecurityEvent;
 import com.nevzatcirak.sharedsignals.api.service.EventIngestionService;
 import com.nevzatcirak.sharedsignals.api.service.EventPublisherService;
@@ -24,7 +25,7 @@ public class DefaultEventIngestionService implements EventIngestionService {
     @Override
     public CompletableFuture<Integer> ingest(GenericSecurityEvent event) {
         return CompletableFuture.supplyAsync(() -> {
-            try {
+            try (Workload.Scope ignored = Workload.DELIVERY.enter()) {
                 SecurityEventMapper.MappedEvent mapped = eventMapper.map(event);
                 int count = eventPublisherService.publishEvent(
                         mapped.subject(),
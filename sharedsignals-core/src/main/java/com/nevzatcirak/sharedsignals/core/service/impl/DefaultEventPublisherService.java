@@ -1,22 +1,32 @@
 package com.nevzatcirak.sharedsignals.core.service.impl;
 
+import com.nevzatcirak.sharedsignals.api.constant.EventTypeRegistry;
 import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.DeliveryPartitioning;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
 import com.nevzatcirak.sharedsignals.api.exception.EventsDeliveredFailureException;
 import com.nevzatcirak.sharedsignals.api.exception.StreamNotFoundException;
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
 import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
+import com.nevzatcirak.sharedsignals.api.model.SubjectId;
 import com.nevzatcirak.sharedsignals.api.service.EventPublisherService;
 import com.nevzatcirak.sharedsignals.api.service.TokenSigningService;
 import com.nevzatcirak.sharedsignals.api.spi.EventSender;
 import com.nevzatcirak.sharedsignals.api.spi.PrivacyPolicyValidator;
 import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.core.routing.BroadcastRoutingTable;
+import com.nevzatcirak.sharedsignals.core.routing.GracePeriodIndex;
 import com.nimbusds.jwt.SignedJWT;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public class DefaultEventPublisherService implements EventPublisherService {
@@ -25,35 +35,80 @@ public class DefaultEventPublisherService implements EventPublisherService {
     private final TokenSigningService signingService;
     private final EventSender eventSender;
     private final PrivacyPolicyValidator privacyValidator;
+    private final DeliveryPartitioning partitioning;
+    private final BroadcastRoutingTable broadcastRouting;
+    private final GracePeriodIndex gracePeriodIndex;
 
-    public DefaultEventPublisherService(StreamStore streamStore, TokenSigningService signingService, EventSender eventSender, PrivacyPolicyValidator privacyValidator) {
+    /**
+     * @param broadcastRouting event type routing of the broadcast streams, which are not found by subject
+     * @param gracePeriodIndex in-memory mirror of the removed subjects still in their grace period
+     */
+    public DefaultEventPublisherService(StreamStore streamStore, TokenSigningService signingService, EventSender eventSender,
+                                        PrivacyPolicyValidator privacyValidator, DeliveryPartitioning partitioning,
+                                        BroadcastRoutingTable broadcastRouting, GracePeriodIndex gracePeriodIndex) {
         this.streamStore = streamStore;
         this.signingService = signingService;
         this.eventSender = eventSender;
         this.privacyValidator = privacyValidator;
+        this.partitioning = partitioning;
+        this.broadcastRouting = broadcastRouting;
+        this.gracePeriodIndex = gracePeriodIndex;
     }
 
     @Override
-    public int publishEvent(Map<String, Object> subject, String eventTypeUri, Map<String, Object> eventDetails) {
-        return publishEvent(subject, eventTypeUri, eventDetails, UUID.randomUUID().toString());
-    }
-
-    @Override
-    public int publishEvent(Map<String, Object> subject, String eventTypeUri, Map<String, Object> eventDetails, String txnId) {
-        List<StreamConfiguration> streams = streamStore.findStreamsBySubject(subject);
-        int count = 0;
+    public int publishEvent(SubjectId subject, String eventTypeUri, Map<String, Object> eventDetails, String txnId) {
+        int eventTypeId = EventTypeRegistry.idOf(eventTypeUri);
+        List<StreamConfiguration> streams = streamStore.findSubscribedStreamsBySubject(subject);
+        List<String> broadcastStreamIds = broadcastRouting.streamIdsFor(eventTypeId);
         String finalTxnId = (txnId == null) ? UUID.randomUUID().toString() : txnId;
 
         java.util.Map<String, Object> fullEventPayload = new java.util.HashMap<>();
         fullEventPayload.put(eventTypeUri, eventDetails);
 
+        List<StreamConfiguration> targets = new ArrayList<>(streams.size() + broadcastStreamIds.size());
+        // Only needed when a stream changed mode since the routing table was built
+        Set<String> published = broadcastStreamIds.isEmpty() ? null : new HashSet<>();
         for (StreamConfiguration stream : streams) {
-            if (stream.getEvents_requested() != null && stream.getEvents_requested().contains(eventTypeUri)) {
-                sendToStream(stream, eventTypeUri, fullEventPayload, subject, finalTxnId);
-                count++;
+            if (isDelivered(stream, eventTypeId, eventTypeUri)) {
+                targets.add(stream);
+                if (published != null) {
+                    published.add(stream.getStream_id());
+                }
+            }
+        }
+        for (String streamId : broadcastStreamIds) {
+            if (!published.add(streamId)) {
+                continue;
             }
+            // The table only lists ids: send with the stream's current configuration
+            streamStore.findById(streamId)
+                    .filter(stream -> stream.isProcessAllSubjects() && isDelivered(stream, eventTypeId, eventTypeUri))
+                    .ifPresent(targets::add);
+        }
+        if (targets.size() > 1) {
+            privacyValidator.prefetch(subject, targets.stream().map(this::receiverAudience).toList());
+        }
+        for (StreamConfiguration stream : targets) {
+            sendToStream(stream, eventTypeUri, fullEventPayload, subject, finalTxnId);
         }
-        return count;
+        return targets.size();
+    }
+
+    private String receiverAudience(StreamConfiguration stream) {
+        return stream.getAud() != null && !stream.getAud().isEmpty()
+                ? stream.getAud().getFirst()
+                : null;
+    }
+
+    /**
+     * Checks the stream's delivered event types with a single bitmask test; types outside the
+     * registry fall back to a list lookup.
+     */
+    private boolean isDelivered(StreamConfiguration stream, int eventTypeId, String eventTypeUri) {
+        if (eventTypeId != EventTypeRegistry.UNKNOWN) {
+            return EventTypeRegistry.contains(stream.deliveredEventMask(), eventTypeId);
+        }
+        return stream.getEvents_delivered() != null && stream.getEvents_delivered().contains(eventTypeUri);
     }
 
     @Override
@@ -66,10 +121,10 @@ public class DefaultEventPublisherService implements EventPublisherService {
 
         // Verification events might not be in 'events_requested', so we don't filter them strictly here
         // or we ensure they are added to supported list.
-        sendToStream(stream, eventTypeUri, fullEventPayload, subject, txnId);
+        sendToStream(stream, eventTypeUri, fullEventPayload, SubjectId.of(subject), txnId);
     }
 
-    private void sendToStream(StreamConfiguration stream, String eventTypeUri, Map<String, Object> eventPayload, Map<String, Object> subject, String txnId) {
+    private void sendToStream(StreamConfiguration stream, String eventTypeUri, Map<String, Object> eventPayload, SubjectId subject, String txnId) {
         boolean isControlEvent = SharedSignalConstants.SSF_VERIFICATION.equals(eventTypeUri) ||
                                  SharedSignalConstants.SSF_STREAM_UPDATED.equals(eventTypeUri);
 
@@ -84,7 +139,7 @@ public class DefaultEventPublisherService implements EventPublisherService {
             } else {
                 isApproved = streamStore.isSubjectApproved(stream.getStream_id(), subject);
                 if (!isApproved) {
-                    isInGracePeriod = streamStore.isSubjectInGracePeriod(stream.getStream_id(), subject);
+                    isInGracePeriod = gracePeriodIndex.isInGracePeriod(stream.getStream_id(), subject);
                 }
             }
 
@@ -98,9 +153,7 @@ public class DefaultEventPublisherService implements EventPublisherService {
             }
         }
 
-        String receiverAudience = stream.getAud() != null && !stream.getAud().isEmpty()
-                ? stream.getAud().getFirst()
-                : null;
+        String receiverAudience = receiverAudience(stream);
 
         if (receiverAudience == null) {
             log.error("Stream {} has no audience, cannot validate privacy", stream.getStream_id());
@@ -113,7 +166,7 @@ public class DefaultEventPublisherService implements EventPublisherService {
                     privacyValidator.validateSubjectIdentifier(subject, receiverAudience);
             if (!subjectValidation.isAllowed()) {
                 log.warn("Privacy check failed for subject identifier: {} - Reason: {}",
-                        subject, subjectValidation.getReason());
+                        subject.asMap(), subjectValidation.getReason());
                 return;
             }
 
@@ -124,9 +177,11 @@ public class DefaultEventPublisherService implements EventPublisherService {
         }
 
         log.debug("Publishing event {} to stream {}", eventTypeUri, stream.getStream_id());
-        String token = signingService.createSignedSet(eventPayload, subject, txnId, stream);
+        String token = signingService.createSignedSet(eventPayload, subject.asMap(), txnId, stream);
 
         String method = (stream.getDelivery() != null) ? stream.getDelivery().getMethod() : null;
+        EventPriority priority = resolvePriority(stream, eventTypeUri);
+        String coalesceKey = coalesceKey(stream, eventTypeUri, subject);
 
         if (SharedSignalConstants.DELIVERY_METHOD_PUSH.equals(method)) {
             // PUSH
@@ -135,7 +190,8 @@ public class DefaultEventPublisherService implements EventPublisherService {
                         stream.getStream_id(),
                         stream.getDelivery().getEndpoint_url(),
                         token,
-                        stream.getDelivery().getAuthorization_header()
+                        stream.getDelivery().getAuthorization_header(),
+                        new DeliveryOptions(priority, partitionKey(stream.getStream_id(), subject), coalesceKey)
                 );
             } catch (EventsDeliveredFailureException e) {
                 performUpdate(stream.getStream_id(), "paused", e.getMessage());
@@ -144,13 +200,55 @@ public class DefaultEventPublisherService implements EventPublisherService {
             // POLL
             try {
                 String jti = SignedJWT.parse(token).getJWTClaimsSet().getJWTID();
-                streamStore.saveEvent(stream.getStream_id(), jti, token);
+                streamStore.saveEvent(stream.getStream_id(), jti, token, priority, coalesceKey);
             } catch (ParseException e) {
                 log.error("Error parsing generated token ", e);
             }
         }
     }
 
+    /**
+     * Resolves the delivery lane for an event type: operator override on the stream first,
+     * then the transmitter default.
+     */
+    private EventPriority resolvePriority(StreamConfiguration stream, String eventTypeUri) {
+        if (stream.getEventPriorities() != null) {
+            EventPriority override = stream.getEventPriorities().get(eventTypeUri);
+            if (override != null) {
+                return override;
+            }
+        }
+        return SharedSignalConstants.DEFAULT_EVENT_PRIORITIES.getOrDefault(eventTypeUri, EventPriority.NORMAL);
+    }
+
+    /**
+     * Resolves the ordering partition of a push delivery.
+     * <p>
+     * The subject hash only has to be stable across nodes, not unique: a collision merges two
+     * partitions, which costs parallelism but never ordering.
+     */
+    private String partitionKey(String streamId, SubjectId subject) {
+        if (partitioning == DeliveryPartitioning.STREAM_SUBJECT) {
+            return streamId + "#" + Integer.toHexString(subject.hashCode());
+        }
+        return streamId;
+    }
+
+    /**
+     * Resolves the coalescing key of an event: its supersession group and subject fingerprint, if the
+     * stream opted in to coalescing for this event type. Returns null when the event must always be delivered.
+     * <p>
+     * Unlike the partition key, the key must be unique per subject: a collision would drop the
+     * pending event of another subject.
+     */
+    private String coalesceKey(StreamConfiguration stream, String eventTypeUri, SubjectId subject) {
+        if (stream.getCoalescedEvents() == null || !stream.getCoalescedEvents().contains(eventTypeUri)) {
+            return null;
+        }
+        String group = SharedSignalConstants.SUPERSEDING_EVENT_GROUPS.get(eventTypeUri);
+        return group == null ? null : group + "#" + subject.fingerprint();
+    }
+
     private void performUpdate(String streamId, String newStatus, String reason) {
         StreamConfiguration stream = streamStore.findById(streamId)
                 .orElseThrow(() -> new StreamNotFoundException(streamId));
@@ -2,6 +2,7 @@
 package com.nevzatcirak.sharedsignals.core.service.impl;
 
 import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.model.InactiveStream;
 import com.nevzatcirak.sharedsignals.api.model.StreamConfiguration;
 import com.nevzatcirak.sharedsignals.api.service.EventPublisherService;
 import com.nevzatcirak.sharedsignals.api.service.InactivityTimeoutService;
@@ -10,32 +11,64 @@ import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Default implementation of InactivityTimeoutService.
  * <p>
  * Tracks stream activity and handles inactivity timeout per SSF Spec Section 8.1.1.
+ * <p>
+ * Activity is coalesced in memory at a fixed resolution (one minute by default): a request only
+ * touches memory, and a stream is marked for the next flush when its truncated activity time moves.
+ * {@link #flushActivity()} writes the marked streams to the store in one batch, so a stream costs at
+ * most one write per flush interval whatever the request rate.
+ * <p>
+ * The inactivity check asks the store for the enabled streams whose timeout has elapsed, as flushed
+ * by every node, and pauses them page by page, so its cost follows the number of expired streams
+ * rather than the number of streams. Stores that do not persist activity fall back to the node-local view.
  */
 public class DefaultInactivityTimeoutService implements InactivityTimeoutService {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultInactivityTimeoutService.class);
 
+    private static final Duration DEFAULT_RESOLUTION = Duration.ofMinutes(1);
+    private static final int SWEEP_PAGE_SIZE = 500;
+
     private final StreamStore streamStore;
     private final StreamStatusService streamStatusService;
+    private final long resolutionMillis;
 
     /**
-     * Tracks last activity time for each stream.
+     * Tracks last activity time for each stream, truncated to the resolution.
      * Key: streamId, Value: last activity timestamp
      */
     private final Map<String, Instant> lastActivityMap = new ConcurrentHashMap<>();
 
+    /**
+     * Streams whose activity moved since the last flush.
+     */
+    private final Set<String> unflushed = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean storeTracksActivity = true;
+
     public DefaultInactivityTimeoutService(StreamStore streamStore, StreamStatusService streamStatusService) {
+        this(streamStore, streamStatusService, DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution the granularity at which activity is recorded and flushed
+     */
+    public DefaultInactivityTimeoutService(StreamStore streamStore, StreamStatusService streamStatusService, Duration resolution) {
         this.streamStore = streamStore;
         this.streamStatusService = streamStatusService;
+        this.resolutionMillis = Math.max(resolution.toMillis(), 1);
     }
 
     /**
@@ -52,11 +85,51 @@ public class DefaultInactivityTimeoutService implements InactivityTimeoutService
             return;
         }
 
-        Instant now = Instant.now();
-        lastActivityMap.put(streamId, now);
+        long nowMillis = System.currentTimeMillis();
+        Instant now = Instant.ofEpochMilli(nowMillis - nowMillis % resolutionMillis);
+        Instant previous = lastActivityMap.get(streamId);
+        if (previous != null && !previous.isBefore(now)) {
+            return;
+        }
+        lastActivityMap.merge(streamId, now, (a, b) -> a.isAfter(b) ? a : b);
+        unflushed.add(streamId);
         log.debug("Recorded activity for stream: {} at {}", streamId, now);
     }
 
+    /**
+     * Writes the activity recorded since the last flush to the store in one batch.
+     */
+    @Override
+    public void flushActivity() {
+        if (!storeTracksActivity || unflushed.isEmpty()) {
+            return;
+        }
+        Map<String, Instant> batch = new HashMap<>();
+        for (String streamId : unflushed) {
+            // Unmark before reading, so activity recorded meanwhile is flushed next time
+            unflushed.remove(streamId);
+            Instant at = lastActivityMap.get(streamId);
+            if (at != null) {
+                batch.put(streamId, at);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (!streamStore.recordStreamActivity(batch)) {
+                storeTracksActivity = false;
+                unflushed.clear();
+                log.info("Stream store does not persist activity; inactivity is tracked per node");
+                return;
+            }
+            log.debug("Flushed activity of {} stream(s)", batch.size());
+        } catch (RuntimeException e) {
+            unflushed.addAll(batch.keySet());
+            log.warn("Failed to flush stream activity, retrying on next flush: {}", e.getMessage());
+        }
+    }
+
     /**
      * Checks all streams for inactivity timeout and handles expired streams.
      * <p>
@@ -67,12 +140,10 @@ public class DefaultInactivityTimeoutService implements InactivityTimeoutService
     public void checkAndHandleInactiveStreams() {
         log.info("Starting inactivity timeout check for all streams");
 
-        // Get all streams (implementation depends on your StreamStore)
-        // For now, we'll need to add a method to get all streams
-        // This is a limitation - we'll handle it below
-
-        // Note: Since StreamStore doesn't have a findAll() method,
-        // we'll need to track streams separately or add that method
+        flushActivity();
+        if (storeTracksActivity && sweepInactiveStreams()) {
+            return;
+        }
 
         for (Map.Entry<String, Instant> entry : lastActivityMap.entrySet()) {
             String streamId = entry.getKey();
@@ -86,6 +157,46 @@ public class DefaultInactivityTimeoutService implements InactivityTimeoutService
         }
     }
 
+    /**
+     * Pauses the streams the store reports as inactive, one page at a time.
+     * <p>
+     * Activity observed on other nodes reaches the store within one flush interval, so the timeouts
+     * are evaluated that much in the past.
+     *
+     * @return false if the store does not track activity
+     */
+    private boolean sweepInactiveStreams() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minusMillis(resolutionMillis);
+        InactiveStream after = null;
+        int paused = 0;
+        while (true) {
+            Optional<List<InactiveStream>> page = streamStore.findInactiveStreams(cutoff, after, SWEEP_PAGE_SIZE);
+            if (page.isEmpty()) {
+                return false;
+            }
+            for (InactiveStream stream : page.get()) {
+                long inactiveSeconds = Duration.between(stream.getLastActivityAt(), now).toSeconds();
+                try {
+                    log.warn("Stream {} has exceeded inactivity timeout. Inactive for {} seconds",
+                            stream.getStreamId(), inactiveSeconds);
+                    pauseInactiveStream(stream.getStreamId(), inactiveSeconds);
+                    paused++;
+                } catch (Exception e) {
+                    log.error("Error pausing inactive stream {}: {}", stream.getStreamId(), e.getMessage(), e);
+                }
+            }
+            if (page.get().size() < SWEEP_PAGE_SIZE) {
+                break;
+            }
+            after = page.get().get(page.get().size() - 1);
+        }
+        if (paused > 0) {
+            log.info("Paused {} inactive stream(s)", paused);
+        }
+        return true;
+    }
+
     /**
      * Checks a single stream for inactivity timeout.
      *
@@ -118,34 +229,27 @@ public class DefaultInactivityTimeoutService implements InactivityTimeoutService
             log.warn("Stream {} has exceeded inactivity timeout. Inactive for {} seconds (timeout: {} seconds)",
                     streamId, inactiveSeconds, inactivityTimeout);
 
-            handleInactiveStream(stream, inactiveSeconds);
+            pauseInactiveStream(streamId, inactiveSeconds);
         }
     }
 
     /**
-     * Handles a stream that has exceeded inactivity timeout.
+     * Pauses a stream that has exceeded inactivity timeout.
      * <p>
      * SSF Spec 8.1.1: Transmitter MAY pause, disable, or delete the stream.
      * If pausing or disabling, MUST send Stream Updated event.
      *
-     * @param stream          the inactive stream
+     * @param streamId        the inactive stream
      * @param inactiveSeconds how long the stream has been inactive
      */
-    private void handleInactiveStream(StreamConfiguration stream, long inactiveSeconds) {
-        String streamId = stream.getStream_id();
-
+    private void pauseInactiveStream(String streamId, long inactiveSeconds) {
         // Strategy: Pause the stream (configurable)
         String newStatus = SharedSignalConstants.STATUS_PAUSED;
         String reason = String.format("Inactivity timeout exceeded (%d seconds)", inactiveSeconds);
 
         log.info("Pausing stream {} due to inactivity: {}", streamId, reason);
 
-        // Update stream status
-        stream.setStatus(newStatus);
-        stream.setReason(reason);
-        streamStore.save(stream);
-
-        // SSF Spec 8.1.5: MUST send Stream Updated event BEFORE stopping stream
+        // Updates the status and, SSF Spec 8.1.5, sends the Stream Updated event
         streamStatusService.updateStatus(streamId, newStatus, reason);
 
         // Remove from activity tracking (will be re-added if receiver becomes active again)
@@ -170,6 +274,7 @@ public class DefaultInactivityTimeoutService implements InactivityTimeoutService
      */
     public void removeStreamActivity(String streamId) {
         lastActivityMap.remove(streamId);
+        unflushed.remove(streamId);
         log.debug("Removed activity tracking for stream: {}", streamId);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.nevzatcirak.sharedsignals.core.service.impl;
 
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
 import com.nevzatcirak.sharedsignals.api.model.PushMessage;
 import com.nevzatcirak.sharedsignals.api.service.PushQueueService;
 import com.nevzatcirak.sharedsignals.api.spi.PushQueueStore;
@@ -9,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -32,11 +34,26 @@ public class DefaultPushQueueService implements PushQueueService {
         return store.enqueue(streamId, url, token, authHeader);
     }
 
+    @Override
+    public CompletableFuture<Void> enqueue(String streamId, String url, String token, String authHeader, DeliveryOptions options) {
+        return store.enqueue(streamId, url, token, authHeader, options);
+    }
+
     @Override
     public List<PushMessage> findReadyMessages(int batchSize) {
         return store.fetchReadyMessages(batchSize);
     }
 
+    @Override
+    public Optional<List<PushMessage>> claimReadyMessages(int batchSize) {
+        return store.claimReadyMessages(batchSize);
+    }
+
+    @Override
+    public Optional<PushMessage> claimNextInPartition(String partitionKey) {
+        return store.claimNextInPartition(partitionKey);
+    }
+
     @Override
     public void markSuccess(Long messageId) {
         store.updateStatus(messageId, "COMPLETED", null, null, 0); // retryCount is irrelevant on success
@@ -65,4 +82,9 @@ public class DefaultPushQueueService implements PushQueueService {
     public void markInProgress(Long messageId) {
         store.updateStatus(messageId, "IN_PROGRESS", null, null, 0);
     }
+
+    @Override
+    public boolean tryMarkInProgress(Long messageId) {
+        return store.claim(messageId);
+    }
 }
\ No newline at end of file
@@ -1,21 +1,32 @@
 package com.nevzatcirak.sharedsignals.core.service.impl;
 
+import com.nevzatcirak.sharedsignals.api.constant.SharedSignalConstants;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
 import com.nevzatcirak.sharedsignals.api.enums.SubjectStatus;
+import com.nevzatcirak.sharedsignals.api.exception.SsfBadRequestException;
 import com.nevzatcirak.sharedsignals.api.exception.StreamNotFoundException;
 import com.nevzatcirak.sharedsignals.api.service.StreamAdministrationService;
 import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.core.routing.BroadcastRoutingTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
 import java.util.Set;
 
 public class DefaultStreamAdministrationService implements StreamAdministrationService {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultStreamAdministrationService.class);
     private final StreamStore streamStore;
+    private final BroadcastRoutingTable broadcastRouting;
 
     public DefaultStreamAdministrationService(StreamStore streamStore) {
+        this(streamStore, null);
+    }
+
+    public DefaultStreamAdministrationService(StreamStore streamStore, BroadcastRoutingTable broadcastRouting) {
         this.streamStore = streamStore;
+        this.broadcastRouting = broadcastRouting;
     }
 
     @Override
@@ -46,5 +57,39 @@ public class DefaultStreamAdministrationService implements StreamAdministrationS
         }
         log.warn("Admin [{}] setting ProcessAllSubjects={} for stream {}. This is a high-privilege operation.", owner, enabled, streamId);
         streamStore.updateStreamMode(streamId, enabled);
+        if (broadcastRouting != null) {
+            broadcastRouting.invalidate();
+        }
+    }
+
+    @Override
+    public void updateEventPriorities(String streamId, Map<String, EventPriority> priorities, String owner) {
+        if (streamStore.findById(streamId).isEmpty()) {
+            throw new StreamNotFoundException(streamId);
+        }
+        for (Map.Entry<String, EventPriority> entry : priorities.entrySet()) {
+            if (!SharedSignalConstants.SUPPORTED_EVENTS.contains(entry.getKey())) {
+                throw new SsfBadRequestException("Unsupported event type: " + entry.getKey());
+            }
+            if (entry.getValue() == null) {
+                throw new SsfBadRequestException("Priority is required for event type: " + entry.getKey());
+            }
+        }
+        log.info("Admin [{}] updating event priorities for stream {}: {}", owner, streamId, priorities);
+        streamStore.updateEventPriorities(streamId, priorities);
+    }
+
+    @Override
+    public void updateCoalescedEvents(String streamId, Set<String> eventTypes, String owner) {
+        if (streamStore.findById(streamId).isEmpty()) {
+            throw new StreamNotFoundException(streamId);
+        }
+        for (String eventType : eventTypes) {
+            if (!SharedSignalConstants.SUPERSEDING_EVENT_GROUPS.containsKey(eventType)) {
+                throw new SsfBadRequestException("Event type cannot be coalesced: " + eventType);
+            }
+        }
+        log.info("Admin [{}] updating coalesced events for stream {}: {}", owner, streamId, eventTypes);
+        streamStore.updateCoalescedEvents(streamId, eventTypes);
     }
 }
@@ -5,6 +5,7 @@ import com.nevzatcirak.sharedsignals.api.exception.StreamNotFoundException;
 import com.nevzatcirak.sharedsignals.api.model.*;
 import com.nevzatcirak.sharedsignals.api.service.SubjectManagementService;
 import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.core.routing.GracePeriodIndex;
 import com.nevzatcirak.sharedsignals.core.validation.SubjectValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,9 +29,15 @@ public class DefaultSubjectManagementService implements SubjectManagementService
 
     private static final Logger log = LoggerFactory.getLogger(DefaultSubjectManagementService.class);
     private final StreamStore streamStore;
+    private final GracePeriodIndex gracePeriodIndex;
 
     public DefaultSubjectManagementService(StreamStore streamStore) {
+        this(streamStore, null);
+    }
+
+    public DefaultSubjectManagementService(StreamStore streamStore, GracePeriodIndex gracePeriodIndex) {
         this.streamStore = streamStore;
+        this.gracePeriodIndex = gracePeriodIndex;
     }
 
     /**
@@ -71,6 +78,9 @@ public class DefaultSubjectManagementService implements SubjectManagementService
         validateOwner(command.getStreamId(), owner);
         SubjectValidator.validate(command.getSubject());
         streamStore.removeSubject(command.getStreamId(), command.getSubject());
+        if (gracePeriodIndex != null) {
+            gracePeriodIndex.invalidate();
+        }
     }
 
     /**
@@ -0,0 +1,144 @@
+package com.nevzatcirak.sharedsignals.core.service.impl;
+
+import com.nevzatcirak.sharedsignals.api.exception.IngestionInProgressException;
+import com.nevzatcirak.sharedsignals.api.model.GenericSecurityEvent;
+import com.nevzatcirak.sharedsignals.api.service.EventIngestionService;
+import com.nevzatcirak.sharedsignals.api.spi.IdempotencyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorator that makes {@link EventIngestionService#ingest} idempotent for producer retries.
+ * <p>
+ * Events carrying a producer id and/or txn ({@link GenericSecurityEvent#getIdempotencyKey()})
+ * are claimed in the {@link IdempotencyStore} before fan-out. A duplicate is answered with the
+ * recorded fan-out count instead of being signed and queued again. Concurrent duplicates on
+ * the same node share the in-flight result; a duplicate of an event still being fanned out on
+ * another node fails with {@link IngestionInProgressException}, so the producer retries later.
+ * <p>
+ * If the store is unavailable the event is ingested anyway: a possible duplicate is preferred
+ * over a lost security event.
+ */
+public class IdempotentEventIngestionService implements EventIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentEventIngestionService.class);
+
+    private final EventIngestionService delegate;
+    private final IdempotencyStore store;
+    private final Duration keyTtl;
+    private final Duration claimLease;
+    private final ConcurrentMap<String, CompletableFuture<Integer>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public IdempotentEventIngestionService(EventIngestionService delegate, IdempotencyStore store,
+                                           Duration keyTtl, Duration claimLease) {
+        this.delegate = delegate;
+        this.store = store;
+        this.keyTtl = keyTtl;
+        this.claimLease = claimLease;
+    }
+
+    @Override
+    public CompletableFuture<Integer> ingest(GenericSecurityEvent event) {
+        String key = event.getIdempotencyKey();
+        if (key == null) {
+            return delegate.ingest(event);
+        }
+
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        CompletableFuture<Integer> existing = inFlight.putIfAbsent(key, result);
+        if (existing != null) {
+            hits.increment();
+            log.debug("Duplicate ingestion joined in-flight event: {}", key);
+            return existing;
+        }
+
+        try {
+            if (!claim(key)) {
+                hits.increment();
+                Optional<Integer> outcome = store.findOutcome(key);
+                inFlight.remove(key, result);
+                if (outcome.isEmpty()) {
+                    // Claimed on another node and not completed yet: its fan-out count is unknown
+                    log.debug("Duplicate ingestion still in progress elsewhere: {}", key);
+                    result.completeExceptionally(new IngestionInProgressException());
+                    return result;
+                }
+                log.debug("Duplicate ingestion answered from recorded outcome: key={}, count={}", key, outcome.get());
+                result.complete(outcome.get());
+                return result;
+            }
+        } catch (RuntimeException e) {
+            inFlight.remove(key, result);
+            throw e;
+        }
+
+        misses.increment();
+        CompletableFuture<Integer> fanOut;
+        try {
+            fanOut = delegate.ingest(event);
+        } catch (RuntimeException e) {
+            // Rejected before fan-out began (e.g. invalid event): the key is free for a retry
+            try {
+                store.release(key);
+            } catch (Exception releaseError) {
+                log.warn("Failed to release ingestion key {}: {}", key, releaseError.getMessage());
+            } finally {
+                inFlight.remove(key, result);
+            }
+            result.completeExceptionally(e);
+            throw e;
+        }
+        fanOut.whenComplete((count, error) -> {
+            try {
+                if (error == null) {
+                    store.complete(key, count, Instant.now().plus(keyTtl));
+                } else {
+                    store.release(key);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to record ingestion outcome for {}: {}", key, e.getMessage());
+            } finally {
+                inFlight.remove(key, result);
+            }
+            if (error == null) {
+                result.complete(count);
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    private boolean claim(String key) {
+        try {
+            return store.tryClaim(key, Instant.now().plus(claimLease));
+        } catch (Exception e) {
+            log.warn("Idempotency store unavailable, ingesting without deduplication: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * @return number of ingestions answered as duplicates
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of keyed ingestions that were fanned out
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
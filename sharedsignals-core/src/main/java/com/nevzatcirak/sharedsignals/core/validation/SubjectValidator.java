@@ -19,23 +19,48 @@ public class SubjectValidator {
     private static final Pattern FORMAT_NAME_PATTERN = Pattern.compile("^[a-z0-9_-]{1,20}$");
 
     // SECURITY: Limit recursion depth to prevent StackOverflow/DoS attacks
-    private static final int MAX_DEPTH = 5;
+    public static final int MAX_DEPTH = 5;
 
     public static void validate(Map<String, Object> subject) {
         validate(subject, 0);
     }
 
+    @SuppressWarnings("unchecked")
     private static void validate(Map<String, Object> subject, int depth) {
         if (depth > MAX_DEPTH) {
             throw new SsfBadRequestException("Subject nesting too deep (Max " + MAX_DEPTH + "). Possible DoS attempt.");
         }
 
+        validateObject(subject);
+
+        Object format = subject.get("format");
+        if (SharedSignalConstants.FORMAT_ALIASES.equals(format)) {
+            for (Object item : (List<Object>) subject.get("identifiers")) {
+                validate((Map<String, Object>) item, depth + 1);
+            }
+        } else if (SharedSignalConstants.FORMAT_COMPLEX.equals(format)) {
+            for (Map.Entry<String, Object> entry : subject.entrySet()) {
+                if (!"format".equals(entry.getKey())) {
+                    validate((Map<String, Object>) entry.getValue(), depth + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates a single subject object without descending into its nested identifiers.
+     * <p>
+     * For 'aliases' and 'complex' subjects only the shape of the members is checked. Callers that
+     * build subjects bottom-up (such as a streaming parser) call this as each object is completed,
+     * after its nested identifiers were checked the same way.
+     * </p>
+     */
+    public static void validateObject(Map<String, Object> subject) {
         if (subject == null || subject.isEmpty()) {
             throw new SsfBadRequestException("Subject cannot be empty.");
         }
 
-        String format = (String) subject.get("format");
-        if (format == null || format.isBlank()) {
+        if (!(subject.get("format") instanceof String format) || format.isBlank()) {
             throw new SsfBadRequestException("Subject must contain a 'format' field.");
         }
 
@@ -80,10 +105,10 @@ public class SubjectValidator {
 
             // --- NESTED TYPES ---
             case SharedSignalConstants.FORMAT_ALIASES:
-                validateAliases(subject, depth);
+                validateAliases(subject);
                 break;
             case SharedSignalConstants.FORMAT_COMPLEX:
-                validateComplex(subject, depth);
+                validateComplex(subject);
                 break;
             default:
                 // Allow proprietary formats but ensure basic structure
@@ -105,8 +130,7 @@ public class SubjectValidator {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static void validateAliases(Map<String, Object> subject, int depth) {
+    private static void validateAliases(Map<String, Object> subject) {
         if (!subject.containsKey("identifiers")) {
             throw new SsfBadRequestException("Subject format 'aliases' requires an 'identifiers' field.");
         }
@@ -114,22 +138,19 @@ public class SubjectValidator {
         if (!(listObj instanceof List)) {
             throw new SsfBadRequestException("Field 'identifiers' must be a List.");
         }
-        List<Object> list = (List<Object>) listObj;
+        List<?> list = (List<?>) listObj;
         if (list.isEmpty()) {
             throw new SsfBadRequestException("Aliases 'identifiers' list cannot be empty.");
         }
 
         for (Object item : list) {
-            if (item instanceof Map) {
-                validate((Map<String, Object>) item, depth + 1);
-            } else {
+            if (!(item instanceof Map)) {
                 throw new SsfBadRequestException("Items in 'identifiers' must be JSON Objects.");
             }
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static void validateComplex(Map<String, Object> subject, int depth) {
+    private static void validateComplex(Map<String, Object> subject) {
         if (subject.size() < 2) {
             throw new SsfBadRequestException("Complex subject must contain at least one member.");
         }
@@ -137,12 +158,10 @@ public class SubjectValidator {
         for (Map.Entry<String, Object> entry : subject.entrySet()) {
             if ("format".equals(entry.getKey())) continue;
             Object value = entry.getValue();
-            if (value instanceof Map) {
-                Map<String, Object> memberSubject = (Map<String, Object>) value;
+            if (value instanceof Map<?, ?> memberSubject) {
                 if (SharedSignalConstants.FORMAT_COMPLEX.equals(memberSubject.get("format"))) {
                     throw new SsfBadRequestException("Nested 'complex' subjects are not allowed within a complex subject.");
                 }
-                validate(memberSubject, depth + 1);
             } else {
                 throw new SsfBadRequestException(
                     "Field '" + entry.getKey() + "' in 'complex' format must be a Subject Identifier Object."
@@ -0,0 +1,77 @@
+package com.nevzatcirak.sharedsignals.boot;
+
+import com.nevzatcirak.sharedsignals.adapter.caffeine.service.CaffeineStreamStore;
+import com.nevzatcirak.sharedsignals.api.enums.EventPriority;
+import com.nevzatcirak.sharedsignals.api.model.DeliveryOptions;
+import com.nevzatcirak.sharedsignals.api.model.PushMessage;
+import com.nevzatcirak.sharedsignals.api.service.PushQueueService;
+import com.nevzatcirak.sharedsignals.api.spi.EventSender;
+import com.nevzatcirak.sharedsignals.api.spi.PushQueueStore;
+import com.nevzatcirak.sharedsignals.api.spi.StreamStore;
+import com.nevzatcirak.sharedsignals.boot.config.PersistenceStores;
+import com.nevzatcirak.sharedsignals.boot.config.TestSecurityConfig;
+import com.nevzatcirak.sharedsignals.persistence.jdbc.adapter.JdbcPushQueueAdapter;
+import com.nevzatcirak.sharedsignals.persistence.jdbc.adapter.JdbcStreamStoreAdapter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The JDBC plugin's stores are the ones in use, so that the tests of sharedsignals-boot run in
+ * this module exercise them and not the JPA stores they replace.
+ */
+@SpringBootTest(properties = "sharedsignals.features.push-delivery=false")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class JdbcStoresInUseTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Autowired
+    private StreamStore streamStore;
+
+    @Autowired
+    private PushQueueStore pushQueueStore;
+
+    @Autowired
+    private EventSender eventSender;
+
+    @Autowired
+    private PushQueueService pushQueueService;
+
+    @Test
+    void streamStoreIsTheJdbcStoreBehindTheCache() {
+        assertThat(streamStore).isInstanceOf(CaffeineStreamStore.class);
+        assertThat(PersistenceStores.streamStore(beanFactory)).isInstanceOf(JdbcStreamStoreAdapter.class);
+    }
+
+    @Test
+    void pushQueueIsTheJdbcQueue() {
+        assertThat(pushQueueStore).isInstanceOf(JdbcPushQueueAdapter.class);
+        assertThat(eventSender).isInstanceOf(JdbcPushQueueAdapter.class);
+    }
+
+    @Test
+    void deliveryRoundsClaimTheirBatchInOneStatement() {
+        String partition = "claim-" + UUID.randomUUID();
+        pushQueueStore.enqueue(partition, "https://receiver.example.com/events", "token-1", null, new DeliveryOptions(EventPriority.NORMAL, partition, null));
+        pushQueueStore.enqueue(partition, "https://receiver.example.com/events", "token-2", null, new DeliveryOptions(EventPriority.NORMAL, partition, null));
+
+        List<PushMessage> claimed = pushQueueService.claimReadyMessages(100).orElseThrow();
+
+        // Only the partition head is claimed; the next message waits for it
+        assertThat(claimed).filteredOn(message -> partition.equals(message.getPartitionKey()))
+                .extracting(PushMessage::getSignedToken).containsExactly("token-1");
+        assertThat(claimed).allMatch(message -> "IN_PROGRESS".equals(message.getStatus()));
+        assertThat(pushQueueStore.claimNextInPartition(partition)).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+package com.nevzatcirak.sharedsignals.persistence.jdbc.adapter;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The push queue's claim statements exist for H2 and PostgreSQL only; any other database is
+ * rejected when the adapter starts, not on the first delivery round.
+ */
+class JdbcPushQueueAdapterDatabaseTest {
+
+    private static JdbcPushQueueAdapter adapter(DataSource dataSource) {
+        return new JdbcPushQueueAdapter(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource), 30, 300, 300);
+    }
+
+    /** A data source whose connections only report the given product name. */
+    private static DataSource reporting(String productName) {
+        DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(JdbcPushQueueAdapterDatabaseTest.class.getClassLoader(),
+                new Class<?>[]{DatabaseMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getDatabaseProductName" -> productName;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        Connection connection = (Connection) Proxy.newProxyInstance(JdbcPushQueueAdapterDatabaseTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getMetaData" -> metaData;
+                    case "close" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (DataSource) Proxy.newProxyInstance(JdbcPushQueueAdapterDatabaseTest.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getConnection" -> connection;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    void otherDatabasesAreRejectedAtStartup() {
+        for (String product : new String[]{"MySQL", "Microsoft SQL Server", "Oracle"}) {
+            JdbcPushQueueAdapter adapter = adapter(reporting(product));
+
+            assertThatThrownBy(adapter::checkDatabase)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(product);
+            assertThatThrownBy(() -> adapter.claimReadyMessages(10)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void h2AndPostgresqlAreAccepted() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:claim-statements");
+        assertThatCode(() -> adapter(h2).checkDatabase()).doesNotThrowAnyException();
+        assertThatCode(() -> adapter(reporting("PostgreSQL")).checkDatabase()).doesNotThrowAnyException();
+    }
+}